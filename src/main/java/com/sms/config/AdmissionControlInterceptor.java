@@ -0,0 +1,55 @@
+package com.sms.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sms.dto.response.AdmissionTicketResponse;
+import com.sms.service.AdmissionControlService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Đặt phòng chờ trước các endpoint đăng ký lớp.
+ * Yêu cầu vượt quá sức chứa nhận mã 429 kèm vé và vị trí trong hàng đợi.
+ */
+@Component
+public class AdmissionControlInterceptor implements HandlerInterceptor {
+    
+    private static final String ADMITTED_SEMESTER_ATTRIBUTE = AdmissionControlInterceptor.class.getName() + ".semesterId";
+    
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    
+    @Autowired
+    private AdmissionControlService admissionControlService;
+    
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
+        AdmissionTicketResponse admission = admissionControlService.tryAdmit(
+                request.getHeader(AdmissionControlService.TICKET_HEADER));
+        
+        if ("ADMITTED".equals(admission.getStatus())) {
+            request.setAttribute(ADMITTED_SEMESTER_ATTRIBUTE, admission.getSemesterId());
+            return true;
+        }
+        
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(admission.getRetryAfterSeconds()));
+        response.setHeader(AdmissionControlService.TICKET_HEADER, admission.getTicketId());
+        objectMapper.writeValue(response.getOutputStream(), admission);
+        return false;
+    }
+    
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        Object semesterId = request.getAttribute(ADMITTED_SEMESTER_ATTRIBUTE);
+        if (semesterId != null) {
+            request.removeAttribute(ADMITTED_SEMESTER_ATTRIBUTE);
+            admissionControlService.release((Long) semesterId);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.sms.config;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+public class WebMvcConfig implements WebMvcConfigurer {
+    
+    @Autowired
+    private AdmissionControlInterceptor admissionControlInterceptor;
+    
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        // Phòng chờ cho các endpoint chịu tải lớn khi mở đăng ký
+        registry.addInterceptor(admissionControlInterceptor)
+                .addPathPatterns(
+                        "/api/student/register-class",
+                        "/api/student/register-classes",
+                        "/api/student/*/classes/available",
+                        "/api/student/*/classes/catalog");
+    }
+}
@@ -2,20 +2,40 @@ package com.sms.controller;
 
 import com.sms.dto.request.ClassRequest;
 import com.sms.dto.response.ApiResponse;
+import com.sms.dto.response.AtRiskScanResponse;
+import com.sms.dto.response.AtRiskStudentListResponse;
+import com.sms.dto.response.AttendanceRateResponse;
 import com.sms.dto.response.ClassListResponse;
 import com.sms.dto.response.ClassResponse;
+import com.sms.dto.response.ClassRosterPageResponse;
+import com.sms.dto.response.GradeRecomputeResponse;
+import com.sms.dto.response.GradeStatisticsResponse;
+import com.sms.dto.response.ImportJobResponse;
+import com.sms.service.AtRiskScanService;
+import com.sms.service.AttendanceAnalyticsService;
+import com.sms.service.AttendanceExportService;
+import com.sms.service.AttendanceSummaryService;
 import com.sms.service.ClassService;
+import com.sms.service.GradeRecomputeService;
+import com.sms.service.GradeStatisticsService;
+import com.sms.service.ImportJobService;
+import com.sms.service.SeatReservationService;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
+import java.time.LocalDate;
 import java.util.List;
 
 @RestController
@@ -26,6 +46,30 @@ public class ClassController {
     @Autowired
     private ClassService classService;
     
+    @Autowired
+    private SeatReservationService seatReservationService;
+    
+    @Autowired
+    private ImportJobService importJobService;
+    
+    @Autowired
+    private AttendanceSummaryService attendanceSummaryService;
+    
+    @Autowired
+    private AttendanceAnalyticsService attendanceAnalyticsService;
+    
+    @Autowired
+    private AtRiskScanService atRiskScanService;
+    
+    @Autowired
+    private AttendanceExportService attendanceExportService;
+    
+    @Autowired
+    private GradeStatisticsService gradeStatisticsService;
+    
+    @Autowired
+    private GradeRecomputeService gradeRecomputeService;
+    
     /**
      * Tạo lớp học mới
      */
@@ -79,9 +123,11 @@ public class ClassController {
      */
     @GetMapping("/{classId}")
     @PreAuthorize("hasRole('ADMIN') or hasRole('TEACHER')")
-    public ResponseEntity<ApiResponse<ClassResponse>> getClassById(@PathVariable Long classId) {
+    public ResponseEntity<ApiResponse<ClassResponse>> getClassById(
+            @PathVariable Long classId,
+            @RequestParam(defaultValue = "summary") String view) {
         try {
-            ClassResponse classResponse = classService.getClassById(classId);
+            ClassResponse classResponse = classService.getClassById(classId, isDetailView(view));
             return ResponseEntity.ok(ApiResponse.success("Lấy thông tin lớp học thành công", classResponse));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
@@ -94,9 +140,11 @@ public class ClassController {
      */
     @GetMapping("/code/{classCode}")
     @PreAuthorize("hasRole('ADMIN') or hasRole('TEACHER')")
-    public ResponseEntity<ApiResponse<ClassResponse>> getClassByCode(@PathVariable String classCode) {
+    public ResponseEntity<ApiResponse<ClassResponse>> getClassByCode(
+            @PathVariable String classCode,
+            @RequestParam(defaultValue = "summary") String view) {
         try {
-            ClassResponse classResponse = classService.getClassByCode(classCode);
+            ClassResponse classResponse = classService.getClassByCode(classCode, isDetailView(view));
             return ResponseEntity.ok(ApiResponse.success("Lấy thông tin lớp học thành công", classResponse));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
@@ -114,13 +162,14 @@ public class ClassController {
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(defaultValue = "id") String sortBy,
             @RequestParam(defaultValue = "asc") String sortDir,
-            @RequestParam(required = false) String keyword) {
+            @RequestParam(required = false) String keyword,
+            @RequestParam(defaultValue = "summary") String view) {
         try {
             Sort sort = sortDir.equalsIgnoreCase("desc") ? 
                 Sort.by(sortBy).descending() : Sort.by(sortBy).ascending();
             Pageable pageable = PageRequest.of(page, size, sort);
             
-            ClassListResponse classListResponse = classService.searchClasses(pageable, keyword);
+            ClassListResponse classListResponse = classService.searchClasses(pageable, keyword, isDetailView(view));
             return ResponseEntity.ok(ApiResponse.success("Lấy danh sách lớp học thành công", classListResponse));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST)
@@ -133,9 +182,11 @@ public class ClassController {
      */
     @GetMapping("/subject/{subjectId}")
     @PreAuthorize("hasRole('ADMIN') or hasRole('TEACHER')")
-    public ResponseEntity<ApiResponse<List<ClassResponse>>> getClassesBySubject(@PathVariable Long subjectId) {
+    public ResponseEntity<ApiResponse<List<ClassResponse>>> getClassesBySubject(
+            @PathVariable Long subjectId,
+            @RequestParam(defaultValue = "summary") String view) {
         try {
-            List<ClassResponse> classes = classService.getClassesBySubject(subjectId);
+            List<ClassResponse> classes = classService.getClassesBySubject(subjectId, isDetailView(view));
             return ResponseEntity.ok(ApiResponse.success("Lấy danh sách lớp học theo môn học thành công", classes));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST)
@@ -148,9 +199,11 @@ public class ClassController {
      */
     @GetMapping("/semester/{semesterId}")
     @PreAuthorize("hasRole('ADMIN') or hasRole('TEACHER')")
-    public ResponseEntity<ApiResponse<List<ClassResponse>>> getClassesBySemester(@PathVariable Long semesterId) {
+    public ResponseEntity<ApiResponse<List<ClassResponse>>> getClassesBySemester(
+            @PathVariable Long semesterId,
+            @RequestParam(defaultValue = "summary") String view) {
         try {
-            List<ClassResponse> classes = classService.getClassesBySemester(semesterId);
+            List<ClassResponse> classes = classService.getClassesBySemester(semesterId, isDetailView(view));
             return ResponseEntity.ok(ApiResponse.success("Lấy danh sách lớp học theo học kỳ thành công", classes));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST)
@@ -158,14 +211,141 @@ public class ClassController {
         }
     }
     
+    /**
+     * Lấy các sinh viên có tỷ lệ vắng vượt ngưỡng (0..1) ở bất kỳ lớp nào trong học kỳ
+     */
+    @GetMapping("/semester/{semesterId}/attendance/absentees")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<List<AttendanceRateResponse>>> getAbsentees(
+            @PathVariable Long semesterId,
+            @RequestParam(defaultValue = "0.2") double threshold) {
+        try {
+            List<AttendanceRateResponse> absentees = attendanceAnalyticsService.findAbsentAbove(semesterId, threshold);
+            return ResponseEntity.ok(ApiResponse.success("Lấy danh sách sinh viên vắng vượt ngưỡng thành công", absentees));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(ApiResponse.error(e.getMessage()));
+        }
+    }
+    
+    /**
+     * Thống kê điểm tổng kết của tất cả lớp trong học kỳ
+     */
+    @GetMapping("/semester/{semesterId}/grades/statistics")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<GradeStatisticsResponse>> getSemesterGradeStatistics(@PathVariable Long semesterId) {
+        try {
+            GradeStatisticsResponse statistics = gradeStatisticsService.getSemesterStatistics(semesterId);
+            return ResponseEntity.ok(ApiResponse.success("Lấy thống kê điểm theo học kỳ thành công", statistics));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(ApiResponse.error(e.getMessage()));
+        }
+    }
+    
+    /**
+     * Tính lại điểm tổng kết của tất cả điểm trong học kỳ theo công thức hiện tại của từng môn học
+     */
+    @PostMapping("/semester/{semesterId}/grades/recompute")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<GradeRecomputeResponse>> recomputeSemesterGrades(@PathVariable Long semesterId) {
+        try {
+            GradeRecomputeResponse result = gradeRecomputeService.recomputeSemester(semesterId);
+            return ResponseEntity.ok(ApiResponse.success("Tính lại điểm tổng kết thành công", result));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(ApiResponse.error(e.getMessage()));
+        }
+    }
+    
+    /**
+     * Thống kê điểm tổng kết của các lớp thuộc một môn học, có thể giới hạn trong một học kỳ
+     */
+    @GetMapping("/subject/{subjectId}/grades/statistics")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<GradeStatisticsResponse>> getSubjectGradeStatistics(
+            @PathVariable Long subjectId,
+            @RequestParam(required = false) Long semesterId) {
+        try {
+            GradeStatisticsResponse statistics = gradeStatisticsService.getSubjectStatistics(subjectId, semesterId);
+            return ResponseEntity.ok(ApiResponse.success("Lấy thống kê điểm theo môn học thành công", statistics));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(ApiResponse.error(e.getMessage()));
+        }
+    }
+    
+    /**
+     * Xuất toàn bộ điểm danh của học kỳ ra CSV hoặc XLSX, có thể lọc theo khoa của giáo viên phụ trách lớp
+     */
+    @GetMapping("/semester/{semesterId}/attendance/export")
+    @PreAuthorize("hasRole('ADMIN')")
+    public void exportAttendance(
+            @PathVariable Long semesterId,
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(required = false) String department,
+            HttpServletResponse response) throws IOException {
+        // Lỗi kiểm tra xảy ra trước khi ghi response nên vẫn trả về ApiResponse qua GlobalExceptionHandler
+        String fileName = attendanceExportService.prepareExport(semesterId, format);
+        response.setContentType(fileName.endsWith(".xlsx")
+                ? "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"
+                : "text/csv; charset=UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"");
+        attendanceExportService.exportSemester(semesterId, department, format, response.getOutputStream());
+    }
+    
+    /**
+     * Chạy ngay lượt quét sinh viên có nguy cơ; không truyền semesterId thì quét học kỳ hiện tại
+     */
+    @PostMapping("/attendance/at-risk/scan")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<AtRiskScanResponse>> scanAtRiskStudents(
+            @RequestParam(required = false) Long semesterId) {
+        try {
+            AtRiskScanResponse result = semesterId != null
+                    ? atRiskScanService.scanSemester(semesterId)
+                    : atRiskScanService.scanCurrentSemester();
+            if (result == null) {
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ApiResponse.error("Hôm nay không thuộc học kỳ nào"));
+            }
+            return ResponseEntity.ok(ApiResponse.success("Quét sinh viên có nguy cơ thành công", result));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(ApiResponse.error(e.getMessage()));
+        }
+    }
+    
+    /**
+     * Lấy danh sách sinh viên có nguy cơ theo trang; không truyền date thì lấy lần quét gần nhất
+     */
+    @GetMapping("/semester/{semesterId}/attendance/at-risk")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<AtRiskStudentListResponse>> getAtRiskStudents(
+            @PathVariable Long semesterId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        try {
+            AtRiskStudentListResponse students =
+                    atRiskScanService.getAtRiskStudents(semesterId, date, PageRequest.of(page, size));
+            return ResponseEntity.ok(ApiResponse.success("Lấy danh sách sinh viên có nguy cơ thành công", students));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(ApiResponse.error(e.getMessage()));
+        }
+    }
+    
     /**
      * Lấy danh sách lớp học theo giáo viên
      */
     @GetMapping("/teacher/{teacherId}")
     @PreAuthorize("hasRole('ADMIN') or hasRole('TEACHER')")
-    public ResponseEntity<ApiResponse<List<ClassResponse>>> getClassesByTeacher(@PathVariable Long teacherId) {
+    public ResponseEntity<ApiResponse<List<ClassResponse>>> getClassesByTeacher(
+            @PathVariable Long teacherId,
+            @RequestParam(defaultValue = "summary") String view) {
         try {
-            List<ClassResponse> classes = classService.getClassesByTeacher(teacherId);
+            List<ClassResponse> classes = classService.getClassesByTeacher(teacherId, isDetailView(view));
             return ResponseEntity.ok(ApiResponse.success("Lấy danh sách lớp học theo giáo viên thành công", classes));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST)
@@ -180,9 +360,10 @@ public class ClassController {
     @PreAuthorize("hasRole('ADMIN') or hasRole('TEACHER')")
     public ResponseEntity<ApiResponse<List<ClassResponse>>> getClassesBySubjectAndSemester(
             @PathVariable Long subjectId,
-            @PathVariable Long semesterId) {
+            @PathVariable Long semesterId,
+            @RequestParam(defaultValue = "summary") String view) {
         try {
-            List<ClassResponse> classes = classService.getClassesBySubjectAndSemester(subjectId, semesterId);
+            List<ClassResponse> classes = classService.getClassesBySubjectAndSemester(subjectId, semesterId, isDetailView(view));
             return ResponseEntity.ok(ApiResponse.success("Lấy danh sách lớp học theo môn học và học kỳ thành công", classes));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST)
@@ -197,9 +378,10 @@ public class ClassController {
     @PreAuthorize("hasRole('ADMIN') or hasRole('TEACHER')")
     public ResponseEntity<ApiResponse<List<ClassResponse>>> getClassesByTeacherAndSemester(
             @PathVariable Long teacherId,
-            @PathVariable Long semesterId) {
+            @PathVariable Long semesterId,
+            @RequestParam(defaultValue = "summary") String view) {
         try {
-            List<ClassResponse> classes = classService.getClassesByTeacherAndSemester(teacherId, semesterId);
+            List<ClassResponse> classes = classService.getClassesByTeacherAndSemester(teacherId, semesterId, isDetailView(view));
             return ResponseEntity.ok(ApiResponse.success("Lấy danh sách lớp học theo giáo viên và học kỳ thành công", classes));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST)
@@ -255,19 +437,107 @@ public class ClassController {
     }
     
     /**
-     * Import sinh viên vào lớp học từ file Excel
+     * Đồng bộ lại bộ đếm chỗ của tất cả lớp học
+     */
+    @PostMapping("/seats/reconcile")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<Integer>> reconcileSeats() {
+        try {
+            int synced = seatReservationService.reconcileAll();
+            return ResponseEntity.ok(ApiResponse.success("Đồng bộ số chỗ thành công", synced));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(ApiResponse.error(e.getMessage()));
+        }
+    }
+    
+    /**
+     * Đồng bộ lại bộ đếm chỗ của một lớp học
+     */
+    @PostMapping("/{classId}/seats/reconcile")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<Integer>> reconcileClassSeats(@PathVariable Long classId) {
+        try {
+            seatReservationService.reconcile(classId);
+            int availableSeats = seatReservationService.getAvailableSeats(classId);
+            return ResponseEntity.ok(ApiResponse.success("Đồng bộ số chỗ thành công", availableSeats));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(ApiResponse.error(e.getMessage()));
+        }
+    }
+    
+    /**
+     * Dựng lại bảng tổng hợp điểm danh của tất cả lớp học từ dữ liệu điểm danh
+     */
+    @PostMapping("/attendance-summaries/rebuild")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<Integer>> rebuildAttendanceSummaries() {
+        try {
+            int rows = attendanceSummaryService.rebuildAll();
+            return ResponseEntity.ok(ApiResponse.success("Dựng lại tổng hợp điểm danh thành công", rows));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(ApiResponse.error(e.getMessage()));
+        }
+    }
+    
+    /**
+     * Dựng lại bảng tổng hợp điểm danh của một lớp học
+     */
+    @PostMapping("/{classId}/attendance-summaries/rebuild")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<Integer>> rebuildClassAttendanceSummaries(@PathVariable Long classId) {
+        try {
+            int rows = attendanceSummaryService.rebuild(classId);
+            return ResponseEntity.ok(ApiResponse.success("Dựng lại tổng hợp điểm danh thành công", rows));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(ApiResponse.error(e.getMessage()));
+        }
+    }
+    
+    /**
+     * Lấy danh sách sinh viên trong lớp theo trang; truyền nextCursor của trang trước để lấy trang tiếp theo
+     */
+    @GetMapping("/{classId}/roster")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('TEACHER')")
+    public ResponseEntity<ApiResponse<ClassRosterPageResponse>> getClassRosterPage(
+            @PathVariable Long classId,
+            @RequestParam(defaultValue = "code") String sort,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size) {
+        try {
+            ClassRosterPageResponse roster = classService.getClassRosterPage(classId, sort, cursor, size);
+            return ResponseEntity.ok(ApiResponse.success("Lấy danh sách sinh viên trong lớp thành công", roster));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(ApiResponse.error(e.getMessage()));
+        }
+    }
+    
+    /**
+     * Import sinh viên vào lớp học từ file Excel, xử lý nền và trả về mã job để theo dõi tiến độ
      */
     @PostMapping("/{classId}/import-students")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<ApiResponse<Void>> importStudentsFromFile(
+    public ResponseEntity<ApiResponse<ImportJobResponse>> importStudentsFromFile(
             @PathVariable Long classId,
             @RequestParam("file") MultipartFile file) {
         try {
-            classService.importStudentsFromFile(classId, file);
-            return ResponseEntity.ok(ApiResponse.success("Import danh sách sinh viên thành công", null));
+            ImportJobResponse job = importJobService.submit(ImportJobService.CLASS_ROSTER, classId, file);
+            return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(ApiResponse.success("Đã tiếp nhận file import, đang xử lý", job));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST)
                 .body(ApiResponse.error(e.getMessage()));
         }
     }
+    
+    /**
+     * view=detail trả kèm danh sách sinh viên của từng lớp, mặc định chỉ trả thông tin chung
+     */
+    private boolean isDetailView(String view) {
+        return "detail".equalsIgnoreCase(view);
+    }
 }
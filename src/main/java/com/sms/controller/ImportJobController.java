@@ -0,0 +1,49 @@
+package com.sms.controller;
+
+import com.sms.dto.response.ApiResponse;
+import com.sms.dto.response.ImportJobResponse;
+import com.sms.service.ImportJobService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/admin/import-jobs")
+@CrossOrigin(origins = "*")
+public class ImportJobController {
+    
+    @Autowired
+    private ImportJobService importJobService;
+    
+    /**
+     * Lấy trạng thái và tiến độ của job import
+     */
+    @GetMapping("/{jobId}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<ImportJobResponse>> getJob(@PathVariable String jobId) {
+        try {
+            ImportJobResponse job = importJobService.getJob(jobId);
+            return ResponseEntity.ok(ApiResponse.success("Lấy trạng thái job import thành công", job));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                .body(ApiResponse.error(e.getMessage()));
+        }
+    }
+    
+    /**
+     * Tải kết quả chi tiết của job import đã hoàn tất
+     */
+    @GetMapping("/{jobId}/result")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<Object>> getJobResult(@PathVariable String jobId) {
+        try {
+            Object result = importJobService.getJobResult(jobId);
+            return ResponseEntity.ok(ApiResponse.success("Lấy kết quả job import thành công", result));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(ApiResponse.error(e.getMessage()));
+        }
+    }
+}
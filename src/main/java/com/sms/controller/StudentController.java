@@ -2,9 +2,16 @@ package com.sms.controller;
 
 import com.sms.dto.request.*;
 import com.sms.dto.response.ApiResponse;
+import com.sms.dto.response.RankRebuildResponse;
+import com.sms.dto.response.RankingListResponse;
 import com.sms.dto.response.StudentListResponse;
 import com.sms.dto.response.StudentResponse;
+import com.sms.dto.response.TranscriptRebuildResponse;
+import com.sms.service.RankingService;
 import com.sms.service.StudentService;
+import com.sms.service.TranscriptPdfService;
+import com.sms.service.TranscriptService;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.PageRequest;
@@ -17,6 +24,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
 import java.util.List;
 
 @RestController
@@ -27,6 +35,15 @@ public class StudentController {
     @Autowired
     private StudentService studentService;
     
+    @Autowired
+    private TranscriptService transcriptService;
+    
+    @Autowired
+    private RankingService rankingService;
+    
+    @Autowired
+    private TranscriptPdfService transcriptPdfService;
+    
     /**
      * Tạo sinh viên mới
      */
@@ -285,4 +302,69 @@ public class StudentController {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
+    
+    /**
+     * Dựng lại bảng điểm tích lũy (GPA, tín chỉ) của tất cả sinh viên từ bảng điểm
+     */
+    @PostMapping("/transcripts/rebuild")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<TranscriptRebuildResponse>> rebuildTranscripts() {
+        try {
+            TranscriptRebuildResponse result = transcriptService.rebuildAll();
+            return ResponseEntity.ok(ApiResponse.success("Dựng lại bảng điểm tích lũy thành công", result));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(ApiResponse.error(e.getMessage()));
+        }
+    }
+    
+    /**
+     * Bảng xếp hạng GPA của khóa (ngành và năm nhập học)
+     */
+    @GetMapping("/cohorts/ranks")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<RankingListResponse>> getCohortRanking(
+            @RequestParam String major,
+            @RequestParam Integer courseYear,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        try {
+            RankingListResponse ranking = rankingService.getCohortRanking(major, courseYear, PageRequest.of(page, size));
+            return ResponseEntity.ok(ApiResponse.success("Lấy bảng xếp hạng khóa thành công", ranking));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(ApiResponse.error(e.getMessage()));
+        }
+    }
+    
+    /**
+     * Dựng lại bảng xếp hạng lớp và khóa từ điểm tổng kết và bảng điểm tích lũy
+     */
+    @PostMapping("/ranks/rebuild")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<RankRebuildResponse>> rebuildRanks() {
+        try {
+            RankRebuildResponse result = rankingService.rebuildAll();
+            return ResponseEntity.ok(ApiResponse.success("Dựng lại bảng xếp hạng thành công", result));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(ApiResponse.error(e.getMessage()));
+        }
+    }
+    
+    /**
+     * Tải bảng điểm PDF của mọi sinh viên trong khóa (ngành và năm nhập học) dưới dạng một file ZIP
+     */
+    @GetMapping("/cohorts/transcripts")
+    @PreAuthorize("hasRole('ADMIN')")
+    public void exportCohortTranscripts(
+            @RequestParam String major,
+            @RequestParam Integer courseYear,
+            HttpServletResponse response) throws IOException {
+        // Lỗi kiểm tra xảy ra trước khi ghi response nên vẫn trả về ApiResponse qua GlobalExceptionHandler
+        String fileName = transcriptPdfService.prepareCohortExport(major, courseYear);
+        response.setContentType("application/zip");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"");
+        transcriptPdfService.exportCohort(major, courseYear, response.getOutputStream());
+    }
 }
@@ -5,9 +5,13 @@ import com.sms.dto.response.*;
 import com.sms.service.*;
 import com.sms.service.AttendanceService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -38,6 +42,24 @@ public class StudentFeaturesController {
     @Autowired
     private AttendanceService attendanceService;
     
+    @Autowired
+    private AttendanceAnalyticsService attendanceAnalyticsService;
+    
+    @Autowired
+    private WaitlistService waitlistService;
+    
+    @Autowired
+    private AdmissionControlService admissionControlService;
+    
+    @Autowired
+    private SeatAvailabilityStreamService seatAvailabilityStreamService;
+    
+    @Autowired
+    private RankingService rankingService;
+    
+    @Autowired
+    private TranscriptPdfService transcriptPdfService;
+    
     // ========== THÔNG TIN CÁ NHÂN ==========
     
     @GetMapping("/profile/{studentId}")
@@ -84,6 +106,22 @@ public class StudentFeaturesController {
         }
     }
     
+    @GetMapping("/{studentId}/classes/catalog")
+    public ResponseEntity<StudentClassListResponse> getClassCatalog(
+            @PathVariable Long studentId,
+            @RequestParam(required = false) Long semesterId,
+            @RequestParam(required = false) String keyword,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        try {
+            StudentClassListResponse classes = studentAcademicService.getAvailableClasses(
+                    studentId, semesterId, keyword, PageRequest.of(page, size));
+            return ResponseEntity.ok(classes);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+    
     @GetMapping("/{studentId}/classes/registered")
     public ResponseEntity<List<StudentClassResponse>> getRegisteredClasses(@PathVariable Long studentId) {
         try {
@@ -125,6 +163,16 @@ public class StudentFeaturesController {
         }
     }
     
+    @PostMapping("/register-classes")
+    public ResponseEntity<BulkRegistrationResponse> registerForClasses(@RequestBody ClassAssignmentRequest request) {
+        try {
+            BulkRegistrationResponse response = studentAcademicService.registerForClasses(request);
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+    
     @DeleteMapping("/{studentId}/unregister-class/{classId}")
     public ResponseEntity<Void> unregisterFromClass(@PathVariable Long studentId, @PathVariable Long classId) {
         try {
@@ -135,6 +183,49 @@ public class StudentFeaturesController {
         }
     }
     
+    @GetMapping("/admission/tickets/{ticketId}")
+    public ResponseEntity<AdmissionTicketResponse> getAdmissionTicket(@PathVariable String ticketId) {
+        try {
+            AdmissionTicketResponse ticket = admissionControlService.getTicketStatus(ticketId);
+            if (ticket == null) {
+                return ResponseEntity.notFound().build();
+            }
+            return ResponseEntity.ok(ticket);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+    
+    @GetMapping(value = "/semesters/{semesterId}/seats/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamSeatAvailability(@PathVariable Long semesterId) {
+        try {
+            SseEmitter emitter = seatAvailabilityStreamService.subscribe(semesterId);
+            return ResponseEntity.ok(emitter);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+    
+    @PostMapping("/join-waitlist")
+    public ResponseEntity<Integer> joinWaitlist(@RequestBody ClassRegistrationRequest request) {
+        try {
+            Integer position = waitlistService.joinWaitlist(request);
+            return ResponseEntity.ok(position);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+    
+    @DeleteMapping("/{studentId}/leave-waitlist/{classId}")
+    public ResponseEntity<Void> leaveWaitlist(@PathVariable Long studentId, @PathVariable Long classId) {
+        try {
+            waitlistService.leaveWaitlist(studentId, classId);
+            return ResponseEntity.ok().build();
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+    
     // ========== LỊCH HỌC & LỊCH THI ==========
     
     @GetMapping("/{studentId}/schedule/weekly")
@@ -223,6 +314,45 @@ public class StudentFeaturesController {
         }
     }
     
+    @GetMapping("/{studentId}/transcript/pdf")
+    public ResponseEntity<byte[]> getTranscriptPdf(@PathVariable Long studentId) {
+        try {
+            byte[] pdfData = transcriptPdfService.renderStudentTranscript(studentId);
+            
+            HttpHeaders headers = new HttpHeaders();
+            headers.setContentType(MediaType.APPLICATION_PDF);
+            headers.setContentDispositionFormData("attachment", "bang_diem.pdf");
+            
+            return ResponseEntity.ok()
+                .headers(headers)
+                .body(pdfData);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+    
+    @GetMapping("/{studentId}/ranks/classes/{classId}")
+    public ResponseEntity<RankingListResponse.StudentRankResponse> getClassRank(
+            @PathVariable Long studentId,
+            @PathVariable Long classId) {
+        try {
+            RankingListResponse.StudentRankResponse rank = rankingService.getStudentClassRank(studentId, classId);
+            return ResponseEntity.ok(rank);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+    
+    @GetMapping("/{studentId}/ranks/cohort")
+    public ResponseEntity<RankingListResponse.StudentRankResponse> getCohortRank(@PathVariable Long studentId) {
+        try {
+            RankingListResponse.StudentRankResponse rank = rankingService.getStudentCohortRank(studentId);
+            return ResponseEntity.ok(rank);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+    
     // ========== TÀI LIỆU ==========
     
     @GetMapping("/{studentId}/materials")
@@ -312,4 +442,15 @@ public class StudentFeaturesController {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
+    
+    @GetMapping("/{studentId}/attendance/rates/semester/{semesterId}")
+    public ResponseEntity<List<AttendanceRateResponse>> getAttendanceRates(
+            @PathVariable Long studentId, @PathVariable Long semesterId) {
+        try {
+            List<AttendanceRateResponse> rates = attendanceAnalyticsService.getStudentRates(studentId, semesterId);
+            return ResponseEntity.ok(rates);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
 }
@@ -5,9 +5,11 @@ import com.sms.dto.response.*;
 import com.sms.service.*;
 import com.sms.service.TeacherScheduleService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -23,6 +25,15 @@ public class TeacherFeaturesController {
     @Autowired
     private GradeService gradeService;
     
+    @Autowired
+    private GradeStatisticsService gradeStatisticsService;
+    
+    @Autowired
+    private RankingService rankingService;
+    
+    @Autowired
+    private GradeAuditService gradeAuditService;
+    
     @Autowired
     private AssignmentService assignmentService;
     
@@ -32,6 +43,12 @@ public class TeacherFeaturesController {
     @Autowired
     private AttendanceService attendanceService;
     
+    @Autowired
+    private AttendanceAnalyticsService attendanceAnalyticsService;
+    
+    @Autowired
+    private AttendanceSyncService attendanceSyncService;
+    
     @Autowired
     private SubmissionService submissionService;
     
@@ -71,6 +88,20 @@ public class TeacherFeaturesController {
         }
     }
     
+    @GetMapping("/classes/{classId}/roster")
+    public ResponseEntity<ClassRosterPageResponse> getClassRosterPage(
+            @PathVariable Long classId,
+            @RequestParam(defaultValue = "code") String sort,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size) {
+        try {
+            ClassRosterPageResponse roster = teacherClassService.getClassRosterPage(classId, sort, cursor, size);
+            return ResponseEntity.ok(roster);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+    
     // ========== QUẢN LÝ ĐIỂM ==========
     
     @PostMapping("/grades")
@@ -83,6 +114,17 @@ public class TeacherFeaturesController {
         }
     }
     
+    @PostMapping("/classes/{classId}/gradebook")
+    public ResponseEntity<GradebookResponse> saveGradebook(
+            @PathVariable Long classId, @RequestBody GradebookRequest request) {
+        try {
+            GradebookResponse gradebook = gradeService.saveGradebook(classId, request);
+            return ResponseEntity.ok(gradebook);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+    
     @GetMapping("/classes/{classId}/grades")
     public ResponseEntity<List<StudentGradeResponse>> getGradesByClass(@PathVariable Long classId) {
         try {
@@ -93,6 +135,41 @@ public class TeacherFeaturesController {
         }
     }
     
+    @PostMapping("/classes/{classId}/grades/import")
+    public ResponseEntity<GradebookImportResponse> importGradebook(
+            @PathVariable Long classId,
+            @RequestParam("file") MultipartFile file) {
+        try {
+            GradebookImportResponse result = gradeService.importGradebook(classId, file.getInputStream());
+            return ResponseEntity.ok(result);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+    
+    @GetMapping("/classes/{classId}/grades/statistics")
+    public ResponseEntity<GradeStatisticsResponse> getClassGradeStatistics(@PathVariable Long classId) {
+        try {
+            GradeStatisticsResponse statistics = gradeStatisticsService.getClassStatistics(classId);
+            return ResponseEntity.ok(statistics);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+    
+    @GetMapping("/classes/{classId}/ranks")
+    public ResponseEntity<RankingListResponse> getClassRanking(
+            @PathVariable Long classId,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        try {
+            RankingListResponse ranking = rankingService.getClassRanking(classId, PageRequest.of(page, size));
+            return ResponseEntity.ok(ranking);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+    
     @GetMapping("/students/{studentId}/grades")
     public ResponseEntity<List<StudentGradeResponse>> getGradesByStudent(@PathVariable Long studentId) {
         try {
@@ -103,6 +180,22 @@ public class TeacherFeaturesController {
         }
     }
     
+    @GetMapping("/grades/history")
+    public ResponseEntity<GradeAuditListResponse> getGradeHistory(
+            @RequestParam(required = false) Long gradeId,
+            @RequestParam(required = false) Long studentId,
+            @RequestParam(required = false) Long classId,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        try {
+            GradeAuditListResponse history = gradeAuditService.getHistory(gradeId, studentId, classId,
+                    PageRequest.of(page, size));
+            return ResponseEntity.ok(history);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+    
     @GetMapping("/classes/{classId}/grades/export")
     public ResponseEntity<List<StudentGradeResponse>> exportGradesByClass(@PathVariable Long classId) {
         try {
@@ -251,6 +344,16 @@ public class TeacherFeaturesController {
         }
     }
     
+    @PostMapping("/attendance/sync")
+    public ResponseEntity<AttendanceSyncResponse> syncAttendance(@RequestBody AttendanceSyncRequest request) {
+        try {
+            AttendanceSyncResponse ack = attendanceSyncService.sync(request);
+            return ResponseEntity.ok(ack);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+    
     @PutMapping("/attendance/{attendanceId}")
     public ResponseEntity<AttendanceResponse> updateAttendance(
             @PathVariable Long attendanceId, @RequestBody AttendanceRequest request) {
@@ -294,6 +397,26 @@ public class TeacherFeaturesController {
         }
     }
     
+    @GetMapping("/classes/{classId}/attendance/matrix")
+    public ResponseEntity<AttendanceMatrixResponse> getAttendanceMatrix(@PathVariable Long classId) {
+        try {
+            AttendanceMatrixResponse matrix = attendanceService.getAttendanceMatrix(classId);
+            return ResponseEntity.ok(matrix);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+    
+    @GetMapping("/classes/{classId}/attendance/rates")
+    public ResponseEntity<List<AttendanceRateResponse>> getAttendanceRates(@PathVariable Long classId) {
+        try {
+            List<AttendanceRateResponse> rates = attendanceAnalyticsService.getClassRates(classId);
+            return ResponseEntity.ok(rates);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+    
     @GetMapping("/classes/{classId}/attendance/report")
     public ResponseEntity<AttendanceReportResponse> generateAttendanceReport(@PathVariable Long classId) {
         try {
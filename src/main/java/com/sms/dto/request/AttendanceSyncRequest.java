@@ -0,0 +1,29 @@
+package com.sms.dto.request;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AttendanceSyncRequest {
+    private String batchKey; // khóa idempotency do thiết bị sinh, giữ nguyên khi gửi lại
+    private List<AttendanceDelta> deltas;
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class AttendanceDelta {
+        private Long seq; // số thứ tự tăng dần trên thiết bị
+        private Long classId;
+        private LocalDate attendanceDate;
+        private Long studentId;
+        private String status; // present, absent, late
+        private LocalDateTime recordedAt; // thời điểm giáo viên ghi trên thiết bị
+    }
+}
@@ -0,0 +1,24 @@
+package com.sms.dto.request;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GradebookRequest {
+    private List<GradeEntry> grades;
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class GradeEntry {
+        private Long studentId;
+        private Float midterm;
+        private Float finalGrade;
+        private Float other;
+    }
+}
@@ -1,5 +1,6 @@
 package com.sms.dto.request;
 
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
@@ -28,4 +29,7 @@ public class SemesterRequest {
     private LocalDate endDate;
     
     private Boolean isOpen = true;
+    
+    @Min(value = 1, message = "Số yêu cầu đăng ký đồng thời phải lớn hơn 0")
+    private Integer registrationConcurrency;
 }
@@ -25,6 +25,9 @@ public class SubjectRequest {
     @NotNull(message = "Số tín chỉ không được để trống")
     private Integer credit;
     
+    @Size(max = 255, message = "Công thức tính điểm không được vượt quá 255 ký tự")
+    private String gradeFormula;
+    
     @Size(max = 500, message = "Mô tả không được vượt quá 500 ký tự")
     private String description;
 }
@@ -0,0 +1,16 @@
+package com.sms.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AdmissionTicketResponse {
+    private String ticketId;
+    private Long semesterId;
+    private String status; // ADMITTED, WAITING
+    private Long position;
+    private Integer retryAfterSeconds;
+}
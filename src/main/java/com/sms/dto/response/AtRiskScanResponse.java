@@ -0,0 +1,20 @@
+package com.sms.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AtRiskScanResponse {
+    private Long semesterId;
+    private LocalDate scanDate;
+    private Integer classCount;
+    private Long enrollmentCount;
+    private Integer flaggedCount;
+    private Long durationMs;
+    private Double rowsPerSecond;
+}
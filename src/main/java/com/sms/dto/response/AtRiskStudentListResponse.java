@@ -0,0 +1,38 @@
+package com.sms.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AtRiskStudentListResponse {
+    
+    private Long semesterId;
+    private LocalDate scanDate;
+    private List<AtRiskStudentResponse> students;
+    private long totalElements;
+    private int totalPages;
+    private int currentPage;
+    private int pageSize;
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class AtRiskStudentResponse {
+        private Long classId;
+        private String classCode;
+        private Long studentId;
+        private String studentCode;
+        private String studentName;
+        private String rule;
+        private Integer totalSessions;
+        private Integer absentCount;
+        private Integer lateCount;
+        private Double ratio;
+    }
+}
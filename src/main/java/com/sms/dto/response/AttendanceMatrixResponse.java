@@ -0,0 +1,48 @@
+package com.sms.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AttendanceMatrixResponse {
+    private Long classId;
+    private String classCode;
+    private String subjectName;
+    // Các ngày điểm danh theo thứ tự tăng dần, ứng với từng ký tự trong statuses của mỗi sinh viên
+    private List<LocalDate> dates;
+    // Mã một ký tự của trạng thái, ví dụ P -> present
+    private Map<String, String> statusCodes;
+    private List<StudentRow> students;
+    private List<DateTotal> dateTotals;
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class StudentRow {
+        private Long studentId;
+        private String studentCode;
+        private String studentName;
+        private String statuses;
+        private Integer presentCount;
+        private Integer absentCount;
+        private Integer lateCount;
+    }
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class DateTotal {
+        private LocalDate date;
+        private Integer presentCount;
+        private Integer absentCount;
+        private Integer lateCount;
+        private Integer unrecordedCount;
+    }
+}
@@ -0,0 +1,22 @@
+package com.sms.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AttendanceRateResponse {
+    private Long classId;
+    private Long studentId;
+    private Integer totalSessions;
+    private Integer presentCount;
+    private Integer absentCount;
+    private Integer lateCount;
+    private Double attendanceRate;
+    private Double absentRate;
+    // Số buổi vắng liên tiếp tính đến buổi gần nhất và chuỗi vắng dài nhất
+    private Integer currentAbsentStreak;
+    private Integer longestAbsentStreak;
+}
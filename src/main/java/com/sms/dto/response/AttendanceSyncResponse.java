@@ -0,0 +1,19 @@
+package com.sms.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AttendanceSyncResponse {
+    private String batchKey;
+    private Long ackSeq; // thiết bị có thể bỏ mọi delta có seq <= ackSeq
+    private Integer applied;
+    private Integer stale; // bị bỏ qua vì máy chủ đã có bản ghi mới hơn
+    private List<Long> rejectedSeqs;
+    private Boolean replayed;
+}
@@ -0,0 +1,27 @@
+package com.sms.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkRegistrationResponse {
+    private Long studentId;
+    private Integer registeredCount;
+    private Integer failedCount;
+    private List<ClassRegistrationResult> results;
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ClassRegistrationResult {
+        private Long classId;
+        private String classCode;
+        private String status; // REGISTERED, ALREADY_REGISTERED, NOT_FOUND, CLASS_FULL, SCHEDULE_CONFLICT
+        private String message;
+    }
+}
@@ -0,0 +1,19 @@
+package com.sms.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ClassRosterPageResponse {
+    private Long classId;
+    private Integer totalStudents;
+    private String sort; // code, name
+    private Integer size;
+    private String nextCursor; // null khi đã hết danh sách
+    private List<TeacherClassResponse.StudentInClassResponse> students;
+}
@@ -0,0 +1,41 @@
+package com.sms.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GradeAuditListResponse {
+    
+    private List<GradeAuditResponse> audits;
+    private long totalElements;
+    private int totalPages;
+    private int currentPage;
+    private int pageSize;
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class GradeAuditResponse {
+        private Long id;
+        private Long gradeId;
+        private Long classId;
+        private Long studentId;
+        private String action; // CREATED, UPDATED, DELETED, RECOMPUTED
+        private Float oldMidterm;
+        private Float oldFinalGrade;
+        private Float oldOther;
+        private Float oldTotal;
+        private Float newMidterm;
+        private Float newFinalGrade;
+        private Float newOther;
+        private Float newTotal;
+        private String changedBy;
+        private LocalDateTime changedAt;
+    }
+}
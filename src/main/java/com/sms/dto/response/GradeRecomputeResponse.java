@@ -0,0 +1,16 @@
+package com.sms.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GradeRecomputeResponse {
+    private Long semesterId;
+    private Integer classCount;
+    private Long scannedCount;
+    private Long changedCount;
+    private Long durationMs;
+}
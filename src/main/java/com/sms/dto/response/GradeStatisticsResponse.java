@@ -0,0 +1,48 @@
+package com.sms.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GradeStatisticsResponse {
+    private String scope; // CLASS, SUBJECT, SEMESTER
+    private Long scopeId;
+    private Integer classCount;
+    private Integer gradedCount;
+    private Double mean;
+    private Double standardDeviation;
+    private Float min;
+    private Float max;
+    private Double median;
+    private Double percentile25;
+    private Double percentile75;
+    private Double percentile90;
+    private List<HistogramBucket> histogram;
+    private Map<String, Integer> letterCounts;
+    private List<StudentRank> ranks; // chỉ có khi thống kê theo lớp
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class HistogramBucket {
+        private Integer from;
+        private Integer to;
+        private Integer count;
+    }
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class StudentRank {
+        private Long studentId;
+        private Float total;
+        private Integer rank;
+        private Double percentile; // phần trăm sinh viên có điểm thấp hơn
+    }
+}
@@ -0,0 +1,31 @@
+package com.sms.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GradebookImportResponse {
+    private Long classId;
+    private String classCode;
+    private Integer totalRows;
+    private Integer created;
+    private Integer updated;
+    private Integer unchanged;
+    private Integer rejected;
+    private List<RowResult> issues;
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RowResult {
+        private Integer rowNumber;
+        private String studentCode;
+        private String status; // INVALID_SCORE, DUPLICATE_IN_FILE, NOT_FOUND, REJECTED
+        private String message;
+    }
+}
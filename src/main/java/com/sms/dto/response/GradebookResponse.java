@@ -0,0 +1,37 @@
+package com.sms.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GradebookResponse {
+    private Long classId;
+    private String classCode;
+    private String subjectCode;
+    private String subjectName;
+    private Integer created;
+    private Integer updated;
+    private Integer unchanged;
+    private Integer rejected;
+    private List<GradebookRow> rows;
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class GradebookRow {
+        private Long studentId;
+        private Long gradeId;
+        private String status; // CREATED, UPDATED, UNCHANGED, REJECTED
+        private Float midterm;
+        private Float finalGrade;
+        private Float other;
+        private Float total;
+        private String letterGrade;
+        private String message;
+    }
+}
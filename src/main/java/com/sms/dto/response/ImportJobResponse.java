@@ -0,0 +1,26 @@
+package com.sms.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportJobResponse {
+    private String jobId;
+    private String jobType;
+    private Long targetId;
+    private String fileName;
+    private String status; // QUEUED, RUNNING, COMPLETED, FAILED
+    private Integer rowsRead;
+    private Integer inserted;
+    private Integer skipped;
+    private Integer failed;
+    private String errorMessage;
+    private LocalDateTime createdAt;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+}
@@ -0,0 +1,39 @@
+package com.sms.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RankingListResponse {
+    
+    // CLASS hoặc COHORT
+    private String scope;
+    private Long classId;
+    private String major;
+    private Integer courseYear;
+    private List<StudentRankResponse> ranks;
+    private long totalElements;
+    private int totalPages;
+    private int currentPage;
+    private int pageSize;
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class StudentRankResponse {
+        private Long studentId;
+        private String studentCode;
+        private String studentName;
+        // Điểm tổng kết với xếp hạng lớp, GPA hệ 4 với xếp hạng khóa
+        private Double score;
+        private Integer rank;
+        private Integer denseRank;
+        private Double percentile;
+        private Integer rankedCount;
+    }
+}
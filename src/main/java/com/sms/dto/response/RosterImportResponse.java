@@ -0,0 +1,28 @@
+package com.sms.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RosterImportResponse {
+    private Long classId;
+    private Integer totalRows;
+    private Integer importedCount;
+    private Integer skippedCount;
+    private List<RowResult> issues;
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RowResult {
+        private Integer rowNumber;
+        private String studentCode;
+        private String status; // DUPLICATE_IN_FILE, NOT_FOUND, ALREADY_ENROLLED, CLASS_FULL
+        private String message;
+    }
+}
@@ -0,0 +1,14 @@
+package com.sms.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SeatAvailabilityResponse {
+    private Long classId;
+    private Integer currentStudentCount;
+    private Integer availableSeats;
+}
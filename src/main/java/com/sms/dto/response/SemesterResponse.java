@@ -18,4 +18,5 @@ public class SemesterResponse {
     private Boolean isOpen;
     private LocalDate startDate;
     private LocalDate endDate;
+    private Integer registrationConcurrency;
 }
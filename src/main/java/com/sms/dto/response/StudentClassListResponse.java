@@ -0,0 +1,19 @@
+package com.sms.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StudentClassListResponse {
+    
+    private List<StudentClassResponse> classes;
+    private long totalElements;
+    private int totalPages;
+    private int currentPage;
+    private int pageSize;
+}
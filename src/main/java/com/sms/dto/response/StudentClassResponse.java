@@ -22,6 +22,7 @@ public class StudentClassResponse {
     private LocalDateTime createdAt;
     private Boolean isRegistered;
     private List<ScheduleResponse> schedules;
+    private Integer waitlistPosition;
     
     @Data
     @NoArgsConstructor
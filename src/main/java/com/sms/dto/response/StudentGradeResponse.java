@@ -31,6 +31,16 @@ public class StudentGradeResponse {
         private Double gpa;
         private Integer totalCredits;
         private Integer completedCredits;
-        private List<StudentGradeResponse> grades;
+        private List<TermSummary> terms;
+    }
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class TermSummary {
+        private Long semesterId;
+        private Double gpa;
+        private Integer totalCredits;
+        private Integer completedCredits;
     }
 }
\ No newline at end of file
@@ -13,6 +13,7 @@ public class SubjectResponse {
     private String subjectCode;
     private String subjectName;
     private Integer credit;
+    private String gradeFormula;
     private String description;
     private String status;
 }
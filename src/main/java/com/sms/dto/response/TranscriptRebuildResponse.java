@@ -0,0 +1,15 @@
+package com.sms.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TranscriptRebuildResponse {
+    private Integer studentCount;
+    private Integer termCount;
+    private Long gradeCount;
+    private Long durationMs;
+}
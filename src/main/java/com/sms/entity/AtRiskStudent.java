@@ -0,0 +1,64 @@
+package com.sms.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Một lượt đăng ký vi phạm quy tắc chuyên cần trong lần quét ngày scanDate
+ */
+@Entity
+@Table(name = "at_risk_students", indexes = {
+    @Index(name = "idx_at_risk_students_semester_date", columnList = "semester_id, scan_date")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AtRiskStudent {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "at_risk_students_seq")
+    @SequenceGenerator(name = "at_risk_students_seq", sequenceName = "at_risk_students_seq", allocationSize = 50)
+    private Long id;
+    
+    @Column(name = "scan_date", nullable = false)
+    private LocalDate scanDate;
+    
+    @Column(name = "semester_id", nullable = false)
+    private Long semesterId;
+    
+    @Column(name = "class_id", nullable = false)
+    private Long classId;
+    
+    @Column(name = "student_id", nullable = false)
+    private Long studentId;
+    
+    // ABSENT_RATIO, LATE_RATIO hoặc ABSENT_COUNT
+    @Column(name = "rule", nullable = false, length = 20)
+    private String rule;
+    
+    @Column(name = "total_sessions")
+    private Integer totalSessions;
+    
+    @Column(name = "absent_count")
+    private Integer absentCount;
+    
+    @Column(name = "late_count")
+    private Integer lateCount;
+    
+    // Tỷ lệ (0..1) của trạng thái mà quy tắc xét trên tổng số buổi
+    @Column(name = "ratio")
+    private Double ratio;
+    
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+    
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+}
@@ -9,14 +9,17 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "attendance")
+@Table(name = "attendance", indexes = {
+    @Index(name = "idx_attendance_class_date", columnList = "class_id, attendance_date")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Attendance {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "attendance_seq")
+    @SequenceGenerator(name = "attendance_seq", sequenceName = "attendance_seq", allocationSize = 50)
     private Long id;
     
     @Column(name = "class_id", nullable = false)
@@ -36,6 +39,9 @@ public class Attendance {
     
     @PrePersist
     protected void onCreate() {
-        recordedAt = LocalDateTime.now();
+        // Điểm danh đồng bộ từ thiết bị giữ thời điểm ghi của client
+        if (recordedAt == null) {
+            recordedAt = LocalDateTime.now();
+        }
     }
 }
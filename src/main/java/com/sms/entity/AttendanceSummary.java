@@ -0,0 +1,48 @@
+package com.sms.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Số buổi có mặt, vắng và đi muộn của một sinh viên trong một lớp, cập nhật cùng transaction với bảng attendance
+ */
+@Entity
+@Table(name = "attendance_summaries",
+       uniqueConstraints = @UniqueConstraint(columnNames = {"class_id", "student_id"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AttendanceSummary {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "class_id", nullable = false)
+    private Long classId;
+    
+    @Column(name = "student_id", nullable = false)
+    private Long studentId;
+    
+    @Column(name = "present_count", nullable = false)
+    private Integer presentCount = 0;
+    
+    @Column(name = "absent_count", nullable = false)
+    private Integer absentCount = 0;
+    
+    @Column(name = "late_count", nullable = false)
+    private Integer lateCount = 0;
+    
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+    
+    @PrePersist
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+}
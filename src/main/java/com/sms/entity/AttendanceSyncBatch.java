@@ -0,0 +1,47 @@
+package com.sms.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Kết quả của một lô đồng bộ điểm danh, lưu theo khóa idempotency để lô gửi lại không bị ghi lần nữa
+ */
+@Entity
+@Table(name = "attendance_sync_batches")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AttendanceSyncBatch {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "batch_key", nullable = false, unique = true, length = 64)
+    private String batchKey;
+    
+    @Column(name = "ack_seq")
+    private Long ackSeq;
+    
+    @Column(name = "applied_count", nullable = false)
+    private Integer appliedCount = 0;
+    
+    @Column(name = "stale_count", nullable = false)
+    private Integer staleCount = 0;
+    
+    // Số thứ tự các delta bị từ chối, phân cách bởi dấu phẩy
+    @Column(name = "rejected_seqs", columnDefinition = "TEXT")
+    private String rejectedSeqs;
+    
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+    
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+}
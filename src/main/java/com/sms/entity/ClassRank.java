@@ -0,0 +1,52 @@
+package com.sms.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Thứ hạng của sinh viên trong lớp theo điểm tổng kết, dựng lại bằng window function mỗi khi điểm của lớp thay đổi
+ */
+@Entity
+@Table(name = "class_ranks",
+       uniqueConstraints = @UniqueConstraint(columnNames = {"class_id", "student_id"}),
+       indexes = {
+           @Index(name = "idx_class_ranks_position", columnList = "class_id, rank_position")
+       })
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ClassRank {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "class_id", nullable = false)
+    private Long classId;
+    
+    @Column(name = "student_id", nullable = false)
+    private Long studentId;
+    
+    @Column(name = "total", nullable = false)
+    private Float total;
+    
+    @Column(name = "rank_position", nullable = false)
+    private Integer rankPosition;
+    
+    @Column(name = "dense_rank_position", nullable = false)
+    private Integer denseRankPosition;
+    
+    // Phần trăm sinh viên trong lớp có điểm không cao hơn (CUME_DIST × 100)
+    @Column(name = "percentile", nullable = false)
+    private Double percentile;
+    
+    @Column(name = "ranked_count", nullable = false)
+    private Integer rankedCount;
+    
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
@@ -8,7 +8,9 @@ import lombok.NoArgsConstructor;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "class_students")
+@Table(name = "class_students", indexes = {
+    @Index(name = "idx_class_students_class_student", columnList = "class_id, student_id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
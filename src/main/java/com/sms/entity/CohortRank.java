@@ -0,0 +1,55 @@
+package com.sms.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Thứ hạng của sinh viên trong khóa (ngành và năm nhập học) theo GPA tích lũy
+ */
+@Entity
+@Table(name = "cohort_ranks",
+       uniqueConstraints = @UniqueConstraint(columnNames = {"student_id"}),
+       indexes = {
+           @Index(name = "idx_cohort_ranks_position", columnList = "major, course_year, rank_position")
+       })
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CohortRank {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "major", nullable = false, length = 100)
+    private String major;
+    
+    @Column(name = "course_year", nullable = false)
+    private Integer courseYear;
+    
+    @Column(name = "student_id", nullable = false)
+    private Long studentId;
+    
+    @Column(name = "gpa", nullable = false)
+    private Double gpa;
+    
+    @Column(name = "rank_position", nullable = false)
+    private Integer rankPosition;
+    
+    @Column(name = "dense_rank_position", nullable = false)
+    private Integer denseRankPosition;
+    
+    // Phần trăm sinh viên trong khóa có GPA không cao hơn (CUME_DIST × 100)
+    @Column(name = "percentile", nullable = false)
+    private Double percentile;
+    
+    @Column(name = "ranked_count", nullable = false)
+    private Integer rankedCount;
+    
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
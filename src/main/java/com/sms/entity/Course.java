@@ -4,6 +4,7 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.time.LocalDateTime;
 
@@ -36,6 +37,25 @@ public class Course {
     @Column(name = "status", length = 20)
     private String status = "active";
     
+    // Số chỗ đã được giữ, chỉ thay đổi qua các câu UPDATE có điều kiện trong CourseRepository
+    @Column(name = "enrolled_count", updatable = false)
+    @ColumnDefault("0")
+    private Integer enrolledCount = 0;
+    
+    // Ticket của sinh viên đứng đầu hàng chờ và ticket cuối cùng đã cấp
+    @Column(name = "waitlist_head", updatable = false)
+    @ColumnDefault("1")
+    private Long waitlistHead = 1L;
+    
+    @Column(name = "waitlist_tail", updatable = false)
+    @ColumnDefault("0")
+    private Long waitlistTail = 0L;
+    
+    // Số buổi đã điểm danh, cập nhật cùng transaction với bảng attendance
+    @Column(name = "attendance_sessions", updatable = false)
+    @ColumnDefault("0")
+    private Integer attendanceSessions = 0;
+    
     @Column(name = "created_at")
     private LocalDateTime createdAt;
     
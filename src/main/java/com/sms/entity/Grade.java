@@ -8,14 +8,16 @@ import lombok.NoArgsConstructor;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "grades")
+@Table(name = "grades",
+       uniqueConstraints = @UniqueConstraint(columnNames = {"class_id", "student_id"}))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Grade {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "grades_seq")
+    @SequenceGenerator(name = "grades_seq", sequenceName = "grades_seq", allocationSize = 50)
     private Long id;
     
     @Column(name = "class_id", nullable = false)
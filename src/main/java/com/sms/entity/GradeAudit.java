@@ -0,0 +1,72 @@
+package com.sms.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Lịch sử thay đổi điểm, chỉ thêm không sửa. Không có khóa ngoại tới grades để giữ được lịch sử của điểm đã xóa
+ */
+@Entity
+@Table(name = "grade_audits",
+       indexes = {
+           @Index(name = "idx_grade_audits_grade", columnList = "grade_id, changed_at"),
+           @Index(name = "idx_grade_audits_student", columnList = "student_id, changed_at"),
+           @Index(name = "idx_grade_audits_class", columnList = "class_id, changed_at")
+       })
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GradeAudit {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "grade_audits_seq")
+    @SequenceGenerator(name = "grade_audits_seq", sequenceName = "grade_audits_seq", allocationSize = 50)
+    private Long id;
+    
+    @Column(name = "grade_id", nullable = false)
+    private Long gradeId;
+    
+    @Column(name = "class_id", nullable = false)
+    private Long classId;
+    
+    @Column(name = "student_id", nullable = false)
+    private Long studentId;
+    
+    // CREATED, UPDATED, DELETED, RECOMPUTED
+    @Column(name = "action", nullable = false, length = 20)
+    private String action;
+    
+    @Column(name = "old_midterm")
+    private Float oldMidterm;
+    
+    @Column(name = "old_final")
+    private Float oldFinalGrade;
+    
+    @Column(name = "old_other")
+    private Float oldOther;
+    
+    @Column(name = "old_total")
+    private Float oldTotal;
+    
+    @Column(name = "new_midterm")
+    private Float newMidterm;
+    
+    @Column(name = "new_final")
+    private Float newFinalGrade;
+    
+    @Column(name = "new_other")
+    private Float newOther;
+    
+    @Column(name = "new_total")
+    private Float newTotal;
+    
+    @Column(name = "changed_by", length = 100)
+    private String changedBy;
+    
+    @Column(name = "changed_at", nullable = false)
+    private LocalDateTime changedAt;
+}
@@ -32,4 +32,8 @@ public class Semester {
     
     @Column(name = "end_date")
     private LocalDate endDate;
+    
+    // Số yêu cầu đăng ký lớp được xử lý đồng thời trong đợt đăng ký, null thì dùng cấu hình mặc định
+    @Column(name = "registration_concurrency")
+    private Integer registrationConcurrency;
 }
@@ -0,0 +1,49 @@
+package com.sms.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Bảng điểm của một sinh viên trong một học kỳ, cùng cách lưu với StudentTranscript
+ */
+@Entity
+@Table(name = "student_term_transcripts",
+       uniqueConstraints = @UniqueConstraint(columnNames = {"student_id", "semester_id"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StudentTermTranscript {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "student_term_transcripts_seq")
+    @SequenceGenerator(name = "student_term_transcripts_seq", sequenceName = "student_term_transcripts_seq", allocationSize = 50)
+    private Long id;
+    
+    @Column(name = "student_id", nullable = false)
+    private Long studentId;
+    
+    @Column(name = "semester_id", nullable = false)
+    private Long semesterId;
+    
+    @Column(name = "credits_attempted", nullable = false)
+    private Integer creditsAttempted = 0;
+    
+    @Column(name = "credits_earned", nullable = false)
+    private Integer creditsEarned = 0;
+    
+    @Column(name = "grade_points", nullable = false)
+    private Integer gradePoints = 0;
+    
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+    
+    @PrePersist
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,47 @@
+package com.sms.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Bảng điểm tích lũy của một sinh viên, cập nhật cùng transaction với bảng grades.
+ * gradePoints là tổng điểm hệ 4 nhân tín chỉ, lưu theo đơn vị 0.1 để cộng dồn không bị sai số
+ */
+@Entity
+@Table(name = "student_transcripts",
+       uniqueConstraints = @UniqueConstraint(columnNames = {"student_id"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StudentTranscript {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "student_transcripts_seq")
+    @SequenceGenerator(name = "student_transcripts_seq", sequenceName = "student_transcripts_seq", allocationSize = 50)
+    private Long id;
+    
+    @Column(name = "student_id", nullable = false)
+    private Long studentId;
+    
+    @Column(name = "credits_attempted", nullable = false)
+    private Integer creditsAttempted = 0;
+    
+    @Column(name = "credits_earned", nullable = false)
+    private Integer creditsEarned = 0;
+    
+    @Column(name = "grade_points", nullable = false)
+    private Integer gradePoints = 0;
+    
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+    
+    @PrePersist
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+}
@@ -25,6 +25,10 @@ public class Subject {
     @Column(name = "credit", nullable = false)
     private Integer credit;
     
+    // Công thức tính điểm tổng kết, để trống thì lấy trung bình cộng các điểm thành phần
+    @Column(name = "grade_formula", length = 255)
+    private String gradeFormula;
+    
     @Column(name = "description", columnDefinition = "TEXT")
     private String description;
     
@@ -0,0 +1,43 @@
+package com.sms.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "class_waitlist",
+       uniqueConstraints = @UniqueConstraint(columnNames = {"class_id", "student_id"}),
+       indexes = {
+           @Index(name = "idx_class_waitlist_ticket", columnList = "class_id, ticket"),
+           @Index(name = "idx_class_waitlist_student", columnList = "student_id")
+       })
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class WaitlistEntry {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "class_id", nullable = false)
+    private Long classId;
+    
+    @Column(name = "student_id", nullable = false)
+    private Long studentId;
+    
+    // Số thứ tự liên tục trong hàng chờ của lớp, vị trí = ticket - classes.waitlist_head + 1
+    @Column(name = "ticket", nullable = false)
+    private Long ticket;
+    
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+    
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+}
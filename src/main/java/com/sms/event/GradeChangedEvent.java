@@ -0,0 +1,17 @@
+package com.sms.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.Set;
+
+/**
+ * Phát ra khi điểm tổng kết của một lớp thay đổi (nhập, sửa, xóa điểm hoặc tính lại theo công thức).
+ * studentIds là các sinh viên có điểm đổi, dùng để biết khóa nào cần xếp hạng lại kể cả khi điểm đã bị xóa
+ */
+@Getter
+@AllArgsConstructor
+public class GradeChangedEvent {
+    private final Long classId;
+    private final Set<Long> studentIds;
+}
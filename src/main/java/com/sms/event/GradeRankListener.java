@@ -0,0 +1,99 @@
+package com.sms.event;
+
+import com.sms.service.RankingService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Tính lại bảng xếp hạng của lớp và của khóa của các sinh viên có điểm đổi sau khi điểm thay đổi.
+ *
+ * Chạy sau khi transaction ghi điểm đã commit, trên một thread nền riêng, để giáo viên nhập điểm không phải chờ
+ * xếp hạng. Mỗi lần làm mới xóa rồi ghi lại cả phạm vi nên các lần làm mới chạy lần lượt trên một thread; các lớp
+ * và sinh viên dồn lại trong lúc chờ được gộp thành một lượt, mỗi khóa chỉ tính lại một lần.
+ */
+@Component
+@Slf4j
+public class GradeRankListener {
+
+    @Autowired
+    private RankingService rankingService;
+
+    // Các lớp và sinh viên đang chờ lượt làm mới tiếp theo
+    private final Set<Long> pendingClasses = ConcurrentHashMap.newKeySet();
+    private final Set<Long> pendingStudents = ConcurrentHashMap.newKeySet();
+
+    // Đã có một lượt làm mới được xếp lịch nhưng chưa bắt đầu lấy việc
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+
+    private ExecutorService executor;
+
+    @PostConstruct
+    void init() {
+        executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "grade-rank-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onGradeChanged(GradeChangedEvent event) {
+        pendingClasses.add(event.getClassId());
+        if (event.getStudentIds() != null) {
+            pendingStudents.addAll(event.getStudentIds());
+        }
+
+        // Thay đổi đến trong lúc một lượt đang chạy sẽ được lượt sau xử lý, không chạy chồng lên lượt hiện tại
+        if (scheduled.compareAndSet(false, true)) {
+            executor.execute(this::refreshPending);
+        }
+    }
+
+    private void refreshPending() {
+        scheduled.set(false);
+        List<Long> classIds = drain(pendingClasses);
+        List<Long> studentIds = drain(pendingStudents);
+
+        for (Long classId : classIds) {
+            try {
+                rankingService.refreshClass(classId);
+            } catch (Exception e) {
+                log.error("Lỗi khi tính lại xếp hạng của lớp {}: {}", classId, e.getMessage());
+            }
+        }
+        if (!studentIds.isEmpty()) {
+            try {
+                rankingService.refreshCohorts(studentIds);
+            } catch (Exception e) {
+                log.error("Lỗi khi tính lại xếp hạng khóa của {} sinh viên: {}", studentIds.size(), e.getMessage());
+            }
+        }
+    }
+
+    private static List<Long> drain(Set<Long> pending) {
+        List<Long> drained = new ArrayList<>();
+        for (Iterator<Long> it = pending.iterator(); it.hasNext(); ) {
+            drained.add(it.next());
+            it.remove();
+        }
+        return drained;
+    }
+}
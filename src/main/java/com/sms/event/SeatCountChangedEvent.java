@@ -0,0 +1,13 @@
+package com.sms.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Phát ra khi số chỗ đã giữ hoặc sức chứa của lớp học thay đổi
+ */
+@Getter
+@AllArgsConstructor
+public class SeatCountChangedEvent {
+    private final Long classId;
+}
@@ -0,0 +1,13 @@
+package com.sms.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Phát ra khi lớp học có thêm chỗ trống (sinh viên hủy đăng ký hoặc tăng sức chứa)
+ */
+@Getter
+@AllArgsConstructor
+public class SeatReleasedEvent {
+    private final Long classId;
+}
@@ -0,0 +1,61 @@
+package com.sms.event;
+
+import com.sms.service.WaitlistService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Chuyển sinh viên từ hàng chờ vào lớp sau khi có chỗ trống.
+ *
+ * Chạy sau khi transaction giải phóng chỗ đã commit, trên thread nền, để yêu cầu hủy đăng ký không phải chờ.
+ */
+@Component
+@Slf4j
+public class WaitlistPromotionListener {
+
+    @Autowired
+    private WaitlistService waitlistService;
+
+    @Autowired
+    @Qualifier("applicationTaskExecutor")
+    private TaskExecutor taskExecutor;
+
+    // Các lớp đã được xếp lịch chuyển hàng chờ nhưng chưa bắt đầu chạy
+    private final Set<Long> pendingPromotions = ConcurrentHashMap.newKeySet();
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSeatReleased(SeatReleasedEvent event) {
+        Long classId = event.getClassId();
+
+        // Gộp nhiều sự kiện của cùng một lớp thành một lần chuyển hàng chờ
+        if (!pendingPromotions.add(classId)) {
+            return;
+        }
+
+        try {
+            taskExecutor.execute(() -> {
+                pendingPromotions.remove(classId);
+                try {
+                    int promoted = waitlistService.promote(classId);
+                    if (promoted > 0) {
+                        log.info("Đã chuyển {} sinh viên từ hàng chờ vào lớp {}", promoted, classId);
+                    }
+                } catch (Exception e) {
+                    log.error("Lỗi khi chuyển hàng chờ của lớp {}: {}", classId, e.getMessage());
+                }
+            });
+        } catch (TaskRejectedException e) {
+            // Hàng đợi của executor đã đầy, lần giải phóng chỗ tiếp theo sẽ xếp lịch lại
+            pendingPromotions.remove(classId);
+            log.warn("Không thể xếp lịch chuyển hàng chờ của lớp {}: {}", classId, e.getMessage());
+        }
+    }
+}
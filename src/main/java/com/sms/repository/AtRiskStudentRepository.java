@@ -0,0 +1,38 @@
+package com.sms.repository;
+
+import com.sms.entity.AtRiskStudent;
+import com.sms.repository.projection.AtRiskEntry;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Optional;
+
+@Repository
+public interface AtRiskStudentRepository extends JpaRepository<AtRiskStudent, Long> {
+    
+    @Query(value = "SELECT r.classId AS classId, c.classCode AS classCode, r.studentId AS studentId, " +
+                   "s.studentCode AS studentCode, u.fullName AS studentName, r.rule AS rule, " +
+                   "r.totalSessions AS totalSessions, r.absentCount AS absentCount, r.lateCount AS lateCount, " +
+                   "r.ratio AS ratio, r.scanDate AS scanDate " +
+                   "FROM AtRiskStudent r LEFT JOIN Course c ON r.classId = c.id " +
+                   "LEFT JOIN Student s ON r.studentId = s.id LEFT JOIN User u ON s.userId = u.id " +
+                   "WHERE r.semesterId = :semesterId AND r.scanDate = :scanDate " +
+                   "ORDER BY r.ratio DESC, r.id",
+           countQuery = "SELECT COUNT(r) FROM AtRiskStudent r WHERE r.semesterId = :semesterId AND r.scanDate = :scanDate")
+    Page<AtRiskEntry> findEntries(@Param("semesterId") Long semesterId,
+                                  @Param("scanDate") LocalDate scanDate,
+                                  Pageable pageable);
+    
+    @Query("SELECT MAX(r.scanDate) FROM AtRiskStudent r WHERE r.semesterId = :semesterId")
+    Optional<LocalDate> findLatestScanDate(@Param("semesterId") Long semesterId);
+    
+    @Modifying
+    @Query("DELETE FROM AtRiskStudent r WHERE r.semesterId = :semesterId AND r.scanDate = :scanDate")
+    int deleteBySemesterIdAndScanDate(@Param("semesterId") Long semesterId, @Param("scanDate") LocalDate scanDate);
+}
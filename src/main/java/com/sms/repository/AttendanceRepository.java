@@ -1,14 +1,21 @@
 package com.sms.repository;
 
 import com.sms.entity.Attendance;
+import com.sms.repository.projection.AttendanceCell;
+import com.sms.repository.projection.AttendanceExportRow;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface AttendanceRepository extends JpaRepository<Attendance, Long> {
@@ -38,5 +45,33 @@ public interface AttendanceRepository extends JpaRepository<Attendance, Long> {
     @Query("SELECT a FROM Attendance a WHERE a.classId = :classId AND a.attendanceDate = :attendanceDate")
     List<Attendance> findByClassIdAndAttendanceDate(@Param("classId") Long classId, @Param("attendanceDate") LocalDate attendanceDate);
     
+    @Query("SELECT a FROM Attendance a WHERE a.classId IN :classIds AND a.attendanceDate IN :dates")
+    List<Attendance> findByClassIdInAndAttendanceDateIn(@Param("classIds") Collection<Long> classIds,
+                                                        @Param("dates") Collection<LocalDate> dates);
+    
+    String CELL_SELECT = "SELECT a.classId AS classId, a.studentId AS studentId, " +
+            "a.attendanceDate AS attendanceDate, a.status AS status FROM Attendance a ";
+    
+    @Query(CELL_SELECT + "WHERE a.classId = :classId ORDER BY a.attendanceDate, a.studentId")
+    List<AttendanceCell> findCellsByClassId(@Param("classId") Long classId);
+    
+    @Query(CELL_SELECT + "JOIN Course c ON a.classId = c.id WHERE c.semesterId = :semesterId " +
+           "ORDER BY a.classId, a.attendanceDate, a.studentId")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    Stream<AttendanceCell> streamCellsBySemesterId(@Param("semesterId") Long semesterId);
+    
+    @Query("SELECT c.classCode AS classCode, sub.subjectCode AS subjectCode, sub.subjectName AS subjectName, " +
+           "s.studentCode AS studentCode, u.fullName AS studentName, a.attendanceDate AS attendanceDate, " +
+           "a.status AS status, a.recordedAt AS recordedAt " +
+           "FROM Attendance a JOIN Course c ON a.classId = c.id " +
+           "LEFT JOIN Subject sub ON c.subjectId = sub.id LEFT JOIN Teacher t ON c.teacherId = t.id " +
+           "LEFT JOIN Student s ON a.studentId = s.id LEFT JOIN User u ON s.userId = u.id " +
+           "WHERE c.semesterId = :semesterId " +
+           "AND (:department IS NULL OR :department = '' OR t.department = :department) " +
+           "ORDER BY a.classId, a.attendanceDate, a.studentId")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    Stream<AttendanceExportRow> streamExportRowsBySemesterId(@Param("semesterId") Long semesterId,
+                                                            @Param("department") String department);
+    
     void deleteByClassIdAndAttendanceDate(Long classId, LocalDate attendanceDate);
 }
@@ -0,0 +1,74 @@
+package com.sms.repository;
+
+import com.sms.entity.AttendanceSummary;
+import com.sms.repository.projection.EnrollmentAttendanceCount;
+import com.sms.repository.projection.StudentAttendanceCount;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+@Repository
+public interface AttendanceSummaryRepository extends JpaRepository<AttendanceSummary, Long> {
+    
+    String REBUILD_INSERT = "INSERT INTO attendance_summaries " +
+            "(class_id, student_id, present_count, absent_count, late_count, updated_at) " +
+            "SELECT a.class_id, a.student_id, " +
+            "SUM(CASE WHEN a.status = 'present' THEN 1 ELSE 0 END), " +
+            "SUM(CASE WHEN a.status = 'absent' THEN 1 ELSE 0 END), " +
+            "SUM(CASE WHEN a.status = 'late' THEN 1 ELSE 0 END), " +
+            "CURRENT_TIMESTAMP FROM attendance a ";
+    
+    @Query("SELECT a.studentId FROM AttendanceSummary a WHERE a.classId = :classId AND a.studentId IN :studentIds")
+    List<Long> findStudentIdsByClassIdAndStudentIdIn(@Param("classId") Long classId,
+                                                     @Param("studentIds") Collection<Long> studentIds);
+    
+    @Query("SELECT a.studentId AS studentId, s.studentCode AS studentCode, u.fullName AS studentName, " +
+           "a.presentCount AS presentCount, a.absentCount AS absentCount, a.lateCount AS lateCount " +
+           "FROM AttendanceSummary a LEFT JOIN Student s ON a.studentId = s.id LEFT JOIN User u ON s.userId = u.id " +
+           "WHERE a.classId = :classId AND a.presentCount + a.absentCount + a.lateCount > 0 " +
+           "ORDER BY s.studentCode, a.studentId")
+    List<StudentAttendanceCount> findStudentCountsByClassId(@Param("classId") Long classId);
+    
+    @Query("SELECT a.classId AS classId, a.studentId AS studentId, c.attendanceSessions AS totalSessions, " +
+           "a.presentCount AS presentCount, a.absentCount AS absentCount, a.lateCount AS lateCount " +
+           "FROM AttendanceSummary a JOIN Course c ON a.classId = c.id " +
+           "WHERE c.semesterId = :semesterId AND c.status = 'active' ORDER BY a.classId, a.studentId")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    Stream<EnrollmentAttendanceCount> streamActiveBySemesterId(@Param("semesterId") Long semesterId);
+    
+    @Modifying
+    @Query("UPDATE AttendanceSummary a SET a.presentCount = a.presentCount + :present, " +
+           "a.absentCount = a.absentCount + :absent, a.lateCount = a.lateCount + :late, " +
+           "a.updatedAt = CURRENT_TIMESTAMP " +
+           "WHERE a.classId = :classId AND a.studentId IN :studentIds")
+    int applyDelta(@Param("classId") Long classId,
+                   @Param("studentIds") Collection<Long> studentIds,
+                   @Param("present") int present,
+                   @Param("absent") int absent,
+                   @Param("late") int late);
+    
+    @Modifying
+    @Query("DELETE FROM AttendanceSummary a WHERE a.classId = :classId")
+    int deleteByClassId(@Param("classId") Long classId);
+    
+    @Modifying
+    @Query("DELETE FROM AttendanceSummary a")
+    int deleteAllSummaries();
+    
+    @Modifying
+    @Query(value = REBUILD_INSERT + "WHERE a.class_id = :classId GROUP BY a.class_id, a.student_id", nativeQuery = true)
+    int rebuildByClassId(@Param("classId") Long classId);
+    
+    @Modifying
+    @Query(value = REBUILD_INSERT + "GROUP BY a.class_id, a.student_id", nativeQuery = true)
+    int rebuildAll();
+}
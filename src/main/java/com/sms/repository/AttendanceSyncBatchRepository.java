@@ -0,0 +1,13 @@
+package com.sms.repository;
+
+import com.sms.entity.AttendanceSyncBatch;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface AttendanceSyncBatchRepository extends JpaRepository<AttendanceSyncBatch, Long> {
+    
+    Optional<AttendanceSyncBatch> findByBatchKey(String batchKey);
+}
@@ -0,0 +1,54 @@
+package com.sms.repository;
+
+import com.sms.entity.ClassRank;
+import com.sms.repository.projection.RankEntry;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface ClassRankRepository extends JpaRepository<ClassRank, Long> {
+    
+    String REFRESH_INSERT = "INSERT INTO class_ranks " +
+            "(class_id, student_id, total, rank_position, dense_rank_position, percentile, ranked_count, updated_at) " +
+            "SELECT g.class_id, g.student_id, g.total, " +
+            "RANK() OVER (PARTITION BY g.class_id ORDER BY g.total DESC), " +
+            "DENSE_RANK() OVER (PARTITION BY g.class_id ORDER BY g.total DESC), " +
+            "CUME_DIST() OVER (PARTITION BY g.class_id ORDER BY g.total) * 100, " +
+            "COUNT(*) OVER (PARTITION BY g.class_id), " +
+            "CURRENT_TIMESTAMP FROM grades g WHERE g.total IS NOT NULL ";
+    
+    String ENTRY_SELECT = "SELECT r.studentId AS studentId, s.studentCode AS studentCode, u.fullName AS studentName, " +
+            "CAST(r.total AS double) AS score, r.rankPosition AS rankPosition, " +
+            "r.denseRankPosition AS denseRankPosition, r.percentile AS percentile, r.rankedCount AS rankedCount " +
+            "FROM ClassRank r LEFT JOIN Student s ON r.studentId = s.id LEFT JOIN User u ON s.userId = u.id ";
+    
+    @Query(value = ENTRY_SELECT + "WHERE r.classId = :classId ORDER BY r.rankPosition, s.studentCode",
+           countQuery = "SELECT COUNT(r) FROM ClassRank r WHERE r.classId = :classId")
+    Page<RankEntry> findEntriesByClassId(@Param("classId") Long classId, Pageable pageable);
+    
+    @Query(ENTRY_SELECT + "WHERE r.classId = :classId AND r.studentId = :studentId")
+    Optional<RankEntry> findEntry(@Param("classId") Long classId, @Param("studentId") Long studentId);
+    
+    @Modifying
+    @Query("DELETE FROM ClassRank r WHERE r.classId = :classId")
+    int deleteByClassId(@Param("classId") Long classId);
+    
+    @Modifying
+    @Query("DELETE FROM ClassRank r")
+    int deleteAllRanks();
+    
+    @Modifying
+    @Query(value = REFRESH_INSERT + "AND g.class_id = :classId", nativeQuery = true)
+    int refreshByClassId(@Param("classId") Long classId);
+    
+    @Modifying
+    @Query(value = REFRESH_INSERT, nativeQuery = true)
+    int refreshAll();
+}
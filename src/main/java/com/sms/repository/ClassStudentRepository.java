@@ -1,37 +1,93 @@
 package com.sms.repository;
 
 import com.sms.entity.ClassStudent;
+import com.sms.repository.projection.ClassRosterEntry;
+import com.sms.repository.projection.RosterStudent;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface ClassStudentRepository extends JpaRepository<ClassStudent, Long> {
     
+    String ROSTER_SELECT = "SELECT s.id AS studentId, s.studentCode AS studentCode, u.fullName AS studentName, " +
+           "u.email AS email, s.className AS className, s.major AS major, s.courseYear AS courseYear " +
+           "FROM ClassStudent cs JOIN Student s ON cs.studentId = s.id JOIN User u ON s.userId = u.id " +
+           "WHERE cs.classId = :classId ";
+    
     List<ClassStudent> findByClassId(Long classId);
     
     List<ClassStudent> findByStudentId(Long studentId);
     
+    @Query("SELECT cs.classId FROM ClassStudent cs WHERE cs.studentId = :studentId")
+    List<Long> findClassIdsByStudentId(@Param("studentId") Long studentId);
+    
+    @Query("SELECT cs.classId AS classId, s.id AS studentId, s.studentCode AS studentCode, " +
+           "u.fullName AS fullName, cs.registeredAt AS registeredAt " +
+           "FROM ClassStudent cs JOIN Student s ON cs.studentId = s.id " +
+           "LEFT JOIN User u ON s.userId = u.id " +
+           "WHERE cs.classId IN :classIds ORDER BY cs.classId, cs.id")
+    List<ClassRosterEntry> findRostersByClassIdIn(@Param("classIds") Collection<Long> classIds);
+    
+    @Query(ROSTER_SELECT + "ORDER BY s.studentCode, s.id")
+    List<RosterStudent> findRosterStudents(@Param("classId") Long classId);
+    
+    @Query(ROSTER_SELECT + "ORDER BY s.studentCode, s.id")
+    List<RosterStudent> findRosterFirstPageByCode(@Param("classId") Long classId, Pageable pageable);
+    
+    @Query(ROSTER_SELECT +
+           "AND (s.studentCode > :afterCode OR (s.studentCode = :afterCode AND s.id > :afterId)) " +
+           "ORDER BY s.studentCode, s.id")
+    List<RosterStudent> findRosterPageByCodeAfter(@Param("classId") Long classId,
+                                                  @Param("afterCode") String afterCode,
+                                                  @Param("afterId") Long afterId,
+                                                  Pageable pageable);
+    
+    @Query(ROSTER_SELECT + "ORDER BY COALESCE(u.fullName, ''), s.id")
+    List<RosterStudent> findRosterFirstPageByName(@Param("classId") Long classId, Pageable pageable);
+    
+    @Query(ROSTER_SELECT +
+           "AND (COALESCE(u.fullName, '') > :afterName " +
+           "     OR (COALESCE(u.fullName, '') = :afterName AND s.id > :afterId)) " +
+           "ORDER BY COALESCE(u.fullName, ''), s.id")
+    List<RosterStudent> findRosterPageByNameAfter(@Param("classId") Long classId,
+                                                  @Param("afterName") String afterName,
+                                                  @Param("afterId") Long afterId,
+                                                  Pageable pageable);
+    
     @Query("SELECT cs FROM ClassStudent cs WHERE cs.classId = :classId AND cs.studentId = :studentId")
     Optional<ClassStudent> findByClassIdAndStudentId(@Param("classId") Long classId, @Param("studentId") Long studentId);
     
+    @Query("SELECT cs.studentId FROM ClassStudent cs WHERE cs.classId = :classId AND cs.studentId IN :studentIds")
+    List<Long> findStudentIdsByClassIdAndStudentIdIn(@Param("classId") Long classId, @Param("studentIds") Collection<Long> studentIds);
+    
+    @Query("SELECT cs.studentId FROM ClassStudent cs WHERE cs.classId = :classId")
+    List<Long> findStudentIdsByClassId(@Param("classId") Long classId);
+    
     @Query("SELECT COUNT(cs) FROM ClassStudent cs WHERE cs.classId = :classId")
     Long countByClassId(@Param("classId") Long classId);
     
     @Query("SELECT COUNT(cs) FROM ClassStudent cs WHERE cs.studentId = :studentId")
     Long countByStudentId(@Param("studentId") Long studentId);
     
-    void deleteByClassIdAndStudentId(Long classId, Long studentId);
+    long deleteByClassIdAndStudentId(Long classId, Long studentId);
     
     void deleteByClassId(Long classId);
     
     void deleteByStudentId(Long studentId);
     
+    @Modifying
+    @Query(value = "INSERT INTO class_students (class_id, student_id, registered_at) " +
+                   "SELECT :classId, s.id, CURRENT_TIMESTAMP FROM students s WHERE s.id IN :studentIds", nativeQuery = true)
+    int insertEnrollments(@Param("classId") Long classId, @Param("studentIds") Collection<Long> studentIds);
+    
     @Modifying
     @Query(value = "SELECT setval('class_students_id_seq', COALESCE((SELECT MAX(id) FROM class_students), 1), true)", nativeQuery = true)
     void fixSequence();
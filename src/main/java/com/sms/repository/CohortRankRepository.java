@@ -0,0 +1,69 @@
+package com.sms.repository;
+
+import com.sms.entity.CohortRank;
+import com.sms.repository.projection.CohortKey;
+import com.sms.repository.projection.RankEntry;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface CohortRankRepository extends JpaRepository<CohortRank, Long> {
+    
+    // GPA = grade_points / 10 / credits_attempted, grade_points lưu theo đơn vị 0.1
+    String REFRESH_INSERT = "INSERT INTO cohort_ranks " +
+            "(major, course_year, student_id, gpa, rank_position, dense_rank_position, percentile, ranked_count, updated_at) " +
+            "SELECT s.major, s.course_year, t.student_id, t.grade_points / 10.0 / t.credits_attempted, " +
+            "RANK() OVER (PARTITION BY s.major, s.course_year ORDER BY t.grade_points * 1.0 / t.credits_attempted DESC), " +
+            "DENSE_RANK() OVER (PARTITION BY s.major, s.course_year ORDER BY t.grade_points * 1.0 / t.credits_attempted DESC), " +
+            "CUME_DIST() OVER (PARTITION BY s.major, s.course_year ORDER BY t.grade_points * 1.0 / t.credits_attempted) * 100, " +
+            "COUNT(*) OVER (PARTITION BY s.major, s.course_year), " +
+            "CURRENT_TIMESTAMP FROM student_transcripts t JOIN students s ON t.student_id = s.id " +
+            "WHERE t.credits_attempted > 0 AND s.major IS NOT NULL AND s.course_year IS NOT NULL ";
+    
+    String ENTRY_SELECT = "SELECT r.studentId AS studentId, s.studentCode AS studentCode, u.fullName AS studentName, " +
+            "r.gpa AS score, r.rankPosition AS rankPosition, r.denseRankPosition AS denseRankPosition, " +
+            "r.percentile AS percentile, r.rankedCount AS rankedCount " +
+            "FROM CohortRank r LEFT JOIN Student s ON r.studentId = s.id LEFT JOIN User u ON s.userId = u.id ";
+    
+    @Query(value = ENTRY_SELECT + "WHERE r.major = :major AND r.courseYear = :courseYear " +
+                   "ORDER BY r.rankPosition, s.studentCode",
+           countQuery = "SELECT COUNT(r) FROM CohortRank r WHERE r.major = :major AND r.courseYear = :courseYear")
+    Page<RankEntry> findEntriesByCohort(@Param("major") String major,
+                                        @Param("courseYear") Integer courseYear,
+                                        Pageable pageable);
+    
+    @Query(ENTRY_SELECT + "WHERE r.studentId = :studentId")
+    Optional<RankEntry> findEntryByStudentId(@Param("studentId") Long studentId);
+    
+    @Query("SELECT r.major AS major, r.courseYear AS courseYear FROM CohortRank r WHERE r.studentId = :studentId")
+    Optional<CohortKey> findCohortByStudentId(@Param("studentId") Long studentId);
+    
+    @Query("SELECT DISTINCT s.major AS major, s.courseYear AS courseYear FROM Student s " +
+           "WHERE s.id IN :studentIds AND s.major IS NOT NULL AND s.courseYear IS NOT NULL")
+    List<CohortKey> findCohortsByStudentIdIn(@Param("studentIds") Collection<Long> studentIds);
+    
+    @Modifying
+    @Query("DELETE FROM CohortRank r WHERE r.major = :major AND r.courseYear = :courseYear")
+    int deleteByCohort(@Param("major") String major, @Param("courseYear") Integer courseYear);
+    
+    @Modifying
+    @Query("DELETE FROM CohortRank r")
+    int deleteAllRanks();
+    
+    @Modifying
+    @Query(value = REFRESH_INSERT + "AND s.major = :major AND s.course_year = :courseYear", nativeQuery = true)
+    int refreshByCohort(@Param("major") String major, @Param("courseYear") Integer courseYear);
+    
+    @Modifying
+    @Query(value = REFRESH_INSERT, nativeQuery = true)
+    int refreshAll();
+}
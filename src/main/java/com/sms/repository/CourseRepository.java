@@ -1,9 +1,15 @@
 package com.sms.repository;
 
 import com.sms.entity.Course;
+import com.sms.repository.projection.ClassGradeFormula;
+import com.sms.repository.projection.ClassSeatCount;
+import com.sms.repository.projection.ClassSummary;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -14,6 +20,26 @@ import java.util.Optional;
 @Repository
 public interface CourseRepository extends JpaRepository<Course, Long> {
     
+    String CLASS_SUMMARY_SELECT = "SELECT c.id AS id, c.classCode AS classCode, " +
+           "c.subjectId AS subjectId, s.subjectName AS subjectName, s.subjectCode AS subjectCode, " +
+           "c.semesterId AS semesterId, sem.name AS semesterName, " +
+           "c.teacherId AS teacherId, u.fullName AS teacherName, " +
+           "c.maxStudent AS maxStudent, c.enrolledCount AS currentStudentCount, " +
+           "c.createdAt AS createdAt, c.status AS status ";
+    
+    String CLASS_SUMMARY_JOINS = "FROM Course c " +
+           "LEFT JOIN Subject s ON c.subjectId = s.id " +
+           "LEFT JOIN Semester sem ON c.semesterId = sem.id " +
+           "LEFT JOIN Teacher t ON c.teacherId = t.id " +
+           "LEFT JOIN User u ON t.userId = u.id ";
+    
+    String CLASS_SEARCH_FILTER = "WHERE (:keyword IS NULL OR :keyword = '' OR " +
+           "       LOWER(c.classCode) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
+           "       LOWER(s.subjectName) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
+           "       LOWER(s.subjectCode) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
+           "       LOWER(sem.name) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
+           "       LOWER(u.fullName) LIKE LOWER(CONCAT('%', :keyword, '%')))";
+    
     Optional<Course> findByClassCode(String classCode);
     
     List<Course> findBySubjectId(Long subjectId);
@@ -30,16 +56,107 @@ public interface CourseRepository extends JpaRepository<Course, Long> {
     
     boolean existsByClassCode(String classCode);
     
-    @Query("SELECT c FROM Course c " +
-           "LEFT JOIN Subject s ON c.subjectId = s.id " +
-           "LEFT JOIN Semester sem ON c.semesterId = sem.id " +
-           "LEFT JOIN Teacher t ON c.teacherId = t.id " +
-           "LEFT JOIN User u ON t.userId = u.id " +
-           "WHERE (:keyword IS NULL OR :keyword = '' OR " +
-           "       LOWER(c.classCode) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
-           "       LOWER(s.subjectName) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
-           "       LOWER(s.subjectCode) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
-           "       LOWER(sem.name) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
-           "       LOWER(u.fullName) LIKE LOWER(CONCAT('%', :keyword, '%')))")
+    @Query("SELECT c " + CLASS_SUMMARY_JOINS + CLASS_SEARCH_FILTER)
     Page<Course> searchClasses(@Param("keyword") String keyword, Pageable pageable);
+    
+    @Query(value = CLASS_SUMMARY_SELECT + CLASS_SUMMARY_JOINS,
+           countQuery = "SELECT COUNT(c) FROM Course c")
+    Page<ClassSummary> findClassSummaries(Pageable pageable);
+    
+    @Query(value = CLASS_SUMMARY_SELECT + CLASS_SUMMARY_JOINS + CLASS_SEARCH_FILTER,
+           countQuery = "SELECT COUNT(c) " + CLASS_SUMMARY_JOINS + CLASS_SEARCH_FILTER)
+    Page<ClassSummary> searchClassSummaries(@Param("keyword") String keyword, Pageable pageable);
+    
+    @Query(CLASS_SUMMARY_SELECT + CLASS_SUMMARY_JOINS +
+           "WHERE (:subjectId IS NULL OR c.subjectId = :subjectId) " +
+           "AND (:semesterId IS NULL OR c.semesterId = :semesterId) " +
+           "AND (:teacherId IS NULL OR c.teacherId = :teacherId) " +
+           "ORDER BY c.id")
+    List<ClassSummary> findClassSummaries(@Param("subjectId") Long subjectId,
+                                          @Param("semesterId") Long semesterId,
+                                          @Param("teacherId") Long teacherId);
+    
+    @Query(CLASS_SUMMARY_SELECT + CLASS_SUMMARY_JOINS + "WHERE c.id = :classId")
+    Optional<ClassSummary> findClassSummaryById(@Param("classId") Long classId);
+    
+    @Query(CLASS_SUMMARY_SELECT + CLASS_SUMMARY_JOINS + "WHERE c.classCode = :classCode")
+    Optional<ClassSummary> findClassSummaryByCode(@Param("classCode") String classCode);
+    
+    @Modifying
+    @Query("UPDATE Course c SET c.enrolledCount = c.enrolledCount + 1 " +
+           "WHERE c.id = :classId AND c.enrolledCount < c.maxStudent")
+    int incrementEnrolledCount(@Param("classId") Long classId);
+    
+    @Modifying
+    @Query("UPDATE Course c SET c.enrolledCount = c.enrolledCount + :count " +
+           "WHERE c.id = :classId AND c.enrolledCount + :count <= c.maxStudent")
+    int incrementEnrolledCountBy(@Param("classId") Long classId, @Param("count") int count);
+    
+    @Modifying
+    @Query("UPDATE Course c SET c.enrolledCount = c.enrolledCount - 1 " +
+           "WHERE c.id = :classId AND c.enrolledCount > 0")
+    int decrementEnrolledCount(@Param("classId") Long classId);
+    
+    @Modifying
+    @Query(value = "UPDATE classes SET enrolled_count = " +
+                   "(SELECT COUNT(*) FROM class_students cs WHERE cs.class_id = classes.id)", nativeQuery = true)
+    int syncAllEnrolledCounts();
+    
+    @Modifying
+    @Query(value = "UPDATE classes SET enrolled_count = " +
+                   "(SELECT COUNT(*) FROM class_students cs WHERE cs.class_id = classes.id) " +
+                   "WHERE id = :classId", nativeQuery = true)
+    int syncEnrolledCount(@Param("classId") Long classId);
+    
+    @Query("SELECT c.id AS id, c.enrolledCount AS enrolledCount, c.maxStudent AS maxStudent FROM Course c")
+    List<ClassSeatCount> findAllSeatCounts();
+    
+    @Query("SELECT c.id FROM Course c WHERE c.semesterId = :semesterId ORDER BY c.id")
+    List<Long> findIdsBySemesterId(@Param("semesterId") Long semesterId);
+    
+    @Query("SELECT c.id FROM Course c WHERE c.subjectId = :subjectId " +
+           "AND (:semesterId IS NULL OR c.semesterId = :semesterId) ORDER BY c.id")
+    List<Long> findIdsBySubjectId(@Param("subjectId") Long subjectId, @Param("semesterId") Long semesterId);
+    
+    @Query("SELECT c.id AS classId, s.gradeFormula AS gradeFormula FROM Course c " +
+           "LEFT JOIN Subject s ON c.subjectId = s.id WHERE c.semesterId = :semesterId")
+    List<ClassGradeFormula> findGradeFormulasBySemesterId(@Param("semesterId") Long semesterId);
+    
+    @Query("SELECT c.id AS id, c.enrolledCount AS enrolledCount, c.maxStudent AS maxStudent FROM Course c WHERE c.id = :classId")
+    Optional<ClassSeatCount> findSeatCountById(@Param("classId") Long classId);
+    
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM Course c WHERE c.id = :classId")
+    Optional<Course> findByIdForUpdate(@Param("classId") Long classId);
+    
+    @Modifying
+    @Query("UPDATE Course c SET c.attendanceSessions = c.attendanceSessions + :delta WHERE c.id = :classId")
+    int adjustAttendanceSessions(@Param("classId") Long classId, @Param("delta") int delta);
+    
+    @Modifying
+    @Query(value = "UPDATE classes SET attendance_sessions = " +
+                   "(SELECT COUNT(DISTINCT a.attendance_date) FROM attendance a WHERE a.class_id = classes.id) " +
+                   "WHERE id = :classId", nativeQuery = true)
+    int syncAttendanceSessions(@Param("classId") Long classId);
+    
+    @Modifying
+    @Query(value = "UPDATE classes SET attendance_sessions = " +
+                   "(SELECT COUNT(DISTINCT a.attendance_date) FROM attendance a WHERE a.class_id = classes.id)",
+           nativeQuery = true)
+    int syncAllAttendanceSessions();
+    
+    @Modifying
+    @Query("UPDATE Course c SET c.waitlistTail = c.waitlistTail + 1 WHERE c.id = :classId")
+    int incrementWaitlistTail(@Param("classId") Long classId);
+    
+    @Query("SELECT c.waitlistTail FROM Course c WHERE c.id = :classId")
+    Long findWaitlistTail(@Param("classId") Long classId);
+    
+    @Modifying
+    @Query("UPDATE Course c SET c.waitlistTail = c.waitlistTail - 1 WHERE c.id = :classId")
+    int decrementWaitlistTail(@Param("classId") Long classId);
+    
+    @Modifying
+    @Query("UPDATE Course c SET c.waitlistHead = c.waitlistHead + :count WHERE c.id = :classId")
+    int advanceWaitlistHead(@Param("classId") Long classId, @Param("count") long count);
 }
@@ -0,0 +1,17 @@
+package com.sms.repository;
+
+import com.sms.entity.GradeAudit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface GradeAuditRepository extends JpaRepository<GradeAudit, Long> {
+    
+    Page<GradeAudit> findByGradeIdOrderByChangedAtDescIdDesc(Long gradeId, Pageable pageable);
+    
+    Page<GradeAudit> findByStudentIdOrderByChangedAtDescIdDesc(Long studentId, Pageable pageable);
+    
+    Page<GradeAudit> findByClassIdOrderByChangedAtDescIdDesc(Long classId, Pageable pageable);
+}
@@ -1,13 +1,22 @@
 package com.sms.repository;
 
 import com.sms.entity.Grade;
+import com.sms.repository.projection.GradeTotal;
+import com.sms.repository.projection.TranscriptGradeRow;
+import com.sms.repository.projection.TranscriptLine;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface GradeRepository extends JpaRepository<Grade, Long> {
@@ -19,12 +28,53 @@ public interface GradeRepository extends JpaRepository<Grade, Long> {
     @Query("SELECT g FROM Grade g WHERE g.classId = :classId AND g.studentId = :studentId")
     Optional<Grade> findByClassIdAndStudentId(@Param("classId") Long classId, @Param("studentId") Long studentId);
     
+    @Query("SELECT g FROM Grade g WHERE g.classId = :classId AND g.studentId IN :studentIds")
+    List<Grade> findByClassIdAndStudentIdIn(@Param("classId") Long classId, @Param("studentIds") Collection<Long> studentIds);
+    
     @Query("SELECT g FROM Grade g WHERE g.classId = :classId ORDER BY g.total DESC")
     List<Grade> findByClassIdOrderByTotalDesc(@Param("classId") Long classId);
     
     @Query("SELECT AVG(g.total) FROM Grade g WHERE g.classId = :classId")
     Double getAverageGradeByClassId(@Param("classId") Long classId);
     
+    @Query("SELECT g.classId AS classId, g.studentId AS studentId, g.total AS total FROM Grade g " +
+           "WHERE g.classId IN :classIds AND g.total IS NOT NULL ORDER BY g.classId, g.total DESC, g.studentId")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    Stream<GradeTotal> streamTotalsByClassIdIn(@Param("classIds") Collection<Long> classIds);
+    
+    @Query("SELECT g.studentId AS studentId, c.semesterId AS semesterId, s.credit AS credit, g.total AS total " +
+           "FROM Grade g JOIN Course c ON g.classId = c.id JOIN Subject s ON c.subjectId = s.id " +
+           "WHERE g.total IS NOT NULL AND c.semesterId IS NOT NULL ORDER BY g.studentId, c.semesterId")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    Stream<TranscriptGradeRow> streamTranscriptRows();
+    
+    @Query("SELECT g.studentId AS studentId, c.semesterId AS semesterId, s.credit AS credit, g.total AS total " +
+           "FROM Grade g JOIN Course c ON g.classId = c.id JOIN Subject s ON c.subjectId = s.id " +
+           "WHERE g.studentId IN :studentIds AND g.total IS NOT NULL AND c.semesterId IS NOT NULL " +
+           "ORDER BY g.studentId, c.semesterId")
+    List<TranscriptGradeRow> findTranscriptRowsByStudentIdIn(@Param("studentIds") Collection<Long> studentIds);
+    
+    @Query("SELECT DISTINCT g.studentId FROM Grade g WHERE g.classId = :classId AND g.total IS NOT NULL")
+    List<Long> findGradedStudentIdsByClassId(@Param("classId") Long classId);
+    
+    @Query("SELECT DISTINCT g.studentId FROM Grade g JOIN Course c ON g.classId = c.id " +
+           "WHERE c.subjectId = :subjectId AND g.total IS NOT NULL")
+    List<Long> findGradedStudentIdsBySubjectId(@Param("subjectId") Long subjectId);
+    
+    @Query("SELECT g.studentId AS studentId, c.semesterId AS semesterId, sem.name AS semesterName, " +
+           "s.subjectCode AS subjectCode, s.subjectName AS subjectName, s.credit AS credit, g.midterm AS midterm, " +
+           "g.finalGrade AS finalGrade, g.other AS other, g.total AS total " +
+           "FROM Grade g JOIN Course c ON g.classId = c.id LEFT JOIN Subject s ON c.subjectId = s.id " +
+           "LEFT JOIN Semester sem ON c.semesterId = sem.id " +
+           "WHERE g.studentId IN :studentIds ORDER BY g.studentId, c.semesterId, s.subjectCode")
+    List<TranscriptLine> findTranscriptLinesByStudentIdIn(@Param("studentIds") Collection<Long> studentIds);
+    
+    @Query("SELECT g FROM Grade g WHERE g.classId IN (SELECT c.id FROM Course c WHERE c.semesterId = :semesterId) " +
+           "AND g.id > :afterId ORDER BY g.id")
+    List<Grade> findChunkBySemesterId(@Param("semesterId") Long semesterId,
+                                      @Param("afterId") Long afterId,
+                                      Pageable pageable);
+    
     @Query("SELECT COUNT(g) FROM Grade g WHERE g.classId = :classId")
     Long countByClassId(@Param("classId") Long classId);
 }
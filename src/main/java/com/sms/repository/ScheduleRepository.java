@@ -6,6 +6,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -13,6 +14,8 @@ public interface ScheduleRepository extends JpaRepository<Schedule, Long> {
     
     List<Schedule> findByClassId(Long classId);
     
+    List<Schedule> findByClassIdIn(Collection<Long> classIds);
+    
     List<Schedule> findByDayOfWeek(String dayOfWeek);
     
     @Query("SELECT s FROM Schedule s WHERE s.classId = :classId AND s.dayOfWeek = :dayOfWeek")
@@ -1,6 +1,7 @@
 package com.sms.repository;
 
 import com.sms.entity.Student;
+import com.sms.repository.projection.TranscriptStudent;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -8,6 +9,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -16,6 +18,8 @@ public interface StudentRepository extends JpaRepository<Student, Long> {
     
     Optional<Student> findByStudentCode(String studentCode);
     
+    List<Student> findByStudentCodeIn(Collection<String> studentCodes);
+    
     Optional<Student> findByUserId(Long userId);
     
     List<Student> findByClassName(String className);
@@ -48,4 +52,20 @@ public interface StudentRepository extends JpaRepository<Student, Long> {
                                 @Param("courseYear") Integer courseYear,
                                 @Param("gender") String gender,
                                 Pageable pageable);
+    
+    String TRANSCRIPT_STUDENT_SELECT = "SELECT s.id AS studentId, s.studentCode AS studentCode, u.fullName AS studentName, " +
+            "s.className AS className, s.major AS major, s.courseYear AS courseYear " +
+            "FROM Student s LEFT JOIN User u ON s.userId = u.id ";
+    
+    @Query(TRANSCRIPT_STUDENT_SELECT + "WHERE s.id = :studentId")
+    Optional<TranscriptStudent> findTranscriptStudent(@Param("studentId") Long studentId);
+    
+    @Query(TRANSCRIPT_STUDENT_SELECT + "WHERE s.major = :major AND s.courseYear = :courseYear AND s.id > :afterId " +
+           "ORDER BY s.id")
+    List<TranscriptStudent> findTranscriptStudentChunk(@Param("major") String major,
+                                                       @Param("courseYear") Integer courseYear,
+                                                       @Param("afterId") Long afterId,
+                                                       Pageable pageable);
+    
+    long countByMajorAndCourseYear(String major, Integer courseYear);
 }
@@ -0,0 +1,42 @@
+package com.sms.repository;
+
+import com.sms.entity.StudentTermTranscript;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface StudentTermTranscriptRepository extends JpaRepository<StudentTermTranscript, Long> {
+    
+    List<StudentTermTranscript> findByStudentIdOrderBySemesterId(Long studentId);
+    
+    List<StudentTermTranscript> findByStudentIdInOrderByStudentIdAscSemesterIdAsc(Collection<Long> studentIds);
+    
+    @Query("SELECT t.studentId FROM StudentTermTranscript t " +
+           "WHERE t.semesterId = :semesterId AND t.studentId IN :studentIds")
+    List<Long> findStudentIdsBySemesterIdAndStudentIdIn(@Param("semesterId") Long semesterId,
+                                                        @Param("studentIds") Collection<Long> studentIds);
+    
+    @Modifying
+    @Query("UPDATE StudentTermTranscript t SET t.creditsAttempted = t.creditsAttempted + :attempted, " +
+           "t.creditsEarned = t.creditsEarned + :earned, t.gradePoints = t.gradePoints + :points, " +
+           "t.updatedAt = CURRENT_TIMESTAMP WHERE t.semesterId = :semesterId AND t.studentId IN :studentIds")
+    int applyDelta(@Param("semesterId") Long semesterId,
+                   @Param("studentIds") Collection<Long> studentIds,
+                   @Param("attempted") int attempted,
+                   @Param("earned") int earned,
+                   @Param("points") int points);
+    
+    @Modifying
+    @Query("DELETE FROM StudentTermTranscript t")
+    int deleteAllTranscripts();
+    
+    @Modifying
+    @Query("DELETE FROM StudentTermTranscript t WHERE t.studentId IN :studentIds")
+    int deleteByStudentIdIn(@Param("studentIds") Collection<Long> studentIds);
+}
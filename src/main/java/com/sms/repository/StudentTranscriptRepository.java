@@ -0,0 +1,40 @@
+package com.sms.repository;
+
+import com.sms.entity.StudentTranscript;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface StudentTranscriptRepository extends JpaRepository<StudentTranscript, Long> {
+    
+    Optional<StudentTranscript> findByStudentId(Long studentId);
+    
+    List<StudentTranscript> findByStudentIdIn(Collection<Long> studentIds);
+    
+    @Query("SELECT t.studentId FROM StudentTranscript t WHERE t.studentId IN :studentIds")
+    List<Long> findStudentIdsByStudentIdIn(@Param("studentIds") Collection<Long> studentIds);
+    
+    @Modifying
+    @Query("UPDATE StudentTranscript t SET t.creditsAttempted = t.creditsAttempted + :attempted, " +
+           "t.creditsEarned = t.creditsEarned + :earned, t.gradePoints = t.gradePoints + :points, " +
+           "t.updatedAt = CURRENT_TIMESTAMP WHERE t.studentId IN :studentIds")
+    int applyDelta(@Param("studentIds") Collection<Long> studentIds,
+                   @Param("attempted") int attempted,
+                   @Param("earned") int earned,
+                   @Param("points") int points);
+    
+    @Modifying
+    @Query("DELETE FROM StudentTranscript t")
+    int deleteAllTranscripts();
+    
+    @Modifying
+    @Query("DELETE FROM StudentTranscript t WHERE t.studentId IN :studentIds")
+    int deleteByStudentIdIn(@Param("studentIds") Collection<Long> studentIds);
+}
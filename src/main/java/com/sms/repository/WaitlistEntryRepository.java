@@ -0,0 +1,39 @@
+package com.sms.repository;
+
+import com.sms.entity.WaitlistEntry;
+import com.sms.repository.projection.WaitlistPosition;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface WaitlistEntryRepository extends JpaRepository<WaitlistEntry, Long> {
+    
+    @Query("SELECT w FROM WaitlistEntry w WHERE w.classId = :classId AND w.studentId = :studentId")
+    Optional<WaitlistEntry> findByClassIdAndStudentId(@Param("classId") Long classId, @Param("studentId") Long studentId);
+    
+    @Query("SELECT w FROM WaitlistEntry w WHERE w.classId = :classId ORDER BY w.ticket ASC")
+    List<WaitlistEntry> findHeadByClassId(@Param("classId") Long classId, Pageable pageable);
+    
+    List<WaitlistEntry> findByStudentId(Long studentId);
+    
+    @Query("SELECT w.classId AS classId, w.ticket - c.waitlistHead + 1 AS position FROM WaitlistEntry w " +
+           "JOIN Course c ON w.classId = c.id WHERE w.studentId = :studentId")
+    List<WaitlistPosition> findPositionsByStudentId(@Param("studentId") Long studentId);
+    
+    @Query("SELECT w.classId AS classId, w.ticket - c.waitlistHead + 1 AS position FROM WaitlistEntry w " +
+           "JOIN Course c ON w.classId = c.id WHERE w.classId = :classId AND w.studentId = :studentId")
+    Optional<WaitlistPosition> findPosition(@Param("classId") Long classId, @Param("studentId") Long studentId);
+    
+    @Modifying
+    @Query("UPDATE WaitlistEntry w SET w.ticket = w.ticket - 1 WHERE w.classId = :classId AND w.ticket > :ticket")
+    int shiftTicketsAfter(@Param("classId") Long classId, @Param("ticket") Long ticket);
+    
+    void deleteByClassId(Long classId);
+}
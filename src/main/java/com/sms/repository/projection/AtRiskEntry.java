@@ -0,0 +1,20 @@
+package com.sms.repository.projection;
+
+import java.time.LocalDate;
+
+/**
+ * Một dòng kết quả quét chuyên cần kèm mã lớp, mã và tên sinh viên
+ */
+public interface AtRiskEntry {
+    Long getClassId();
+    String getClassCode();
+    Long getStudentId();
+    String getStudentCode();
+    String getStudentName();
+    String getRule();
+    Integer getTotalSessions();
+    Integer getAbsentCount();
+    Integer getLateCount();
+    Double getRatio();
+    LocalDate getScanDate();
+}
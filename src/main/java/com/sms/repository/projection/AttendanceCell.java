@@ -0,0 +1,13 @@
+package com.sms.repository.projection;
+
+import java.time.LocalDate;
+
+/**
+ * Một ô điểm danh (lớp, sinh viên, ngày, trạng thái), dùng để dựng bảng điểm danh và bitmap điểm danh
+ */
+public interface AttendanceCell {
+    Long getClassId();
+    Long getStudentId();
+    LocalDate getAttendanceDate();
+    String getStatus();
+}
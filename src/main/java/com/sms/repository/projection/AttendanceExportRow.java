@@ -0,0 +1,18 @@
+package com.sms.repository.projection;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Một dòng điểm danh khi xuất file, đã nối sẵn thông tin lớp, môn học và sinh viên
+ */
+public interface AttendanceExportRow {
+    String getClassCode();
+    String getSubjectCode();
+    String getSubjectName();
+    String getStudentCode();
+    String getStudentName();
+    LocalDate getAttendanceDate();
+    String getStatus();
+    LocalDateTime getRecordedAt();
+}
@@ -0,0 +1,9 @@
+package com.sms.repository.projection;
+
+/**
+ * Công thức tính điểm của môn học mà lớp giảng dạy
+ */
+public interface ClassGradeFormula {
+    Long getClassId();
+    String getGradeFormula();
+}
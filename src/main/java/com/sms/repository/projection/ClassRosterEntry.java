@@ -0,0 +1,14 @@
+package com.sms.repository.projection;
+
+import java.time.LocalDateTime;
+
+/**
+ * Một sinh viên trong danh sách lớp
+ */
+public interface ClassRosterEntry {
+    Long getClassId();
+    Long getStudentId();
+    String getStudentCode();
+    String getFullName();
+    LocalDateTime getRegisteredAt();
+}
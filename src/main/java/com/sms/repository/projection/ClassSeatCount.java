@@ -0,0 +1,10 @@
+package com.sms.repository.projection;
+
+/**
+ * Số chỗ đã giữ và sức chứa của một lớp học
+ */
+public interface ClassSeatCount {
+    Long getId();
+    Integer getEnrolledCount();
+    Integer getMaxStudent();
+}
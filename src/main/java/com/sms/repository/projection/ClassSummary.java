@@ -0,0 +1,22 @@
+package com.sms.repository.projection;
+
+import java.time.LocalDateTime;
+
+/**
+ * Thông tin chung của lớp học kèm tên môn học, học kỳ và giảng viên, lấy bằng một câu truy vấn
+ */
+public interface ClassSummary {
+    Long getId();
+    String getClassCode();
+    Long getSubjectId();
+    String getSubjectName();
+    String getSubjectCode();
+    Long getSemesterId();
+    String getSemesterName();
+    Long getTeacherId();
+    String getTeacherName();
+    Integer getMaxStudent();
+    Integer getCurrentStudentCount();
+    LocalDateTime getCreatedAt();
+    String getStatus();
+}
@@ -0,0 +1,9 @@
+package com.sms.repository.projection;
+
+/**
+ * Khóa sinh viên: ngành và năm nhập học
+ */
+public interface CohortKey {
+    String getMajor();
+    Integer getCourseYear();
+}
@@ -0,0 +1,13 @@
+package com.sms.repository.projection;
+
+/**
+ * Số liệu điểm danh tổng hợp của một lượt đăng ký kèm số buổi của lớp, dùng khi quét sinh viên có nguy cơ
+ */
+public interface EnrollmentAttendanceCount {
+    Long getClassId();
+    Long getStudentId();
+    Integer getTotalSessions();
+    Integer getPresentCount();
+    Integer getAbsentCount();
+    Integer getLateCount();
+}
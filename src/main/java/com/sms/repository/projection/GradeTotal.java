@@ -0,0 +1,10 @@
+package com.sms.repository.projection;
+
+/**
+ * Điểm tổng kết của một sinh viên trong một lớp, dùng cho thống kê điểm
+ */
+public interface GradeTotal {
+    Long getClassId();
+    Long getStudentId();
+    Float getTotal();
+}
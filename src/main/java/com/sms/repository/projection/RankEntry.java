@@ -0,0 +1,15 @@
+package com.sms.repository.projection;
+
+/**
+ * Một dòng của bảng xếp hạng kèm thông tin sinh viên
+ */
+public interface RankEntry {
+    Long getStudentId();
+    String getStudentCode();
+    String getStudentName();
+    Double getScore();
+    Integer getRankPosition();
+    Integer getDenseRankPosition();
+    Double getPercentile();
+    Integer getRankedCount();
+}
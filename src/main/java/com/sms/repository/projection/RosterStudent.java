@@ -0,0 +1,14 @@
+package com.sms.repository.projection;
+
+/**
+ * Sinh viên trong danh sách lớp kèm thông tin tài khoản, dùng cho phân trang theo khóa
+ */
+public interface RosterStudent {
+    Long getStudentId();
+    String getStudentCode();
+    String getStudentName();
+    String getEmail();
+    String getClassName();
+    String getMajor();
+    Integer getCourseYear();
+}
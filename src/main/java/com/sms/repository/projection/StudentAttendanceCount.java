@@ -0,0 +1,13 @@
+package com.sms.repository.projection;
+
+/**
+ * Số buổi điểm danh theo trạng thái của một sinh viên trong lớp kèm mã và tên sinh viên
+ */
+public interface StudentAttendanceCount {
+    Long getStudentId();
+    String getStudentCode();
+    String getStudentName();
+    Integer getPresentCount();
+    Integer getAbsentCount();
+    Integer getLateCount();
+}
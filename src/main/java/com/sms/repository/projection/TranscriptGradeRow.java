@@ -0,0 +1,11 @@
+package com.sms.repository.projection;
+
+/**
+ * Điểm tổng kết của một sinh viên kèm học kỳ và số tín chỉ của môn, dùng để dựng bảng điểm tích lũy
+ */
+public interface TranscriptGradeRow {
+    Long getStudentId();
+    Long getSemesterId();
+    Integer getCredit();
+    Float getTotal();
+}
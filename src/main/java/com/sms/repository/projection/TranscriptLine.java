@@ -0,0 +1,17 @@
+package com.sms.repository.projection;
+
+/**
+ * Một môn học trên bảng điểm: điểm của sinh viên kèm học kỳ và môn học của lớp
+ */
+public interface TranscriptLine {
+    Long getStudentId();
+    Long getSemesterId();
+    String getSemesterName();
+    String getSubjectCode();
+    String getSubjectName();
+    Integer getCredit();
+    Float getMidterm();
+    Float getFinalGrade();
+    Float getOther();
+    Float getTotal();
+}
@@ -0,0 +1,13 @@
+package com.sms.repository.projection;
+
+/**
+ * Thông tin sinh viên in trên bảng điểm
+ */
+public interface TranscriptStudent {
+    Long getStudentId();
+    String getStudentCode();
+    String getStudentName();
+    String getClassName();
+    String getMajor();
+    Integer getCourseYear();
+}
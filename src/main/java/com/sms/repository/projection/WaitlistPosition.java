@@ -0,0 +1,9 @@
+package com.sms.repository.projection;
+
+/**
+ * Vị trí của sinh viên trong hàng chờ của một lớp học
+ */
+public interface WaitlistPosition {
+    Long getClassId();
+    Long getPosition();
+}
@@ -0,0 +1,23 @@
+package com.sms.service;
+
+import com.sms.dto.response.AdmissionTicketResponse;
+
+public interface AdmissionControlService {
+    
+    String TICKET_HEADER = "X-Admission-Ticket";
+    
+    /**
+     * Xin vào xử lý một yêu cầu đăng ký, trả về vé xếp hàng nếu đã vượt quá sức chứa
+     */
+    AdmissionTicketResponse tryAdmit(String ticketId);
+    
+    /**
+     * Trả lại lượt xử lý sau khi yêu cầu đã được tiếp nhận xong
+     */
+    void release(Long semesterId);
+    
+    /**
+     * Trạng thái và vị trí hiện tại của vé xếp hàng
+     */
+    AdmissionTicketResponse getTicketStatus(String ticketId);
+}
@@ -0,0 +1,25 @@
+package com.sms.service;
+
+import com.sms.dto.response.AtRiskScanResponse;
+import com.sms.dto.response.AtRiskStudentListResponse;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDate;
+
+public interface AtRiskScanService {
+    
+    /**
+     * Quét học kỳ hiện tại (theo ngày hôm nay), trả về null nếu hôm nay không thuộc học kỳ nào
+     */
+    AtRiskScanResponse scanCurrentSemester();
+    
+    /**
+     * Quét các lớp đang hoạt động của học kỳ và ghi đè kết quả quét của ngày hôm nay
+     */
+    AtRiskScanResponse scanSemester(Long semesterId);
+    
+    /**
+     * Danh sách sinh viên có nguy cơ theo trang; scanDate null nghĩa là lần quét gần nhất
+     */
+    AtRiskStudentListResponse getAtRiskStudents(Long semesterId, LocalDate scanDate, Pageable pageable);
+}
@@ -0,0 +1,28 @@
+package com.sms.service;
+
+import com.sms.dto.response.AttendanceRateResponse;
+
+import java.util.List;
+
+public interface AttendanceAnalyticsService {
+    
+    /**
+     * Tỷ lệ chuyên cần của từng sinh viên trong lớp
+     */
+    List<AttendanceRateResponse> getClassRates(Long classId);
+    
+    /**
+     * Tỷ lệ chuyên cần của sinh viên ở từng lớp trong học kỳ
+     */
+    List<AttendanceRateResponse> getStudentRates(Long studentId, Long semesterId);
+    
+    /**
+     * Các lượt đăng ký trong học kỳ có tỷ lệ vắng vượt ngưỡng (0..1) ở bất kỳ lớp nào
+     */
+    List<AttendanceRateResponse> findAbsentAbove(Long semesterId, double absentRatio);
+    
+    /**
+     * Đánh dấu dữ liệu điểm danh của lớp đã thay đổi, nạp lại sau khi transaction commit
+     */
+    void invalidateClass(Long classId);
+}
@@ -0,0 +1,17 @@
+package com.sms.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+public interface AttendanceExportService {
+    
+    /**
+     * Kiểm tra học kỳ và định dạng (csv, xlsx) trước khi bắt đầu ghi response, trả về tên file tải xuống
+     */
+    String prepareExport(Long semesterId, String format);
+    
+    /**
+     * Ghi toàn bộ điểm danh của học kỳ (lọc theo khoa nếu có) thẳng vào output, trả về số dòng đã ghi
+     */
+    long exportSemester(Long semesterId, String department, String format, OutputStream output) throws IOException;
+}
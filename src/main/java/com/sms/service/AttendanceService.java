@@ -1,6 +1,7 @@
 package com.sms.service;
 
 import com.sms.dto.request.AttendanceRequest;
+import com.sms.dto.response.AttendanceMatrixResponse;
 import com.sms.dto.response.AttendanceResponse;
 import com.sms.dto.response.AttendanceReportResponse;
 
@@ -15,4 +16,9 @@ public interface AttendanceService {
     List<AttendanceResponse> getAttendanceByClassAndDate(Long classId, LocalDate date);
     List<AttendanceResponse> getAttendanceByStudent(Long studentId);
     AttendanceReportResponse generateAttendanceReport(Long classId);
+    
+    /**
+     * Bảng điểm danh sinh viên x ngày của lớp, mỗi ô là một ký tự trạng thái
+     */
+    AttendanceMatrixResponse getAttendanceMatrix(Long classId);
 }
@@ -0,0 +1,23 @@
+package com.sms.service;
+
+import com.sms.entity.Attendance;
+
+import java.util.List;
+
+public interface AttendanceSummaryService {
+    
+    /**
+     * Cộng dồn thay đổi điểm danh của một lớp vào bảng tổng hợp, gọi trong cùng transaction với thao tác ghi điểm danh
+     */
+    void applyChanges(Long classId, List<Attendance> removed, List<Attendance> added, int sessionDelta);
+    
+    /**
+     * Dựng lại bảng tổng hợp và số buổi điểm danh của một lớp từ bảng attendance, trả về số sinh viên
+     */
+    int rebuild(Long classId);
+    
+    /**
+     * Dựng lại bảng tổng hợp và số buổi điểm danh của tất cả lớp học, trả về số dòng tổng hợp
+     */
+    int rebuildAll();
+}
@@ -0,0 +1,12 @@
+package com.sms.service;
+
+import com.sms.dto.request.AttendanceSyncRequest;
+import com.sms.dto.response.AttendanceSyncResponse;
+
+public interface AttendanceSyncService {
+    
+    /**
+     * Áp dụng một lô delta điểm danh từ thiết bị ngoại tuyến; lô đã xử lý thì trả lại kết quả cũ
+     */
+    AttendanceSyncResponse sync(AttendanceSyncRequest request);
+}
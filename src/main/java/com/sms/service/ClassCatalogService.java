@@ -0,0 +1,30 @@
+package com.sms.service;
+
+import com.sms.dto.response.StudentClassListResponse;
+import com.sms.dto.response.StudentClassResponse;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+
+public interface ClassCatalogService {
+    
+    /**
+     * Các lớp thuộc học kỳ đang mở mà sinh viên chưa đăng ký
+     */
+    List<StudentClassResponse> getAvailableClasses(Long studentId);
+    
+    /**
+     * Các lớp thuộc học kỳ đang mở mà sinh viên chưa đăng ký, lọc theo học kỳ, từ khóa và phân trang
+     */
+    StudentClassListResponse getAvailableClasses(Long studentId, Long semesterId, String keyword, Pageable pageable);
+    
+    /**
+     * Đánh dấu lớp học cần nạp lại vào catalog sau khi transaction hiện tại commit
+     */
+    void invalidateClass(Long classId);
+    
+    /**
+     * Dựng lại toàn bộ catalog sau khi danh sách học kỳ đang mở thay đổi
+     */
+    void invalidateSemesters();
+}
@@ -3,8 +3,13 @@ package com.sms.service;
 import com.sms.dto.request.ClassRequest;
 import com.sms.dto.response.ClassListResponse;
 import com.sms.dto.response.ClassResponse;
+import com.sms.dto.response.ClassRosterPageResponse;
+import com.sms.dto.response.RosterImportResponse;
+import com.sms.util.ImportProgress;
 import org.springframework.data.domain.Pageable;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 
 public interface ClassService {
@@ -25,49 +30,49 @@ public interface ClassService {
     void deleteClass(Long classId);
     
     /**
-     * Lấy thông tin lớp học theo ID
+     * Lấy thông tin lớp học theo ID, kèm danh sách sinh viên khi includeStudents = true
      */
-    ClassResponse getClassById(Long classId);
+    ClassResponse getClassById(Long classId, boolean includeStudents);
     
     /**
-     * Lấy thông tin lớp học theo mã lớp
+     * Lấy thông tin lớp học theo mã lớp, kèm danh sách sinh viên khi includeStudents = true
      */
-    ClassResponse getClassByCode(String classCode);
+    ClassResponse getClassByCode(String classCode, boolean includeStudents);
     
     /**
      * Lấy danh sách lớp học với phân trang
      */
-    ClassListResponse getAllClasses(Pageable pageable);
+    ClassListResponse getAllClasses(Pageable pageable, boolean includeStudents);
     
     /**
      * Tìm kiếm lớp học với phân trang
      */
-    ClassListResponse searchClasses(Pageable pageable, String keyword);
+    ClassListResponse searchClasses(Pageable pageable, String keyword, boolean includeStudents);
     
     /**
      * Lấy danh sách lớp học theo môn học
      */
-    List<ClassResponse> getClassesBySubject(Long subjectId);
+    List<ClassResponse> getClassesBySubject(Long subjectId, boolean includeStudents);
     
     /**
      * Lấy danh sách lớp học theo học kỳ
      */
-    List<ClassResponse> getClassesBySemester(Long semesterId);
+    List<ClassResponse> getClassesBySemester(Long semesterId, boolean includeStudents);
     
     /**
      * Lấy danh sách lớp học theo giáo viên
      */
-    List<ClassResponse> getClassesByTeacher(Long teacherId);
+    List<ClassResponse> getClassesByTeacher(Long teacherId, boolean includeStudents);
     
     /**
      * Lấy danh sách lớp học theo môn học và học kỳ
      */
-    List<ClassResponse> getClassesBySubjectAndSemester(Long subjectId, Long semesterId);
+    List<ClassResponse> getClassesBySubjectAndSemester(Long subjectId, Long semesterId, boolean includeStudents);
     
     /**
      * Lấy danh sách lớp học theo giáo viên và học kỳ
      */
-    List<ClassResponse> getClassesByTeacherAndSemester(Long teacherId, Long semesterId);
+    List<ClassResponse> getClassesByTeacherAndSemester(Long teacherId, Long semesterId, boolean includeStudents);
     
     /**
      * Phân công giáo viên giảng dạy
@@ -85,7 +90,12 @@ public interface ClassService {
     List<ClassResponse.StudentInfo> getClassStudents(Long classId);
     
     /**
-     * Import sinh viên vào lớp học từ file Excel
+     * Lấy danh sách sinh viên trong lớp theo trang, phân trang theo khóa (mã sinh viên hoặc họ tên)
      */
-    void importStudentsFromFile(Long classId, org.springframework.web.multipart.MultipartFile file);
+    ClassRosterPageResponse getClassRosterPage(Long classId, String sort, String cursor, int size);
+    
+    /**
+     * Import sinh viên vào lớp học từ file Excel, trả về kết quả từng dòng bị bỏ qua
+     */
+    RosterImportResponse importStudentsFromFile(Long classId, InputStream inputStream, ImportProgress progress) throws IOException;
 }
@@ -0,0 +1,24 @@
+package com.sms.service;
+
+import com.sms.dto.response.GradeAuditListResponse;
+import com.sms.entity.Grade;
+import org.springframework.data.domain.Pageable;
+
+public interface GradeAuditService {
+    
+    String CREATED = "CREATED";
+    String UPDATED = "UPDATED";
+    String DELETED = "DELETED";
+    String RECOMPUTED = "RECOMPUTED";
+    
+    /**
+     * Ghi nhận một thay đổi điểm trong transaction hiện tại; bản ghi chỉ được đưa đi lưu sau khi transaction commit.
+     * before là trạng thái trước khi ghi (null nếu tạo mới), after là trạng thái sau khi ghi (null nếu xóa)
+     */
+    void record(String action, Grade before, Grade after);
+    
+    /**
+     * Lịch sử thay đổi điểm theo đúng một trong các tiêu chí gradeId, studentId, classId, mới nhất trước
+     */
+    GradeAuditListResponse getHistory(Long gradeId, Long studentId, Long classId, Pageable pageable);
+}
@@ -0,0 +1,11 @@
+package com.sms.service;
+
+import com.sms.dto.response.GradeRecomputeResponse;
+
+public interface GradeRecomputeService {
+    
+    /**
+     * Tính lại điểm tổng kết của mọi điểm trong học kỳ theo công thức hiện tại của từng môn học
+     */
+    GradeRecomputeResponse recomputeSemester(Long semesterId);
+}
@@ -1,8 +1,13 @@
 package com.sms.service;
 
+import com.sms.dto.request.GradebookRequest;
 import com.sms.dto.request.StudentGradeRequest;
+import com.sms.dto.response.GradebookImportResponse;
+import com.sms.dto.response.GradebookResponse;
 import com.sms.dto.response.StudentGradeResponse;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 
 public interface GradeService {
@@ -12,4 +17,15 @@ public interface GradeService {
     StudentGradeResponse getGradeByClassAndStudent(Long classId, Long studentId);
     void deleteGrade(Long gradeId);
     List<StudentGradeResponse> exportGradesByClass(Long classId);
+    
+    /**
+     * Nhập điểm cho cả lớp trong một lần gửi, trả về kết quả theo từng sinh viên
+     */
+    GradebookResponse saveGradebook(Long classId, GradebookRequest request);
+    
+    /**
+     * Nhập điểm cả lớp từ file Excel (Mã SV, giữa kỳ, cuối kỳ, điểm khác) trong một transaction,
+     * trả về các dòng bị bỏ qua kèm lý do
+     */
+    GradebookImportResponse importGradebook(Long classId, InputStream inputStream) throws IOException;
 }
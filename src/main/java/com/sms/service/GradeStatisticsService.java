@@ -0,0 +1,26 @@
+package com.sms.service;
+
+import com.sms.dto.response.GradeStatisticsResponse;
+
+public interface GradeStatisticsService {
+    
+    /**
+     * Thống kê điểm tổng kết của một lớp, kèm thứ hạng từng sinh viên
+     */
+    GradeStatisticsResponse getClassStatistics(Long classId);
+    
+    /**
+     * Thống kê gộp các lớp của một môn học; semesterId null nghĩa là mọi học kỳ
+     */
+    GradeStatisticsResponse getSubjectStatistics(Long subjectId, Long semesterId);
+    
+    /**
+     * Thống kê gộp tất cả lớp của một học kỳ
+     */
+    GradeStatisticsResponse getSemesterStatistics(Long semesterId);
+    
+    /**
+     * Bỏ thống kê đã lưu của lớp sau khi transaction ghi điểm commit
+     */
+    void invalidateClass(Long classId);
+}
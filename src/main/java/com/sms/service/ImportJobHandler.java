@@ -0,0 +1,28 @@
+package com.sms.service;
+
+import com.sms.util.ImportProgress;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Xử lý một loại import cụ thể; mỗi bean cài đặt interface này được đăng ký theo getJobType()
+ */
+public interface ImportJobHandler {
+    
+    /**
+     * Loại job mà handler xử lý
+     */
+    String getJobType();
+    
+    /**
+     * Kiểm tra đối tượng đích và file ngay khi upload, trước khi đưa job vào hàng đợi
+     */
+    void validate(Long targetId, MultipartFile file);
+    
+    /**
+     * Thực hiện import trên luồng nền, cập nhật tiến độ và trả về kết quả để tải về sau
+     */
+    Object execute(Long targetId, InputStream inputStream, ImportProgress progress) throws IOException;
+}
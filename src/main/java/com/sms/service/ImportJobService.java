@@ -0,0 +1,24 @@
+package com.sms.service;
+
+import com.sms.dto.response.ImportJobResponse;
+import org.springframework.web.multipart.MultipartFile;
+
+public interface ImportJobService {
+    
+    String CLASS_ROSTER = "CLASS_ROSTER";
+    
+    /**
+     * Nhận file import và đưa vào hàng đợi xử lý nền, trả về ngay mã job
+     */
+    ImportJobResponse submit(String jobType, Long targetId, MultipartFile file);
+    
+    /**
+     * Trạng thái và tiến độ hiện tại của job
+     */
+    ImportJobResponse getJob(String jobId);
+    
+    /**
+     * Kết quả của job đã hoàn tất
+     */
+    Object getJobResult(String jobId);
+}
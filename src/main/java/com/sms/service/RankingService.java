@@ -0,0 +1,45 @@
+package com.sms.service;
+
+import com.sms.dto.response.RankRebuildResponse;
+import com.sms.dto.response.RankingListResponse;
+import org.springframework.data.domain.Pageable;
+
+import java.util.Collection;
+
+public interface RankingService {
+    
+    /**
+     * Tính lại xếp hạng của lớp
+     */
+    void refreshClass(Long classId);
+    
+    /**
+     * Tính lại xếp hạng của các khóa có ít nhất một trong các sinh viên, mỗi khóa một lần
+     */
+    void refreshCohorts(Collection<Long> studentIds);
+    
+    /**
+     * Dựng lại toàn bộ bảng xếp hạng lớp và khóa
+     */
+    RankRebuildResponse rebuildAll();
+    
+    /**
+     * Bảng xếp hạng của lớp theo điểm tổng kết, phân trang từ hạng cao nhất
+     */
+    RankingListResponse getClassRanking(Long classId, Pageable pageable);
+    
+    /**
+     * Bảng xếp hạng của khóa (ngành và năm nhập học) theo GPA tích lũy, phân trang từ hạng cao nhất
+     */
+    RankingListResponse getCohortRanking(String major, Integer courseYear, Pageable pageable);
+    
+    /**
+     * Thứ hạng của sinh viên trong lớp
+     */
+    RankingListResponse.StudentRankResponse getStudentClassRank(Long studentId, Long classId);
+    
+    /**
+     * Thứ hạng của sinh viên trong khóa
+     */
+    RankingListResponse.StudentRankResponse getStudentCohortRank(Long studentId);
+}
@@ -0,0 +1,16 @@
+package com.sms.service;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+public interface SeatAvailabilityStreamService {
+    
+    /**
+     * Đăng ký nhận số chỗ của các lớp trong học kỳ qua Server-Sent Events
+     */
+    SseEmitter subscribe(Long semesterId);
+    
+    /**
+     * Bỏ thông tin học kỳ đã lưu của lớp học sau khi lớp bị sửa hoặc xóa
+     */
+    void evictClass(Long classId);
+}
@@ -0,0 +1,49 @@
+package com.sms.service;
+
+public interface SeatReservationService {
+    
+    /**
+     * Giữ một chỗ trong lớp học, trả về false nếu lớp đã đầy
+     */
+    boolean tryReserve(Long classId);
+    
+    /**
+     * Giữ tối đa count chỗ trong lớp học bằng một lần cập nhật, trả về số chỗ giữ được
+     */
+    int tryReserve(Long classId, int count);
+    
+    /**
+     * Trả lại một chỗ đã giữ trong lớp học
+     */
+    void release(Long classId);
+    
+    /**
+     * Cập nhật sức chứa của lớp học sau khi thay đổi maxStudent
+     */
+    void updateCapacity(Long classId, Integer maxStudent);
+    
+    /**
+     * Bỏ bộ đếm của lớp học đã bị xóa
+     */
+    void evict(Long classId);
+    
+    /**
+     * Số chỗ còn trống của lớp học
+     */
+    int getAvailableSeats(Long classId);
+    
+    /**
+     * Số sinh viên đã giữ chỗ trong lớp học
+     */
+    int getEnrolledCount(Long classId);
+    
+    /**
+     * Đồng bộ lại bộ đếm của tất cả lớp học từ bảng class_students
+     */
+    int reconcileAll();
+    
+    /**
+     * Đồng bộ lại bộ đếm của một lớp học từ bảng class_students
+     */
+    void reconcile(Long classId);
+}
@@ -1,15 +1,22 @@
 package com.sms.service;
 
+import com.sms.dto.request.ClassAssignmentRequest;
 import com.sms.dto.request.ClassRegistrationRequest;
+import com.sms.dto.response.BulkRegistrationResponse;
+import com.sms.dto.response.StudentClassListResponse;
 import com.sms.dto.response.StudentClassResponse;
 
+import org.springframework.data.domain.Pageable;
+
 import java.util.List;
 
 public interface StudentAcademicService {
     List<StudentClassResponse> getAvailableClasses(Long studentId);
+    StudentClassListResponse getAvailableClasses(Long studentId, Long semesterId, String keyword, Pageable pageable);
     List<StudentClassResponse> getRegisteredClasses(Long studentId);
     List<StudentClassResponse> getRegisteredClassesBySemester(Long studentId, Long semesterId);
     StudentClassResponse getClassDetails(Long studentId, Long classId);
     void registerForClass(ClassRegistrationRequest request);
+    BulkRegistrationResponse registerForClasses(ClassAssignmentRequest request);
     void unregisterFromClass(Long studentId, Long classId);
 }
@@ -1,5 +1,6 @@
 package com.sms.service;
 
+import com.sms.dto.response.ClassRosterPageResponse;
 import com.sms.dto.response.TeacherClassResponse;
 
 import java.util.List;
@@ -8,4 +9,5 @@ public interface TeacherClassService {
     List<TeacherClassResponse> getClassesByTeacher(Long teacherId);
     List<TeacherClassResponse> getClassesByTeacherAndSemester(Long teacherId, Long semesterId);
     TeacherClassResponse getClassWithStudents(Long classId);
+    ClassRosterPageResponse getClassRosterPage(Long classId, String sort, String cursor, int size);
 }
@@ -0,0 +1,22 @@
+package com.sms.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+public interface TranscriptPdfService {
+    
+    /**
+     * Bảng điểm PDF của một sinh viên
+     */
+    byte[] renderStudentTranscript(Long studentId);
+    
+    /**
+     * Kiểm tra khóa (ngành và năm nhập học) trước khi bắt đầu ghi response, trả về tên file ZIP tải xuống
+     */
+    String prepareCohortExport(String major, Integer courseYear);
+    
+    /**
+     * Ghi bảng điểm PDF của mọi sinh viên trong khóa thành một file ZIP thẳng vào output, trả về số bảng điểm
+     */
+    int exportCohort(String major, Integer courseYear, OutputStream output) throws IOException;
+}
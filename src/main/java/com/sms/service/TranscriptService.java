@@ -0,0 +1,39 @@
+package com.sms.service;
+
+import com.sms.dto.response.StudentGradeResponse;
+import com.sms.dto.response.TranscriptRebuildResponse;
+import com.sms.entity.Grade;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+public interface TranscriptService {
+    
+    /**
+     * Cộng dồn thay đổi điểm của một lớp vào bảng điểm tích lũy, gọi trong cùng transaction với thao tác ghi điểm.
+     * removed là trạng thái trước khi ghi, added là trạng thái sau khi ghi
+     */
+    void applyGradeChanges(Long classId, List<Grade> removed, List<Grade> added);
+    
+    /**
+     * GPA học kỳ, GPA tích lũy và số tín chỉ của sinh viên, đọc từ bảng điểm tích lũy
+     */
+    StudentGradeResponse.GPASummary getSummary(Long studentId);
+    
+    /**
+     * Như getSummary cho nhiều sinh viên trong hai câu truy vấn, sinh viên chưa có điểm không có trong kết quả
+     */
+    Map<Long, StudentGradeResponse.GPASummary> getSummaries(Collection<Long> studentIds);
+    
+    /**
+     * Dựng lại bảng điểm tích lũy của tất cả sinh viên từ bảng grades
+     */
+    TranscriptRebuildResponse rebuildAll();
+    
+    /**
+     * Dựng lại bảng điểm tích lũy của các sinh viên từ bảng grades, gọi khi tín chỉ của môn học hoặc môn học,
+     * học kỳ của lớp đổi vì phần đã cộng dồn trước đó tính theo giá trị cũ
+     */
+    void rebuildStudents(Collection<Long> studentIds);
+}
@@ -0,0 +1,38 @@
+package com.sms.service;
+
+import com.sms.dto.request.ClassRegistrationRequest;
+
+import java.util.Map;
+
+public interface WaitlistService {
+    
+    /**
+     * Đưa sinh viên vào hàng chờ của lớp đã đầy, trả về vị trí trong hàng chờ
+     */
+    Integer joinWaitlist(ClassRegistrationRequest request);
+    
+    /**
+     * Rút sinh viên khỏi hàng chờ của lớp học
+     */
+    void leaveWaitlist(Long studentId, Long classId);
+    
+    /**
+     * Vị trí của sinh viên trong hàng chờ của lớp học, null nếu không chờ
+     */
+    Integer getWaitlistPosition(Long studentId, Long classId);
+    
+    /**
+     * Vị trí trong hàng chờ của sinh viên theo từng lớp học
+     */
+    Map<Long, Integer> getWaitlistPositions(Long studentId);
+    
+    /**
+     * Chuyển các sinh viên đầu hàng chờ vào lớp khi còn chỗ, trả về số sinh viên được chuyển
+     */
+    int promote(Long classId);
+    
+    /**
+     * Xóa hàng chờ của lớp học
+     */
+    void clearWaitlist(Long classId);
+}
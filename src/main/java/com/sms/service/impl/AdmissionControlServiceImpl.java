@@ -0,0 +1,348 @@
+package com.sms.service.impl;
+
+import com.sms.dto.response.AdmissionTicketResponse;
+import com.sms.entity.Semester;
+import com.sms.repository.SemesterRepository;
+import com.sms.service.AdmissionControlService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Phòng chờ cho các đợt đăng ký lớp.
+ *
+ * Mỗi học kỳ đang mở đăng ký có một cổng gồm: token bucket giới hạn tốc độ tiếp nhận,
+ * giới hạn số yêu cầu xử lý đồng thời và hàng đợi vé theo thứ tự đến trước.
+ * Không dùng @Transactional vì cổng phải trả lời mà không chiếm kết nối database.
+ */
+@Service
+@Slf4j
+public class AdmissionControlServiceImpl implements AdmissionControlService {
+
+    private static final String ADMITTED = "ADMITTED";
+    private static final String WAITING = "WAITING";
+
+    @Autowired
+    private SemesterRepository semesterRepository;
+
+    @Value("${registration.admission.enabled:true}")
+    private boolean enabled;
+
+    @Value("${registration.admission.rate-per-second:50}")
+    private double ratePerSecond;
+
+    @Value("${registration.admission.burst:100}")
+    private int burst;
+
+    @Value("${registration.admission.default-concurrency:40}")
+    private int defaultConcurrency;
+
+    @Value("${registration.admission.hold-seconds:10}")
+    private long holdSeconds;
+
+    @Value("${registration.admission.ticket-ttl-seconds:120}")
+    private long ticketTtlSeconds;
+
+    @Value("${registration.admission.semester-refresh-seconds:30}")
+    private long semesterRefreshSeconds;
+
+    private final Map<Long, AdmissionGate> gates = new ConcurrentHashMap<>();
+    private final Map<String, Ticket> tickets = new ConcurrentHashMap<>();
+    private final AtomicLong lastCleanup = new AtomicLong(System.nanoTime());
+
+    private volatile CachedSemester cachedSemester;
+
+    @Override
+    public AdmissionTicketResponse tryAdmit(String ticketId) {
+        Semester semester = enabled ? getRegistrationSemester() : null;
+        if (semester == null) {
+            // Không có đợt đăng ký nào đang mở thì không cần xếp hàng
+            return new AdmissionTicketResponse(null, null, ADMITTED, 0L, 0);
+        }
+
+        long now = System.nanoTime();
+        cleanupExpiredTickets(now);
+        AdmissionGate gate = getGate(semester);
+
+        Ticket ticket = ticketId != null ? tickets.get(ticketId) : null;
+        if (ticket != null && (!ticket.semesterId.equals(semester.getId()) || gate.isCancelled(ticket))) {
+            // Vé của đợt đăng ký khác hoặc đã hủy, xếp hàng lại từ đầu như người mới đến
+            tickets.remove(ticketId);
+            ticket = null;
+        }
+
+        if (ticket == null) {
+            // Hàng đợi trống: vào thẳng nếu còn token và còn lượt xử lý
+            if (gate.tryAdmitDirect(now)) {
+                return new AdmissionTicketResponse(null, gate.semesterId, ADMITTED, 0L, 0);
+            }
+            ticket = new Ticket(UUID.randomUUID().toString(), gate.semesterId, now);
+            gate.enqueue(ticket);
+            tickets.put(ticket.id, ticket);
+        }
+
+        ticket.lastSeen = now;
+        if (gate.tryEnter(ticket, now)) {
+            tickets.remove(ticket.id);
+            return new AdmissionTicketResponse(ticket.id, gate.semesterId, ADMITTED, 0L, 0);
+        }
+        return waiting(ticket, gate, gate.positionOf(ticket));
+    }
+
+    @Override
+    public void release(Long semesterId) {
+        if (semesterId == null) {
+            return;
+        }
+        AdmissionGate gate = gates.get(semesterId);
+        if (gate != null) {
+            gate.exit();
+        }
+    }
+
+    @Override
+    public AdmissionTicketResponse getTicketStatus(String ticketId) {
+        Ticket ticket = tickets.get(ticketId);
+        if (ticket == null) {
+            return null;
+        }
+        AdmissionGate gate = gates.get(ticket.semesterId);
+        if (gate == null) {
+            tickets.remove(ticketId);
+            return null;
+        }
+
+        long now = System.nanoTime();
+        ticket.lastSeen = now;
+        gate.advance(now);
+        long position = gate.positionOf(ticket);
+        if (position == 0) {
+            // Đã đến lượt và đã được giữ một lượt xử lý, client gửi lại yêu cầu kèm vé
+            return new AdmissionTicketResponse(ticket.id, gate.semesterId, ADMITTED, 0L, 0);
+        }
+        return waiting(ticket, gate, position);
+    }
+
+    private AdmissionTicketResponse waiting(Ticket ticket, AdmissionGate gate, long position) {
+        long seconds = (long) Math.ceil(position / gate.ratePerSecond);
+        int retryAfter = (int) Math.max(1, Math.min(seconds, 30));
+        return new AdmissionTicketResponse(ticket.id, gate.semesterId, WAITING, position, retryAfter);
+    }
+
+    private AdmissionGate getGate(Semester semester) {
+        int concurrency = semester.getRegistrationConcurrency() != null
+                ? semester.getRegistrationConcurrency() : defaultConcurrency;
+        AdmissionGate gate = gates.computeIfAbsent(semester.getId(),
+                id -> new AdmissionGate(id, ratePerSecond, burst, concurrency, TimeUnit.SECONDS.toNanos(holdSeconds)));
+        gate.concurrency = concurrency;
+        return gate;
+    }
+
+    private Semester getRegistrationSemester() {
+        long now = System.nanoTime();
+        CachedSemester cached = cachedSemester;
+        if (cached != null && now - cached.loadedAt < TimeUnit.SECONDS.toNanos(semesterRefreshSeconds)) {
+            return cached.semester;
+        }
+
+        synchronized (this) {
+            cached = cachedSemester;
+            if (cached != null && now - cached.loadedAt < TimeUnit.SECONDS.toNanos(semesterRefreshSeconds)) {
+                return cached.semester;
+            }
+
+            // Đợt đăng ký hiện tại là học kỳ đang mở có ngày bắt đầu muộn nhất
+            Semester semester = semesterRepository.findByIsOpenTrue().stream()
+                    .max(Comparator.comparing(Semester::getStartDate, Comparator.nullsFirst(Comparator.naturalOrder())))
+                    .orElse(null);
+            cachedSemester = new CachedSemester(semester, now);
+
+            // Bỏ cổng và vé của các đợt đăng ký đã đóng
+            Long semesterId = semester != null ? semester.getId() : null;
+            gates.keySet().removeIf(id -> !id.equals(semesterId));
+            tickets.values().removeIf(ticket -> !ticket.semesterId.equals(semesterId));
+            return semester;
+        }
+    }
+
+    private void cleanupExpiredTickets(long now) {
+        long last = lastCleanup.get();
+        long ttl = TimeUnit.SECONDS.toNanos(ticketTtlSeconds);
+        if (now - last < ttl || !lastCleanup.compareAndSet(last, now)) {
+            return;
+        }
+
+        // Vé không được hỏi lại trong thời gian sống coi như đã rời hàng
+        int removed = 0;
+        for (Ticket ticket : tickets.values()) {
+            if (now - ticket.lastSeen > ttl && tickets.remove(ticket.id, ticket)) {
+                AdmissionGate gate = gates.get(ticket.semesterId);
+                if (gate != null) {
+                    gate.cancel(ticket);
+                }
+                removed++;
+            }
+        }
+        if (removed > 0) {
+            log.debug("Đã xóa {} vé xếp hàng hết hạn", removed);
+        }
+    }
+
+    private static final class CachedSemester {
+        private final Semester semester;
+        private final long loadedAt;
+
+        CachedSemester(Semester semester, long loadedAt) {
+            this.semester = semester;
+            this.loadedAt = loadedAt;
+        }
+    }
+
+    static final class Ticket {
+        private final String id;
+        private final Long semesterId;
+        private volatile long lastSeen;
+
+        // Được gán và đọc dưới khóa của cổng
+        private long sequence;
+        private long admittedAt;
+        private boolean admitted;
+        private boolean cancelled;
+
+        Ticket(String id, Long semesterId, long lastSeen) {
+            this.id = id;
+            this.semesterId = semesterId;
+            this.lastSeen = lastSeen;
+        }
+    }
+
+    static final class AdmissionGate {
+        private final Long semesterId;
+        private final double ratePerSecond;
+        private final int burst;
+        private final long holdNanos;
+        private volatile int concurrency;
+
+        private final Deque<Ticket> queue = new ArrayDeque<>();
+        private final Deque<Ticket> holding = new ArrayDeque<>();
+        // Số yêu cầu đang xử lý và số vé đã đến lượt đang được giữ chỗ nhưng chưa quay lại
+        private int active;
+        private int reserved;
+        // Số thứ tự của vé tiếp theo được cấp và của vé đầu hàng
+        private long nextSequence;
+        private long headSequence;
+        private double tokens;
+        private long lastRefill;
+
+        AdmissionGate(Long semesterId, double ratePerSecond, int burst, int concurrency, long holdNanos) {
+            this.semesterId = semesterId;
+            this.ratePerSecond = ratePerSecond;
+            this.burst = burst;
+            this.holdNanos = holdNanos;
+            this.concurrency = concurrency;
+            this.tokens = burst;
+            this.lastRefill = System.nanoTime();
+        }
+
+        synchronized boolean tryAdmitDirect(long now) {
+            advance(now);
+            if (queue.isEmpty() && active + reserved < concurrency && tokens >= 1) {
+                tokens -= 1;
+                active++;
+                return true;
+            }
+            return false;
+        }
+
+        synchronized void enqueue(Ticket ticket) {
+            ticket.sequence = nextSequence++;
+            queue.addLast(ticket);
+        }
+
+        synchronized boolean tryEnter(Ticket ticket, long now) {
+            advance(now);
+            if (!ticket.admitted) {
+                return false;
+            }
+            // Lượt xử lý đã được giữ cho vé này khi vé đến lượt
+            ticket.admitted = false;
+            ticket.cancelled = true;
+            holding.remove(ticket);
+            reserved--;
+            active++;
+            return true;
+        }
+
+        synchronized void advance(long now) {
+            refill(now);
+
+            // Vé đã đến lượt nhưng không quay lại trong thời gian giữ chỗ thì nhường lượt cho vé sau và xếp lại cuối
+            // hàng với số thứ tự mới; vé không còn được hỏi lại sẽ bị dọn theo thời gian sống
+            while (!holding.isEmpty() && now - holding.peekFirst().admittedAt > holdNanos) {
+                Ticket expired = holding.pollFirst();
+                expired.admitted = false;
+                reserved--;
+                enqueue(expired);
+            }
+
+            // Chỉ cho vé đầu hàng đến lượt khi còn token và còn lượt xử lý để giữ cho vé đó
+            while (!queue.isEmpty() && tokens >= 1 && active + reserved < concurrency) {
+                Ticket head = queue.pollFirst();
+                headSequence = head.sequence + 1;
+                if (head.cancelled) {
+                    continue;
+                }
+                head.admitted = true;
+                head.admittedAt = now;
+                holding.addLast(head);
+                reserved++;
+                tokens -= 1;
+            }
+        }
+
+        synchronized long positionOf(Ticket ticket) {
+            if (ticket.admitted) {
+                return 0;
+            }
+            // Vị trí gần đúng: có thể tính cả các vé phía trước đã rời hàng. Vé chưa đến lượt luôn ở vị trí từ 1
+            return Math.max(1, ticket.sequence - headSequence + 1);
+        }
+
+        synchronized boolean isCancelled(Ticket ticket) {
+            return ticket.cancelled;
+        }
+
+        synchronized void cancel(Ticket ticket) {
+            if (ticket.admitted) {
+                ticket.admitted = false;
+                holding.remove(ticket);
+                reserved--;
+            }
+            ticket.cancelled = true;
+        }
+
+        synchronized void exit() {
+            if (active > 0) {
+                active--;
+            }
+        }
+
+        private void refill(long now) {
+            double elapsedSeconds = (now - lastRefill) / 1_000_000_000.0;
+            if (elapsedSeconds > 0) {
+                tokens = Math.min(burst, tokens + elapsedSeconds * ratePerSecond);
+                lastRefill = now;
+            }
+        }
+    }
+}
@@ -0,0 +1,326 @@
+package com.sms.service.impl;
+
+import com.sms.dto.response.AtRiskScanResponse;
+import com.sms.dto.response.AtRiskStudentListResponse;
+import com.sms.entity.AtRiskStudent;
+import com.sms.entity.Semester;
+import com.sms.repository.AtRiskStudentRepository;
+import com.sms.repository.AttendanceSummaryRepository;
+import com.sms.repository.SemesterRepository;
+import com.sms.repository.projection.AtRiskEntry;
+import com.sms.repository.projection.EnrollmentAttendanceCount;
+import com.sms.service.AtRiskScanService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Quét hằng đêm các lượt đăng ký vi phạm quy tắc chuyên cần.
+ *
+ * Số liệu lấy từ bảng tổng hợp điểm danh bằng một truy vấn duyệt tuần tự, gom theo lớp,
+ * rồi chia các lớp thành từng phần để đánh giá song song trên ForkJoinPool riêng.
+ * Kết quả của một ngày quét được ghi đè nên có thể chạy lại bằng tay trong ngày.
+ */
+@Service
+@Transactional
+@Slf4j
+public class AtRiskScanServiceImpl implements AtRiskScanService {
+
+    static final String ABSENT_RATIO = "ABSENT_RATIO";
+    static final String LATE_RATIO = "LATE_RATIO";
+    static final String ABSENT_COUNT = "ABSENT_COUNT";
+
+    @Autowired
+    private AttendanceSummaryRepository attendanceSummaryRepository;
+
+    @Autowired
+    private AtRiskStudentRepository atRiskStudentRepository;
+
+    @Autowired
+    private SemesterRepository semesterRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // Ngưỡng bằng 0 nghĩa là tắt quy tắc tương ứng
+    @Value("${attendance.at-risk.absent-ratio:0.2}")
+    private double absentRatio;
+
+    @Value("${attendance.at-risk.late-ratio:0.3}")
+    private double lateRatio;
+
+    @Value("${attendance.at-risk.absent-count:5}")
+    private int absentCount;
+
+    @Value("${attendance.at-risk.min-sessions:3}")
+    private int minSessions;
+
+    @Value("${attendance.at-risk.parallelism:4}")
+    private int parallelism;
+
+    @Value("${attendance.at-risk.partition-size:64}")
+    private int partitionSize;
+
+    private ForkJoinPool pool;
+    private Timer scanTimer;
+    private Counter rowCounter;
+    private volatile double lastRowsPerSecond;
+
+    @PostConstruct
+    void init() {
+        pool = new ForkJoinPool(Math.max(1, parallelism));
+        scanTimer = Timer.builder("attendance.at_risk.scan.duration")
+                .description("Thời gian một lần quét sinh viên có nguy cơ")
+                .register(meterRegistry);
+        rowCounter = Counter.builder("attendance.at_risk.scan.rows")
+                .description("Số lượt đăng ký đã được quét")
+                .register(meterRegistry);
+        Gauge.builder("attendance.at_risk.scan.rows_per_second", this, service -> service.lastRowsPerSecond)
+                .description("Tốc độ xử lý của lần quét gần nhất")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        pool.shutdownNow();
+    }
+
+    @Scheduled(cron = "${attendance.at-risk.cron:0 0 2 * * *}")
+    public void scheduledScan() {
+        try {
+            scanCurrentSemester();
+        } catch (Exception e) {
+            log.error("Quét sinh viên có nguy cơ thất bại", e);
+        }
+    }
+
+    @Override
+    public AtRiskScanResponse scanCurrentSemester() {
+        Optional<Semester> semester = semesterRepository.findByDate(LocalDate.now());
+        if (semester.isEmpty()) {
+            log.info("Hôm nay không thuộc học kỳ nào, bỏ qua quét sinh viên có nguy cơ");
+            return null;
+        }
+        return scanSemester(semester.get().getId());
+    }
+
+    @Override
+    public AtRiskScanResponse scanSemester(Long semesterId) {
+        long startedAt = System.nanoTime();
+        LocalDate scanDate = LocalDate.now();
+
+        List<ClassCounts> classes = new ArrayList<>();
+        long rows = 0;
+        try (Stream<EnrollmentAttendanceCount> counts = attendanceSummaryRepository.streamActiveBySemesterId(semesterId)) {
+            ClassCounts current = null;
+            for (Iterator<EnrollmentAttendanceCount> iterator = counts.iterator(); iterator.hasNext(); rows++) {
+                EnrollmentAttendanceCount count = iterator.next();
+                if (current == null || !current.classId.equals(count.getClassId())) {
+                    current = new ClassCounts(count.getClassId(), valueOf(count.getTotalSessions()));
+                    classes.add(current);
+                }
+                current.add(count);
+            }
+        }
+
+        Rules rules = new Rules(absentRatio, lateRatio, absentCount, minSessions);
+        List<AtRiskStudent> flagged = pool.invoke(
+                new EvaluateTask(classes, 0, classes.size(), Math.max(1, partitionSize), rules));
+        for (AtRiskStudent student : flagged) {
+            student.setScanDate(scanDate);
+            student.setSemesterId(semesterId);
+        }
+
+        atRiskStudentRepository.deleteBySemesterIdAndScanDate(semesterId, scanDate);
+        atRiskStudentRepository.saveAll(flagged);
+
+        long elapsed = System.nanoTime() - startedAt;
+        double seconds = elapsed / 1_000_000_000.0;
+        double rowsPerSecond = seconds > 0 ? rows / seconds : 0.0;
+        scanTimer.record(elapsed, TimeUnit.NANOSECONDS);
+        rowCounter.increment(rows);
+        lastRowsPerSecond = rowsPerSecond;
+        log.info("Đã quét {} lượt đăng ký của {} lớp trong học kỳ {}: {} vi phạm, {} ms",
+                rows, classes.size(), semesterId, flagged.size(), TimeUnit.NANOSECONDS.toMillis(elapsed));
+
+        return new AtRiskScanResponse(
+                semesterId,
+                scanDate,
+                classes.size(),
+                rows,
+                flagged.size(),
+                TimeUnit.NANOSECONDS.toMillis(elapsed),
+                rowsPerSecond
+        );
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public AtRiskStudentListResponse getAtRiskStudents(Long semesterId, LocalDate scanDate, Pageable pageable) {
+        LocalDate date = scanDate != null ? scanDate
+                : atRiskStudentRepository.findLatestScanDate(semesterId).orElse(null);
+        if (date == null) {
+            return new AtRiskStudentListResponse(semesterId, null, new ArrayList<>(), 0, 0,
+                    pageable.getPageNumber(), pageable.getPageSize());
+        }
+
+        Page<AtRiskEntry> page = atRiskStudentRepository.findEntries(semesterId, date, pageable);
+        List<AtRiskStudentListResponse.AtRiskStudentResponse> students = page.getContent().stream()
+                .map(entry -> new AtRiskStudentListResponse.AtRiskStudentResponse(
+                        entry.getClassId(),
+                        entry.getClassCode(),
+                        entry.getStudentId(),
+                        entry.getStudentCode(),
+                        entry.getStudentName(),
+                        entry.getRule(),
+                        entry.getTotalSessions(),
+                        entry.getAbsentCount(),
+                        entry.getLateCount(),
+                        entry.getRatio()
+                ))
+                .collect(Collectors.toList());
+
+        return new AtRiskStudentListResponse(
+                semesterId,
+                date,
+                students,
+                page.getTotalElements(),
+                page.getTotalPages(),
+                page.getNumber(),
+                page.getSize()
+        );
+    }
+
+    private static int valueOf(Integer value) {
+        return value != null ? value : 0;
+    }
+
+    private static final class Rules {
+        private final double absentRatio;
+        private final double lateRatio;
+        private final int absentCount;
+        private final int minSessions;
+
+        Rules(double absentRatio, double lateRatio, int absentCount, int minSessions) {
+            this.absentRatio = absentRatio;
+            this.lateRatio = lateRatio;
+            this.absentCount = absentCount;
+            this.minSessions = minSessions;
+        }
+    }
+
+    /**
+     * Số liệu của các sinh viên trong một lớp, lưu thành mảng song song để phần đánh giá không tạo thêm đối tượng
+     */
+    static final class ClassCounts {
+        private final Long classId;
+        private final int sessions;
+        private long[] studentIds = new long[16];
+        private int[] absent = new int[16];
+        private int[] late = new int[16];
+        private int size;
+
+        ClassCounts(Long classId, int sessions) {
+            this.classId = classId;
+            this.sessions = sessions;
+        }
+
+        void add(EnrollmentAttendanceCount count) {
+            if (size == studentIds.length) {
+                studentIds = Arrays.copyOf(studentIds, size * 2);
+                absent = Arrays.copyOf(absent, size * 2);
+                late = Arrays.copyOf(late, size * 2);
+            }
+            studentIds[size] = count.getStudentId();
+            absent[size] = valueOf(count.getAbsentCount());
+            late[size] = valueOf(count.getLateCount());
+            size++;
+        }
+    }
+
+    private static final class EvaluateTask extends RecursiveTask<List<AtRiskStudent>> {
+        private final List<ClassCounts> classes;
+        private final int from;
+        private final int to;
+        private final int partitionSize;
+        private final Rules rules;
+
+        EvaluateTask(List<ClassCounts> classes, int from, int to, int partitionSize, Rules rules) {
+            this.classes = classes;
+            this.from = from;
+            this.to = to;
+            this.partitionSize = partitionSize;
+            this.rules = rules;
+        }
+
+        @Override
+        protected List<AtRiskStudent> compute() {
+            if (to - from <= partitionSize) {
+                List<AtRiskStudent> flagged = new ArrayList<>();
+                for (int i = from; i < to; i++) {
+                    evaluate(classes.get(i), flagged);
+                }
+                return flagged;
+            }
+
+            int middle = (from + to) >>> 1;
+            EvaluateTask left = new EvaluateTask(classes, from, middle, partitionSize, rules);
+            left.fork();
+            List<AtRiskStudent> flagged = new EvaluateTask(classes, middle, to, partitionSize, rules).compute();
+            List<AtRiskStudent> leftFlagged = left.join();
+            leftFlagged.addAll(flagged);
+            return leftFlagged;
+        }
+
+        private void evaluate(ClassCounts counts, List<AtRiskStudent> flagged) {
+            // Lớp mới học vài buổi thì tỷ lệ chưa có ý nghĩa
+            if (counts.sessions < Math.max(1, rules.minSessions)) {
+                return;
+            }
+            for (int i = 0; i < counts.size; i++) {
+                double absentShare = (double) counts.absent[i] / counts.sessions;
+                double lateShare = (double) counts.late[i] / counts.sessions;
+                if (rules.absentRatio > 0 && absentShare > rules.absentRatio) {
+                    flagged.add(flag(counts, i, ABSENT_RATIO, absentShare));
+                }
+                if (rules.lateRatio > 0 && lateShare > rules.lateRatio) {
+                    flagged.add(flag(counts, i, LATE_RATIO, lateShare));
+                }
+                if (rules.absentCount > 0 && counts.absent[i] >= rules.absentCount) {
+                    flagged.add(flag(counts, i, ABSENT_COUNT, absentShare));
+                }
+            }
+        }
+
+        private AtRiskStudent flag(ClassCounts counts, int index, String rule, double ratio) {
+            AtRiskStudent student = new AtRiskStudent();
+            student.setClassId(counts.classId);
+            student.setStudentId(counts.studentIds[index]);
+            student.setRule(rule);
+            student.setTotalSessions(counts.sessions);
+            student.setAbsentCount(counts.absent[index]);
+            student.setLateCount(counts.late[index]);
+            student.setRatio(ratio);
+            return student;
+        }
+    }
+}
@@ -0,0 +1,291 @@
+package com.sms.service.impl;
+
+import com.sms.dto.response.AttendanceRateResponse;
+import com.sms.entity.Course;
+import com.sms.repository.AttendanceRepository;
+import com.sms.repository.CourseRepository;
+import com.sms.repository.projection.AttendanceCell;
+import com.sms.service.AttendanceAnalyticsService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Chỉ mục bitmap điểm danh theo từng học kỳ, dùng cho các truy vấn tỷ lệ chuyên cần.
+ *
+ * Mỗi lượt đăng ký (lớp, sinh viên) có ba bitmap có mặt/vắng/đi muộn, bit thứ i ứng với buổi học thứ i
+ * của lớp theo thứ tự ngày. Tỷ lệ và ngưỡng vắng chỉ còn là phép đếm bit, chuỗi vắng là phép dò bit liên tiếp.
+ * Bitmap được dựng từ bảng attendance bằng một truy vấn duyệt tuần tự cho cả học kỳ;
+ * lớp có điểm danh thay đổi được nạp lại riêng sau khi transaction ghi commit.
+ */
+@Service
+@Transactional(readOnly = true)
+@Slf4j
+public class AttendanceAnalyticsServiceImpl implements AttendanceAnalyticsService {
+
+    @Autowired
+    private AttendanceRepository attendanceRepository;
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Value("${attendance.analytics.max-age-minutes:60}")
+    private long maxAgeMinutes;
+
+    private final Map<Long, SemesterBitmaps> semesters = new ConcurrentHashMap<>();
+    private final Set<Long> dirtyClassIds = ConcurrentHashMap.newKeySet();
+
+    @Override
+    public List<AttendanceRateResponse> getClassRates(Long classId) {
+        Course classEntity = courseRepository.findById(classId)
+                .orElseThrow(() -> new RuntimeException("Không tìm thấy lớp với ID: " + classId));
+
+        ClassBitmaps bitmaps = getSemesterBitmaps(classEntity.getSemesterId()).get(classId);
+        if (bitmaps == null) {
+            return new ArrayList<>();
+        }
+        return bitmaps.enrollments.values().stream()
+                .map(enrollment -> toResponse(bitmaps, enrollment))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<AttendanceRateResponse> getStudentRates(Long studentId, Long semesterId) {
+        List<AttendanceRateResponse> rates = new ArrayList<>();
+        for (ClassBitmaps bitmaps : getSemesterBitmaps(semesterId).values()) {
+            EnrollmentBitmaps enrollment = bitmaps.enrollments.get(studentId);
+            if (enrollment != null) {
+                rates.add(toResponse(bitmaps, enrollment));
+            }
+        }
+        return rates;
+    }
+
+    @Override
+    public List<AttendanceRateResponse> findAbsentAbove(Long semesterId, double absentRatio) {
+        if (absentRatio < 0 || absentRatio > 1) {
+            throw new RuntimeException("Ngưỡng vắng phải nằm trong khoảng từ 0 đến 1");
+        }
+
+        List<AttendanceRateResponse> result = new ArrayList<>();
+        for (ClassBitmaps bitmaps : getSemesterBitmaps(semesterId).values()) {
+            double limit = absentRatio * bitmaps.sessions;
+            for (EnrollmentBitmaps enrollment : bitmaps.enrollments.values()) {
+                if (enrollment.absent.cardinality() > limit) {
+                    result.add(toResponse(bitmaps, enrollment));
+                }
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public void invalidateClass(Long classId) {
+        afterCommit(() -> dirtyClassIds.add(classId));
+    }
+
+    private Map<Long, ClassBitmaps> getSemesterBitmaps(Long semesterId) {
+        SemesterBitmaps current = semesters.get(semesterId);
+        if (current != null && !isExpired(current) && dirtyClassIds.isEmpty()) {
+            return current.classes;
+        }
+
+        synchronized (this) {
+            if (!dirtyClassIds.isEmpty()) {
+                refreshDirtyClasses();
+            }
+            current = semesters.get(semesterId);
+            if (current == null || isExpired(current)) {
+                current = loadSemester(semesterId);
+            }
+            return current.classes;
+        }
+    }
+
+    private boolean isExpired(SemesterBitmaps bitmaps) {
+        return System.nanoTime() - bitmaps.builtAt > TimeUnit.MINUTES.toNanos(maxAgeMinutes);
+    }
+
+    private SemesterBitmaps loadSemester(Long semesterId) {
+        Map<Long, ClassBitmaps> classes = new LinkedHashMap<>();
+        int rows = 0;
+
+        // Kết quả đã sắp theo lớp rồi theo ngày, dựng xong lớp này mới sang lớp tiếp theo
+        try (Stream<AttendanceCell> cells = attendanceRepository.streamCellsBySemesterId(semesterId)) {
+            ClassBitmapsBuilder builder = null;
+            for (Iterator<AttendanceCell> iterator = cells.iterator(); iterator.hasNext(); rows++) {
+                AttendanceCell cell = iterator.next();
+                if (builder == null || !builder.classId.equals(cell.getClassId())) {
+                    if (builder != null) {
+                        classes.put(builder.classId, builder.build());
+                    }
+                    builder = new ClassBitmapsBuilder(cell.getClassId());
+                }
+                builder.add(cell);
+            }
+            if (builder != null) {
+                classes.put(builder.classId, builder.build());
+            }
+        }
+
+        SemesterBitmaps bitmaps = new SemesterBitmaps(Collections.unmodifiableMap(classes), System.nanoTime());
+        semesters.put(semesterId, bitmaps);
+        log.debug("Đã dựng bitmap điểm danh cho học kỳ {}: {} lớp, {} dòng", semesterId, classes.size(), rows);
+        return bitmaps;
+    }
+
+    private void refreshDirtyClasses() {
+        Set<Long> classIds = new HashSet<>(dirtyClassIds);
+        dirtyClassIds.removeAll(classIds);
+        if (semesters.isEmpty()) {
+            return;
+        }
+
+        // Lớp có thể đã bị xóa hoặc chuyển học kỳ nên bỏ khỏi mọi học kỳ rồi nạp lại vào học kỳ hiện tại của lớp
+        Map<Long, Long> semesterByClass = courseRepository.findAllById(classIds).stream()
+                .collect(Collectors.toMap(Course::getId, Course::getSemesterId));
+        semesters.replaceAll((semesterId, current) -> {
+            Map<Long, ClassBitmaps> classes = new LinkedHashMap<>(current.classes);
+            classes.keySet().removeAll(classIds);
+            semesterByClass.forEach((classId, classSemesterId) -> {
+                if (semesterId.equals(classSemesterId)) {
+                    ClassBitmapsBuilder builder = new ClassBitmapsBuilder(classId);
+                    attendanceRepository.findCellsByClassId(classId).forEach(builder::add);
+                    if (builder.sessions > 0) {
+                        classes.put(classId, builder.build());
+                    }
+                }
+            });
+            return new SemesterBitmaps(Collections.unmodifiableMap(classes), current.builtAt);
+        });
+    }
+
+    private AttendanceRateResponse toResponse(ClassBitmaps bitmaps, EnrollmentBitmaps enrollment) {
+        int sessions = bitmaps.sessions;
+        int presentCount = enrollment.present.cardinality();
+        int absentCount = enrollment.absent.cardinality();
+        int lateCount = enrollment.late.cardinality();
+
+        return new AttendanceRateResponse(
+                bitmaps.classId,
+                enrollment.studentId,
+                sessions,
+                presentCount,
+                absentCount,
+                lateCount,
+                sessions > 0 ? (double) presentCount / sessions * 100 : 0.0,
+                sessions > 0 ? (double) absentCount / sessions * 100 : 0.0,
+                currentStreak(enrollment.absent, sessions),
+                longestStreak(enrollment.absent)
+        );
+    }
+
+    private int currentStreak(BitSet bits, int sessions) {
+        int last = sessions - 1;
+        if (last < 0 || !bits.get(last)) {
+            return 0;
+        }
+        return last - bits.previousClearBit(last);
+    }
+
+    private int longestStreak(BitSet bits) {
+        int longest = 0;
+        for (int start = bits.nextSetBit(0); start >= 0; ) {
+            int end = bits.nextClearBit(start);
+            longest = Math.max(longest, end - start);
+            start = bits.nextSetBit(end);
+        }
+        return longest;
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private static final class SemesterBitmaps {
+        private final Map<Long, ClassBitmaps> classes;
+        private final long builtAt;
+
+        SemesterBitmaps(Map<Long, ClassBitmaps> classes, long builtAt) {
+            this.classes = classes;
+            this.builtAt = builtAt;
+        }
+    }
+
+    static final class ClassBitmaps {
+        private final Long classId;
+        private final int sessions;
+        private final Map<Long, EnrollmentBitmaps> enrollments;
+
+        ClassBitmaps(Long classId, int sessions, Map<Long, EnrollmentBitmaps> enrollments) {
+            this.classId = classId;
+            this.sessions = sessions;
+            this.enrollments = enrollments;
+        }
+    }
+
+    static final class EnrollmentBitmaps {
+        private final Long studentId;
+        private final BitSet present = new BitSet();
+        private final BitSet absent = new BitSet();
+        private final BitSet late = new BitSet();
+
+        EnrollmentBitmaps(Long studentId) {
+            this.studentId = studentId;
+        }
+    }
+
+    private static final class ClassBitmapsBuilder {
+        private final Long classId;
+        private final Map<Long, EnrollmentBitmaps> enrollments = new LinkedHashMap<>();
+        private LocalDate lastDate;
+        private int sessions;
+
+        ClassBitmapsBuilder(Long classId) {
+            this.classId = classId;
+        }
+
+        // Các dòng phải đến theo thứ tự ngày tăng dần
+        void add(AttendanceCell cell) {
+            if (!cell.getAttendanceDate().equals(lastDate)) {
+                lastDate = cell.getAttendanceDate();
+                sessions++;
+            }
+
+            EnrollmentBitmaps enrollment = enrollments.computeIfAbsent(cell.getStudentId(), EnrollmentBitmaps::new);
+            int session = sessions - 1;
+            if ("present".equals(cell.getStatus())) {
+                enrollment.present.set(session);
+            } else if ("absent".equals(cell.getStatus())) {
+                enrollment.absent.set(session);
+            } else if ("late".equals(cell.getStatus())) {
+                enrollment.late.set(session);
+            }
+        }
+
+        ClassBitmaps build() {
+            return new ClassBitmaps(classId, sessions, Collections.unmodifiableMap(enrollments));
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package com.sms.service.impl;
+
+import com.sms.entity.Semester;
+import com.sms.repository.AttendanceRepository;
+import com.sms.repository.SemesterRepository;
+import com.sms.repository.projection.AttendanceExportRow;
+import com.sms.service.AttendanceExportService;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.poi.ss.SpreadsheetVersion;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Xuất điểm danh của cả học kỳ ra CSV hoặc XLSX.
+ *
+ * Dữ liệu đi thẳng từ con trỏ JDBC chỉ đọc tiến (fetch size cố định) sang writer của response từng dòng một,
+ * nên bộ nhớ dùng không phụ thuộc số dòng. XLSX dùng SXSSF, chỉ giữ một cửa sổ dòng trong heap
+ * và đẩy phần còn lại ra file tạm.
+ */
+@Service
+@Transactional(readOnly = true)
+@Slf4j
+public class AttendanceExportServiceImpl implements AttendanceExportService {
+    
+    static final String CSV = "csv";
+    static final String XLSX = "xlsx";
+    
+    private static final String[] HEADER = {
+            "Mã lớp", "Mã môn", "Tên môn", "Mã sinh viên", "Họ tên", "Ngày", "Trạng thái", "Thời điểm ghi"};
+    
+    // Số dòng XLSX giữ trong bộ nhớ trước khi ghi ra file tạm
+    private static final int XLSX_WINDOW = 100;
+    
+    @Autowired
+    private AttendanceRepository attendanceRepository;
+    
+    @Autowired
+    private SemesterRepository semesterRepository;
+    
+    @Override
+    public String prepareExport(Long semesterId, String format) {
+        Semester semester = semesterRepository.findById(semesterId)
+                .orElseThrow(() -> new RuntimeException("Không tìm thấy học kỳ với ID: " + semesterId));
+        return "diem-danh-" + semester.getName().replaceAll("[^A-Za-z0-9_-]", "_") + "." + normalizeFormat(format);
+    }
+    
+    @Override
+    public long exportSemester(Long semesterId, String department, String format, OutputStream output) throws IOException {
+        String normalized = normalizeFormat(format);
+        long rows = 0;
+        try (Stream<AttendanceExportRow> stream = attendanceRepository.streamExportRowsBySemesterId(semesterId, department);
+             RowWriter writer = XLSX.equals(normalized) ? new XlsxRowWriter(output) : new CsvRowWriter(output)) {
+            writer.write(HEADER);
+            for (Iterator<AttendanceExportRow> iterator = stream.iterator(); iterator.hasNext(); rows++) {
+                AttendanceExportRow row = iterator.next();
+                writer.write(new String[]{
+                        row.getClassCode(),
+                        row.getSubjectCode(),
+                        row.getSubjectName(),
+                        row.getStudentCode(),
+                        row.getStudentName(),
+                        row.getAttendanceDate() != null ? row.getAttendanceDate().toString() : null,
+                        row.getStatus(),
+                        row.getRecordedAt() != null ? row.getRecordedAt().toString() : null
+                });
+            }
+        }
+        log.info("Đã xuất {} dòng điểm danh của học kỳ {} ({})", rows, semesterId, normalized);
+        return rows;
+    }
+    
+    private String normalizeFormat(String format) {
+        String normalized = format != null ? format.trim().toLowerCase() : CSV;
+        if (!CSV.equals(normalized) && !XLSX.equals(normalized)) {
+            throw new RuntimeException("Định dạng xuất không hỗ trợ: " + format);
+        }
+        return normalized;
+    }
+    
+    /**
+     * Ghi từng dòng ra output; close chỉ đẩy nốt dữ liệu, không đóng output của response
+     */
+    private interface RowWriter extends Closeable {
+        void write(String[] values) throws IOException;
+    }
+    
+    private static final class CsvRowWriter implements RowWriter {
+        private final Writer writer;
+        
+        CsvRowWriter(OutputStream output) throws IOException {
+            writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8), 64 * 1024);
+            // BOM để Excel nhận đúng tiếng Việt
+            writer.write('\uFEFF');
+        }
+        
+        @Override
+        public void write(String[] values) throws IOException {
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                writeField(values[i]);
+            }
+            writer.write("\r\n");
+        }
+        
+        private void writeField(String value) throws IOException {
+            if (value == null) {
+                return;
+            }
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+                writer.write(value);
+                return;
+            }
+            writer.write('"');
+            writer.write(value.replace("\"", "\"\""));
+            writer.write('"');
+        }
+        
+        @Override
+        public void close() throws IOException {
+            writer.flush();
+        }
+    }
+    
+    private static final class XlsxRowWriter implements RowWriter {
+        private final OutputStream output;
+        private final SXSSFWorkbook workbook;
+        private final int maxRows = SpreadsheetVersion.EXCEL2007.getMaxRows();
+        private Sheet sheet;
+        private int rowIndex;
+        
+        XlsxRowWriter(OutputStream output) {
+            this.output = output;
+            workbook = new SXSSFWorkbook(XLSX_WINDOW);
+            workbook.setCompressTempFiles(true);
+        }
+        
+        @Override
+        public void write(String[] values) {
+            // Vượt giới hạn dòng của một sheet thì sang sheet mới
+            if (sheet == null || rowIndex == maxRows) {
+                sheet = workbook.createSheet("Điểm danh " + (workbook.getNumberOfSheets() + 1));
+                rowIndex = 0;
+            }
+            Row row = sheet.createRow(rowIndex++);
+            for (int i = 0; i < values.length; i++) {
+                if (values[i] != null) {
+                    row.createCell(i).setCellValue(values[i]);
+                }
+            }
+        }
+        
+        @Override
+        public void close() throws IOException {
+            try {
+                workbook.write(output);
+                output.flush();
+            } finally {
+                workbook.dispose();
+                workbook.close();
+            }
+        }
+    }
+}
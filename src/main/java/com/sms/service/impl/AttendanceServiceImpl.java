@@ -1,23 +1,40 @@
 package com.sms.service.impl;
 
 import com.sms.dto.request.AttendanceRequest;
+import com.sms.dto.response.AttendanceMatrixResponse;
 import com.sms.dto.response.AttendanceResponse;
 import com.sms.dto.response.AttendanceReportResponse;
 import com.sms.entity.*;
 import com.sms.repository.*;
+import com.sms.repository.projection.AttendanceCell;
+import com.sms.repository.projection.RosterStudent;
+import com.sms.service.AttendanceAnalyticsService;
 import com.sms.service.AttendanceService;
+import com.sms.service.AttendanceSummaryService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
-import java.util.List;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 @Transactional
 public class AttendanceServiceImpl implements AttendanceService {
     
+    private static final byte UNRECORDED = '-';
+    
+    private static final Map<String, String> STATUS_CODES = Map.of(
+            "P", "present",
+            "A", "absent",
+            "L", "late",
+            "-", "unrecorded",
+            "?", "other");
+    
     @Autowired
     private AttendanceRepository attendanceRepository;
     
@@ -36,34 +53,105 @@ public class AttendanceServiceImpl implements AttendanceService {
     @Autowired
     private UserRepository userRepository;
     
+    @Autowired
+    private ClassStudentRepository classStudentRepository;
+    
+    @Autowired
+    private AttendanceSummaryRepository attendanceSummaryRepository;
+    
+    @Autowired
+    private AttendanceSummaryService attendanceSummaryService;
+    
+    @Autowired
+    private AttendanceAnalyticsService attendanceAnalyticsService;
+    
     @Override
     public AttendanceResponse recordAttendance(AttendanceRequest request) {
         // Kiểm tra lớp tồn tại
         Course classEntity = courseRepository.findById(request.getClassId())
                 .orElseThrow(() -> new RuntimeException("Không tìm thấy lớp với ID: " + request.getClassId()));
         
-        // Xóa điểm danh cũ nếu có
-        attendanceRepository.deleteByClassIdAndAttendanceDate(request.getClassId(), request.getAttendanceDate());
+        // Điểm danh hiện có của buổi học, mỗi sinh viên một dòng
+        Map<Long, Attendance> existing = new HashMap<>();
+        List<Attendance> toDelete = new ArrayList<>();
+        List<Attendance> current = attendanceRepository.findByClassIdAndAttendanceDate(
+                request.getClassId(), request.getAttendanceDate());
+        for (Attendance attendance : current) {
+            if (existing.putIfAbsent(attendance.getStudentId(), attendance) != null) {
+                // Dòng trùng do cách ghi cũ (xóa rồi ghi lại) để lại
+                toDelete.add(attendance);
+            }
+        }
         
-        // Tạo điểm danh mới cho từng sinh viên
+        // Nếu một sinh viên được gửi nhiều lần thì lấy trạng thái gửi sau cùng
+        Map<Long, String> submitted = new LinkedHashMap<>();
         for (AttendanceRequest.StudentAttendanceRequest studentAttendance : request.getStudentAttendances()) {
-            Attendance attendance = new Attendance();
-            attendance.setClassId(request.getClassId());
-            attendance.setStudentId(studentAttendance.getStudentId());
-            attendance.setAttendanceDate(request.getAttendanceDate());
-            attendance.setStatus(studentAttendance.getStatus());
-            
-            attendanceRepository.save(attendance);
+            submitted.put(studentAttendance.getStudentId(), studentAttendance.getStatus());
+        }
+        
+        // So sánh danh sách gửi lên với dữ liệu hiện có, chỉ ghi những dòng thay đổi
+        LocalDateTime now = LocalDateTime.now();
+        List<Attendance> session = new ArrayList<>(submitted.size());
+        List<Attendance> toInsert = new ArrayList<>();
+        // Trạng thái trước và sau của các dòng bị sửa, dùng để cập nhật bảng tổng hợp
+        List<Attendance> previous = new ArrayList<>();
+        List<Attendance> updated = new ArrayList<>();
+        for (Map.Entry<Long, String> entry : submitted.entrySet()) {
+            Attendance attendance = existing.remove(entry.getKey());
+            if (attendance == null) {
+                attendance = new Attendance();
+                attendance.setClassId(request.getClassId());
+                attendance.setStudentId(entry.getKey());
+                attendance.setAttendanceDate(request.getAttendanceDate());
+                attendance.setStatus(entry.getValue());
+                toInsert.add(attendance);
+            } else if (!Objects.equals(attendance.getStatus(), entry.getValue())) {
+                previous.add(new Attendance(attendance.getId(), attendance.getClassId(), attendance.getStudentId(),
+                        attendance.getAttendanceDate(), attendance.getStatus(), attendance.getRecordedAt()));
+                updated.add(attendance);
+                // Entity đang được quản lý, Hibernate gom các câu UPDATE khi flush
+                attendance.setStatus(entry.getValue());
+                attendance.setRecordedAt(now);
+            }
+            session.add(attendance);
+        }
+        
+        // Sinh viên không còn trong danh sách gửi lên thì xóa điểm danh
+        toDelete.addAll(existing.values());
+        if (!toDelete.isEmpty()) {
+            attendanceRepository.deleteAll(toDelete);
+        }
+        if (!toInsert.isEmpty()) {
+            attendanceRepository.saveAll(toInsert);
         }
         
-        List<AttendanceResponse> attendances = getAttendanceByClassAndDate(request.getClassId(), request.getAttendanceDate());
-        return attendances.isEmpty() ? null : attendances.get(0);
+        previous.addAll(toDelete);
+        updated.addAll(toInsert);
+        int sessionDelta = (session.isEmpty() ? 0 : 1) - (current.isEmpty() ? 0 : 1);
+        attendanceSummaryService.applyChanges(request.getClassId(), previous, updated, sessionDelta);
+        attendanceAnalyticsService.invalidateClass(request.getClassId());
+        
+        if (session.isEmpty()) {
+            return null;
+        }
+        List<AttendanceResponse.StudentAttendanceResponse> studentAttendances = toStudentAttendanceResponses(session);
+        return toAttendanceResponse(session.get(0), classEntity, findSubjectName(classEntity), studentAttendances);
     }
     
     @Override
     public AttendanceResponse updateAttendance(Long attendanceId, AttendanceRequest request) {
         Attendance attendance = attendanceRepository.findById(attendanceId)
                 .orElseThrow(() -> new RuntimeException("Không tìm thấy điểm danh với ID: " + attendanceId));
+        Attendance previous = new Attendance(attendance.getId(), attendance.getClassId(), attendance.getStudentId(),
+                attendance.getAttendanceDate(), attendance.getStatus(), attendance.getRecordedAt());
+        
+        // Chuyển sang buổi học khác thì buổi cũ có thể mất dòng cuối cùng, buổi mới có thể có dòng đầu tiên
+        boolean sessionChanged = !Objects.equals(previous.getClassId(), request.getClassId())
+                || !Objects.equals(previous.getAttendanceDate(), request.getAttendanceDate());
+        boolean leavesEmptySession = sessionChanged && attendanceRepository.countTotalByClassIdAndDate(
+                previous.getClassId(), previous.getAttendanceDate()) == 1;
+        boolean startsNewSession = sessionChanged && attendanceRepository.countTotalByClassIdAndDate(
+                request.getClassId(), request.getAttendanceDate()) == 0;
         
         attendance.setClassId(request.getClassId());
         attendance.setAttendanceDate(request.getAttendanceDate());
@@ -75,6 +163,16 @@ public class AttendanceServiceImpl implements AttendanceService {
         }
         
         Attendance updatedAttendance = attendanceRepository.save(attendance);
+        if (sessionChanged) {
+            attendanceSummaryService.applyChanges(previous.getClassId(), List.of(previous), List.of(),
+                    leavesEmptySession ? -1 : 0);
+            attendanceSummaryService.applyChanges(updatedAttendance.getClassId(), List.of(), List.of(updatedAttendance),
+                    startsNewSession ? 1 : 0);
+        } else {
+            attendanceSummaryService.applyChanges(previous.getClassId(), List.of(previous), List.of(updatedAttendance), 0);
+        }
+        attendanceAnalyticsService.invalidateClass(previous.getClassId());
+        attendanceAnalyticsService.invalidateClass(updatedAttendance.getClassId());
         return convertToAttendanceResponse(updatedAttendance);
     }
     
@@ -82,8 +180,13 @@ public class AttendanceServiceImpl implements AttendanceService {
     public void deleteAttendance(Long attendanceId) {
         Attendance attendance = attendanceRepository.findById(attendanceId)
                 .orElseThrow(() -> new RuntimeException("Không tìm thấy điểm danh với ID: " + attendanceId));
+        boolean lastInSession = attendanceRepository.countTotalByClassIdAndDate(
+                attendance.getClassId(), attendance.getAttendanceDate()) == 1;
         
         attendanceRepository.delete(attendance);
+        attendanceSummaryService.applyChanges(attendance.getClassId(), List.of(attendance), List.of(),
+                lastInSession ? -1 : 0);
+        attendanceAnalyticsService.invalidateClass(attendance.getClassId());
     }
     
     @Override
@@ -101,13 +204,19 @@ public class AttendanceServiceImpl implements AttendanceService {
     @Override
     @Transactional(readOnly = true)
     public List<AttendanceResponse> getAttendanceByClassAndDate(Long classId, LocalDate date) {
-        courseRepository.findById(classId)
+        Course classEntity = courseRepository.findById(classId)
                 .orElseThrow(() -> new RuntimeException("Không tìm thấy lớp với ID: " + classId));
         
         List<Attendance> attendances = attendanceRepository.findByClassIdAndAttendanceDate(classId, date);
+        if (attendances.isEmpty()) {
+            return new ArrayList<>();
+        }
         
+        // Các dòng cùng một buổi học dùng chung danh sách sinh viên
+        String subjectName = findSubjectName(classEntity);
+        List<AttendanceResponse.StudentAttendanceResponse> studentAttendances = toStudentAttendanceResponses(attendances);
         return attendances.stream()
-                .map(this::convertToAttendanceResponse)
+                .map(attendance -> toAttendanceResponse(attendance, classEntity, subjectName, studentAttendances))
                 .collect(Collectors.toList());
     }
     
@@ -135,51 +244,20 @@ public class AttendanceServiceImpl implements AttendanceService {
         Semester semester = semesterRepository.findById(classEntity.getSemesterId())
                 .orElse(new Semester());
         
-        // Lấy tất cả điểm danh của lớp
-        List<Attendance> allAttendances = attendanceRepository.findByClassId(classId);
-        
-        // Đếm tổng số buổi học
-        long totalSessions = allAttendances.stream()
-                .map(Attendance::getAttendanceDate)
-                .distinct()
-                .count();
-        
-        // Nhóm theo sinh viên và tính tổng kết
-        List<AttendanceReportResponse.StudentAttendanceSummaryResponse> studentSummaries = 
-                allAttendances.stream()
-                        .collect(Collectors.groupingBy(Attendance::getStudentId))
-                        .entrySet()
-                        .stream()
-                        .map(entry -> {
-                            Long studentId = entry.getKey();
-                            List<Attendance> studentAttendances = entry.getValue();
-                            
-                            Student student = studentRepository.findById(studentId)
-                                    .orElse(new Student());
-                            User user = userRepository.findById(student.getUserId())
-                                    .orElse(new User());
-                            
-                            int presentCount = (int) studentAttendances.stream()
-                                    .filter(a -> "present".equals(a.getStatus()))
-                                    .count();
-                            
-                            int absentCount = (int) studentAttendances.stream()
-                                    .filter(a -> "absent".equals(a.getStatus()))
-                                    .count();
-                            
-                            int lateCount = (int) studentAttendances.stream()
-                                    .filter(a -> "late".equals(a.getStatus()))
-                                    .count();
-                            
-                            double attendanceRate = totalSessions > 0 ? 
-                                    (double) presentCount / totalSessions * 100 : 0.0;
+        // Số buổi và số lần có mặt/vắng/đi muộn đã được tổng hợp sẵn khi ghi điểm danh
+        int totalSessions = classEntity.getAttendanceSessions() != null ? classEntity.getAttendanceSessions() : 0;
+        List<AttendanceReportResponse.StudentAttendanceSummaryResponse> studentSummaries =
+                attendanceSummaryRepository.findStudentCountsByClassId(classId).stream()
+                        .map(counts -> {
+                            double attendanceRate = totalSessions > 0 ?
+                                    (double) counts.getPresentCount() / totalSessions * 100 : 0.0;
                             
                             return new AttendanceReportResponse.StudentAttendanceSummaryResponse(
-                                    student.getStudentCode(),
-                                    user.getFullName(),
-                                    presentCount,
-                                    absentCount,
-                                    lateCount,
+                                    counts.getStudentCode(),
+                                    counts.getStudentName(),
+                                    counts.getPresentCount(),
+                                    counts.getAbsentCount(),
+                                    counts.getLateCount(),
                                     attendanceRate
                             );
                         })
@@ -189,11 +267,198 @@ public class AttendanceServiceImpl implements AttendanceService {
                 classEntity.getClassCode(),
                 subject.getSubjectName(),
                 semester.getName(),
-                (int) totalSessions,
+                totalSessions,
                 studentSummaries
         );
     }
     
+    @Override
+    @Transactional(readOnly = true)
+    public AttendanceMatrixResponse getAttendanceMatrix(Long classId) {
+        Course classEntity = courseRepository.findById(classId)
+                .orElseThrow(() -> new RuntimeException("Không tìm thấy lớp với ID: " + classId));
+        
+        // Toàn bộ điểm danh của lớp trong một truy vấn, đã sắp theo ngày
+        List<AttendanceCell> cells = attendanceRepository.findCellsByClassId(classId);
+        List<LocalDate> dates = new ArrayList<>();
+        for (AttendanceCell cell : cells) {
+            if (dates.isEmpty() || !dates.get(dates.size() - 1).equals(cell.getAttendanceDate())) {
+                dates.add(cell.getAttendanceDate());
+            }
+        }
+        
+        // Mỗi sinh viên một mảng byte, mỗi byte là trạng thái của một ngày
+        Map<Long, byte[]> statusesByStudent = new LinkedHashMap<>();
+        Map<Long, RosterStudent> roster = new HashMap<>();
+        for (RosterStudent student : classStudentRepository.findRosterStudents(classId)) {
+            roster.put(student.getStudentId(), student);
+            statusesByStudent.put(student.getStudentId(), newStatusRow(dates.size()));
+        }
+        
+        int dateIndex = -1;
+        LocalDate currentDate = null;
+        for (AttendanceCell cell : cells) {
+            if (!cell.getAttendanceDate().equals(currentDate)) {
+                currentDate = cell.getAttendanceDate();
+                dateIndex++;
+            }
+            // Sinh viên đã rời lớp nhưng vẫn còn dữ liệu điểm danh được xếp cuối bảng
+            statusesByStudent.computeIfAbsent(cell.getStudentId(), id -> newStatusRow(dates.size()))
+                    [dateIndex] = toStatusCode(cell.getStatus());
+        }
+        
+        Map<Long, Student> formerStudents = new HashMap<>();
+        Map<Long, User> formerUsers = new HashMap<>();
+        if (statusesByStudent.size() > roster.size()) {
+            Set<Long> formerIds = new HashSet<>(statusesByStudent.keySet());
+            formerIds.removeAll(roster.keySet());
+            studentRepository.findAllById(formerIds).forEach(s -> formerStudents.put(s.getId(), s));
+            Set<Long> userIds = formerStudents.values().stream()
+                    .map(Student::getUserId)
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toSet());
+            userRepository.findAllById(userIds).forEach(u -> formerUsers.put(u.getId(), u));
+        }
+        
+        int[][] dateCounts = new int[dates.size()][3];
+        List<AttendanceMatrixResponse.StudentRow> rows = new ArrayList<>(statusesByStudent.size());
+        for (Map.Entry<Long, byte[]> entry : statusesByStudent.entrySet()) {
+            byte[] statuses = entry.getValue();
+            int[] studentCounts = new int[3];
+            for (int i = 0; i < statuses.length; i++) {
+                int column = countColumn(statuses[i]);
+                if (column >= 0) {
+                    studentCounts[column]++;
+                    dateCounts[i][column]++;
+                }
+            }
+            
+            String studentCode;
+            String studentName;
+            RosterStudent rosterStudent = roster.get(entry.getKey());
+            if (rosterStudent != null) {
+                studentCode = rosterStudent.getStudentCode();
+                studentName = rosterStudent.getStudentName();
+            } else {
+                Student student = formerStudents.getOrDefault(entry.getKey(), new Student());
+                studentCode = student.getStudentCode();
+                studentName = formerUsers.getOrDefault(student.getUserId(), new User()).getFullName();
+            }
+            
+            rows.add(new AttendanceMatrixResponse.StudentRow(
+                    entry.getKey(),
+                    studentCode,
+                    studentName,
+                    new String(statuses, StandardCharsets.US_ASCII),
+                    studentCounts[0],
+                    studentCounts[1],
+                    studentCounts[2]
+            ));
+        }
+        
+        List<AttendanceMatrixResponse.DateTotal> dateTotals = new ArrayList<>(dates.size());
+        for (int i = 0; i < dates.size(); i++) {
+            int recorded = dateCounts[i][0] + dateCounts[i][1] + dateCounts[i][2];
+            dateTotals.add(new AttendanceMatrixResponse.DateTotal(
+                    dates.get(i),
+                    dateCounts[i][0],
+                    dateCounts[i][1],
+                    dateCounts[i][2],
+                    rows.size() - recorded
+            ));
+        }
+        
+        return new AttendanceMatrixResponse(
+                classId,
+                classEntity.getClassCode(),
+                findSubjectName(classEntity),
+                dates,
+                STATUS_CODES,
+                rows,
+                dateTotals
+        );
+    }
+    
+    private byte[] newStatusRow(int size) {
+        byte[] row = new byte[size];
+        Arrays.fill(row, UNRECORDED);
+        return row;
+    }
+    
+    private byte toStatusCode(String status) {
+        if ("present".equals(status)) {
+            return 'P';
+        }
+        if ("absent".equals(status)) {
+            return 'A';
+        }
+        if ("late".equals(status)) {
+            return 'L';
+        }
+        return '?';
+    }
+    
+    // Cột đếm tương ứng với mã trạng thái: 0 có mặt, 1 vắng, 2 đi muộn
+    private int countColumn(byte code) {
+        switch (code) {
+            case 'P':
+                return 0;
+            case 'A':
+                return 1;
+            case 'L':
+                return 2;
+            default:
+                return -1;
+        }
+    }
+    
+    private String findSubjectName(Course classEntity) {
+        return subjectRepository.findById(classEntity.getSubjectId())
+                .orElse(new Subject())
+                .getSubjectName();
+    }
+    
+    private AttendanceResponse toAttendanceResponse(Attendance attendance, Course classEntity, String subjectName,
+                                                    List<AttendanceResponse.StudentAttendanceResponse> studentAttendances) {
+        return new AttendanceResponse(
+                attendance.getId(),
+                classEntity.getClassCode(),
+                subjectName,
+                attendance.getAttendanceDate(),
+                attendance.getRecordedAt(),
+                studentAttendances
+        );
+    }
+    
+    private List<AttendanceResponse.StudentAttendanceResponse> toStudentAttendanceResponses(List<Attendance> attendances) {
+        // Lấy sinh viên và tài khoản theo lô thay vì từng dòng
+        Set<Long> studentIds = attendances.stream()
+                .map(Attendance::getStudentId)
+                .collect(Collectors.toSet());
+        Map<Long, Student> students = studentRepository.findAllById(studentIds).stream()
+                .collect(Collectors.toMap(Student::getId, Function.identity()));
+        Set<Long> userIds = students.values().stream()
+                .map(Student::getUserId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<Long, User> users = userRepository.findAllById(userIds).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+        
+        return attendances.stream()
+                .map(att -> {
+                    Student student = students.getOrDefault(att.getStudentId(), new Student());
+                    User user = users.getOrDefault(student.getUserId(), new User());
+                    
+                    return new AttendanceResponse.StudentAttendanceResponse(
+                            student.getId(),
+                            student.getStudentCode(),
+                            user.getFullName(),
+                            att.getStatus()
+                    );
+                })
+                .collect(Collectors.toList());
+    }
+    
     private AttendanceResponse convertToAttendanceResponse(Attendance attendance) {
         Course classEntity = courseRepository.findById(attendance.getClassId())
                 .orElse(new Course());
@@ -0,0 +1,135 @@
+package com.sms.service.impl;
+
+import com.sms.entity.Attendance;
+import com.sms.entity.AttendanceSummary;
+import com.sms.repository.AttendanceRepository;
+import com.sms.repository.AttendanceSummaryRepository;
+import com.sms.repository.CourseRepository;
+import com.sms.service.AttendanceSummaryService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.*;
+
+/**
+ * Bảng tổng hợp điểm danh theo (lớp, sinh viên) và số buổi điểm danh của lớp.
+ *
+ * Các thay đổi được cộng dồn bằng UPDATE tương đối theo nhóm sinh viên có cùng mức thay đổi,
+ * nên một buổi điểm danh mới của cả lớp chỉ tốn vài câu lệnh thay vì một câu cho mỗi sinh viên.
+ */
+@Service
+@Transactional
+@Slf4j
+public class AttendanceSummaryServiceImpl implements AttendanceSummaryService {
+    
+    @Autowired
+    private AttendanceSummaryRepository attendanceSummaryRepository;
+    
+    @Autowired
+    private AttendanceRepository attendanceRepository;
+    
+    @Autowired
+    private CourseRepository courseRepository;
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillOnStartup() {
+        // Lần đầu triển khai bảng tổng hợp còn trống trong khi đã có dữ liệu điểm danh
+        if (attendanceSummaryRepository.count() == 0 && attendanceRepository.count() > 0) {
+            int rows = rebuildAll();
+            log.info("Đã dựng bảng tổng hợp điểm danh với {} dòng", rows);
+        }
+    }
+    
+    @Override
+    public void applyChanges(Long classId, List<Attendance> removed, List<Attendance> added, int sessionDelta) {
+        // Mức thay đổi (có mặt, vắng, đi muộn) của từng sinh viên
+        Map<Long, int[]> deltas = new HashMap<>();
+        for (Attendance attendance : removed) {
+            addDelta(deltas, attendance, -1);
+        }
+        for (Attendance attendance : added) {
+            addDelta(deltas, attendance, 1);
+        }
+        deltas.values().removeIf(delta -> delta[0] == 0 && delta[1] == 0 && delta[2] == 0);
+        
+        if (!deltas.isEmpty()) {
+            // Khóa dòng lớp trước khi kiểm tra để hai transaction không cùng tạo dòng tổng hợp cho một sinh viên
+            courseRepository.findByIdForUpdate(classId);
+            Set<Long> existing = new HashSet<>(
+                    attendanceSummaryRepository.findStudentIdsByClassIdAndStudentIdIn(classId, deltas.keySet()));
+            
+            // Sinh viên chưa có dòng tổng hợp thì tạo mới với giá trị ban đầu là mức thay đổi
+            List<AttendanceSummary> created = new ArrayList<>();
+            Map<List<Integer>, List<Long>> studentsByDelta = new HashMap<>();
+            for (Map.Entry<Long, int[]> entry : deltas.entrySet()) {
+                int[] delta = entry.getValue();
+                if (existing.contains(entry.getKey())) {
+                    studentsByDelta.computeIfAbsent(List.of(delta[0], delta[1], delta[2]), key -> new ArrayList<>())
+                            .add(entry.getKey());
+                } else {
+                    AttendanceSummary summary = new AttendanceSummary();
+                    summary.setClassId(classId);
+                    summary.setStudentId(entry.getKey());
+                    summary.setPresentCount(Math.max(0, delta[0]));
+                    summary.setAbsentCount(Math.max(0, delta[1]));
+                    summary.setLateCount(Math.max(0, delta[2]));
+                    created.add(summary);
+                }
+            }
+            if (!created.isEmpty()) {
+                attendanceSummaryRepository.saveAll(created);
+            }
+            for (Map.Entry<List<Integer>, List<Long>> entry : studentsByDelta.entrySet()) {
+                List<Integer> delta = entry.getKey();
+                attendanceSummaryRepository.applyDelta(classId, entry.getValue(), delta.get(0), delta.get(1), delta.get(2));
+            }
+        }
+        
+        if (sessionDelta != 0) {
+            courseRepository.adjustAttendanceSessions(classId, sessionDelta);
+        }
+    }
+    
+    @Override
+    public int rebuild(Long classId) {
+        courseRepository.findById(classId)
+                .orElseThrow(() -> new RuntimeException("Không tìm thấy lớp với ID: " + classId));
+        
+        attendanceSummaryRepository.deleteByClassId(classId);
+        int rows = attendanceSummaryRepository.rebuildByClassId(classId);
+        courseRepository.syncAttendanceSessions(classId);
+        return rows;
+    }
+    
+    @Override
+    public int rebuildAll() {
+        attendanceSummaryRepository.deleteAllSummaries();
+        int rows = attendanceSummaryRepository.rebuildAll();
+        courseRepository.syncAllAttendanceSessions();
+        return rows;
+    }
+    
+    private void addDelta(Map<Long, int[]> deltas, Attendance attendance, int sign) {
+        int column = statusColumn(attendance.getStatus());
+        if (column >= 0) {
+            deltas.computeIfAbsent(attendance.getStudentId(), id -> new int[3])[column] += sign;
+        }
+    }
+    
+    private int statusColumn(String status) {
+        if ("present".equals(status)) {
+            return 0;
+        }
+        if ("absent".equals(status)) {
+            return 1;
+        }
+        if ("late".equals(status)) {
+            return 2;
+        }
+        return -1;
+    }
+}
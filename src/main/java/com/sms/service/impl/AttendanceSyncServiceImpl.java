@@ -0,0 +1,233 @@
+package com.sms.service.impl;
+
+import com.sms.dto.request.AttendanceSyncRequest;
+import com.sms.dto.response.AttendanceSyncResponse;
+import com.sms.entity.Attendance;
+import com.sms.entity.AttendanceSyncBatch;
+import com.sms.entity.Course;
+import com.sms.repository.AttendanceRepository;
+import com.sms.repository.AttendanceSyncBatchRepository;
+import com.sms.repository.ClassStudentRepository;
+import com.sms.repository.CourseRepository;
+import com.sms.service.AttendanceAnalyticsService;
+import com.sms.service.AttendanceSummaryService;
+import com.sms.service.AttendanceSyncService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Đồng bộ điểm danh ghi ngoại tuyến trên thiết bị của giáo viên.
+ *
+ * Mỗi delta là trạng thái của một sinh viên trong một buổi học, kèm thời điểm ghi trên thiết bị.
+ * Cả lô được đọc bằng một truy vấn, so sánh theo last-writer-wins trên recordedAt rồi ghi trong một transaction.
+ * Lô được nhận diện bằng batchKey nên gửi lại sau khi mất kết nối chỉ nhận lại kết quả cũ.
+ */
+@Service
+@Transactional
+public class AttendanceSyncServiceImpl implements AttendanceSyncService {
+
+    private static final Set<String> VALID_STATUSES = Set.of("present", "absent", "late");
+
+    @Autowired
+    private AttendanceRepository attendanceRepository;
+
+    @Autowired
+    private AttendanceSyncBatchRepository attendanceSyncBatchRepository;
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Autowired
+    private ClassStudentRepository classStudentRepository;
+
+    @Autowired
+    private AttendanceSummaryService attendanceSummaryService;
+
+    @Autowired
+    private AttendanceAnalyticsService attendanceAnalyticsService;
+
+    @Value("${attendance.sync.max-deltas:1000}")
+    private int maxDeltas;
+
+    @Override
+    public AttendanceSyncResponse sync(AttendanceSyncRequest request) {
+        String batchKey = request.getBatchKey();
+        if (batchKey == null || batchKey.isBlank() || batchKey.length() > 64) {
+            throw new RuntimeException("Khóa đồng bộ không hợp lệ");
+        }
+        List<AttendanceSyncRequest.AttendanceDelta> deltas =
+                request.getDeltas() != null ? request.getDeltas() : new ArrayList<>();
+        if (deltas.size() > maxDeltas) {
+            throw new RuntimeException("Mỗi lô đồng bộ tối đa " + maxDeltas + " bản ghi");
+        }
+
+        Optional<AttendanceSyncBatch> processed = attendanceSyncBatchRepository.findByBatchKey(batchKey);
+        if (processed.isPresent()) {
+            return toResponse(processed.get(), true);
+        }
+
+        Set<Long> classIds = deltas.stream()
+                .map(AttendanceSyncRequest.AttendanceDelta::getClassId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Set<Long> knownClassIds = courseRepository.findAllById(classIds).stream()
+                .map(Course::getId)
+                .collect(Collectors.toSet());
+
+        // Chỉ nhận điểm danh của sinh viên đang học lớp, mỗi lớp một truy vấn
+        Map<Long, Set<Long>> studentIdsByClass = new HashMap<>();
+        for (AttendanceSyncRequest.AttendanceDelta delta : deltas) {
+            if (delta.getStudentId() != null && knownClassIds.contains(delta.getClassId())) {
+                studentIdsByClass.computeIfAbsent(delta.getClassId(), id -> new HashSet<>()).add(delta.getStudentId());
+            }
+        }
+        Map<Long, Set<Long>> membersByClass = new HashMap<>();
+        for (Map.Entry<Long, Set<Long>> entry : studentIdsByClass.entrySet()) {
+            membersByClass.put(entry.getKey(), new HashSet<>(
+                    classStudentRepository.findStudentIdsByClassIdAndStudentIdIn(entry.getKey(), entry.getValue())));
+        }
+
+        // Trong cùng một lô, mỗi sinh viên mỗi buổi chỉ giữ delta ghi sau cùng
+        List<Long> rejectedSeqs = new ArrayList<>();
+        Map<List<Object>, AttendanceSyncRequest.AttendanceDelta> latest = new LinkedHashMap<>();
+        int stale = 0;
+        for (AttendanceSyncRequest.AttendanceDelta delta : deltas) {
+            if (!isValid(delta, membersByClass)) {
+                if (delta.getSeq() != null) {
+                    rejectedSeqs.add(delta.getSeq());
+                }
+                continue;
+            }
+            List<Object> key = List.of(delta.getClassId(), delta.getAttendanceDate(), delta.getStudentId());
+            AttendanceSyncRequest.AttendanceDelta other = latest.get(key);
+            if (other == null || isNewer(delta, other)) {
+                latest.put(key, delta);
+            }
+            if (other != null) {
+                stale++;
+            }
+        }
+
+        // Đọc một lần toàn bộ điểm danh hiện có của các lớp và ngày trong lô
+        Map<List<Object>, Attendance> existing = new HashMap<>();
+        Set<List<Object>> existingSessions = new HashSet<>();
+        if (!latest.isEmpty()) {
+            Set<LocalDate> dates = latest.values().stream()
+                    .map(AttendanceSyncRequest.AttendanceDelta::getAttendanceDate)
+                    .collect(Collectors.toSet());
+            for (Attendance attendance : attendanceRepository.findByClassIdInAndAttendanceDateIn(knownClassIds, dates)) {
+                existing.putIfAbsent(List.of(attendance.getClassId(), attendance.getAttendanceDate(),
+                        attendance.getStudentId()), attendance);
+                existingSessions.add(List.of(attendance.getClassId(), attendance.getAttendanceDate()));
+            }
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        List<Attendance> toInsert = new ArrayList<>();
+        Map<Long, List<Attendance>> previousByClass = new HashMap<>();
+        Map<Long, List<Attendance>> addedByClass = new HashMap<>();
+        Map<Long, Integer> sessionDeltaByClass = new HashMap<>();
+        Set<List<Object>> newSessions = new HashSet<>();
+        int applied = 0;
+        for (Map.Entry<List<Object>, AttendanceSyncRequest.AttendanceDelta> entry : latest.entrySet()) {
+            AttendanceSyncRequest.AttendanceDelta delta = entry.getValue();
+            Long classId = delta.getClassId();
+            // Không tin đồng hồ thiết bị chạy nhanh hơn máy chủ
+            LocalDateTime recordedAt = delta.getRecordedAt().isAfter(now) ? now : delta.getRecordedAt();
+
+            Attendance attendance = existing.get(entry.getKey());
+            if (attendance == null) {
+                attendance = new Attendance();
+                attendance.setClassId(classId);
+                attendance.setStudentId(delta.getStudentId());
+                attendance.setAttendanceDate(delta.getAttendanceDate());
+                attendance.setStatus(delta.getStatus());
+                attendance.setRecordedAt(recordedAt);
+                toInsert.add(attendance);
+                addedByClass.computeIfAbsent(classId, id -> new ArrayList<>()).add(attendance);
+                List<Object> session = List.of(classId, delta.getAttendanceDate());
+                if (!existingSessions.contains(session) && newSessions.add(session)) {
+                    sessionDeltaByClass.merge(classId, 1, Integer::sum);
+                }
+            } else if (attendance.getRecordedAt() != null && !recordedAt.isAfter(attendance.getRecordedAt())) {
+                // Máy chủ đã có bản ghi mới hơn hoặc chính delta này từ lần gửi trước
+                stale++;
+                continue;
+            } else {
+                if (!Objects.equals(attendance.getStatus(), delta.getStatus())) {
+                    previousByClass.computeIfAbsent(classId, id -> new ArrayList<>()).add(new Attendance(
+                            attendance.getId(), attendance.getClassId(), attendance.getStudentId(),
+                            attendance.getAttendanceDate(), attendance.getStatus(), attendance.getRecordedAt()));
+                    addedByClass.computeIfAbsent(classId, id -> new ArrayList<>()).add(attendance);
+                    attendance.setStatus(delta.getStatus());
+                }
+                // Entity đang được quản lý, Hibernate gom các câu UPDATE khi flush
+                attendance.setRecordedAt(recordedAt);
+            }
+            applied++;
+        }
+
+        if (!toInsert.isEmpty()) {
+            attendanceRepository.saveAll(toInsert);
+        }
+        // Cập nhật bảng tổng hợp khóa dòng lớp, đi theo thứ tự mã lớp tăng dần để hai lô không chờ lẫn nhau
+        Set<Long> changedClassIds = new TreeSet<>(addedByClass.keySet());
+        for (Long classId : changedClassIds) {
+            attendanceSummaryService.applyChanges(classId,
+                    previousByClass.getOrDefault(classId, List.of()),
+                    addedByClass.get(classId),
+                    sessionDeltaByClass.getOrDefault(classId, 0));
+            attendanceAnalyticsService.invalidateClass(classId);
+        }
+
+        AttendanceSyncBatch batch = new AttendanceSyncBatch();
+        batch.setBatchKey(batchKey);
+        batch.setAckSeq(deltas.stream()
+                .map(AttendanceSyncRequest.AttendanceDelta::getSeq)
+                .filter(Objects::nonNull)
+                .max(Long::compare)
+                .orElse(null));
+        batch.setAppliedCount(applied);
+        batch.setStaleCount(stale);
+        batch.setRejectedSeqs(rejectedSeqs.isEmpty() ? null
+                : rejectedSeqs.stream().map(String::valueOf).collect(Collectors.joining(",")));
+        return toResponse(attendanceSyncBatchRepository.save(batch), false);
+    }
+
+    private boolean isValid(AttendanceSyncRequest.AttendanceDelta delta, Map<Long, Set<Long>> membersByClass) {
+        return delta.getSeq() != null
+                && delta.getStudentId() != null
+                && delta.getAttendanceDate() != null
+                && delta.getRecordedAt() != null
+                && VALID_STATUSES.contains(delta.getStatus())
+                && membersByClass.getOrDefault(delta.getClassId(), Set.of()).contains(delta.getStudentId());
+    }
+
+    // Cùng thời điểm thì delta có seq lớn hơn thắng
+    private boolean isNewer(AttendanceSyncRequest.AttendanceDelta delta, AttendanceSyncRequest.AttendanceDelta other) {
+        int compare = delta.getRecordedAt().compareTo(other.getRecordedAt());
+        return compare > 0 || (compare == 0 && delta.getSeq() > other.getSeq());
+    }
+
+    private AttendanceSyncResponse toResponse(AttendanceSyncBatch batch, boolean replayed) {
+        List<Long> rejectedSeqs = batch.getRejectedSeqs() == null ? new ArrayList<>()
+                : Arrays.stream(batch.getRejectedSeqs().split(","))
+                        .map(Long::valueOf)
+                        .collect(Collectors.toList());
+        return new AttendanceSyncResponse(
+                batch.getBatchKey(),
+                batch.getAckSeq(),
+                batch.getAppliedCount(),
+                batch.getStaleCount(),
+                rejectedSeqs,
+                replayed
+        );
+    }
+}
@@ -0,0 +1,298 @@
+package com.sms.service.impl;
+
+import com.sms.dto.response.StudentClassListResponse;
+import com.sms.dto.response.StudentClassResponse;
+import com.sms.entity.*;
+import com.sms.repository.*;
+import com.sms.service.ClassCatalogService;
+import com.sms.service.SeatReservationService;
+import com.sms.service.WaitlistService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Catalog lớp học cho sinh viên, dựng sẵn theo từng học kỳ đang mở.
+ *
+ * Mỗi lớp được làm phẳng một lần (môn học, giảng viên, lịch học) bằng các truy vấn theo lô;
+ * số sinh viên lấy trực tiếp từ bộ đếm chỗ nên không cần dựng lại khi có đăng ký mới.
+ */
+@Service
+@Transactional(readOnly = true)
+@Slf4j
+public class ClassCatalogServiceImpl implements ClassCatalogService {
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Autowired
+    private SemesterRepository semesterRepository;
+
+    @Autowired
+    private SubjectRepository subjectRepository;
+
+    @Autowired
+    private TeacherRepository teacherRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ScheduleRepository scheduleRepository;
+
+    @Autowired
+    private ClassStudentRepository classStudentRepository;
+
+    @Autowired
+    private SeatReservationService seatReservationService;
+
+    @Autowired
+    private WaitlistService waitlistService;
+
+    @Value("${registration.catalog.max-age-seconds:600}")
+    private long maxAgeSeconds;
+
+    // Học kỳ đang mở -> danh sách lớp đã làm phẳng; null nghĩa là cần dựng lại toàn bộ
+    private volatile Map<Long, List<CatalogEntry>> catalogs;
+    private volatile long builtAt;
+
+    private final Set<Long> dirtyClassIds = ConcurrentHashMap.newKeySet();
+
+    @Override
+    public List<StudentClassResponse> getAvailableClasses(Long studentId) {
+        Map<Long, Integer> waitlistPositions = waitlistService.getWaitlistPositions(studentId);
+        return findAvailable(studentId, null, null).stream()
+                .map(entry -> toResponse(entry, waitlistPositions.get(entry.classId)))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public StudentClassListResponse getAvailableClasses(Long studentId, Long semesterId, String keyword, Pageable pageable) {
+        List<CatalogEntry> matches = findAvailable(studentId, semesterId, keyword);
+        Map<Long, Integer> waitlistPositions = waitlistService.getWaitlistPositions(studentId);
+
+        int pageSize = pageable.getPageSize();
+        int from = (int) Math.min(pageable.getOffset(), matches.size());
+        int to = Math.min(from + pageSize, matches.size());
+        List<StudentClassResponse> classes = matches.subList(from, to).stream()
+                .map(entry -> toResponse(entry, waitlistPositions.get(entry.classId)))
+                .collect(Collectors.toList());
+
+        int totalPages = pageSize > 0 ? (matches.size() + pageSize - 1) / pageSize : 0;
+        return new StudentClassListResponse(classes, matches.size(), totalPages, pageable.getPageNumber(), pageSize);
+    }
+
+    @Override
+    public void invalidateClass(Long classId) {
+        afterCommit(() -> dirtyClassIds.add(classId));
+    }
+
+    @Override
+    public void invalidateSemesters() {
+        afterCommit(() -> catalogs = null);
+    }
+
+    private List<CatalogEntry> findAvailable(Long studentId, Long semesterId, String keyword) {
+        Map<Long, List<CatalogEntry>> current = getCatalogs();
+        Set<Long> registeredClassIds = new HashSet<>(classStudentRepository.findClassIdsByStudentId(studentId));
+        String normalizedKeyword = keyword != null && !keyword.isBlank() ? keyword.trim().toLowerCase() : null;
+
+        Collection<List<CatalogEntry>> semesters = semesterId != null
+                ? Collections.singletonList(current.getOrDefault(semesterId, Collections.emptyList()))
+                : current.values();
+
+        return semesters.stream()
+                .flatMap(List::stream)
+                .filter(entry -> !registeredClassIds.contains(entry.classId))
+                .filter(entry -> normalizedKeyword == null || entry.searchText.contains(normalizedKeyword))
+                .collect(Collectors.toList());
+    }
+
+    private Map<Long, List<CatalogEntry>> getCatalogs() {
+        Map<Long, List<CatalogEntry>> current = catalogs;
+        boolean expired = System.nanoTime() - builtAt > TimeUnit.SECONDS.toNanos(maxAgeSeconds);
+        if (current != null && !expired && dirtyClassIds.isEmpty()) {
+            return current;
+        }
+
+        synchronized (this) {
+            current = catalogs;
+            expired = System.nanoTime() - builtAt > TimeUnit.SECONDS.toNanos(maxAgeSeconds);
+            if (current == null || expired) {
+                current = rebuildAll();
+            } else if (!dirtyClassIds.isEmpty()) {
+                current = refreshDirtyClasses(current);
+            }
+            return current;
+        }
+    }
+
+    private Map<Long, List<CatalogEntry>> rebuildAll() {
+        // Xóa đánh dấu trước khi nạp để không bỏ sót thay đổi xảy ra trong lúc dựng
+        dirtyClassIds.clear();
+
+        Map<Long, List<CatalogEntry>> fresh = new LinkedHashMap<>();
+        List<Semester> openSemesters = semesterRepository.findByIsOpenTrue();
+        openSemesters.sort(Comparator.comparing(Semester::getId));
+        for (Semester semester : openSemesters) {
+            List<Course> courses = courseRepository.findBySemesterId(semester.getId());
+            fresh.put(semester.getId(), buildEntries(courses, Collections.singletonMap(semester.getId(), semester)));
+        }
+
+        Map<Long, List<CatalogEntry>> result = Collections.unmodifiableMap(fresh);
+        catalogs = result;
+        builtAt = System.nanoTime();
+        log.debug("Đã dựng catalog lớp học cho {} học kỳ đang mở", fresh.size());
+        return result;
+    }
+
+    private Map<Long, List<CatalogEntry>> refreshDirtyClasses(Map<Long, List<CatalogEntry>> current) {
+        Set<Long> classIds = new HashSet<>(dirtyClassIds);
+        dirtyClassIds.removeAll(classIds);
+
+        // Lớp có thể đã bị xóa hoặc chuyển sang học kỳ khác nên bỏ khỏi mọi học kỳ rồi nạp lại
+        List<Course> courses = courseRepository.findAllById(classIds).stream()
+                .filter(course -> current.containsKey(course.getSemesterId()))
+                .collect(Collectors.toList());
+        Map<Long, Semester> semesters = semesterRepository.findAllById(
+                courses.stream().map(Course::getSemesterId).collect(Collectors.toSet())).stream()
+                .collect(Collectors.toMap(Semester::getId, Function.identity()));
+        Map<Long, List<CatalogEntry>> reloaded = buildEntries(courses, semesters).stream()
+                .collect(Collectors.groupingBy(entry -> entry.semesterId));
+
+        Map<Long, List<CatalogEntry>> fresh = new LinkedHashMap<>();
+        current.forEach((semesterId, entries) -> {
+            List<CatalogEntry> merged = entries.stream()
+                    .filter(entry -> !classIds.contains(entry.classId))
+                    .collect(Collectors.toCollection(ArrayList::new));
+            merged.addAll(reloaded.getOrDefault(semesterId, Collections.emptyList()));
+            merged.sort(CatalogEntry.ORDER);
+            fresh.put(semesterId, Collections.unmodifiableList(merged));
+        });
+
+        Map<Long, List<CatalogEntry>> result = Collections.unmodifiableMap(fresh);
+        catalogs = result;
+        return result;
+    }
+
+    private List<CatalogEntry> buildEntries(List<Course> courses, Map<Long, Semester> semesters) {
+        if (courses.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        Set<Long> classIds = courses.stream().map(Course::getId).collect(Collectors.toSet());
+        Set<Long> subjectIds = courses.stream().map(Course::getSubjectId).filter(Objects::nonNull).collect(Collectors.toSet());
+        Set<Long> teacherIds = courses.stream().map(Course::getTeacherId).filter(Objects::nonNull).collect(Collectors.toSet());
+
+        Map<Long, Subject> subjects = subjectRepository.findAllById(subjectIds).stream()
+                .collect(Collectors.toMap(Subject::getId, Function.identity()));
+        Map<Long, Teacher> teachers = teacherRepository.findAllById(teacherIds).stream()
+                .collect(Collectors.toMap(Teacher::getId, Function.identity()));
+        Map<Long, User> users = userRepository.findAllById(teachers.values().stream()
+                        .map(Teacher::getUserId).filter(Objects::nonNull).collect(Collectors.toSet())).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+        Map<Long, List<Schedule>> schedules = scheduleRepository.findByClassIdIn(classIds).stream()
+                .collect(Collectors.groupingBy(Schedule::getClassId));
+
+        return courses.stream()
+                .map(course -> {
+                    Subject subject = subjects.getOrDefault(course.getSubjectId(), new Subject());
+                    Semester semester = semesters.getOrDefault(course.getSemesterId(), new Semester());
+                    Teacher teacher = course.getTeacherId() != null ? teachers.get(course.getTeacherId()) : null;
+                    User teacherUser = teacher != null ? users.get(teacher.getUserId()) : null;
+                    List<StudentClassResponse.ScheduleResponse> scheduleResponses = schedules
+                            .getOrDefault(course.getId(), Collections.emptyList()).stream()
+                            .map(schedule -> new StudentClassResponse.ScheduleResponse(
+                                    schedule.getDayOfWeek(),
+                                    schedule.getStartTime() != null ? schedule.getStartTime().toString() : null,
+                                    schedule.getEndTime() != null ? schedule.getEndTime().toString() : null,
+                                    schedule.getRoom()
+                            ))
+                            .collect(Collectors.toList());
+                    return new CatalogEntry(course, subject, semester,
+                            teacherUser != null ? teacherUser.getFullName() : null, scheduleResponses);
+                })
+                .sorted(CatalogEntry.ORDER)
+                .collect(Collectors.toList());
+    }
+
+    private StudentClassResponse toResponse(CatalogEntry entry, Integer waitlistPosition) {
+        return new StudentClassResponse(
+                entry.classId,
+                entry.classCode,
+                entry.subjectName,
+                entry.subjectCode,
+                entry.semesterName,
+                entry.teacherName,
+                entry.maxStudent,
+                seatReservationService.getEnrolledCount(entry.classId),
+                entry.createdAt,
+                false,
+                new ArrayList<>(entry.schedules),
+                waitlistPosition
+        );
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    static final class CatalogEntry {
+        static final Comparator<CatalogEntry> ORDER = Comparator
+                .comparing((CatalogEntry entry) -> entry.classCode, Comparator.nullsLast(Comparator.naturalOrder()))
+                .thenComparing(entry -> entry.classId);
+
+        private final Long classId;
+        private final Long semesterId;
+        private final String classCode;
+        private final String subjectName;
+        private final String subjectCode;
+        private final String semesterName;
+        private final String teacherName;
+        private final Integer maxStudent;
+        private final LocalDateTime createdAt;
+        private final List<StudentClassResponse.ScheduleResponse> schedules;
+        private final String searchText;
+
+        CatalogEntry(Course course, Subject subject, Semester semester, String teacherName,
+                     List<StudentClassResponse.ScheduleResponse> schedules) {
+            this.classId = course.getId();
+            this.semesterId = course.getSemesterId();
+            this.classCode = course.getClassCode();
+            this.subjectName = subject.getSubjectName();
+            this.subjectCode = subject.getSubjectCode();
+            this.semesterName = semester.getName();
+            this.teacherName = teacherName;
+            this.maxStudent = course.getMaxStudent();
+            this.createdAt = course.getCreatedAt();
+            this.schedules = Collections.unmodifiableList(schedules);
+            this.searchText = String.join(" ",
+                    Objects.toString(classCode, ""),
+                    Objects.toString(subjectCode, ""),
+                    Objects.toString(subjectName, ""),
+                    Objects.toString(teacherName, "")).toLowerCase();
+        }
+    }
+}
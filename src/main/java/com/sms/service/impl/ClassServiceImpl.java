@@ -3,28 +3,43 @@ package com.sms.service.impl;
 import com.sms.dto.request.ClassRequest;
 import com.sms.dto.response.ClassListResponse;
 import com.sms.dto.response.ClassResponse;
+import com.sms.dto.response.ClassRosterPageResponse;
+import com.sms.dto.response.RosterImportResponse;
+import com.sms.dto.response.TeacherClassResponse;
 import com.sms.entity.*;
 import com.sms.repository.*;
+import com.sms.repository.projection.ClassRosterEntry;
+import com.sms.repository.projection.ClassSeatCount;
+import com.sms.repository.projection.ClassSummary;
+import com.sms.repository.projection.RosterStudent;
+import com.sms.service.ClassCatalogService;
 import com.sms.service.ClassService;
-import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import com.sms.service.SeatAvailabilityStreamService;
+import com.sms.service.SeatReservationService;
+import com.sms.service.TranscriptService;
+import com.sms.service.WaitlistService;
+import com.sms.util.ExcelStreamReader;
+import com.sms.util.ImportProgress;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
 import java.io.InputStream;
-import java.util.ArrayList;
-import java.util.List;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
 import java.util.stream.Collectors;
 
 @Service
 @Transactional
 public class ClassServiceImpl implements ClassService {
     
+    private static final int IMPORT_LOOKUP_CHUNK_SIZE = 500;
+    private static final int ROSTER_MAX_PAGE_SIZE = 200;
+    
     @Autowired
     private CourseRepository courseRepository;
     
@@ -44,7 +59,22 @@ public class ClassServiceImpl implements ClassService {
     private StudentRepository studentRepository;
     
     @Autowired
-    private UserRepository userRepository;
+    private SeatReservationService seatReservationService;
+    
+    @Autowired
+    private WaitlistService waitlistService;
+    
+    @Autowired
+    private ClassCatalogService classCatalogService;
+    
+    @Autowired
+    private SeatAvailabilityStreamService seatAvailabilityStreamService;
+    
+    @Autowired
+    private GradeRepository gradeRepository;
+    
+    @Autowired
+    private TranscriptService transcriptService;
     
     @Override
     public ClassResponse createClass(ClassRequest classRequest) {
@@ -75,7 +105,8 @@ public class ClassServiceImpl implements ClassService {
         courseEntity.setMaxStudent(classRequest.getMaxStudent());
         
         Course savedCourse = courseRepository.save(courseEntity);
-        return convertToClassResponse(savedCourse);
+        classCatalogService.invalidateClass(savedCourse.getId());
+        return getClassById(savedCourse.getId(), false);
     }
     
     @Override
@@ -103,6 +134,9 @@ public class ClassServiceImpl implements ClassService {
                 .orElseThrow(() -> new RuntimeException("Không tìm thấy giáo viên với ID: " + classRequest.getTeacherId()));
         }
         
+        boolean transcriptAffected = !Objects.equals(courseEntity.getSubjectId(), classRequest.getSubjectId())
+                || !Objects.equals(courseEntity.getSemesterId(), classRequest.getSemesterId());
+        
         courseEntity.setClassCode(classRequest.getClassCode());
         courseEntity.setSubjectId(classRequest.getSubjectId());
         courseEntity.setSemesterId(classRequest.getSemesterId());
@@ -110,7 +144,14 @@ public class ClassServiceImpl implements ClassService {
         courseEntity.setMaxStudent(classRequest.getMaxStudent());
         
         Course updatedCourse = courseRepository.save(courseEntity);
-        return convertToClassResponse(updatedCourse);
+        if (transcriptAffected) {
+            // Điểm của lớp đã được cộng vào bảng điểm tích lũy theo tín chỉ và học kỳ cũ
+            transcriptService.rebuildStudents(gradeRepository.findGradedStudentIdsByClassId(classId));
+        }
+        seatReservationService.updateCapacity(classId, updatedCourse.getMaxStudent());
+        seatAvailabilityStreamService.evictClass(classId);
+        classCatalogService.invalidateClass(classId);
+        return getClassById(classId, false);
     }
     
     @Override
@@ -118,136 +159,119 @@ public class ClassServiceImpl implements ClassService {
         Course courseEntity = courseRepository.findById(classId)
             .orElseThrow(() -> new RuntimeException("Không tìm thấy lớp với ID: " + classId));
         
-        // Xóa tất cả class_student records
+        // Xóa tất cả class_student records và hàng chờ
         classStudentRepository.deleteByClassId(classId);
+        waitlistService.clearWaitlist(classId);
         
         // Xóa lớp
         courseRepository.delete(courseEntity);
+        seatReservationService.evict(classId);
+        seatAvailabilityStreamService.evictClass(classId);
+        classCatalogService.invalidateClass(classId);
     }
     
     @Override
     @Transactional(readOnly = true)
-    public ClassResponse getClassById(Long classId) {
-        Course courseEntity = courseRepository.findById(classId)
+    public ClassResponse getClassById(Long classId, boolean includeStudents) {
+        ClassSummary summary = courseRepository.findClassSummaryById(classId)
             .orElseThrow(() -> new RuntimeException("Không tìm thấy lớp với ID: " + classId));
         
-        return convertToClassResponse(courseEntity);
+        return toClassResponses(List.of(summary), includeStudents).get(0);
     }
     
     @Override
     @Transactional(readOnly = true)
-    public ClassResponse getClassByCode(String classCode) {
-        Course courseEntity = courseRepository.findByClassCode(classCode)
+    public ClassResponse getClassByCode(String classCode, boolean includeStudents) {
+        ClassSummary summary = courseRepository.findClassSummaryByCode(classCode)
             .orElseThrow(() -> new RuntimeException("Không tìm thấy lớp với mã: " + classCode));
         
-        return convertToClassResponse(courseEntity);
+        return toClassResponses(List.of(summary), includeStudents).get(0);
     }
     
     @Override
     @Transactional(readOnly = true)
-    public ClassListResponse getAllClasses(Pageable pageable) {
-        Page<Course> coursePage = courseRepository.findAll(pageable);
-        
-        List<ClassResponse> classResponses = coursePage.getContent().stream()
-            .map(this::convertToClassResponse)
-            .collect(Collectors.toList());
+    public ClassListResponse getAllClasses(Pageable pageable, boolean includeStudents) {
+        Page<ClassSummary> classPage = courseRepository.findClassSummaries(pageable);
         
         return new ClassListResponse(
-            classResponses,
-            coursePage.getTotalElements(),
-            coursePage.getTotalPages(),
-            coursePage.getNumber(),
-            coursePage.getSize()
+            toClassResponses(classPage.getContent(), includeStudents),
+            classPage.getTotalElements(),
+            classPage.getTotalPages(),
+            classPage.getNumber(),
+            classPage.getSize()
         );
     }
     
     @Override
     @Transactional(readOnly = true)
-    public ClassListResponse searchClasses(Pageable pageable, String keyword) {
-        Page<Course> coursePage = courseRepository.searchClasses(keyword, pageable);
-        
-        List<ClassResponse> classResponses = coursePage.getContent().stream()
-            .map(this::convertToClassResponse)
-            .collect(Collectors.toList());
+    public ClassListResponse searchClasses(Pageable pageable, String keyword, boolean includeStudents) {
+        Page<ClassSummary> classPage = courseRepository.searchClassSummaries(keyword, pageable);
         
         return new ClassListResponse(
-            classResponses,
-            coursePage.getTotalElements(),
-            coursePage.getTotalPages(),
-            coursePage.getNumber(),
-            coursePage.getSize()
+            toClassResponses(classPage.getContent(), includeStudents),
+            classPage.getTotalElements(),
+            classPage.getTotalPages(),
+            classPage.getNumber(),
+            classPage.getSize()
         );
     }
     
     @Override
     @Transactional(readOnly = true)
-    public List<ClassResponse> getClassesBySubject(Long subjectId) {
-        subjectRepository.findById(subjectId)
-            .orElseThrow(() -> new RuntimeException("Không tìm thấy môn học với ID: " + subjectId));
-        
-        List<Course> courses = courseRepository.findBySubjectId(subjectId);
+    public List<ClassResponse> getClassesBySubject(Long subjectId, boolean includeStudents) {
+        if (!subjectRepository.existsById(subjectId)) {
+            throw new RuntimeException("Không tìm thấy môn học với ID: " + subjectId);
+        }
         
-        return courses.stream()
-            .map(this::convertToClassResponse)
-            .collect(Collectors.toList());
+        return toClassResponses(courseRepository.findClassSummaries(subjectId, null, null), includeStudents);
     }
     
     @Override
     @Transactional(readOnly = true)
-    public List<ClassResponse> getClassesBySemester(Long semesterId) {
-        semesterRepository.findById(semesterId)
-            .orElseThrow(() -> new RuntimeException("Không tìm thấy học kỳ với ID: " + semesterId));
-        
-        List<Course> courses = courseRepository.findBySemesterId(semesterId);
+    public List<ClassResponse> getClassesBySemester(Long semesterId, boolean includeStudents) {
+        if (!semesterRepository.existsById(semesterId)) {
+            throw new RuntimeException("Không tìm thấy học kỳ với ID: " + semesterId);
+        }
         
-        return courses.stream()
-            .map(this::convertToClassResponse)
-            .collect(Collectors.toList());
+        return toClassResponses(courseRepository.findClassSummaries(null, semesterId, null), includeStudents);
     }
     
     @Override
     @Transactional(readOnly = true)
-    public List<ClassResponse> getClassesByTeacher(Long teacherId) {
-        teacherRepository.findById(teacherId)
-            .orElseThrow(() -> new RuntimeException("Không tìm thấy giáo viên với ID: " + teacherId));
-        
-        List<Course> courses = courseRepository.findByTeacherId(teacherId);
+    public List<ClassResponse> getClassesByTeacher(Long teacherId, boolean includeStudents) {
+        if (!teacherRepository.existsById(teacherId)) {
+            throw new RuntimeException("Không tìm thấy giáo viên với ID: " + teacherId);
+        }
         
-        return courses.stream()
-            .map(this::convertToClassResponse)
-            .collect(Collectors.toList());
+        return toClassResponses(courseRepository.findClassSummaries(null, null, teacherId), includeStudents);
     }
     
     @Override
     @Transactional(readOnly = true)
-    public List<ClassResponse> getClassesBySubjectAndSemester(Long subjectId, Long semesterId) {
-        subjectRepository.findById(subjectId)
-            .orElseThrow(() -> new RuntimeException("Không tìm thấy môn học với ID: " + subjectId));
-        
-        semesterRepository.findById(semesterId)
-            .orElseThrow(() -> new RuntimeException("Không tìm thấy học kỳ với ID: " + semesterId));
+    public List<ClassResponse> getClassesBySubjectAndSemester(Long subjectId, Long semesterId, boolean includeStudents) {
+        if (!subjectRepository.existsById(subjectId)) {
+            throw new RuntimeException("Không tìm thấy môn học với ID: " + subjectId);
+        }
         
-        List<Course> courses = courseRepository.findBySubjectIdAndSemesterId(subjectId, semesterId);
+        if (!semesterRepository.existsById(semesterId)) {
+            throw new RuntimeException("Không tìm thấy học kỳ với ID: " + semesterId);
+        }
         
-        return courses.stream()
-            .map(this::convertToClassResponse)
-            .collect(Collectors.toList());
+        return toClassResponses(courseRepository.findClassSummaries(subjectId, semesterId, null), includeStudents);
     }
     
     @Override
     @Transactional(readOnly = true)
-    public List<ClassResponse> getClassesByTeacherAndSemester(Long teacherId, Long semesterId) {
-        teacherRepository.findById(teacherId)
-            .orElseThrow(() -> new RuntimeException("Không tìm thấy giáo viên với ID: " + teacherId));
-        
-        semesterRepository.findById(semesterId)
-            .orElseThrow(() -> new RuntimeException("Không tìm thấy học kỳ với ID: " + semesterId));
+    public List<ClassResponse> getClassesByTeacherAndSemester(Long teacherId, Long semesterId, boolean includeStudents) {
+        if (!teacherRepository.existsById(teacherId)) {
+            throw new RuntimeException("Không tìm thấy giáo viên với ID: " + teacherId);
+        }
         
-        List<Course> courses = courseRepository.findByTeacherIdAndSemesterId(teacherId, semesterId);
+        if (!semesterRepository.existsById(semesterId)) {
+            throw new RuntimeException("Không tìm thấy học kỳ với ID: " + semesterId);
+        }
         
-        return courses.stream()
-            .map(this::convertToClassResponse)
-            .collect(Collectors.toList());
+        return toClassResponses(courseRepository.findClassSummaries(null, semesterId, teacherId), includeStudents);
     }
     
     @Override
@@ -260,6 +284,7 @@ public class ClassServiceImpl implements ClassService {
         
         courseEntity.setTeacherId(teacherId);
         courseRepository.save(courseEntity);
+        classCatalogService.invalidateClass(classId);
     }
     
     @Override
@@ -269,204 +294,208 @@ public class ClassServiceImpl implements ClassService {
         
         courseEntity.setTeacherId(null);
         courseRepository.save(courseEntity);
+        classCatalogService.invalidateClass(classId);
     }
     
     @Override
     @Transactional(readOnly = true)
     public List<ClassResponse.StudentInfo> getClassStudents(Long classId) {
-        courseRepository.findById(classId)
-            .orElseThrow(() -> new RuntimeException("Không tìm thấy lớp với ID: " + classId));
+        if (!courseRepository.existsById(classId)) {
+            throw new RuntimeException("Không tìm thấy lớp với ID: " + classId);
+        }
         
-        List<ClassStudent> classStudents = classStudentRepository.findByClassId(classId);
-        
-        return classStudents.stream()
-            .map(classStudent -> {
-                Student student = studentRepository.findById(classStudent.getStudentId())
-                    .orElse(new Student());
-                User user = userRepository.findById(student.getUserId())
-                    .orElse(new User());
-                
-                return new ClassResponse.StudentInfo(
-                    student.getId(),
-                    student.getStudentCode(),
-                    user.getFullName(),
-                    classStudent.getRegisteredAt()
-                );
-            })
-            .collect(Collectors.toList());
+        return loadRosters(List.of(classId)).getOrDefault(classId, new ArrayList<>());
     }
     
     @Override
-    public void importStudentsFromFile(Long classId, MultipartFile file) {
-        // Kiểm tra lớp tồn tại
-        Course courseEntity = courseRepository.findById(classId)
+    @Transactional(readOnly = true)
+    public ClassRosterPageResponse getClassRosterPage(Long classId, String sort, String cursor, int size) {
+        Integer totalStudents = courseRepository.findSeatCountById(classId)
+            .map(ClassSeatCount::getEnrolledCount)
             .orElseThrow(() -> new RuntimeException("Không tìm thấy lớp với ID: " + classId));
         
-        // Kiểm tra file
-        if (file == null || file.isEmpty()) {
-            throw new RuntimeException("File không được để trống");
+        boolean byName = "name".equalsIgnoreCase(sort);
+        int pageSize = Math.max(1, Math.min(size, ROSTER_MAX_PAGE_SIZE));
+        // Lấy dư một dòng để biết còn trang sau hay không
+        Pageable limit = PageRequest.of(0, pageSize + 1);
+        
+        List<RosterStudent> rows;
+        if (cursor == null || cursor.isEmpty()) {
+            rows = byName
+                ? classStudentRepository.findRosterFirstPageByName(classId, limit)
+                : classStudentRepository.findRosterFirstPageByCode(classId, limit);
+        } else {
+            // Cursor là khóa sắp xếp và ID của dòng cuối trang trước
+            String decoded;
+            try {
+                decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            } catch (IllegalArgumentException e) {
+                throw new RuntimeException("Cursor không hợp lệ");
+            }
+            int separator = decoded.lastIndexOf('\n');
+            if (separator < 0) {
+                throw new RuntimeException("Cursor không hợp lệ");
+            }
+            String afterKey = decoded.substring(0, separator);
+            Long afterId;
+            try {
+                afterId = Long.parseLong(decoded.substring(separator + 1));
+            } catch (NumberFormatException e) {
+                throw new RuntimeException("Cursor không hợp lệ");
+            }
+            rows = byName
+                ? classStudentRepository.findRosterPageByNameAfter(classId, afterKey, afterId, limit)
+                : classStudentRepository.findRosterPageByCodeAfter(classId, afterKey, afterId, limit);
         }
         
-        String fileName = file.getOriginalFilename();
-        if (fileName == null || (!fileName.endsWith(".xlsx") && !fileName.endsWith(".xls"))) {
-            throw new RuntimeException("File phải là định dạng Excel (.xlsx hoặc .xls)");
+        String nextCursor = null;
+        if (rows.size() > pageSize) {
+            rows = rows.subList(0, pageSize);
+            RosterStudent last = rows.get(pageSize - 1);
+            String lastKey = byName
+                ? (last.getStudentName() != null ? last.getStudentName() : "")
+                : last.getStudentCode();
+            nextCursor = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((lastKey + "\n" + last.getStudentId()).getBytes(StandardCharsets.UTF_8));
         }
         
-        List<String> errors = new ArrayList<>();
-        int successCount = 0;
-        int skipCount = 0;
+        List<TeacherClassResponse.StudentInClassResponse> students = rows.stream()
+            .map(row -> new TeacherClassResponse.StudentInClassResponse(
+                row.getStudentId(),
+                row.getStudentCode(),
+                row.getStudentName(),
+                row.getEmail(),
+                row.getClassName(),
+                row.getMajor(),
+                row.getCourseYear()
+            ))
+            .collect(Collectors.toList());
         
-        try (InputStream inputStream = file.getInputStream();
-             Workbook workbook = new XSSFWorkbook(inputStream)) {
-            
-            Sheet sheet = workbook.getSheetAt(0);
-            
-            // Validate header (dòng 0): STT, Mã SV, Họ Và Tên
-            // Format: Cột 0 = STT, Cột 1 = Mã SV, Cột 2 = Họ Và Tên
-            Row headerRow = sheet.getRow(0);
-            if (headerRow != null) {
-                Cell headerCell2 = headerRow.getCell(1);
-                String header2 = getCellValueAsString(headerCell2);
-                
-                // Kiểm tra header có đúng format không (không bắt buộc, chỉ cảnh báo)
-                if (header2 != null && !header2.trim().toLowerCase().contains("mã")) {
-                    // Có thể log warning nhưng vẫn tiếp tục xử lý
-                }
+        return new ClassRosterPageResponse(classId, totalStudents, byName ? "name" : "code", pageSize, nextCursor, students);
+    }
+    
+    @Override
+    public RosterImportResponse importStudentsFromFile(Long classId, InputStream inputStream, ImportProgress progress) throws IOException {
+        // Kiểm tra lớp tồn tại
+        if (!courseRepository.existsById(classId)) {
+            throw new RuntimeException("Không tìm thấy lớp với ID: " + classId);
+        }
+        
+        // Đọc lần lượt từng dòng, chỉ giữ lại mã sinh viên và số dòng
+        // Format: Cột 0 = STT, Cột 1 = Mã SV, Cột 2 = Họ Và Tên; dòng 0 là header
+        Map<String, Integer> codeRows = new LinkedHashMap<>();
+        List<RosterImportResponse.RowResult> issues = new ArrayList<>();
+        int[] totalRows = {0};
+        
+        ExcelStreamReader.readRows(inputStream, row -> {
+            if (row.getRowIndex() == 0) {
+                return;
             }
-            
-            // Đọc từ dòng 1 (bỏ qua header ở dòng 0)
-            for (int rowIndex = 1; rowIndex <= sheet.getLastRowNum(); rowIndex++) {
-                Row row = sheet.getRow(rowIndex);
-                if (row == null) continue;
-                
-                // Lấy mã sinh viên từ cột thứ 2 (index 1) - cột "Mã SV"
-                // Cột 0: STT, Cột 1: Mã SV, Cột 2: Họ Và Tên
-                Cell studentCodeCell = row.getCell(1);
-                if (studentCodeCell == null) continue;
-                
-                String studentCode = getCellValueAsString(studentCodeCell);
-                if (studentCode == null || studentCode.trim().isEmpty()) {
-                    continue;
-                }
-                
-                studentCode = studentCode.trim();
-                
-                // Tìm sinh viên theo mã
-                Student student = studentRepository.findByStudentCode(studentCode)
-                    .orElse(null);
-                
-                if (student == null) {
-                    errors.add("Dòng " + (rowIndex + 1) + ": Không tìm thấy sinh viên với mã " + studentCode);
-                    skipCount++;
-                    continue;
-                }
-                
-                // Kiểm tra sinh viên đã đăng ký lớp này chưa
-                if (classStudentRepository.findByClassIdAndStudentId(classId, student.getId()).isPresent()) {
-                    skipCount++;
-                    continue;
-                }
-                
-                // Kiểm tra lớp còn chỗ không
-                Long currentCount = classStudentRepository.countByClassId(classId);
-                if (currentCount >= courseEntity.getMaxStudent()) {
-                    errors.add("Dòng " + (rowIndex + 1) + ": Lớp đã đầy, không thể thêm thêm sinh viên");
-                    skipCount++;
-                    continue;
-                }
-                
-                // Thêm sinh viên vào lớp
-                ClassStudent classStudent = new ClassStudent();
-                classStudent.setClassId(classId);
-                classStudent.setStudentId(student.getId());
-                
-                try {
-                    classStudentRepository.save(classStudent);
-                    successCount++;
-                } catch (Exception e) {
-                    errors.add("Dòng " + (rowIndex + 1) + ": Lỗi khi thêm sinh viên " + studentCode + " - " + e.getMessage());
-                    skipCount++;
-                }
+            String studentCode = row.getCell(1);
+            if (studentCode == null || studentCode.trim().isEmpty()) {
+                return;
             }
             
-        } catch (IOException e) {
-            throw new RuntimeException("Lỗi khi đọc file Excel: " + e.getMessage());
+            studentCode = studentCode.trim();
+            int rowNumber = row.getRowIndex() + 1;
+            totalRows[0]++;
+            progress.rowRead();
+            Integer firstRow = codeRows.putIfAbsent(studentCode, rowNumber);
+            if (firstRow != null) {
+                issues.add(new RosterImportResponse.RowResult(rowNumber, studentCode, "DUPLICATE_IN_FILE",
+                    "Mã sinh viên trùng với dòng " + firstRow));
+                progress.addSkipped(1);
+            }
+        });
+        
+        // Tra cứu sinh viên theo từng nhóm mã thay vì từng dòng
+        Map<String, Long> studentIdsByCode = new HashMap<>();
+        List<String> codes = new ArrayList<>(codeRows.keySet());
+        for (int from = 0; from < codes.size(); from += IMPORT_LOOKUP_CHUNK_SIZE) {
+            List<String> chunk = codes.subList(from, Math.min(from + IMPORT_LOOKUP_CHUNK_SIZE, codes.size()));
+            for (Student student : studentRepository.findByStudentCodeIn(chunk)) {
+                studentIdsByCode.put(student.getStudentCode(), student.getId());
+            }
         }
         
-        // Nếu có lỗi, throw exception với thông báo chi tiết
-        if (!errors.isEmpty()) {
-            String errorMessage = String.format(
-                "Import hoàn tất. Thành công: %d, Bỏ qua: %d. Các lỗi:\n%s",
-                successCount, skipCount, String.join("\n", errors)
-            );
-            throw new RuntimeException(errorMessage);
-        }
-    }
-    
-    private String getCellValueAsString(Cell cell) {
-        if (cell == null) {
-            return null;
+        Set<Long> enrolledIds = new HashSet<>(classStudentRepository.findStudentIdsByClassId(classId));
+        List<String> candidateCodes = new ArrayList<>();
+        for (Map.Entry<String, Integer> entry : codeRows.entrySet()) {
+            String studentCode = entry.getKey();
+            Long studentId = studentIdsByCode.get(studentCode);
+            if (studentId == null) {
+                issues.add(new RosterImportResponse.RowResult(entry.getValue(), studentCode, "NOT_FOUND",
+                    "Không tìm thấy sinh viên với mã " + studentCode));
+                progress.addFailed(1);
+            } else if (enrolledIds.contains(studentId)) {
+                issues.add(new RosterImportResponse.RowResult(entry.getValue(), studentCode, "ALREADY_ENROLLED",
+                    "Sinh viên đã có trong lớp"));
+                progress.addSkipped(1);
+            } else {
+                candidateCodes.add(studentCode);
+            }
         }
         
-        switch (cell.getCellType()) {
-            case STRING:
-                return cell.getStringCellValue();
-            case NUMERIC:
-                if (DateUtil.isCellDateFormatted(cell)) {
-                    return cell.getDateCellValue().toString();
-                } else {
-                    // Lấy số nguyên nếu là số nguyên, ngược lại lấy số thực
-                    double numericValue = cell.getNumericCellValue();
-                    if (numericValue == (long) numericValue) {
-                        return String.valueOf((long) numericValue);
-                    } else {
-                        return String.valueOf(numericValue);
-                    }
-                }
-            case BOOLEAN:
-                return String.valueOf(cell.getBooleanCellValue());
-            case FORMULA:
-                return cell.getCellFormula();
-            default:
-                return null;
+        // Giữ chỗ một lần cho cả danh sách, các dòng vượt quá sức chứa bị bỏ qua theo thứ tự trong file
+        int reserved = seatReservationService.tryReserve(classId, candidateCodes.size());
+        List<Long> studentIds = new ArrayList<>(reserved);
+        for (int i = 0; i < candidateCodes.size(); i++) {
+            String studentCode = candidateCodes.get(i);
+            if (i < reserved) {
+                studentIds.add(studentIdsByCode.get(studentCode));
+            } else {
+                issues.add(new RosterImportResponse.RowResult(codeRows.get(studentCode), studentCode, "CLASS_FULL",
+                    "Lớp đã đầy, không thể thêm thêm sinh viên"));
+                progress.addFailed(1);
+            }
         }
-    }
-    
-    private ClassResponse convertToClassResponse(Course courseEntity) {
-        Subject subject = subjectRepository.findById(courseEntity.getSubjectId())
-            .orElse(new Subject());
-        
-        Semester semester = semesterRepository.findById(courseEntity.getSemesterId())
-            .orElse(new Semester());
         
-        Teacher teacher = null;
-        String teacherName = null;
-        if (courseEntity.getTeacherId() != null) {
-            teacher = teacherRepository.findById(courseEntity.getTeacherId()).orElse(null);
-            if (teacher != null) {
-                User teacherUser = userRepository.findById(teacher.getUserId()).orElse(new User());
-                teacherName = teacherUser.getFullName();
-            }
+        // ID sinh ra bằng IDENTITY nên Hibernate không gộp batch được, chèn trực tiếp bằng INSERT ... SELECT
+        for (int from = 0; from < studentIds.size(); from += IMPORT_LOOKUP_CHUNK_SIZE) {
+            progress.addInserted(classStudentRepository.insertEnrollments(classId,
+                studentIds.subList(from, Math.min(from + IMPORT_LOOKUP_CHUNK_SIZE, studentIds.size()))));
         }
         
-        Long currentStudentCount = classStudentRepository.countByClassId(courseEntity.getId());
-        List<ClassResponse.StudentInfo> students = getClassStudents(courseEntity.getId());
-        
-        return new ClassResponse(
-            courseEntity.getId(),
-            courseEntity.getClassCode(),
-            courseEntity.getSubjectId(),
-            subject.getSubjectName(),
-            subject.getSubjectCode(),
-            courseEntity.getSemesterId(),
-            semester.getName(),
-            courseEntity.getTeacherId(),
-            teacherName,
-            courseEntity.getMaxStudent(),
-            currentStudentCount.intValue(),
-            courseEntity.getCreatedAt(),
-            courseEntity.getStatus(),
-            students
-        );
+        issues.sort(Comparator.comparing(RosterImportResponse.RowResult::getRowNumber));
+        return new RosterImportResponse(classId, totalRows[0], studentIds.size(), issues.size(), issues);
+    }
+    
+    private List<ClassResponse> toClassResponses(List<ClassSummary> summaries, boolean includeStudents) {
+        // Danh sách sinh viên chỉ được nạp ở chế độ chi tiết, bằng một truy vấn cho cả trang
+        Map<Long, List<ClassResponse.StudentInfo>> rosters = includeStudents && !summaries.isEmpty()
+            ? loadRosters(summaries.stream().map(ClassSummary::getId).collect(Collectors.toList()))
+            : Collections.emptyMap();
+        
+        return summaries.stream()
+            .map(summary -> new ClassResponse(
+                summary.getId(),
+                summary.getClassCode(),
+                summary.getSubjectId(),
+                summary.getSubjectName(),
+                summary.getSubjectCode(),
+                summary.getSemesterId(),
+                summary.getSemesterName(),
+                summary.getTeacherId(),
+                summary.getTeacherName(),
+                summary.getMaxStudent(),
+                summary.getCurrentStudentCount(),
+                summary.getCreatedAt(),
+                summary.getStatus(),
+                includeStudents ? rosters.getOrDefault(summary.getId(), new ArrayList<>()) : null
+            ))
+            .collect(Collectors.toList());
+    }
+    
+    private Map<Long, List<ClassResponse.StudentInfo>> loadRosters(Collection<Long> classIds) {
+        return classStudentRepository.findRostersByClassIdIn(classIds).stream()
+            .collect(Collectors.groupingBy(
+                ClassRosterEntry::getClassId,
+                Collectors.mapping(entry -> new ClassResponse.StudentInfo(
+                    entry.getStudentId(),
+                    entry.getStudentCode(),
+                    entry.getFullName(),
+                    entry.getRegisteredAt()
+                ), Collectors.toList())
+            ));
     }
 }
@@ -0,0 +1,284 @@
+package com.sms.service.impl;
+
+import com.sms.dto.response.GradeAuditListResponse;
+import com.sms.entity.Grade;
+import com.sms.entity.GradeAudit;
+import com.sms.repository.GradeAuditRepository;
+import com.sms.service.GradeAuditService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Lịch sử thay đổi điểm ghi theo kiểu write-behind.
+ *
+ * Thao tác ghi điểm chỉ chép giá trị cũ và mới vào danh sách gắn với transaction; khi transaction commit,
+ * cả danh sách được đưa vào hàng đợi vòng có giới hạn và một luồng ghi nền gom thành lô để INSERT, nên đường ghi
+ * điểm không phải chờ thêm câu lệnh nào. Hàng đợi đầy thì luồng commit chờ tổng cộng tối đa offer-timeout-ms cho
+ * luồng ghi giải phóng chỗ; quá thời gian đó các bản ghi còn lại bị bỏ và được đếm lại trong log.
+ *
+ * Danh sách của một transaction không vượt quá batch-size: transaction ghi hàng loạt (tính lại học kỳ, nhập bảng
+ * điểm lớn) ghi luôn từng lô đầy vào bảng trong chính transaction đó, nên bộ nhớ không tăng theo số điểm đổi và
+ * lịch sử vẫn bị hủy cùng điểm khi rollback.
+ */
+@Service
+@Transactional
+@Slf4j
+public class GradeAuditServiceImpl implements GradeAuditService {
+    
+    private static final String SYSTEM_ACTOR = "system";
+    
+    @Autowired
+    private GradeAuditRepository gradeAuditRepository;
+    
+    @Value("${grade.audit.capacity:10000}")
+    private int capacity;
+    
+    @Value("${grade.audit.batch-size:200}")
+    private int batchSize;
+    
+    @Value("${grade.audit.flush-interval-ms:200}")
+    private long flushIntervalMs;
+    
+    @Value("${grade.audit.offer-timeout-ms:500}")
+    private long offerTimeoutMs;
+    
+    @Value("${grade.audit.retry-attempts:5}")
+    private int retryAttempts;
+    
+    @Value("${grade.audit.retry-backoff-ms:200}")
+    private long retryBackoffMs;
+    
+    // Khóa gắn danh sách bản ghi chờ commit vào transaction hiện tại
+    private final Object transactionKey = new Object();
+    
+    private final AtomicLong dropped = new AtomicLong();
+    
+    private BlockingQueue<GradeAudit> queue;
+    private ExecutorService writer;
+    private volatile boolean running;
+    
+    @PostConstruct
+    void init() {
+        queue = new ArrayBlockingQueue<>(Math.max(1, capacity));
+        running = true;
+        writer = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "grade-audit-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        writer.execute(this::runWriter);
+    }
+    
+    @PreDestroy
+    void shutdown() {
+        // Luồng ghi xả nốt hàng đợi trước khi dừng
+        running = false;
+        writer.shutdown();
+        try {
+            if (!writer.awaitTermination(10, TimeUnit.SECONDS)) {
+                log.warn("Còn {} bản ghi lịch sử điểm chưa được lưu khi dừng ứng dụng", queue.size());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    @Override
+    public void record(String action, Grade before, Grade after) {
+        Grade current = after != null ? after : before;
+        GradeAudit audit = new GradeAudit(
+                null,
+                current.getId(),
+                current.getClassId(),
+                current.getStudentId(),
+                action,
+                before != null ? before.getMidterm() : null,
+                before != null ? before.getFinalGrade() : null,
+                before != null ? before.getOther() : null,
+                before != null ? before.getTotal() : null,
+                after != null ? after.getMidterm() : null,
+                after != null ? after.getFinalGrade() : null,
+                after != null ? after.getOther() : null,
+                after != null ? after.getTotal() : null,
+                currentActor(),
+                LocalDateTime.now()
+        );
+        
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            enqueue(List.of(audit));
+            return;
+        }
+        List<GradeAudit> pending = pendingAudits();
+        pending.add(audit);
+        if (pending.size() >= Math.max(1, batchSize)) {
+            gradeAuditRepository.saveAll(pending);
+            pending.clear();
+        }
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
+    public GradeAuditListResponse getHistory(Long gradeId, Long studentId, Long classId, Pageable pageable) {
+        int criteria = (gradeId != null ? 1 : 0) + (studentId != null ? 1 : 0) + (classId != null ? 1 : 0);
+        if (criteria != 1) {
+            throw new RuntimeException("Cần chỉ định đúng một trong gradeId, studentId hoặc classId");
+        }
+        
+        Page<GradeAudit> page;
+        if (gradeId != null) {
+            page = gradeAuditRepository.findByGradeIdOrderByChangedAtDescIdDesc(gradeId, pageable);
+        } else if (studentId != null) {
+            page = gradeAuditRepository.findByStudentIdOrderByChangedAtDescIdDesc(studentId, pageable);
+        } else {
+            page = gradeAuditRepository.findByClassIdOrderByChangedAtDescIdDesc(classId, pageable);
+        }
+        
+        List<GradeAuditListResponse.GradeAuditResponse> audits = page.getContent().stream()
+                .map(this::toResponse)
+                .collect(Collectors.toList());
+        return new GradeAuditListResponse(audits, page.getTotalElements(), page.getTotalPages(),
+                page.getNumber(), page.getSize());
+    }
+    
+    // Danh sách bản ghi của transaction hiện tại, được đưa vào hàng đợi một lần khi commit và bỏ đi khi rollback
+    @SuppressWarnings("unchecked")
+    private List<GradeAudit> pendingAudits() {
+        List<GradeAudit> pending = (List<GradeAudit>) TransactionSynchronizationManager.getResource(transactionKey);
+        if (pending != null) {
+            return pending;
+        }
+        
+        List<GradeAudit> created = new ArrayList<>();
+        TransactionSynchronizationManager.bindResource(transactionKey, created);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                enqueue(created);
+            }
+            
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(transactionKey);
+            }
+        });
+        return created;
+    }
+    
+    // offer-timeout-ms là thời gian chờ cho cả lần commit, không phải cho từng bản ghi
+    private void enqueue(List<GradeAudit> audits) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(offerTimeoutMs);
+        for (int i = 0; i < audits.size(); i++) {
+            try {
+                long remaining = Math.max(0, deadline - System.nanoTime());
+                if (!queue.offer(audits.get(i), remaining, TimeUnit.NANOSECONDS)) {
+                    drop(audits.size() - i, "hàng đợi đầy");
+                    return;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                drop(audits.size() - i, "luồng bị ngắt");
+                return;
+            }
+        }
+    }
+    
+    private void drop(int count, String reason) {
+        log.error("Đã bỏ {} bản ghi lịch sử điểm ({}), tổng cộng đã bỏ {}", count, reason, dropped.addAndGet(count));
+    }
+    
+    private void runWriter() {
+        int size = Math.max(1, batchSize);
+        List<GradeAudit> batch = new ArrayList<>(size);
+        while (running || !queue.isEmpty()) {
+            try {
+                GradeAudit first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                // Ghi ngay những gì đang có, lúc tải cao lô tự đầy lên đến batch-size
+                batch.add(first);
+                queue.drainTo(batch, size - 1);
+                saveWithRetry(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+    
+    // Lỗi cơ sở dữ liệu tạm thời không được làm mất lịch sử: thử lại với thời gian chờ tăng gấp đôi, hàng đợi đầy
+    // trong lúc đó thì các lần commit chịu backpressure như bình thường
+    private void saveWithRetry(List<GradeAudit> batch) throws InterruptedException {
+        int attempts = Math.max(1, retryAttempts);
+        long backoff = retryBackoffMs;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                gradeAuditRepository.saveAll(batch);
+                return;
+            } catch (Exception e) {
+                if (attempt >= attempts) {
+                    drop(batch.size(), "lỗi khi lưu sau " + attempts + " lần thử: " + e.getMessage());
+                    return;
+                }
+                log.warn("Không lưu được {} bản ghi lịch sử điểm (lần {}), thử lại sau {} ms: {}",
+                        batch.size(), attempt, backoff, e.getMessage());
+            }
+            // Id lấy từ sequence ở lần lưu lỗi đã bị rollback cùng transaction, lưu lại như bản ghi mới
+            batch.forEach(audit -> audit.setId(null));
+            Thread.sleep(backoff);
+            backoff *= 2;
+        }
+    }
+    
+    private String currentActor() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated() || authentication.getName() == null) {
+            return SYSTEM_ACTOR;
+        }
+        return authentication.getName();
+    }
+    
+    private GradeAuditListResponse.GradeAuditResponse toResponse(GradeAudit audit) {
+        return new GradeAuditListResponse.GradeAuditResponse(
+                audit.getId(),
+                audit.getGradeId(),
+                audit.getClassId(),
+                audit.getStudentId(),
+                audit.getAction(),
+                audit.getOldMidterm(),
+                audit.getOldFinalGrade(),
+                audit.getOldOther(),
+                audit.getOldTotal(),
+                audit.getNewMidterm(),
+                audit.getNewFinalGrade(),
+                audit.getNewOther(),
+                audit.getNewTotal(),
+                audit.getChangedBy(),
+                audit.getChangedAt()
+        );
+    }
+}
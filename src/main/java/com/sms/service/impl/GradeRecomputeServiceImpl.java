@@ -0,0 +1,168 @@
+package com.sms.service.impl;
+
+import com.sms.dto.response.GradeRecomputeResponse;
+import com.sms.entity.Grade;
+import com.sms.event.GradeChangedEvent;
+import com.sms.repository.CourseRepository;
+import com.sms.repository.GradeRepository;
+import com.sms.repository.SemesterRepository;
+import com.sms.repository.projection.ClassGradeFormula;
+import com.sms.service.GradeAuditService;
+import com.sms.service.GradeRecomputeService;
+import com.sms.service.GradeStatisticsService;
+import com.sms.service.TranscriptService;
+import com.sms.util.GradeFormula;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Tính lại điểm tổng kết của cả học kỳ sau khi môn học đổi công thức tính điểm.
+ *
+ * Điểm được đọc theo từng phần bằng keyset trên id, mỗi phần tính song song trên ForkJoinPool riêng với công thức
+ * đã biên dịch của môn học. Chỉ những dòng đổi điểm mới bị sửa, Hibernate gom các câu UPDATE theo lô khi flush,
+ * sau đó persistence context được dọn trước khi đọc phần tiếp theo.
+ */
+@Service
+@Transactional
+@Slf4j
+public class GradeRecomputeServiceImpl implements GradeRecomputeService {
+
+    @Autowired
+    private GradeRepository gradeRepository;
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Autowired
+    private SemesterRepository semesterRepository;
+
+    @Autowired
+    private TranscriptService transcriptService;
+
+    @Autowired
+    private GradeStatisticsService gradeStatisticsService;
+
+    @Autowired
+    private GradeAuditService gradeAuditService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${grade.recompute.parallelism:4}")
+    private int parallelism;
+
+    @Value("${grade.recompute.chunk-size:1000}")
+    private int chunkSize;
+
+    private ForkJoinPool pool;
+
+    @PostConstruct
+    void init() {
+        pool = new ForkJoinPool(Math.max(1, parallelism));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        pool.shutdownNow();
+    }
+
+    @Override
+    public GradeRecomputeResponse recomputeSemester(Long semesterId) {
+        if (!semesterRepository.existsById(semesterId)) {
+            throw new RuntimeException("Không tìm thấy học kỳ với ID: " + semesterId);
+        }
+        long startedAt = System.nanoTime();
+
+        Map<Long, GradeFormula> formulas = new HashMap<>();
+        for (ClassGradeFormula row : courseRepository.findGradeFormulasBySemesterId(semesterId)) {
+            formulas.put(row.getClassId(), GradeFormula.of(row.getGradeFormula()));
+        }
+
+        int size = Math.max(1, chunkSize);
+        // Sinh viên có điểm đổi của từng lớp, để xếp hạng lại đúng các khóa liên quan
+        Map<Long, Set<Long>> changedStudentsByClass = new HashMap<>();
+        long scanned = 0;
+        long changed = 0;
+        Long afterId = 0L;
+        while (true) {
+            List<Grade> chunk = gradeRepository.findChunkBySemesterId(semesterId, afterId, PageRequest.of(0, size));
+            if (chunk.isEmpty()) {
+                break;
+            }
+            Float[] totals = recompute(chunk, formulas);
+
+            Map<Long, List<Grade>> previousByClass = new HashMap<>();
+            Map<Long, List<Grade>> changedByClass = new HashMap<>();
+            for (int i = 0; i < chunk.size(); i++) {
+                Grade grade = chunk.get(i);
+                if (Objects.equals(grade.getTotal(), totals[i])) {
+                    continue;
+                }
+                Grade previous = snapshot(grade);
+                previousByClass.computeIfAbsent(grade.getClassId(), id -> new ArrayList<>()).add(previous);
+                grade.setTotal(totals[i]);
+                gradeAuditService.record(GradeAuditService.RECOMPUTED, previous, grade);
+                changedByClass.computeIfAbsent(grade.getClassId(), id -> new ArrayList<>()).add(grade);
+            }
+            for (Map.Entry<Long, List<Grade>> entry : changedByClass.entrySet()) {
+                transcriptService.applyGradeChanges(entry.getKey(), previousByClass.get(entry.getKey()), entry.getValue());
+                changed += entry.getValue().size();
+            }
+            for (Map.Entry<Long, List<Grade>> entry : changedByClass.entrySet()) {
+                Set<Long> students = changedStudentsByClass.computeIfAbsent(entry.getKey(), id -> new HashSet<>());
+                entry.getValue().forEach(grade -> students.add(grade.getStudentId()));
+            }
+            scanned += chunk.size();
+            afterId = chunk.get(chunk.size() - 1).getId();
+
+            entityManager.flush();
+            entityManager.clear();
+            if (chunk.size() < size) {
+                break;
+            }
+        }
+
+        for (Map.Entry<Long, Set<Long>> entry : changedStudentsByClass.entrySet()) {
+            gradeStatisticsService.invalidateClass(entry.getKey());
+            eventPublisher.publishEvent(new GradeChangedEvent(entry.getKey(), entry.getValue()));
+        }
+
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+        log.info("Đã tính lại {} điểm của học kỳ {}: {} điểm thay đổi ở {} lớp, {} ms",
+                scanned, semesterId, changed, changedStudentsByClass.size(), elapsed);
+        return new GradeRecomputeResponse(semesterId, formulas.size(), scanned, changed, elapsed);
+    }
+
+    private Float[] recompute(List<Grade> chunk, Map<Long, GradeFormula> formulas) {
+        Float[] totals = new Float[chunk.size()];
+        GradeFormula average = GradeFormula.of(null);
+        pool.submit(() -> IntStream.range(0, chunk.size()).parallel().forEach(i -> {
+            Grade grade = chunk.get(i);
+            totals[i] = formulas.getOrDefault(grade.getClassId(), average)
+                    .evaluate(grade.getMidterm(), grade.getFinalGrade(), grade.getOther());
+        })).join();
+        return totals;
+    }
+
+    private Grade snapshot(Grade grade) {
+        return new Grade(grade.getId(), grade.getClassId(), grade.getStudentId(), grade.getMidterm(),
+                grade.getFinalGrade(), grade.getOther(), grade.getTotal(), grade.getUpdatedAt());
+    }
+}
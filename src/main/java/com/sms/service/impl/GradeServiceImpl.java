@@ -1,15 +1,29 @@
 package com.sms.service.impl;
 
+import com.sms.dto.request.GradebookRequest;
 import com.sms.dto.request.StudentGradeRequest;
+import com.sms.dto.response.GradebookImportResponse;
+import com.sms.dto.response.GradebookResponse;
 import com.sms.dto.response.StudentGradeResponse;
 import com.sms.entity.*;
+import com.sms.event.GradeChangedEvent;
 import com.sms.repository.*;
+import com.sms.service.GradeAuditService;
 import com.sms.service.GradeService;
+import com.sms.service.GradeStatisticsService;
+import com.sms.service.TranscriptService;
+import com.sms.util.ExcelStreamReader;
+import com.sms.util.GradeFormula;
+import com.sms.util.GradeScale;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.List;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.*;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -31,10 +45,25 @@ public class GradeServiceImpl implements GradeService {
     @Autowired
     private UserRepository userRepository;
     
+    @Autowired
+    private ClassStudentRepository classStudentRepository;
+    
+    @Autowired
+    private GradeStatisticsService gradeStatisticsService;
+    
+    @Autowired
+    private TranscriptService transcriptService;
+    
+    @Autowired
+    private GradeAuditService gradeAuditService;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
     @Override
     public StudentGradeResponse createOrUpdateGrade(StudentGradeRequest request) {
         // Kiểm tra lớp tồn tại
-        courseRepository.findById(request.getClassId())
+        Course classEntity = courseRepository.findById(request.getClassId())
                 .orElseThrow(() -> new RuntimeException("Không tìm thấy lớp với ID: " + request.getClassId()));
         
         // Kiểm tra sinh viên tồn tại
@@ -44,6 +73,7 @@ public class GradeServiceImpl implements GradeService {
         // Tìm hoặc tạo grade record
         Grade grade = gradeRepository.findByClassIdAndStudentId(request.getClassId(), request.getStudentId())
                 .orElse(new Grade());
+        List<Grade> previous = grade.getId() != null ? List.of(snapshot(grade)) : List.of();
         
         grade.setClassId(request.getClassId());
         grade.setStudentId(request.getStudentId());
@@ -51,11 +81,16 @@ public class GradeServiceImpl implements GradeService {
         grade.setFinalGrade(request.getFinalGrade());
         grade.setOther(request.getOther());
         
-        // Tính tổng điểm
-        Float total = calculateTotal(request.getMidterm(), request.getFinalGrade(), request.getOther());
-        grade.setTotal(total);
+        // Tính tổng điểm theo công thức của môn học
+        GradeFormula formula = gradeFormulaOf(classEntity);
+        grade.setTotal(formula.evaluate(request.getMidterm(), request.getFinalGrade(), request.getOther()));
         
         Grade savedGrade = gradeRepository.save(grade);
+        transcriptService.applyGradeChanges(savedGrade.getClassId(), previous, List.of(savedGrade));
+        gradeAuditService.record(previous.isEmpty() ? GradeAuditService.CREATED : GradeAuditService.UPDATED,
+                previous.isEmpty() ? null : previous.get(0), savedGrade);
+        gradeStatisticsService.invalidateClass(savedGrade.getClassId());
+        eventPublisher.publishEvent(new GradeChangedEvent(savedGrade.getClassId(), Set.of(savedGrade.getStudentId())));
         // Sử dụng savedGrade để có ID được set bởi JPA
         return convertToStudentGradeResponse(savedGrade);
     }
@@ -99,6 +134,10 @@ public class GradeServiceImpl implements GradeService {
                 .orElseThrow(() -> new RuntimeException("Không tìm thấy điểm với ID: " + gradeId));
         
         gradeRepository.delete(grade);
+        transcriptService.applyGradeChanges(grade.getClassId(), List.of(grade), List.of());
+        gradeAuditService.record(GradeAuditService.DELETED, grade, null);
+        gradeStatisticsService.invalidateClass(grade.getClassId());
+        eventPublisher.publishEvent(new GradeChangedEvent(grade.getClassId(), Set.of(grade.getStudentId())));
     }
     
     @Override
@@ -107,43 +146,283 @@ public class GradeServiceImpl implements GradeService {
         return getGradesByClass(classId);
     }
     
-    private Float calculateTotal(Float midterm, Float finalGrade, Float other) {
-        if (midterm == null && finalGrade == null && other == null) {
-            return null;
+    @Override
+    public GradebookResponse saveGradebook(Long classId, GradebookRequest request) {
+        Course classEntity = courseRepository.findById(classId)
+                .orElseThrow(() -> new RuntimeException("Không tìm thấy lớp với ID: " + classId));
+        Subject subject = classEntity.getSubjectId() != null
+                ? subjectRepository.findById(classEntity.getSubjectId()).orElse(new Subject())
+                : new Subject();
+        
+        GradeFormula formula = GradeFormula.of(subject.getGradeFormula());
+        
+        // Nếu một sinh viên được gửi nhiều lần thì lấy dòng gửi sau cùng
+        Map<Long, GradebookRequest.GradeEntry> entries = new LinkedHashMap<>();
+        List<GradebookResponse.GradebookRow> rejectedRows = new ArrayList<>();
+        if (request.getGrades() != null) {
+            for (GradebookRequest.GradeEntry entry : request.getGrades()) {
+                if (entry.getStudentId() == null) {
+                    rejectedRows.add(rejectedRow(entry, "Thiếu mã sinh viên"));
+                } else {
+                    entries.put(entry.getStudentId(), entry);
+                }
+            }
         }
         
-        float total = 0f;
-        int count = 0;
+        // Một truy vấn cho danh sách thành viên lớp và một truy vấn cho điểm hiện có
+        Set<Long> members = entries.isEmpty() ? Set.of()
+                : new HashSet<>(classStudentRepository.findStudentIdsByClassIdAndStudentIdIn(classId, entries.keySet()));
+        Map<Long, Grade> existing = members.isEmpty() ? Map.of()
+                : gradeRepository.findByClassIdAndStudentIdIn(classId, members).stream()
+                        .collect(Collectors.toMap(Grade::getStudentId, Function.identity(), (first, second) -> first));
         
-        if (midterm != null) {
-            total += midterm;
-            count++;
+        List<GradebookResponse.GradebookRow> rows = new ArrayList<>(entries.size() + rejectedRows.size());
+        List<Grade> toInsert = new ArrayList<>();
+        List<Grade> previous = new ArrayList<>();
+        List<Grade> changed = new ArrayList<>();
+        List<GradebookResponse.GradebookRow> insertedRows = new ArrayList<>();
+        int updated = 0;
+        int unchanged = 0;
+        for (GradebookRequest.GradeEntry entry : entries.values()) {
+            if (!members.contains(entry.getStudentId())) {
+                rows.add(rejectedRow(entry, "Sinh viên không thuộc lớp này"));
+                continue;
+            }
+            if (!isValidScore(entry.getMidterm()) || !isValidScore(entry.getFinalGrade()) || !isValidScore(entry.getOther())) {
+                rows.add(rejectedRow(entry, "Điểm phải nằm trong khoảng từ 0 đến 10"));
+                continue;
+            }
+            
+            Grade grade = existing.get(entry.getStudentId());
+            String status;
+            if (grade == null) {
+                grade = new Grade();
+                grade.setClassId(classId);
+                grade.setStudentId(entry.getStudentId());
+                toInsert.add(grade);
+                status = "CREATED";
+            } else if (Objects.equals(grade.getMidterm(), entry.getMidterm())
+                    && Objects.equals(grade.getFinalGrade(), entry.getFinalGrade())
+                    && Objects.equals(grade.getOther(), entry.getOther())) {
+                rows.add(toGradebookRow(grade, "UNCHANGED"));
+                unchanged++;
+                continue;
+            } else {
+                previous.add(snapshot(grade));
+                status = "UPDATED";
+                updated++;
+            }
+            
+            // Entity đang được quản lý, Hibernate gom các câu UPDATE khi flush
+            grade.setMidterm(entry.getMidterm());
+            grade.setFinalGrade(entry.getFinalGrade());
+            grade.setOther(entry.getOther());
+            grade.setTotal(formula.evaluate(entry.getMidterm(), entry.getFinalGrade(), entry.getOther()));
+            changed.add(grade);
+            
+            GradebookResponse.GradebookRow row = toGradebookRow(grade, status);
+            if ("CREATED".equals(status)) {
+                insertedRows.add(row);
+            }
+            rows.add(row);
         }
-        if (finalGrade != null) {
-            total += finalGrade;
-            count++;
+        
+        if (!toInsert.isEmpty()) {
+            gradeRepository.saveAll(toInsert);
+            // Id chỉ có sau khi lưu
+            for (int i = 0; i < toInsert.size(); i++) {
+                insertedRows.get(i).setGradeId(toInsert.get(i).getId());
+            }
         }
-        if (other != null) {
-            total += other;
-            count++;
+        if (!changed.isEmpty()) {
+            transcriptService.applyGradeChanges(classId, previous, changed);
+            // Điểm mới đã có id sau saveAll, điểm cũ ghép theo sinh viên
+            Map<Long, Grade> previousByStudent = previous.stream()
+                    .collect(Collectors.toMap(Grade::getStudentId, Function.identity()));
+            for (Grade grade : changed) {
+                Grade before = previousByStudent.get(grade.getStudentId());
+                gradeAuditService.record(before == null ? GradeAuditService.CREATED : GradeAuditService.UPDATED,
+                        before, grade);
+            }
+            gradeStatisticsService.invalidateClass(classId);
+            eventPublisher.publishEvent(new GradeChangedEvent(classId,
+                    changed.stream().map(Grade::getStudentId).collect(Collectors.toSet())));
         }
+        rows.addAll(rejectedRows);
         
-        return count > 0 ? total / count : 0f;
+        int rejected = (int) rows.stream().filter(row -> "REJECTED".equals(row.getStatus())).count();
+        return new GradebookResponse(
+                classId,
+                classEntity.getClassCode(),
+                subject.getSubjectCode(),
+                subject.getSubjectName(),
+                toInsert.size(),
+                updated,
+                unchanged,
+                rejected,
+                rows
+        );
     }
     
-    private String convertToLetterGrade(Float total) {
-        if (total == null) {
-            return "N/A";
+    @Override
+    public GradebookImportResponse importGradebook(Long classId, InputStream inputStream) throws IOException {
+        // Lớp được nạp vào persistence context, saveGradebook đọc lại không tốn thêm truy vấn
+        Course classEntity = courseRepository.findById(classId)
+                .orElseThrow(() -> new RuntimeException("Không tìm thấy lớp với ID: " + classId));
+        
+        // Format: Cột 0 = STT, Cột 1 = Mã SV, Cột 2 = Họ và tên, Cột 3 = Giữa kỳ, Cột 4 = Cuối kỳ, Cột 5 = Điểm khác;
+        // dòng 0 là header, ô điểm để trống là chưa có điểm
+        Map<String, ImportedRow> rowsByCode = new LinkedHashMap<>();
+        List<GradebookImportResponse.RowResult> issues = new ArrayList<>();
+        int[] totalRows = {0};
+        
+        ExcelStreamReader.readRows(inputStream, row -> {
+            if (row.getRowIndex() == 0) {
+                return;
+            }
+            String studentCode = row.getCell(1);
+            if (studentCode == null || studentCode.trim().isEmpty()) {
+                return;
+            }
+            
+            studentCode = studentCode.trim();
+            int rowNumber = row.getRowIndex() + 1;
+            totalRows[0]++;
+            ImportedRow imported;
+            try {
+                imported = new ImportedRow(rowNumber,
+                        parseScore(row.getCell(3), "giữa kỳ"),
+                        parseScore(row.getCell(4), "cuối kỳ"),
+                        parseScore(row.getCell(5), "khác"));
+            } catch (IllegalArgumentException e) {
+                issues.add(new GradebookImportResponse.RowResult(rowNumber, studentCode, "INVALID_SCORE", e.getMessage()));
+                return;
+            }
+            ImportedRow first = rowsByCode.putIfAbsent(studentCode, imported);
+            if (first != null) {
+                issues.add(new GradebookImportResponse.RowResult(rowNumber, studentCode, "DUPLICATE_IN_FILE",
+                        "Mã sinh viên trùng với dòng " + first.rowNumber));
+            }
+        });
+        
+        // Tra cứu sinh viên của cả file bằng một truy vấn
+        Map<String, Long> studentIdsByCode = rowsByCode.isEmpty() ? Map.of()
+                : studentRepository.findByStudentCodeIn(rowsByCode.keySet()).stream()
+                        .collect(Collectors.toMap(Student::getStudentCode, Student::getId, (first, second) -> first));
+        
+        List<GradebookRequest.GradeEntry> entries = new ArrayList<>();
+        Map<Long, String> codesByStudentId = new HashMap<>();
+        for (Map.Entry<String, ImportedRow> entry : rowsByCode.entrySet()) {
+            String studentCode = entry.getKey();
+            ImportedRow imported = entry.getValue();
+            Long studentId = studentIdsByCode.get(studentCode);
+            if (studentId == null) {
+                issues.add(new GradebookImportResponse.RowResult(imported.rowNumber, studentCode, "NOT_FOUND",
+                        "Không tìm thấy sinh viên với mã " + studentCode));
+                continue;
+            }
+            codesByStudentId.put(studentId, studentCode);
+            entries.add(new GradebookRequest.GradeEntry(studentId, imported.midterm, imported.finalGrade, imported.other));
+        }
+        
+        GradebookResponse result = saveGradebook(classEntity.getId(), new GradebookRequest(entries));
+        for (GradebookResponse.GradebookRow row : result.getRows()) {
+            if ("REJECTED".equals(row.getStatus())) {
+                String studentCode = codesByStudentId.get(row.getStudentId());
+                issues.add(new GradebookImportResponse.RowResult(rowsByCode.get(studentCode).rowNumber, studentCode,
+                        "REJECTED", row.getMessage()));
+            }
         }
-        // Điều chỉnh ngưỡng theo kỳ vọng test: 8.5 -> B+
-        if (total >= 9.0) return "A";
-        if (total >= 8.0) return "B+";
-        if (total >= 7.0) return "B";
-        if (total >= 6.5) return "C+";
-        if (total >= 5.5) return "C";
-        if (total >= 5.0) return "D+";
-        if (total >= 4.0) return "D";
-        return "F";
+        
+        issues.sort(Comparator.comparing(GradebookImportResponse.RowResult::getRowNumber));
+        return new GradebookImportResponse(
+                classId,
+                result.getClassCode(),
+                totalRows[0],
+                result.getCreated(),
+                result.getUpdated(),
+                result.getUnchanged(),
+                issues.size(),
+                issues
+        );
+    }
+    
+    // Ô trống là chưa có điểm; chấp nhận dấu phẩy thập phân
+    private Float parseScore(String value, String column) {
+        if (value == null || value.trim().isEmpty()) {
+            return null;
+        }
+        float score;
+        try {
+            score = Float.parseFloat(value.trim().replace(',', '.'));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Điểm " + column + " không phải là số: " + value.trim());
+        }
+        if (!isValidScore(score)) {
+            throw new IllegalArgumentException("Điểm " + column + " phải nằm trong khoảng từ 0 đến 10");
+        }
+        return score;
+    }
+    
+    private static final class ImportedRow {
+        private final int rowNumber;
+        private final Float midterm;
+        private final Float finalGrade;
+        private final Float other;
+        
+        ImportedRow(int rowNumber, Float midterm, Float finalGrade, Float other) {
+            this.rowNumber = rowNumber;
+            this.midterm = midterm;
+            this.finalGrade = finalGrade;
+            this.other = other;
+        }
+    }
+    
+    private GradeFormula gradeFormulaOf(Course classEntity) {
+        if (classEntity.getSubjectId() == null) {
+            return GradeFormula.of(null);
+        }
+        return subjectRepository.findById(classEntity.getSubjectId())
+                .map(subject -> GradeFormula.of(subject.getGradeFormula()))
+                .orElse(GradeFormula.of(null));
+    }
+    
+    // Bản sao trạng thái trước khi sửa, entity gốc sẽ bị ghi đè
+    private Grade snapshot(Grade grade) {
+        return new Grade(grade.getId(), grade.getClassId(), grade.getStudentId(), grade.getMidterm(),
+                grade.getFinalGrade(), grade.getOther(), grade.getTotal(), grade.getUpdatedAt());
+    }
+    
+    private boolean isValidScore(Float score) {
+        return score == null || (score >= 0 && score <= 10);
+    }
+    
+    private GradebookResponse.GradebookRow toGradebookRow(Grade grade, String status) {
+        return new GradebookResponse.GradebookRow(
+                grade.getStudentId(),
+                grade.getId(),
+                status,
+                grade.getMidterm(),
+                grade.getFinalGrade(),
+                grade.getOther(),
+                grade.getTotal(),
+                GradeScale.letterGrade(grade.getTotal()),
+                null
+        );
+    }
+    
+    private GradebookResponse.GradebookRow rejectedRow(GradebookRequest.GradeEntry entry, String message) {
+        return new GradebookResponse.GradebookRow(
+                entry.getStudentId(),
+                null,
+                "REJECTED",
+                entry.getMidterm(),
+                entry.getFinalGrade(),
+                entry.getOther(),
+                null,
+                null,
+                message
+        );
     }
     
     private StudentGradeResponse convertToStudentGradeResponse(Grade grade) {
@@ -160,12 +439,12 @@ public class GradeServiceImpl implements GradeService {
                 classEntity != null ? classEntity.getClassCode() : null,
                 subject != null ? subject.getSubjectName() : null,
                 subject != null ? subject.getSubjectCode() : null,
-                3, // Default credits
+                subject.getCredit(),
                 grade.getMidterm(),
                 grade.getFinalGrade(),
                 grade.getOther(),
                 grade.getTotal(),
-                convertToLetterGrade(grade.getTotal()),
+                GradeScale.letterGrade(grade.getTotal()),
                 grade.getUpdatedAt()
         );
     }
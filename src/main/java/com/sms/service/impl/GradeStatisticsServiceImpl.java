@@ -0,0 +1,323 @@
+package com.sms.service.impl;
+
+import com.sms.dto.response.GradeStatisticsResponse;
+import com.sms.repository.CourseRepository;
+import com.sms.repository.GradeRepository;
+import com.sms.repository.SemesterRepository;
+import com.sms.repository.SubjectRepository;
+import com.sms.repository.projection.GradeTotal;
+import com.sms.service.GradeStatisticsService;
+import com.sms.util.GradeScale;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Thống kê điểm tổng kết theo lớp, môn học và học kỳ.
+ *
+ * Điểm của các lớp được đọc bằng một truy vấn duyệt tuần tự đã sắp theo lớp và điểm giảm dần; trong cùng lượt duyệt
+ * tính luôn trung bình, phương sai (Welford), min/max, histogram và số lượng theo điểm chữ. Dãy điểm đã sắp sẵn
+ * nên phân vị và thứ hạng lấy trực tiếp theo vị trí. Kết quả từng lớp được lưu lại, thống kê môn học và học kỳ
+ * gộp từ các lớp; lớp có điểm thay đổi bị bỏ khỏi bộ nhớ sau khi transaction ghi commit.
+ *
+ * Không dùng window function cho phân vị và thứ hạng: kết quả trong SQL là theo từng truy vấn, còn thống kê môn học
+ * và học kỳ cần gộp các lớp đã có trong bộ nhớ, nên chỉ các lớp chưa có mới phải đọc lại từ cơ sở dữ liệu.
+ */
+@Service
+@Transactional(readOnly = true)
+public class GradeStatisticsServiceImpl implements GradeStatisticsService {
+
+    static final String CLASS = "CLASS";
+    static final String SUBJECT = "SUBJECT";
+    static final String SEMESTER = "SEMESTER";
+
+    private static final int BUCKETS = 10;
+
+    @Autowired
+    private GradeRepository gradeRepository;
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Autowired
+    private SubjectRepository subjectRepository;
+
+    @Autowired
+    private SemesterRepository semesterRepository;
+
+    private final Map<Long, ClassStats> classStats = new ConcurrentHashMap<>();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    @Override
+    public GradeStatisticsResponse getClassStatistics(Long classId) {
+        if (!courseRepository.existsById(classId)) {
+            throw new RuntimeException("Không tìm thấy lớp với ID: " + classId);
+        }
+        ClassStats stats = loadClasses(List.of(classId)).get(0);
+        GradeStatisticsResponse response = toResponse(CLASS, classId, 1, stats);
+        response.setRanks(toRanks(stats));
+        return response;
+    }
+
+    @Override
+    public GradeStatisticsResponse getSubjectStatistics(Long subjectId, Long semesterId) {
+        if (!subjectRepository.existsById(subjectId)) {
+            throw new RuntimeException("Không tìm thấy môn học với ID: " + subjectId);
+        }
+        List<Long> classIds = courseRepository.findIdsBySubjectId(subjectId, semesterId);
+        return toResponse(SUBJECT, subjectId, classIds.size(), merge(loadClasses(classIds)));
+    }
+
+    @Override
+    public GradeStatisticsResponse getSemesterStatistics(Long semesterId) {
+        if (!semesterRepository.existsById(semesterId)) {
+            throw new RuntimeException("Không tìm thấy học kỳ với ID: " + semesterId);
+        }
+        List<Long> classIds = courseRepository.findIdsBySemesterId(semesterId);
+        return toResponse(SEMESTER, semesterId, classIds.size(), merge(loadClasses(classIds)));
+    }
+
+    @Override
+    public void invalidateClass(Long classId) {
+        afterCommit(() -> {
+            invalidations.incrementAndGet();
+            classStats.remove(classId);
+        });
+    }
+
+    /**
+     * Lấy thống kê của các lớp theo đúng thứ tự classIds, chỉ đọc từ database những lớp chưa có trong bộ nhớ
+     */
+    private List<ClassStats> loadClasses(List<Long> classIds) {
+        // Chụp lại mỗi lớp một lần: lớp có thể bị bỏ khỏi bộ nhớ bất cứ lúc nào sau khi một transaction ghi commit
+        Map<Long, ClassStats> snapshot = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+        for (Long classId : classIds) {
+            ClassStats cached = classStats.get(classId);
+            if (cached != null) {
+                snapshot.put(classId, cached);
+            } else {
+                missing.add(classId);
+            }
+        }
+
+        Map<Long, ClassStats> loaded = new HashMap<>();
+        if (!missing.isEmpty()) {
+            long generation = invalidations.get();
+            try (Stream<GradeTotal> totals = gradeRepository.streamTotalsByClassIdIn(missing)) {
+                ClassStatsBuilder builder = null;
+                for (Iterator<GradeTotal> iterator = totals.iterator(); iterator.hasNext(); ) {
+                    GradeTotal total = iterator.next();
+                    if (builder == null || !builder.classId.equals(total.getClassId())) {
+                        if (builder != null) {
+                            loaded.put(builder.classId, builder.build());
+                        }
+                        builder = new ClassStatsBuilder(total.getClassId());
+                    }
+                    builder.add(total.getStudentId(), total.getTotal());
+                }
+                if (builder != null) {
+                    loaded.put(builder.classId, builder.build());
+                }
+            }
+            for (Long classId : missing) {
+                loaded.computeIfAbsent(classId, id -> new ClassStatsBuilder(id).build());
+            }
+            // Có lớp bị ghi điểm trong lúc đọc thì không lưu lại, lần sau đọc lại
+            if (invalidations.get() == generation) {
+                classStats.putAll(loaded);
+            }
+            snapshot.putAll(loaded);
+        }
+
+        List<ClassStats> result = new ArrayList<>(classIds.size());
+        for (Long classId : classIds) {
+            result.add(snapshot.get(classId));
+        }
+        return result;
+    }
+
+    private ClassStats merge(List<ClassStats> parts) {
+        int count = 0;
+        for (ClassStats part : parts) {
+            count += part.totals.length;
+        }
+
+        float[] totals = new float[count];
+        int[] histogram = new int[BUCKETS];
+        int[] letters = new int[GradeScale.LETTERS.size()];
+        double mean = 0;
+        double m2 = 0;
+        int merged = 0;
+        for (ClassStats part : parts) {
+            int size = part.totals.length;
+            if (size == 0) {
+                continue;
+            }
+            System.arraycopy(part.totals, 0, totals, merged, size);
+            // Gộp trung bình và tổng bình phương độ lệch của hai nhóm (Chan và cộng sự)
+            double delta = part.mean - mean;
+            int combined = merged + size;
+            mean += delta * size / combined;
+            m2 += part.m2 + delta * delta * merged * size / combined;
+            merged = combined;
+            for (int i = 0; i < BUCKETS; i++) {
+                histogram[i] += part.histogram[i];
+            }
+            for (int i = 0; i < letters.length; i++) {
+                letters[i] += part.letters[i];
+            }
+        }
+        Arrays.sort(totals);
+        // Thống kê gộp không tính thứ hạng nên không cần mã sinh viên
+        return new ClassStats(totals, new long[0], mean, m2, histogram, letters);
+    }
+
+    private GradeStatisticsResponse toResponse(String scope, Long scopeId, int classCount, ClassStats stats) {
+        int count = stats.totals.length;
+        List<GradeStatisticsResponse.HistogramBucket> histogram = new ArrayList<>(BUCKETS);
+        for (int i = 0; i < BUCKETS; i++) {
+            histogram.add(new GradeStatisticsResponse.HistogramBucket(i, i + 1, stats.histogram[i]));
+        }
+        Map<String, Integer> letterCounts = new LinkedHashMap<>();
+        for (int i = 0; i < GradeScale.LETTERS.size(); i++) {
+            letterCounts.put(GradeScale.LETTERS.get(i), stats.letters[i]);
+        }
+
+        return new GradeStatisticsResponse(
+                scope,
+                scopeId,
+                classCount,
+                count,
+                count > 0 ? stats.mean : null,
+                count > 0 ? Math.sqrt(stats.m2 / count) : null,
+                count > 0 ? stats.totals[0] : null,
+                count > 0 ? stats.totals[count - 1] : null,
+                percentile(stats.totals, 0.5),
+                percentile(stats.totals, 0.25),
+                percentile(stats.totals, 0.75),
+                percentile(stats.totals, 0.9),
+                histogram,
+                letterCounts,
+                null
+        );
+    }
+
+    // Nội suy tuyến tính trên dãy đã sắp tăng dần
+    private Double percentile(float[] sorted, double fraction) {
+        if (sorted.length == 0) {
+            return null;
+        }
+        double position = fraction * (sorted.length - 1);
+        int lower = (int) Math.floor(position);
+        int upper = (int) Math.ceil(position);
+        return sorted[lower] + (sorted[upper] - sorted[lower]) * (position - lower);
+    }
+
+    /**
+     * Thứ hạng kiểu thi đấu (1, 2, 2, 4) từ điểm cao xuống thấp
+     */
+    private List<GradeStatisticsResponse.StudentRank> toRanks(ClassStats stats) {
+        int count = stats.totals.length;
+        List<GradeStatisticsResponse.StudentRank> ranks = new ArrayList<>(count);
+        int groupEnd = count - 1;
+        while (groupEnd >= 0) {
+            int groupStart = groupEnd;
+            while (groupStart > 0 && stats.totals[groupStart - 1] == stats.totals[groupEnd]) {
+                groupStart--;
+            }
+            int rank = count - groupEnd;
+            double percentile = (double) groupStart / count * 100;
+            for (int i = groupEnd; i >= groupStart; i--) {
+                ranks.add(new GradeStatisticsResponse.StudentRank(
+                        stats.studentIds[i], stats.totals[i], rank, percentile));
+            }
+            groupEnd = groupStart - 1;
+        }
+        return ranks;
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    /**
+     * Thống kê đã tính xong; totals và studentIds sắp theo điểm tăng dần
+     */
+    static final class ClassStats {
+        private final float[] totals;
+        private final long[] studentIds;
+        private final double mean;
+        private final double m2;
+        private final int[] histogram;
+        private final int[] letters;
+
+        ClassStats(float[] totals, long[] studentIds, double mean, double m2, int[] histogram, int[] letters) {
+            this.totals = totals;
+            this.studentIds = studentIds;
+            this.mean = mean;
+            this.m2 = m2;
+            this.histogram = histogram;
+            this.letters = letters;
+        }
+    }
+
+    private static final class ClassStatsBuilder {
+        private final Long classId;
+        private float[] totals = new float[64];
+        private long[] studentIds = new long[64];
+        private final int[] histogram = new int[BUCKETS];
+        private final int[] letters = new int[GradeScale.LETTERS.size()];
+        private int count;
+        private double mean;
+        private double m2;
+
+        ClassStatsBuilder(Long classId) {
+            this.classId = classId;
+        }
+
+        // Các dòng phải đến theo thứ tự điểm giảm dần
+        void add(Long studentId, float total) {
+            if (count == totals.length) {
+                totals = Arrays.copyOf(totals, count * 2);
+                studentIds = Arrays.copyOf(studentIds, count * 2);
+            }
+            totals[count] = total;
+            studentIds[count] = studentId;
+            count++;
+
+            double delta = total - mean;
+            mean += delta / count;
+            m2 += delta * (total - mean);
+            histogram[Math.max(0, Math.min(BUCKETS - 1, (int) total))]++;
+            letters[GradeScale.LETTERS.indexOf(GradeScale.letterGrade(total))]++;
+        }
+
+        ClassStats build() {
+            float[] ascendingTotals = new float[count];
+            long[] ascendingStudentIds = new long[count];
+            for (int i = 0; i < count; i++) {
+                ascendingTotals[i] = totals[count - 1 - i];
+                ascendingStudentIds[i] = studentIds[count - 1 - i];
+            }
+            return new ClassStats(ascendingTotals, ascendingStudentIds, mean, m2, histogram, letters);
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package com.sms.service.impl;
+
+import com.sms.dto.response.ImportJobResponse;
+import com.sms.service.ImportJobHandler;
+import com.sms.service.ImportJobService;
+import com.sms.util.ImportProgress;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Chạy các job import trên luồng nền để yêu cầu upload trả về ngay.
+ *
+ * Mỗi job chạy trên một virtual thread; semaphore giới hạn số job xử lý cùng lúc để không chiếm hết
+ * kết nối database, các job còn lại chờ ở trạng thái QUEUED. Trạng thái và kết quả job chỉ giữ trong bộ nhớ
+ * trong một khoảng thời gian sau khi kết thúc.
+ */
+@Service
+@Slf4j
+public class ImportJobServiceImpl implements ImportJobService {
+
+    private static final String QUEUED = "QUEUED";
+    private static final String RUNNING = "RUNNING";
+    private static final String COMPLETED = "COMPLETED";
+    private static final String FAILED = "FAILED";
+
+    @Autowired
+    private List<ImportJobHandler> handlers;
+
+    @Value("${import-job.max-concurrent:2}")
+    private int maxConcurrent;
+
+    @Value("${import-job.max-pending:20}")
+    private int maxPending;
+
+    @Value("${import-job.retention-minutes:60}")
+    private long retentionMinutes;
+
+    private final Map<String, ImportJob> jobs = new ConcurrentHashMap<>();
+    private final AtomicInteger pending = new AtomicInteger();
+
+    private ExecutorService executor;
+    private Semaphore permits;
+
+    @PostConstruct
+    void init() {
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        permits = new Semaphore(maxConcurrent, true);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Override
+    public ImportJobResponse submit(String jobType, Long targetId, MultipartFile file) {
+        ImportJobHandler handler = handlers.stream()
+            .filter(h -> h.getJobType().equals(jobType))
+            .findFirst()
+            .orElseThrow(() -> new RuntimeException("Không hỗ trợ loại import: " + jobType));
+        handler.validate(targetId, file);
+        cleanupExpiredJobs();
+
+        if (pending.incrementAndGet() > maxPending) {
+            pending.decrementAndGet();
+            throw new RuntimeException("Đang có quá nhiều yêu cầu import chờ xử lý, vui lòng thử lại sau");
+        }
+
+        // File upload chỉ tồn tại trong phạm vi request nên phải sao ra file tạm trước khi trả về
+        Path tempFile;
+        try {
+            tempFile = Files.createTempFile("sms-import-", ".tmp");
+            file.transferTo(tempFile);
+        } catch (IOException e) {
+            pending.decrementAndGet();
+            throw new RuntimeException("Lỗi khi lưu file import: " + e.getMessage());
+        }
+
+        ImportJob job = new ImportJob(UUID.randomUUID().toString(), jobType, targetId, file.getOriginalFilename());
+        jobs.put(job.id, job);
+        // Chụp trạng thái trước khi giao cho executor, nếu không worker có thể đã chuyển job sang RUNNING
+        ImportJobResponse submitted = toResponse(job);
+        executor.execute(() -> run(job, handler, tempFile));
+        return submitted;
+    }
+
+    @Override
+    public ImportJobResponse getJob(String jobId) {
+        return toResponse(findJob(jobId));
+    }
+
+    @Override
+    public Object getJobResult(String jobId) {
+        ImportJob job = findJob(jobId);
+        if (FAILED.equals(job.status)) {
+            throw new RuntimeException("Job import thất bại: " + job.errorMessage);
+        }
+        if (!COMPLETED.equals(job.status)) {
+            throw new RuntimeException("Job import chưa hoàn tất");
+        }
+        return job.result;
+    }
+
+    private void run(ImportJob job, ImportJobHandler handler, Path tempFile) {
+        boolean acquired = false;
+        try {
+            permits.acquire();
+            acquired = true;
+            job.startedAt = LocalDateTime.now();
+            job.status = RUNNING;
+
+            try (InputStream inputStream = Files.newInputStream(tempFile)) {
+                job.result = handler.execute(job.targetId, inputStream, job.progress);
+            }
+            job.status = COMPLETED;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            job.errorMessage = "Job import bị hủy";
+            job.status = FAILED;
+        } catch (Exception e) {
+            log.warn("Job import {} ({}) thất bại", job.id, job.type, e);
+            job.errorMessage = e.getMessage();
+            job.status = FAILED;
+        } finally {
+            job.finishedAt = LocalDateTime.now();
+            if (acquired) {
+                permits.release();
+            }
+            pending.decrementAndGet();
+            try {
+                Files.deleteIfExists(tempFile);
+            } catch (IOException e) {
+                log.warn("Không xóa được file tạm {}", tempFile);
+            }
+        }
+    }
+
+    private ImportJob findJob(String jobId) {
+        ImportJob job = jobs.get(jobId);
+        if (job == null) {
+            throw new RuntimeException("Không tìm thấy job import với ID: " + jobId);
+        }
+        return job;
+    }
+
+    private void cleanupExpiredJobs() {
+        LocalDateTime expiry = LocalDateTime.now().minusMinutes(retentionMinutes);
+        jobs.values().removeIf(job -> job.finishedAt != null && job.finishedAt.isBefore(expiry));
+    }
+
+    private ImportJobResponse toResponse(ImportJob job) {
+        ImportProgress progress = job.progress;
+        return new ImportJobResponse(
+            job.id,
+            job.type,
+            job.targetId,
+            job.fileName,
+            job.status,
+            progress.getRowsRead(),
+            progress.getInserted(),
+            progress.getSkipped(),
+            progress.getFailed(),
+            job.errorMessage,
+            job.createdAt,
+            job.startedAt,
+            job.finishedAt
+        );
+    }
+
+    private static final class ImportJob {
+        private final String id;
+        private final String type;
+        private final Long targetId;
+        private final String fileName;
+        private final LocalDateTime createdAt = LocalDateTime.now();
+        private final ImportProgress progress = new ImportProgress();
+
+        private volatile String status = QUEUED;
+        private volatile LocalDateTime startedAt;
+        private volatile LocalDateTime finishedAt;
+        private volatile String errorMessage;
+        private volatile Object result;
+
+        ImportJob(String id, String type, Long targetId, String fileName) {
+            this.id = id;
+            this.type = type;
+            this.targetId = targetId;
+            this.fileName = fileName;
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.sms.service.impl;
+
+import com.sms.dto.response.RankRebuildResponse;
+import com.sms.dto.response.RankingListResponse;
+import com.sms.repository.ClassRankRepository;
+import com.sms.repository.CohortRankRepository;
+import com.sms.repository.CourseRepository;
+import com.sms.repository.GradeRepository;
+import com.sms.repository.StudentRepository;
+import com.sms.repository.projection.CohortKey;
+import com.sms.repository.projection.RankEntry;
+import com.sms.service.RankingService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+/**
+ * Bảng xếp hạng lớp và khóa được lưu sẵn.
+ *
+ * Mỗi lần làm mới xóa các dòng của phạm vi rồi tính lại RANK, DENSE_RANK và CUME_DIST bằng window function trong
+ * một câu INSERT ... SELECT, nên xem top N hay thứ hạng của một sinh viên chỉ là đọc theo chỉ mục.
+ */
+@Service
+@Transactional
+@Slf4j
+public class RankingServiceImpl implements RankingService {
+    
+    private static final String SCOPE_CLASS = "CLASS";
+    private static final String SCOPE_COHORT = "COHORT";
+    
+    @Autowired
+    private ClassRankRepository classRankRepository;
+    
+    @Autowired
+    private CohortRankRepository cohortRankRepository;
+    
+    @Autowired
+    private CourseRepository courseRepository;
+    
+    @Autowired
+    private StudentRepository studentRepository;
+    
+    @Autowired
+    private GradeRepository gradeRepository;
+    
+    // Các lần làm mới và dựng lại xếp hạng chạy lần lượt
+    private final ReentrantLock refreshLock = new ReentrantLock();
+    
+    // Chạy sau lần dựng bảng điểm tích lũy vì xếp hạng khóa đọc GPA từ đó
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(1)
+    public void backfillOnStartup() {
+        if (classRankRepository.count() == 0 && gradeRepository.count() > 0) {
+            RankRebuildResponse result = rebuildAll();
+            log.info("Đã dựng bảng xếp hạng: {} dòng lớp, {} dòng khóa",
+                    result.getClassRankCount(), result.getCohortRankCount());
+        }
+    }
+    
+    @Override
+    public void refreshClass(Long classId) {
+        lockUntilCompletion();
+        classRankRepository.deleteByClassId(classId);
+        classRankRepository.refreshByClassId(classId);
+    }
+    
+    @Override
+    public void refreshCohorts(Collection<Long> studentIds) {
+        if (studentIds.isEmpty()) {
+            return;
+        }
+        lockUntilCompletion();
+        for (CohortKey cohort : cohortRankRepository.findCohortsByStudentIdIn(studentIds)) {
+            cohortRankRepository.deleteByCohort(cohort.getMajor(), cohort.getCourseYear());
+            cohortRankRepository.refreshByCohort(cohort.getMajor(), cohort.getCourseYear());
+        }
+    }
+    
+    @Override
+    public RankRebuildResponse rebuildAll() {
+        lockUntilCompletion();
+        long startedAt = System.nanoTime();
+        classRankRepository.deleteAllRanks();
+        cohortRankRepository.deleteAllRanks();
+        int classRanks = classRankRepository.refreshAll();
+        int cohortRanks = cohortRankRepository.refreshAll();
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+        return new RankRebuildResponse(classRanks, cohortRanks, elapsed);
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
+    public RankingListResponse getClassRanking(Long classId, Pageable pageable) {
+        if (!courseRepository.existsById(classId)) {
+            throw new RuntimeException("Không tìm thấy lớp học với ID: " + classId);
+        }
+        Page<RankEntry> page = classRankRepository.findEntriesByClassId(classId, pageable);
+        return new RankingListResponse(SCOPE_CLASS, classId, null, null, toResponses(page.getContent()),
+                page.getTotalElements(), page.getTotalPages(), page.getNumber(), page.getSize());
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
+    public RankingListResponse getCohortRanking(String major, Integer courseYear, Pageable pageable) {
+        if (major == null || major.isBlank() || courseYear == null) {
+            throw new RuntimeException("Cần chỉ định ngành và năm nhập học của khóa");
+        }
+        Page<RankEntry> page = cohortRankRepository.findEntriesByCohort(major.trim(), courseYear, pageable);
+        return new RankingListResponse(SCOPE_COHORT, null, major.trim(), courseYear, toResponses(page.getContent()),
+                page.getTotalElements(), page.getTotalPages(), page.getNumber(), page.getSize());
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
+    public RankingListResponse.StudentRankResponse getStudentClassRank(Long studentId, Long classId) {
+        if (!studentRepository.existsById(studentId)) {
+            throw new RuntimeException("Không tìm thấy sinh viên với ID: " + studentId);
+        }
+        return classRankRepository.findEntry(classId, studentId)
+                .map(this::toResponse)
+                .orElseThrow(() -> new RuntimeException("Sinh viên chưa có điểm tổng kết trong lớp học này"));
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
+    public RankingListResponse.StudentRankResponse getStudentCohortRank(Long studentId) {
+        if (!studentRepository.existsById(studentId)) {
+            throw new RuntimeException("Không tìm thấy sinh viên với ID: " + studentId);
+        }
+        return cohortRankRepository.findEntryByStudentId(studentId)
+                .map(this::toResponse)
+                .orElseThrow(() -> new RuntimeException("Sinh viên chưa có thứ hạng trong khóa"));
+    }
+    
+    /**
+     * DELETE của lần làm mới sau không thấy các dòng lần trước đã INSERT nhưng chưa commit, nên hai lần làm mới
+     * chồng nhau trên cùng phạm vi sẽ vi phạm khóa duy nhất hoặc deadlock. Khóa được giữ tới khi transaction kết thúc
+     */
+    private void lockUntilCompletion() {
+        refreshLock.lock();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            // Không có transaction thì mỗi câu lệnh tự commit, không có gì để giữ
+            refreshLock.unlock();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                refreshLock.unlock();
+            }
+        });
+    }
+    
+    private List<RankingListResponse.StudentRankResponse> toResponses(List<RankEntry> entries) {
+        return entries.stream().map(this::toResponse).collect(Collectors.toList());
+    }
+    
+    private RankingListResponse.StudentRankResponse toResponse(RankEntry entry) {
+        return new RankingListResponse.StudentRankResponse(entry.getStudentId(), entry.getStudentCode(),
+                entry.getStudentName(), entry.getScore(), entry.getRankPosition(), entry.getDenseRankPosition(),
+                entry.getPercentile(), entry.getRankedCount());
+    }
+}
@@ -0,0 +1,54 @@
+package com.sms.service.impl;
+
+import com.sms.repository.CourseRepository;
+import com.sms.service.ClassService;
+import com.sms.service.ImportJobHandler;
+import com.sms.service.ImportJobService;
+import com.sms.util.ImportProgress;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Import danh sách sinh viên của lớp học từ file Excel
+ */
+@Service
+public class RosterImportJobHandler implements ImportJobHandler {
+
+    @Autowired
+    private ClassService classService;
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Override
+    public String getJobType() {
+        return ImportJobService.CLASS_ROSTER;
+    }
+
+    @Override
+    public void validate(Long classId, MultipartFile file) {
+        // Kiểm tra lớp tồn tại
+        if (!courseRepository.existsById(classId)) {
+            throw new RuntimeException("Không tìm thấy lớp với ID: " + classId);
+        }
+
+        // Kiểm tra file
+        if (file == null || file.isEmpty()) {
+            throw new RuntimeException("File không được để trống");
+        }
+
+        String fileName = file.getOriginalFilename();
+        if (fileName == null || !fileName.endsWith(".xlsx")) {
+            throw new RuntimeException("File phải là định dạng Excel (.xlsx)");
+        }
+    }
+
+    @Override
+    public Object execute(Long classId, InputStream inputStream, ImportProgress progress) throws IOException {
+        return classService.importStudentsFromFile(classId, inputStream, progress);
+    }
+}
@@ -0,0 +1,219 @@
+package com.sms.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sms.dto.response.SeatAvailabilityResponse;
+import com.sms.entity.Course;
+import com.sms.event.SeatCountChangedEvent;
+import com.sms.repository.CourseRepository;
+import com.sms.repository.SemesterRepository;
+import com.sms.service.SeatAvailabilityStreamService;
+import com.sms.service.SeatReservationService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Đẩy số chỗ còn trống của các lớp trong học kỳ tới client qua Server-Sent Events.
+ *
+ * Luồng ghi chỉ đánh dấu lớp có thay đổi sau khi commit; mỗi chu kỳ các lớp đã đánh dấu được gom lại,
+ * đọc số chỗ từ bộ đếm trong bộ nhớ và gửi một gói JSON (serialize một lần) cho mọi kết nối của học kỳ.
+ * Mỗi kết nối chỉ là một SseEmitter trong tập đăng ký, không giữ trạng thái riêng.
+ */
+@Service
+@Slf4j
+public class SeatAvailabilityStreamServiceImpl implements SeatAvailabilityStreamService {
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Autowired
+    private SemesterRepository semesterRepository;
+
+    @Autowired
+    private SeatReservationService seatReservationService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${registration.seat-stream.interval-ms:1000}")
+    private long intervalMs;
+
+    @Value("${registration.seat-stream.heartbeat-seconds:15}")
+    private long heartbeatSeconds;
+
+    @Value("${registration.seat-stream.timeout-minutes:30}")
+    private long timeoutMinutes;
+
+    @Value("${registration.seat-stream.max-subscribers:5000}")
+    private int maxSubscribers;
+
+    private final Map<Long, Set<SseEmitter>> subscribers = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final Set<Long> dirtyClassIds = ConcurrentHashMap.newKeySet();
+    private final Map<Long, Long> classSemesters = new ConcurrentHashMap<>();
+
+    private ScheduledExecutorService scheduler;
+
+    @PostConstruct
+    void init() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "seat-stream");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::flush, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+        scheduler.scheduleWithFixedDelay(this::heartbeat, heartbeatSeconds, heartbeatSeconds, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        scheduler.shutdownNow();
+        subscribers.values().forEach(emitters -> emitters.forEach(SseEmitter::complete));
+        subscribers.clear();
+    }
+
+    @Override
+    public SseEmitter subscribe(Long semesterId) {
+        if (!semesterRepository.existsById(semesterId)) {
+            throw new RuntimeException("Không tìm thấy học kỳ với ID: " + semesterId);
+        }
+        if (subscriberCount.incrementAndGet() > maxSubscribers) {
+            subscriberCount.decrementAndGet();
+            throw new RuntimeException("Quá nhiều kết nối theo dõi số chỗ, vui lòng thử lại sau");
+        }
+
+        SseEmitter emitter = new SseEmitter(TimeUnit.MINUTES.toMillis(timeoutMinutes));
+        Set<SseEmitter> emitters = subscribers.computeIfAbsent(semesterId, id -> ConcurrentHashMap.newKeySet());
+        emitters.add(emitter);
+        Runnable unsubscribe = () -> {
+            if (emitters.remove(emitter)) {
+                subscriberCount.decrementAndGet();
+            }
+        };
+        emitter.onCompletion(unsubscribe);
+        emitter.onTimeout(unsubscribe);
+        emitter.onError(error -> unsubscribe.run());
+
+        // Gửi ngay số chỗ hiện tại của cả học kỳ, sau đó chỉ gửi các lớp thay đổi
+        List<SeatAvailabilityResponse> snapshot = new ArrayList<>();
+        for (Long classId : courseRepository.findIdsBySemesterId(semesterId)) {
+            classSemesters.put(classId, semesterId);
+            snapshot.add(toSeatAvailability(classId));
+        }
+        send(emitter, emitters, "snapshot", toJson(snapshot));
+        return emitter;
+    }
+
+    @Override
+    public void evictClass(Long classId) {
+        classSemesters.remove(classId);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSeatCountChanged(SeatCountChangedEvent event) {
+        if (subscriberCount.get() > 0) {
+            dirtyClassIds.add(event.getClassId());
+        }
+    }
+
+    void flush() {
+        try {
+            if (dirtyClassIds.isEmpty()) {
+                return;
+            }
+            List<Long> changed = new ArrayList<>();
+            for (Iterator<Long> it = dirtyClassIds.iterator(); it.hasNext(); ) {
+                changed.add(it.next());
+                it.remove();
+            }
+
+            // Lớp chưa biết học kỳ được tra cứu một lần theo lô
+            List<Long> unknown = changed.stream()
+                .filter(classId -> !classSemesters.containsKey(classId))
+                .toList();
+            if (!unknown.isEmpty()) {
+                for (Course course : courseRepository.findAllById(unknown)) {
+                    classSemesters.put(course.getId(), course.getSemesterId());
+                }
+            }
+
+            Map<Long, List<SeatAvailabilityResponse>> deltas = new HashMap<>();
+            for (Long classId : changed) {
+                Long semesterId = classSemesters.get(classId);
+                Set<SseEmitter> emitters = semesterId != null ? subscribers.get(semesterId) : null;
+                if (emitters != null && !emitters.isEmpty()) {
+                    deltas.computeIfAbsent(semesterId, id -> new ArrayList<>()).add(toSeatAvailability(classId));
+                }
+            }
+
+            deltas.forEach((semesterId, seats) -> {
+                Set<SseEmitter> emitters = subscribers.get(semesterId);
+                String json = toJson(seats);
+                for (SseEmitter emitter : emitters) {
+                    send(emitter, emitters, "seats", json);
+                }
+            });
+        } catch (Exception e) {
+            log.warn("Lỗi khi gửi cập nhật số chỗ", e);
+        }
+    }
+
+    void heartbeat() {
+        subscribers.values().forEach(emitters -> {
+            for (SseEmitter emitter : emitters) {
+                try {
+                    emitter.send(SseEmitter.event().comment("ping"));
+                } catch (Exception e) {
+                    drop(emitter, emitters);
+                }
+            }
+        });
+    }
+
+    private SeatAvailabilityResponse toSeatAvailability(Long classId) {
+        return new SeatAvailabilityResponse(
+            classId,
+            seatReservationService.getEnrolledCount(classId),
+            seatReservationService.getAvailableSeats(classId)
+        );
+    }
+
+    private String toJson(List<SeatAvailabilityResponse> seats) {
+        try {
+            return objectMapper.writeValueAsString(seats);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Lỗi khi tạo dữ liệu số chỗ: " + e.getMessage());
+        }
+    }
+
+    private void send(SseEmitter emitter, Set<SseEmitter> emitters, String eventName, String json) {
+        try {
+            emitter.send(SseEmitter.event().name(eventName).data(json, MediaType.APPLICATION_JSON));
+        } catch (IOException | IllegalStateException e) {
+            drop(emitter, emitters);
+        }
+    }
+
+    private void drop(SseEmitter emitter, Set<SseEmitter> emitters) {
+        // Client đã ngắt kết nối
+        if (emitters.remove(emitter)) {
+            subscriberCount.decrementAndGet();
+        }
+        emitter.completeWithError(new IOException("Kết nối đã đóng"));
+    }
+}
@@ -0,0 +1,238 @@
+package com.sms.service.impl;
+
+import com.sms.event.SeatCountChangedEvent;
+import com.sms.event.SeatReleasedEvent;
+import com.sms.repository.CourseRepository;
+import com.sms.repository.projection.ClassSeatCount;
+import com.sms.service.SeatReservationService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bộ đếm chỗ theo từng lớp học.
+ *
+ * Bộ đếm trong bộ nhớ dùng để từ chối ngay các yêu cầu vào lớp đã đầy mà không cần truy vấn,
+ * còn cột classes.enrolled_count (cập nhật bằng UPDATE có điều kiện) là nguồn dữ liệu chính xác.
+ */
+@Service
+@Transactional
+@Slf4j
+public class SeatReservationServiceImpl implements SeatReservationService {
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    private final Map<Long, SeatCounter> counters = new ConcurrentHashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconcileOnStartup() {
+        int synced = reconcileAll();
+        log.info("Đã đồng bộ bộ đếm chỗ cho {} lớp học", synced);
+    }
+
+    @Override
+    public boolean tryReserve(Long classId) {
+        SeatCounter counter = getCounter(classId);
+        if (counter == null || !counter.tryAcquire()) {
+            return false;
+        }
+
+        // Bộ nhớ đã cho phép, xác nhận lại với database
+        if (courseRepository.incrementEnrolledCount(classId) == 0) {
+            counter.release(1);
+            reconcileCounter(classId);
+            return false;
+        }
+
+        // Trả lại chỗ trong bộ nhớ nếu transaction bị rollback
+        afterCompletion(counter, 1, false);
+        eventPublisher.publishEvent(new SeatCountChangedEvent(classId));
+        return true;
+    }
+
+    @Override
+    public int tryReserve(Long classId, int count) {
+        SeatCounter counter = getCounter(classId);
+        if (counter == null || count <= 0) {
+            return 0;
+        }
+
+        // Thử lại một lần sau khi đồng bộ nếu bộ đếm trong bộ nhớ bị lệch so với database
+        for (int attempt = 0; attempt < 2; attempt++) {
+            int acquired = counter.tryAcquire(count);
+            if (acquired == 0) {
+                return 0;
+            }
+            if (courseRepository.incrementEnrolledCountBy(classId, acquired) > 0) {
+                afterCompletion(counter, acquired, false);
+                eventPublisher.publishEvent(new SeatCountChangedEvent(classId));
+                return acquired;
+            }
+            counter.release(acquired);
+            reconcileCounter(classId);
+            counter = counters.get(classId);
+            if (counter == null) {
+                return 0;
+            }
+        }
+        return 0;
+    }
+
+    @Override
+    public void release(Long classId) {
+        SeatCounter counter = getCounter(classId);
+        courseRepository.decrementEnrolledCount(classId);
+
+        // Chỉ trả chỗ trong bộ nhớ khi transaction đã commit
+        if (counter != null) {
+            afterCompletion(counter, 1, true);
+        }
+        eventPublisher.publishEvent(new SeatReleasedEvent(classId));
+        eventPublisher.publishEvent(new SeatCountChangedEvent(classId));
+    }
+
+    @Override
+    public void updateCapacity(Long classId, Integer maxStudent) {
+        SeatCounter counter = counters.get(classId);
+        if (counter != null && maxStudent != null) {
+            counter.capacity = maxStudent;
+        }
+        eventPublisher.publishEvent(new SeatReleasedEvent(classId));
+        eventPublisher.publishEvent(new SeatCountChangedEvent(classId));
+    }
+
+    @Override
+    public void evict(Long classId) {
+        counters.remove(classId);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public int getAvailableSeats(Long classId) {
+        SeatCounter counter = getCounter(classId);
+        return counter != null ? counter.available() : 0;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public int getEnrolledCount(Long classId) {
+        SeatCounter counter = getCounter(classId);
+        return counter != null ? counter.taken.get() : 0;
+    }
+
+    @Override
+    public int reconcileAll() {
+        courseRepository.syncAllEnrolledCounts();
+
+        List<ClassSeatCount> seatCounts = courseRepository.findAllSeatCounts();
+        Map<Long, SeatCounter> fresh = new ConcurrentHashMap<>();
+        for (ClassSeatCount seatCount : seatCounts) {
+            fresh.put(seatCount.getId(), SeatCounter.of(seatCount));
+        }
+
+        counters.keySet().retainAll(fresh.keySet());
+        counters.putAll(fresh);
+        return seatCounts.size();
+    }
+
+    @Override
+    public void reconcile(Long classId) {
+        courseRepository.syncEnrolledCount(classId);
+        reconcileCounter(classId);
+        eventPublisher.publishEvent(new SeatCountChangedEvent(classId));
+    }
+
+    private void reconcileCounter(Long classId) {
+        courseRepository.findSeatCountById(classId)
+                .ifPresentOrElse(
+                        seatCount -> counters.put(classId, SeatCounter.of(seatCount)),
+                        () -> counters.remove(classId));
+    }
+
+    private SeatCounter getCounter(Long classId) {
+        SeatCounter counter = counters.get(classId);
+        if (counter != null) {
+            return counter;
+        }
+
+        // Lớp mới tạo sau lần đồng bộ cuối: nạp từ database một lần
+        return courseRepository.findSeatCountById(classId)
+                .map(seatCount -> counters.computeIfAbsent(classId, id -> SeatCounter.of(seatCount)))
+                .orElse(null);
+    }
+
+    private void afterCompletion(SeatCounter counter, int seats, boolean onCommit) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            if (onCommit) {
+                counter.release(seats);
+            }
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                boolean committed = status == STATUS_COMMITTED;
+                if (committed == onCommit) {
+                    counter.release(seats);
+                }
+            }
+        });
+    }
+
+    static final class SeatCounter {
+        private final AtomicInteger taken;
+        private volatile int capacity;
+
+        SeatCounter(int taken, int capacity) {
+            this.taken = new AtomicInteger(taken);
+            this.capacity = capacity;
+        }
+
+        static SeatCounter of(ClassSeatCount seatCount) {
+            int taken = seatCount.getEnrolledCount() != null ? seatCount.getEnrolledCount() : 0;
+            int capacity = seatCount.getMaxStudent() != null ? seatCount.getMaxStudent() : 0;
+            return new SeatCounter(taken, capacity);
+        }
+
+        boolean tryAcquire() {
+            return tryAcquire(1) == 1;
+        }
+
+        int tryAcquire(int seats) {
+            while (true) {
+                int current = taken.get();
+                int acquired = Math.min(seats, capacity - current);
+                if (acquired <= 0) {
+                    return 0;
+                }
+                if (taken.compareAndSet(current, current + acquired)) {
+                    return acquired;
+                }
+            }
+        }
+
+        void release(int seats) {
+            taken.updateAndGet(current -> Math.max(current - seats, 0));
+        }
+
+        int available() {
+            return Math.max(capacity - taken.get(), 0);
+        }
+    }
+}
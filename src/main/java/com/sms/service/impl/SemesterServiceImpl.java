@@ -10,6 +10,7 @@ import com.sms.entity.Semester;
 import com.sms.exception.*;
 import com.sms.repository.AcademicYearRepository;
 import com.sms.repository.SemesterRepository;
+import com.sms.service.ClassCatalogService;
 import com.sms.service.SemesterService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
@@ -31,6 +32,9 @@ public class SemesterServiceImpl implements SemesterService {
     @Autowired
     private SemesterRepository semesterRepository;
     
+    @Autowired
+    private ClassCatalogService classCatalogService;
+    
     // Academic Year Management
     
     @Override
@@ -159,8 +163,10 @@ public class SemesterServiceImpl implements SemesterService {
         semester.setStartDate(semesterRequest.getStartDate());
         semester.setEndDate(semesterRequest.getEndDate());
         semester.setIsOpen(semesterRequest.getIsOpen() != null ? semesterRequest.getIsOpen() : true);
+        semester.setRegistrationConcurrency(semesterRequest.getRegistrationConcurrency());
         
         Semester savedSemester = semesterRepository.save(semester);
+        classCatalogService.invalidateSemesters();
         return convertToSemesterResponse(savedSemester);
     }
     
@@ -197,8 +203,12 @@ public class SemesterServiceImpl implements SemesterService {
         if (semesterRequest.getIsOpen() != null) {
             semester.setIsOpen(semesterRequest.getIsOpen());
         }
+        if (semesterRequest.getRegistrationConcurrency() != null) {
+            semester.setRegistrationConcurrency(semesterRequest.getRegistrationConcurrency());
+        }
         
         Semester updatedSemester = semesterRepository.save(semester);
+        classCatalogService.invalidateSemesters();
         return convertToSemesterResponse(updatedSemester);
     }
     
@@ -208,6 +218,7 @@ public class SemesterServiceImpl implements SemesterService {
             .orElseThrow(() -> new SemesterNotFoundException(semesterId));
         
         semesterRepository.delete(semester);
+        classCatalogService.invalidateSemesters();
     }
     
     @Override
@@ -279,16 +290,19 @@ public class SemesterServiceImpl implements SemesterService {
         
         semester.setIsOpen(registrationStatusRequest.getIsOpen());
         semesterRepository.save(semester);
+        classCatalogService.invalidateSemesters();
     }
     
     @Override
     public void closeAllRegistrations() {
         semesterRepository.updateAllRegistrationStatus(false);
+        classCatalogService.invalidateSemesters();
     }
     
     @Override
     public void openAllRegistrations() {
         semesterRepository.updateAllRegistrationStatus(true);
+        classCatalogService.invalidateSemesters();
     }
     
     // Helper Methods
@@ -326,7 +340,8 @@ public class SemesterServiceImpl implements SemesterService {
             semester.getName(),
             semester.getIsOpen(),
             semester.getStartDate(),
-            semester.getEndDate()
+            semester.getEndDate(),
+            semester.getRegistrationConcurrency()
         );
     }
 }
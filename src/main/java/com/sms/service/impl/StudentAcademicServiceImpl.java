@@ -1,16 +1,26 @@
 package com.sms.service.impl;
 
+import com.sms.dto.request.ClassAssignmentRequest;
 import com.sms.dto.request.ClassRegistrationRequest;
+import com.sms.dto.response.BulkRegistrationResponse;
+import com.sms.dto.response.StudentClassListResponse;
 import com.sms.dto.response.StudentClassResponse;
 import com.sms.entity.*;
+import com.sms.exception.ClassFullException;
 import com.sms.repository.*;
+import com.sms.service.ClassCatalogService;
+import com.sms.service.SeatReservationService;
 import com.sms.service.StudentAcademicService;
+import com.sms.service.WaitlistService;
 import org.hibernate.exception.ConstraintViolationException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.List;
+import java.util.*;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -41,23 +51,29 @@ public class StudentAcademicServiceImpl implements StudentAcademicService {
     @Autowired
     private StudentRepository studentRepository;
     
+    @Autowired
+    private SeatReservationService seatReservationService;
+    
+    @Autowired
+    private WaitlistService waitlistService;
+    
+    @Autowired
+    private ClassCatalogService classCatalogService;
+    
+    @Value("${registration.cart.max-classes:10}")
+    private int maxCartClasses;
+    
     @Override
     @Transactional(readOnly = true)
     public List<StudentClassResponse> getAvailableClasses(Long studentId) {
-        // Lấy tất cả lớp học
-        List<Course> allClasses = courseRepository.findAll();
-        
-        // Lấy danh sách lớp đã đăng ký
-        List<ClassStudent> registeredClasses = classStudentRepository.findByStudentId(studentId);
-        List<Long> registeredClassIds = registeredClasses.stream()
-                .map(ClassStudent::getClassId)
-                .collect(Collectors.toList());
-        
-        // Lọc ra các lớp chưa đăng ký
-        return allClasses.stream()
-                .filter(clazz -> !registeredClassIds.contains(clazz.getId()))
-                .map(this::convertToStudentClassResponse)
-                .collect(Collectors.toList());
+        // Lấy từ catalog dựng sẵn của các học kỳ đang mở
+        return classCatalogService.getAvailableClasses(studentId);
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
+    public StudentClassListResponse getAvailableClasses(Long studentId, Long semesterId, String keyword, Pageable pageable) {
+        return classCatalogService.getAvailableClasses(studentId, semesterId, keyword, pageable);
     }
     
     @Override
@@ -100,7 +116,8 @@ public class StudentAcademicServiceImpl implements StudentAcademicService {
                 .orElseThrow(() -> new RuntimeException("Không tìm thấy lớp với ID: " + classId));
         
         boolean isRegistered = classStudentRepository.findByClassIdAndStudentId(classId, studentId).isPresent();
-        return convertToStudentClassResponse(clazz, isRegistered);
+        Integer waitlistPosition = isRegistered ? null : waitlistService.getWaitlistPosition(studentId, classId);
+        return convertToStudentClassResponse(clazz, isRegistered, waitlistPosition);
     }
     
     @Override
@@ -118,10 +135,9 @@ public class StudentAcademicServiceImpl implements StudentAcademicService {
             throw new RuntimeException("Sinh viên đã đăng ký lớp này");
         }
         
-        // Kiểm tra lớp còn chỗ không
-        Long currentStudentCount = classStudentRepository.countByClassId(request.getClassId());
-        if (currentStudentCount >= clazz.getMaxStudent()) {
-            throw new RuntimeException("Lớp đã đầy, không thể đăng ký");
+        // Giữ chỗ trong lớp (không đếm lại class_students); chỗ trống thuộc về hàng chờ nếu còn người đang chờ
+        if (hasWaitingStudents(clazz) || !seatReservationService.tryReserve(request.getClassId())) {
+            throw new ClassFullException("Lớp đã đầy, không thể đăng ký");
         }
         
         // Đăng ký lớp
@@ -142,6 +158,99 @@ public class StudentAcademicServiceImpl implements StudentAcademicService {
         }
     }
     
+    @Override
+    public BulkRegistrationResponse registerForClasses(ClassAssignmentRequest request) {
+        Long studentId = request.getStudentId();
+        
+        // Kiểm tra sinh viên tồn tại
+        studentRepository.findById(studentId)
+                .orElseThrow(() -> new RuntimeException("Không tìm thấy sinh viên với ID: " + studentId));
+        
+        List<Long> classIds = request.getClassIds() == null ? new ArrayList<>() : request.getClassIds().stream()
+                .filter(Objects::nonNull)
+                .distinct()
+                .collect(Collectors.toList());
+        if (classIds.isEmpty()) {
+            throw new RuntimeException("Danh sách lớp không được để trống");
+        }
+        if (classIds.size() > maxCartClasses) {
+            throw new RuntimeException("Chỉ được đăng ký tối đa " + maxCartClasses + " lớp mỗi lần");
+        }
+        
+        // Thời khóa biểu hiện tại của sinh viên
+        Set<Long> registeredClassIds = classStudentRepository.findByStudentId(studentId).stream()
+                .map(ClassStudent::getClassId)
+                .collect(Collectors.toSet());
+        
+        // Nạp lớp và lịch học của cả giỏ đăng ký lẫn các lớp đã đăng ký trong một lần truy vấn
+        Set<Long> allClassIds = new HashSet<>(classIds);
+        allClassIds.addAll(registeredClassIds);
+        Map<Long, Course> classesById = courseRepository.findAllById(allClassIds).stream()
+                .collect(Collectors.toMap(Course::getId, Function.identity()));
+        Map<Long, List<Schedule>> schedulesByClassId = scheduleRepository.findByClassIdIn(allClassIds).stream()
+                .collect(Collectors.groupingBy(Schedule::getClassId));
+        
+        List<Long> timetable = new ArrayList<>(registeredClassIds);
+        BulkRegistrationResponse.ClassRegistrationResult[] outcomes =
+                new BulkRegistrationResponse.ClassRegistrationResult[classIds.size()];
+        List<Integer> candidates = new ArrayList<>();
+        
+        // Kiểm tra theo thứ tự giỏ: lớp đứng trước được ưu tiên khi hai lớp trong giỏ trùng lịch
+        for (int i = 0; i < classIds.size(); i++) {
+            Long classId = classIds.get(i);
+            Course clazz = classesById.get(classId);
+            if (clazz == null) {
+                outcomes[i] = new BulkRegistrationResponse.ClassRegistrationResult(
+                        classId, null, "NOT_FOUND", "Không tìm thấy lớp với ID: " + classId);
+                continue;
+            }
+            
+            if (registeredClassIds.contains(classId)) {
+                outcomes[i] = new BulkRegistrationResponse.ClassRegistrationResult(
+                        classId, clazz.getClassCode(), "ALREADY_REGISTERED", "Sinh viên đã đăng ký lớp này");
+                continue;
+            }
+            
+            Course conflict = findScheduleConflict(clazz, timetable, classesById, schedulesByClassId);
+            if (conflict != null) {
+                outcomes[i] = new BulkRegistrationResponse.ClassRegistrationResult(
+                        classId, clazz.getClassCode(), "SCHEDULE_CONFLICT", "Trùng lịch học với lớp " + conflict.getClassCode());
+                continue;
+            }
+            
+            // Các lớp tiếp theo trong giỏ cũng phải không trùng lịch với lớp này
+            timetable.add(classId);
+            candidates.add(i);
+        }
+        
+        // Giữ chỗ sau cùng vì đây là bước duy nhất thay đổi dữ liệu. Mỗi lần giữ chỗ khóa dòng classes tới khi commit,
+        // nên giữ theo thứ tự classId tăng dần để hai giỏ chứa cùng các lớp theo thứ tự khác nhau không deadlock
+        candidates.sort(Comparator.comparing(classIds::get));
+        List<ClassStudent> enrollments = new ArrayList<>();
+        for (int i : candidates) {
+            Long classId = classIds.get(i);
+            Course clazz = classesById.get(classId);
+            if (hasWaitingStudents(clazz) || !seatReservationService.tryReserve(classId)) {
+                outcomes[i] = new BulkRegistrationResponse.ClassRegistrationResult(
+                        classId, clazz.getClassCode(), "CLASS_FULL", "Lớp đã đầy, không thể đăng ký");
+                continue;
+            }
+            
+            ClassStudent classStudent = new ClassStudent();
+            classStudent.setClassId(classId);
+            classStudent.setStudentId(studentId);
+            enrollments.add(classStudent);
+            outcomes[i] = new BulkRegistrationResponse.ClassRegistrationResult(
+                    classId, clazz.getClassCode(), "REGISTERED", "Đăng ký thành công");
+        }
+        List<BulkRegistrationResponse.ClassRegistrationResult> results = Arrays.asList(outcomes);
+        
+        // Ghi tất cả đăng ký trong cùng một transaction
+        classStudentRepository.saveAll(enrollments);
+        
+        return new BulkRegistrationResponse(studentId, enrollments.size(), results.size() - enrollments.size(), results);
+    }
+    
     @Override
     public void unregisterFromClass(Long studentId, Long classId) {
         // Kiểm tra sinh viên đã đăng ký lớp này chưa
@@ -149,13 +258,54 @@ public class StudentAcademicServiceImpl implements StudentAcademicService {
                 .orElseThrow(() -> new RuntimeException("Sinh viên chưa đăng ký lớp này"));
         
         classStudentRepository.delete(classStudent);
+        seatReservationService.release(classId);
     }
     
-    private StudentClassResponse convertToStudentClassResponse(Course clazz) {
-        return convertToStudentClassResponse(clazz, false);
+    private Course findScheduleConflict(Course clazz, List<Long> timetable, Map<Long, Course> classesById,
+                                        Map<Long, List<Schedule>> schedulesByClassId) {
+        List<Schedule> schedules = schedulesByClassId.getOrDefault(clazz.getId(), Collections.emptyList());
+        if (schedules.isEmpty()) {
+            return null;
+        }
+        
+        for (Long otherClassId : timetable) {
+            Course other = classesById.get(otherClassId);
+            // Chỉ so sánh với các lớp cùng học kỳ
+            if (other == null || !Objects.equals(other.getSemesterId(), clazz.getSemesterId())) {
+                continue;
+            }
+            for (Schedule schedule : schedules) {
+                for (Schedule otherSchedule : schedulesByClassId.getOrDefault(otherClassId, Collections.emptyList())) {
+                    if (isOverlapping(schedule, otherSchedule)) {
+                        return other;
+                    }
+                }
+            }
+        }
+        return null;
+    }
+    
+    private boolean isOverlapping(Schedule first, Schedule second) {
+        if (first.getDayOfWeek() == null || !first.getDayOfWeek().equalsIgnoreCase(second.getDayOfWeek())) {
+            return false;
+        }
+        if (first.getStartTime() == null || first.getEndTime() == null
+                || second.getStartTime() == null || second.getEndTime() == null) {
+            return false;
+        }
+        return first.getStartTime().isBefore(second.getEndTime()) && second.getStartTime().isBefore(first.getEndTime());
+    }
+    
+    private boolean hasWaitingStudents(Course clazz) {
+        return clazz.getWaitlistTail() != null && clazz.getWaitlistHead() != null
+                && clazz.getWaitlistTail() >= clazz.getWaitlistHead();
     }
     
     private StudentClassResponse convertToStudentClassResponse(Course clazz, boolean isRegistered) {
+        return convertToStudentClassResponse(clazz, isRegistered, null);
+    }
+    
+    private StudentClassResponse convertToStudentClassResponse(Course clazz, boolean isRegistered, Integer waitlistPosition) {
         Subject subject = subjectRepository.findById(clazz.getSubjectId())
                 .orElse(new Subject());
         
@@ -195,7 +345,8 @@ public class StudentAcademicServiceImpl implements StudentAcademicService {
                 currentStudentCount.intValue(),
                 clazz.getCreatedAt(),
                 isRegistered,
-                scheduleResponses
+                scheduleResponses,
+                waitlistPosition
         );
     }
 }
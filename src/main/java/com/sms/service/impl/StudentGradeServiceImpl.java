@@ -4,6 +4,8 @@ import com.sms.dto.response.StudentGradeResponse;
 import com.sms.entity.*;
 import com.sms.repository.*;
 import com.sms.service.StudentGradeService;
+import com.sms.service.TranscriptService;
+import com.sms.util.GradeScale;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -24,6 +26,9 @@ public class StudentGradeServiceImpl implements StudentGradeService {
     @Autowired
     private SubjectRepository subjectRepository;
     
+    @Autowired
+    private TranscriptService transcriptService;
+    
     @Override
     @Transactional(readOnly = true)
     public List<StudentGradeResponse> getGradesByStudent(Long studentId) {
@@ -61,32 +66,7 @@ public class StudentGradeServiceImpl implements StudentGradeService {
     @Override
     @Transactional(readOnly = true)
     public StudentGradeResponse.GPASummary getGPASummary(Long studentId) {
-        List<StudentGradeResponse> grades = getGradesByStudent(studentId);
-        
-        // Tính GPA
-        double totalPoints = 0.0;
-        int totalCredits = 0;
-        int completedCredits = 0;
-        
-        for (StudentGradeResponse grade : grades) {
-            if (grade.getTotal() != null && grade.getCredits() != null) {
-                totalCredits += grade.getCredits();
-                
-                if (grade.getTotal() >= 0) { // Có điểm
-                    completedCredits += grade.getCredits();
-                    totalPoints += convertToGpaPoints(grade.getTotal()) * grade.getCredits();
-                }
-            }
-        }
-        
-        double gpa = totalCredits > 0 ? totalPoints / totalCredits : 0.0;
-        
-        return new StudentGradeResponse.GPASummary(
-                gpa,
-                totalCredits,
-                completedCredits,
-                grades
-        );
+        return transcriptService.getSummary(studentId);
     }
     
     private StudentGradeResponse convertToStudentGradeResponse(Grade grade) {
@@ -102,44 +82,13 @@ public class StudentGradeServiceImpl implements StudentGradeService {
                 clazz.getClassCode(),
                 subject.getSubjectName(),
                 subject.getSubjectCode(),
-                3, // Default credits, có thể cần thêm field credits vào Subject entity
+                subject.getCredit(),
                 grade.getMidterm(),
                 grade.getFinalGrade(),
                 grade.getOther(),
                 grade.getTotal(),
-                convertToLetterGrade(grade.getTotal()),
+                GradeScale.letterGrade(grade.getTotal()),
                 grade.getUpdatedAt()
         );
     }
-    
-    private String convertToLetterGrade(Float total) {
-        if (total == null) {
-            return "N/A";
-        }
-        // Đồng bộ thang điểm chữ với GradeServiceImpl
-        if (total >= 9.0) return "A";
-        if (total >= 8.0) return "B+";
-        if (total >= 7.0) return "B";
-        if (total >= 6.5) return "C+";
-        if (total >= 5.5) return "C";
-        if (total >= 5.0) return "D+";
-        if (total >= 4.0) return "D";
-        return "F";
-    }
-    
-    private double convertToGpaPoints(Float total) {
-        if (total == null) {
-            return 0.0;
-        }
-        
-        if (total >= 9.0) return 4.0;
-        if (total >= 8.5) return 3.7;
-        if (total >= 8.0) return 3.3;
-        if (total >= 7.0) return 3.0;
-        if (total >= 6.5) return 2.7;
-        if (total >= 5.5) return 2.3;
-        if (total >= 5.0) return 2.0;
-        if (total >= 4.0) return 1.0;
-        return 0.0;
-    }
 }
@@ -6,7 +6,10 @@ import com.sms.dto.response.StudentResponse;
 import com.sms.entity.*;
 import com.sms.exception.*;
 import com.sms.repository.*;
+import com.sms.service.SeatReservationService;
 import com.sms.service.StudentService;
+import com.sms.service.WaitlistService;
+import com.sms.util.HtmlPdf;
 import org.apache.poi.ss.usermodel.*;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -43,6 +46,12 @@ public class StudentServiceImpl implements StudentService {
     @Autowired
     private TeacherRepository teacherRepository;
     
+    @Autowired
+    private SeatReservationService seatReservationService;
+    
+    @Autowired
+    private WaitlistService waitlistService;
+    
     @Override
     public StudentResponse createStudent(StudentRequest studentRequest) {
         // Kiểm tra user tồn tại
@@ -106,8 +115,14 @@ public class StudentServiceImpl implements StudentService {
         Student student = studentRepository.findById(studentId)
             .orElseThrow(() -> new StudentNotFoundException(studentId));
         
-        // Xóa tất cả class_student records
+        // Xóa tất cả class_student records và trả lại chỗ
+        List<ClassStudent> classStudents = classStudentRepository.findByStudentId(studentId);
         classStudentRepository.deleteByStudentId(studentId);
+        classStudents.forEach(classStudent -> seatReservationService.release(classStudent.getClassId()));
+        
+        // Rời tất cả hàng chờ
+        waitlistService.getWaitlistPositions(studentId).keySet()
+            .forEach(classId -> waitlistService.leaveWaitlist(studentId, classId));
         
         // Xóa student
         studentRepository.delete(student);
@@ -219,9 +234,8 @@ public class StudentServiceImpl implements StudentService {
                 continue; // Bỏ qua nếu đã đăng ký
             }
             
-            // Kiểm tra lớp còn chỗ không
-            Long currentCount = classStudentRepository.countByClassId(classId);
-            if (currentCount >= courseEntity.getMaxStudent()) {
+            // Giữ chỗ trong lớp
+            if (!seatReservationService.tryReserve(classId)) {
                 throw new ClassFullException(courseEntity.getClassCode());
             }
             
@@ -238,7 +252,9 @@ public class StudentServiceImpl implements StudentService {
             .orElseThrow(() -> new StudentNotFoundException(studentId));
         
         for (Long classId : classIds) {
-            classStudentRepository.deleteByClassIdAndStudentId(classId, studentId);
+            if (classStudentRepository.deleteByClassIdAndStudentId(classId, studentId) > 0) {
+                seatReservationService.release(classId);
+            }
         }
     }
     
@@ -338,7 +354,6 @@ public class StudentServiceImpl implements StudentService {
     @Override
     @Transactional(readOnly = true)
     public byte[] exportStudentsToPDF(StudentSearchRequest searchRequest) {
-        // Simplified PDF export - in real implementation, you would use iText or similar
         StringBuilder html = new StringBuilder();
         html.append("<html><head><title>Danh sách sinh viên</title></head><body>");
         html.append("<h1>Danh sách sinh viên</h1>");
@@ -375,8 +390,7 @@ public class StudentServiceImpl implements StudentService {
         
         html.append("</table></body></html>");
         
-        // In a real implementation, you would convert HTML to PDF using iText
-        return html.toString().getBytes();
+        return HtmlPdf.convert(html.toString());
     }
     
     private StudentResponse convertToStudentResponse(Student student) {
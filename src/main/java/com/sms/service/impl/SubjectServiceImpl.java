@@ -4,8 +4,11 @@ import com.sms.dto.request.SubjectRequest;
 import com.sms.dto.response.SubjectListResponse;
 import com.sms.dto.response.SubjectResponse;
 import com.sms.entity.Subject;
+import com.sms.repository.GradeRepository;
 import com.sms.repository.SubjectRepository;
 import com.sms.service.SubjectService;
+import com.sms.service.TranscriptService;
+import com.sms.util.GradeFormula;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -13,6 +16,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
 @Service
@@ -22,6 +26,12 @@ public class SubjectServiceImpl implements SubjectService {
     @Autowired
     private SubjectRepository subjectRepository;
     
+    @Autowired
+    private GradeRepository gradeRepository;
+    
+    @Autowired
+    private TranscriptService transcriptService;
+    
     @Override
     public SubjectResponse createSubject(SubjectRequest subjectRequest) {
         // Kiểm tra mã môn học đã tồn tại
@@ -33,6 +43,7 @@ public class SubjectServiceImpl implements SubjectService {
         subject.setSubjectCode(subjectRequest.getSubjectCode());
         subject.setSubjectName(subjectRequest.getSubjectName());
         subject.setCredit(subjectRequest.getCredit());
+        subject.setGradeFormula(normalizeGradeFormula(subjectRequest.getGradeFormula()));
         subject.setDescription(subjectRequest.getDescription());
         
         Subject savedSubject = subjectRepository.save(subject);
@@ -50,12 +61,19 @@ public class SubjectServiceImpl implements SubjectService {
             throw new RuntimeException("Mã môn học đã tồn tại: " + subjectRequest.getSubjectCode());
         }
         
+        boolean creditChanged = !Objects.equals(subject.getCredit(), subjectRequest.getCredit());
+        
         subject.setSubjectCode(subjectRequest.getSubjectCode());
         subject.setSubjectName(subjectRequest.getSubjectName());
         subject.setCredit(subjectRequest.getCredit());
+        subject.setGradeFormula(normalizeGradeFormula(subjectRequest.getGradeFormula()));
         subject.setDescription(subjectRequest.getDescription());
         
         Subject updatedSubject = subjectRepository.save(subject);
+        if (creditChanged) {
+            // Bảng điểm tích lũy đã cộng theo số tín chỉ cũ
+            transcriptService.rebuildStudents(gradeRepository.findGradedStudentIdsBySubjectId(subjectId));
+        }
         return convertToSubjectResponse(updatedSubject);
     }
     
@@ -151,12 +169,21 @@ public class SubjectServiceImpl implements SubjectService {
             .collect(Collectors.toList());
     }
     
+    // Biên dịch thử để báo lỗi ngay khi lưu môn học thay vì khi nhập điểm
+    private String normalizeGradeFormula(String gradeFormula) {
+        if (gradeFormula == null || gradeFormula.isBlank()) {
+            return null;
+        }
+        return GradeFormula.of(gradeFormula).getSource();
+    }
+    
     private SubjectResponse convertToSubjectResponse(Subject subject) {
         return new SubjectResponse(
             subject.getId(),
             subject.getSubjectCode(),
             subject.getSubjectName(),
             subject.getCredit(),
+            subject.getGradeFormula(),
             subject.getDescription(),
             subject.getStatus()
         );
@@ -1,8 +1,10 @@
 package com.sms.service.impl;
 
+import com.sms.dto.response.ClassRosterPageResponse;
 import com.sms.dto.response.TeacherClassResponse;
 import com.sms.entity.*;
 import com.sms.repository.*;
+import com.sms.service.ClassService;
 import com.sms.service.TeacherClassService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -28,10 +30,7 @@ public class TeacherClassServiceImpl implements TeacherClassService {
     private ClassStudentRepository classStudentRepository;
     
     @Autowired
-    private StudentRepository studentRepository;
-    
-    @Autowired
-    private UserRepository userRepository;
+    private ClassService classService;
     
     @Override
     @Transactional(readOnly = true)
@@ -60,6 +59,12 @@ public class TeacherClassServiceImpl implements TeacherClassService {
         return convertToTeacherClassResponse(classEntity);
     }
     
+    @Override
+    @Transactional(readOnly = true)
+    public ClassRosterPageResponse getClassRosterPage(Long classId, String sort, String cursor, int size) {
+        return classService.getClassRosterPage(classId, sort, cursor, size);
+    }
+    
     private TeacherClassResponse convertToTeacherClassResponse(Course classEntity) {
         Subject subject = subjectRepository.findById(classEntity.getSubjectId())
                 .orElse(new Subject());
@@ -69,24 +74,18 @@ public class TeacherClassServiceImpl implements TeacherClassService {
         
         Long currentStudentCount = classStudentRepository.countByClassId(classEntity.getId());
         
-        List<ClassStudent> classStudents = classStudentRepository.findByClassId(classEntity.getId());
-        List<TeacherClassResponse.StudentInClassResponse> students = classStudents.stream()
-                .map(classStudent -> {
-                    Student student = studentRepository.findById(classStudent.getStudentId())
-                            .orElse(new Student());
-                    User user = userRepository.findById(student.getUserId())
-                            .orElse(new User());
-                    
-                    return new TeacherClassResponse.StudentInClassResponse(
-                            student.getId(),
-                            student.getStudentCode(),
-                            user.getFullName(),
-                            user.getEmail(),
-                            student.getClassName(),
-                            student.getMajor(),
-                            student.getCourseYear()
-                    );
-                })
+        // Sinh viên và tài khoản được lấy cùng lúc bằng một truy vấn join
+        List<TeacherClassResponse.StudentInClassResponse> students = classStudentRepository
+                .findRosterStudents(classEntity.getId()).stream()
+                .map(row -> new TeacherClassResponse.StudentInClassResponse(
+                        row.getStudentId(),
+                        row.getStudentCode(),
+                        row.getStudentName(),
+                        row.getEmail(),
+                        row.getClassName(),
+                        row.getMajor(),
+                        row.getCourseYear()
+                ))
                 .collect(Collectors.toList());
         
         return new TeacherClassResponse(
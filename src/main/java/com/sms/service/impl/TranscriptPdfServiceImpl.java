@@ -0,0 +1,265 @@
+package com.sms.service.impl;
+
+import com.sms.dto.response.StudentGradeResponse;
+import com.sms.repository.GradeRepository;
+import com.sms.repository.StudentRepository;
+import com.sms.repository.projection.TranscriptLine;
+import com.sms.repository.projection.TranscriptStudent;
+import com.sms.service.TranscriptPdfService;
+import com.sms.service.TranscriptService;
+import com.sms.util.GradeScale;
+import com.sms.util.HtmlPdf;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.thymeleaf.ITemplateEngine;
+import org.thymeleaf.context.Context;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Bảng điểm PDF của sinh viên, dựng từ template Thymeleaf "transcript" (được phân tích một lần rồi giữ trong cache
+ * của template engine) và chuyển sang PDF bằng html2pdf.
+ *
+ * Xuất cả khóa thì đọc sinh viên theo từng phần bằng keyset trên id, mỗi phần chỉ tốn một câu truy vấn điểm và hai
+ * câu đọc bảng điểm tích lũy, dựng PDF song song trên ForkJoinPool riêng rồi ghi lần lượt vào ZIP của response.
+ * Bộ nhớ dùng chỉ phụ thuộc kích thước phần, không phụ thuộc số sinh viên của khóa.
+ */
+@Service
+@Transactional(readOnly = true)
+@Slf4j
+public class TranscriptPdfServiceImpl implements TranscriptPdfService {
+    
+    static final String TEMPLATE = "transcript";
+    
+    private static final DateTimeFormatter ISSUED_DATE = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+    
+    private static final Locale VIETNAMESE = Locale.forLanguageTag("vi-VN");
+    
+    @Autowired
+    private StudentRepository studentRepository;
+    
+    @Autowired
+    private GradeRepository gradeRepository;
+    
+    @Autowired
+    private TranscriptService transcriptService;
+    
+    @Autowired
+    private ITemplateEngine templateEngine;
+    
+    @Value("${grade.pdf.parallelism:4}")
+    private int parallelism;
+    
+    @Value("${grade.pdf.chunk-size:64}")
+    private int chunkSize;
+    
+    private ForkJoinPool pool;
+    
+    @PostConstruct
+    void init() {
+        pool = new ForkJoinPool(Math.max(1, parallelism));
+    }
+    
+    @PreDestroy
+    void shutdown() {
+        pool.shutdownNow();
+    }
+    
+    @Override
+    public byte[] renderStudentTranscript(Long studentId) {
+        TranscriptStudent student = studentRepository.findTranscriptStudent(studentId)
+                .orElseThrow(() -> new RuntimeException("Không tìm thấy sinh viên với ID: " + studentId));
+        return render(loadDocuments(List.of(student)).get(0));
+    }
+    
+    @Override
+    public String prepareCohortExport(String major, Integer courseYear) {
+        if (major == null || major.isBlank() || courseYear == null) {
+            throw new RuntimeException("Cần chỉ định ngành và năm nhập học của khóa");
+        }
+        if (studentRepository.countByMajorAndCourseYear(major.trim(), courseYear) == 0) {
+            throw new RuntimeException("Không có sinh viên nào thuộc ngành " + major.trim() + " khóa " + courseYear);
+        }
+        return "bang-diem-" + major.trim().replaceAll("[^A-Za-z0-9_-]", "_") + "-" + courseYear + ".zip";
+    }
+    
+    @Override
+    public int exportCohort(String major, Integer courseYear, OutputStream output) throws IOException {
+        long startedAt = System.nanoTime();
+        String normalizedMajor = major.trim();
+        int size = Math.max(1, chunkSize);
+        int count = 0;
+        Long afterId = 0L;
+        
+        // Không đóng ZipOutputStream để không đóng output của response, chỉ finish
+        ZipOutputStream zip = new ZipOutputStream(output);
+        // PDF đã nén sẵn, nén lại kỹ hơn chỉ tốn CPU
+        zip.setLevel(Deflater.BEST_SPEED);
+        while (true) {
+            List<TranscriptStudent> students = studentRepository.findTranscriptStudentChunk(
+                    normalizedMajor, courseYear, afterId, PageRequest.of(0, size));
+            if (students.isEmpty()) {
+                break;
+            }
+            List<TranscriptDocument> documents = loadDocuments(students);
+            List<byte[]> pdfs = pool.submit(() -> documents.parallelStream()
+                    .map(this::render)
+                    .collect(Collectors.toList())).join();
+            
+            for (int i = 0; i < documents.size(); i++) {
+                zip.putNextEntry(new ZipEntry(documents.get(i).getFileName()));
+                zip.write(pdfs.get(i));
+                zip.closeEntry();
+            }
+            zip.flush();
+            count += students.size();
+            afterId = students.get(students.size() - 1).getStudentId();
+            if (students.size() < size) {
+                break;
+            }
+        }
+        zip.finish();
+        
+        log.info("Đã xuất {} bảng điểm của ngành {} khóa {}, {} ms", count, normalizedMajor, courseYear,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt));
+        return count;
+    }
+    
+    private byte[] render(TranscriptDocument document) {
+        Context context = new Context(VIETNAMESE);
+        context.setVariable("transcript", document);
+        return HtmlPdf.convert(templateEngine.process(TEMPLATE, context));
+    }
+    
+    private List<TranscriptDocument> loadDocuments(List<TranscriptStudent> students) {
+        List<Long> studentIds = students.stream().map(TranscriptStudent::getStudentId).collect(Collectors.toList());
+        Map<Long, List<TranscriptLine>> linesByStudent = gradeRepository.findTranscriptLinesByStudentIdIn(studentIds)
+                .stream()
+                .collect(Collectors.groupingBy(TranscriptLine::getStudentId));
+        Map<Long, StudentGradeResponse.GPASummary> summaries = transcriptService.getSummaries(studentIds);
+        String issuedDate = LocalDate.now().format(ISSUED_DATE);
+        
+        List<TranscriptDocument> documents = new ArrayList<>();
+        for (TranscriptStudent student : students) {
+            documents.add(toDocument(student,
+                    linesByStudent.getOrDefault(student.getStudentId(), List.of()),
+                    summaries.get(student.getStudentId()),
+                    issuedDate));
+        }
+        return documents;
+    }
+    
+    private TranscriptDocument toDocument(TranscriptStudent student, List<TranscriptLine> lines,
+                                          StudentGradeResponse.GPASummary summary, String issuedDate) {
+        Map<Long, StudentGradeResponse.TermSummary> termSummaries = new HashMap<>();
+        if (summary != null) {
+            for (StudentGradeResponse.TermSummary term : summary.getTerms()) {
+                termSummaries.put(term.getSemesterId(), term);
+            }
+        }
+        
+        // Các dòng đã sắp theo học kỳ nên chỉ cần cắt khi đổi học kỳ
+        List<TranscriptTerm> terms = new ArrayList<>();
+        TranscriptTerm current = null;
+        for (TranscriptLine line : lines) {
+            if (current == null || !Objects.equals(current.getSemesterId(), line.getSemesterId())) {
+                StudentGradeResponse.TermSummary termSummary = termSummaries.get(line.getSemesterId());
+                current = new TranscriptTerm(
+                        line.getSemesterId(),
+                        line.getSemesterName() != null ? line.getSemesterName() : "Học kỳ không xác định",
+                        termSummary != null ? termSummary.getGpa() : null,
+                        termSummary != null ? termSummary.getTotalCredits() : null,
+                        termSummary != null ? termSummary.getCompletedCredits() : null,
+                        new ArrayList<>());
+                terms.add(current);
+            }
+            current.getLines().add(new TranscriptRow(
+                    line.getSubjectCode(),
+                    line.getSubjectName(),
+                    line.getCredit(),
+                    line.getMidterm(),
+                    line.getFinalGrade(),
+                    line.getOther(),
+                    line.getTotal(),
+                    line.getTotal() != null ? GradeScale.letterGrade(line.getTotal()) : null));
+        }
+        
+        return new TranscriptDocument(
+                student.getStudentId(),
+                student.getStudentCode(),
+                student.getStudentName(),
+                student.getClassName(),
+                student.getMajor(),
+                student.getCourseYear(),
+                terms,
+                summary != null ? summary.getGpa() : 0.0,
+                summary != null ? summary.getTotalCredits() : 0,
+                summary != null ? summary.getCompletedCredits() : 0,
+                issuedDate);
+    }
+    
+    /**
+     * Dữ liệu của template bảng điểm
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class TranscriptDocument {
+        private Long studentId;
+        private String studentCode;
+        private String studentName;
+        private String className;
+        private String major;
+        private Integer courseYear;
+        private List<TranscriptTerm> terms;
+        private Double gpa;
+        private Integer totalCredits;
+        private Integer completedCredits;
+        private String issuedDate;
+        
+        String getFileName() {
+            return (studentCode != null ? studentCode : "sinh-vien-" + studentId) + ".pdf";
+        }
+    }
+    
+    @Getter
+    @AllArgsConstructor
+    public static class TranscriptTerm {
+        private Long semesterId;
+        private String semesterName;
+        private Double gpa;
+        private Integer totalCredits;
+        private Integer completedCredits;
+        private List<TranscriptRow> lines;
+    }
+    
+    @Getter
+    @AllArgsConstructor
+    public static class TranscriptRow {
+        private String subjectCode;
+        private String subjectName;
+        private Integer credit;
+        private Float midterm;
+        private Float finalGrade;
+        private Float other;
+        private Float total;
+        private String letterGrade;
+    }
+}
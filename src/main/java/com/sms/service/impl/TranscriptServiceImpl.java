@@ -0,0 +1,395 @@
+package com.sms.service.impl;
+
+import com.sms.dto.response.StudentGradeResponse;
+import com.sms.dto.response.TranscriptRebuildResponse;
+import com.sms.entity.Course;
+import com.sms.entity.Grade;
+import com.sms.entity.StudentTermTranscript;
+import com.sms.entity.StudentTranscript;
+import com.sms.entity.Subject;
+import com.sms.repository.CourseRepository;
+import com.sms.repository.GradeRepository;
+import com.sms.repository.StudentTermTranscriptRepository;
+import com.sms.repository.StudentTranscriptRepository;
+import com.sms.repository.SubjectRepository;
+import com.sms.repository.projection.TranscriptGradeRow;
+import com.sms.service.TranscriptService;
+import com.sms.util.GradeScale;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Bảng điểm tích lũy theo sinh viên và theo (sinh viên, học kỳ).
+ *
+ * Mỗi lần ghi điểm chỉ cộng dồn phần chênh lệch tín chỉ và điểm hệ 4 bằng UPDATE tương đối, giống bảng tổng hợp
+ * điểm danh, nên đọc GPA chỉ còn là đọc một dòng. Dựng lại toàn bộ thì đọc tuần tự bảng grades theo sinh viên,
+ * tính bảng điểm song song trên ForkJoinPool riêng rồi ghi lại trong cùng transaction.
+ */
+@Service
+@Transactional
+@Slf4j
+public class TranscriptServiceImpl implements TranscriptService {
+
+    @Autowired
+    private GradeRepository gradeRepository;
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Autowired
+    private SubjectRepository subjectRepository;
+
+    @Autowired
+    private StudentTranscriptRepository studentTranscriptRepository;
+
+    @Autowired
+    private StudentTermTranscriptRepository studentTermTranscriptRepository;
+
+    @Value("${grade.transcript.parallelism:4}")
+    private int parallelism;
+
+    @Value("${grade.transcript.partition-size:256}")
+    private int partitionSize;
+
+    private ForkJoinPool pool;
+
+    @PostConstruct
+    void init() {
+        pool = new ForkJoinPool(Math.max(1, parallelism));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        pool.shutdownNow();
+    }
+
+    // Chạy trước các bước khởi động khác đọc từ bảng điểm tích lũy (bảng xếp hạng khóa)
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(0)
+    public void backfillOnStartup() {
+        // Lần đầu triển khai bảng điểm tích lũy còn trống trong khi đã có điểm
+        if (studentTranscriptRepository.count() == 0 && gradeRepository.count() > 0) {
+            TranscriptRebuildResponse result = rebuildAll();
+            log.info("Đã dựng bảng điểm tích lũy cho {} sinh viên", result.getStudentCount());
+        }
+    }
+
+    @Override
+    public void applyGradeChanges(Long classId, List<Grade> removed, List<Grade> added) {
+        Course classEntity = courseRepository.findById(classId).orElse(null);
+        if (classEntity == null || classEntity.getSemesterId() == null) {
+            return;
+        }
+        int credit = classEntity.getSubjectId() != null
+                ? subjectRepository.findById(classEntity.getSubjectId()).map(Subject::getCredit).orElse(0)
+                : 0;
+
+        // Mức thay đổi (tín chỉ đã học, tín chỉ tích lũy, điểm hệ 4 × tín chỉ × 10) của từng sinh viên
+        Map<Long, int[]> deltas = new HashMap<>();
+        for (Grade grade : removed) {
+            addDelta(deltas, grade, credit, -1);
+        }
+        for (Grade grade : added) {
+            addDelta(deltas, grade, credit, 1);
+        }
+        deltas.values().removeIf(delta -> delta[0] == 0 && delta[1] == 0 && delta[2] == 0);
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        Long semesterId = classEntity.getSemesterId();
+        List<Long> missingTerms = new ArrayList<>();
+        Map<List<Integer>, List<Long>> termGroups = groupByDelta(deltas,
+                studentTermTranscriptRepository.findStudentIdsBySemesterIdAndStudentIdIn(semesterId, deltas.keySet()),
+                missingTerms);
+        if (!missingTerms.isEmpty()) {
+            List<StudentTermTranscript> created = new ArrayList<>(missingTerms.size());
+            for (Long studentId : missingTerms) {
+                int[] delta = deltas.get(studentId);
+                created.add(new StudentTermTranscript(null, studentId, semesterId,
+                        Math.max(0, delta[0]), Math.max(0, delta[1]), Math.max(0, delta[2]), null));
+            }
+            studentTermTranscriptRepository.saveAll(created);
+        }
+        for (Map.Entry<List<Integer>, List<Long>> entry : termGroups.entrySet()) {
+            List<Integer> delta = entry.getKey();
+            studentTermTranscriptRepository.applyDelta(semesterId, entry.getValue(),
+                    delta.get(0), delta.get(1), delta.get(2));
+        }
+
+        List<Long> missingTranscripts = new ArrayList<>();
+        Map<List<Integer>, List<Long>> transcriptGroups = groupByDelta(deltas,
+                studentTranscriptRepository.findStudentIdsByStudentIdIn(deltas.keySet()),
+                missingTranscripts);
+        if (!missingTranscripts.isEmpty()) {
+            List<StudentTranscript> created = new ArrayList<>(missingTranscripts.size());
+            for (Long studentId : missingTranscripts) {
+                int[] delta = deltas.get(studentId);
+                created.add(new StudentTranscript(null, studentId,
+                        Math.max(0, delta[0]), Math.max(0, delta[1]), Math.max(0, delta[2]), null));
+            }
+            studentTranscriptRepository.saveAll(created);
+        }
+        for (Map.Entry<List<Integer>, List<Long>> entry : transcriptGroups.entrySet()) {
+            List<Integer> delta = entry.getKey();
+            studentTranscriptRepository.applyDelta(entry.getValue(), delta.get(0), delta.get(1), delta.get(2));
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public StudentGradeResponse.GPASummary getSummary(Long studentId) {
+        List<StudentGradeResponse.TermSummary> terms = studentTermTranscriptRepository
+                .findByStudentIdOrderBySemesterId(studentId).stream()
+                .map(this::toTermSummary)
+                .collect(Collectors.toList());
+
+        return studentTranscriptRepository.findByStudentId(studentId)
+                .map(transcript -> toSummary(transcript, terms))
+                .orElseGet(() -> new StudentGradeResponse.GPASummary(0.0, 0, 0, terms));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Map<Long, StudentGradeResponse.GPASummary> getSummaries(Collection<Long> studentIds) {
+        if (studentIds.isEmpty()) {
+            return new HashMap<>();
+        }
+        Map<Long, List<StudentGradeResponse.TermSummary>> termsByStudent = studentTermTranscriptRepository
+                .findByStudentIdInOrderByStudentIdAscSemesterIdAsc(studentIds).stream()
+                .collect(Collectors.groupingBy(StudentTermTranscript::getStudentId,
+                        Collectors.mapping(this::toTermSummary, Collectors.toList())));
+
+        Map<Long, StudentGradeResponse.GPASummary> summaries = new HashMap<>();
+        for (StudentTranscript transcript : studentTranscriptRepository.findByStudentIdIn(studentIds)) {
+            summaries.put(transcript.getStudentId(), toSummary(transcript,
+                    termsByStudent.getOrDefault(transcript.getStudentId(), new ArrayList<>())));
+        }
+        return summaries;
+    }
+
+    private StudentGradeResponse.TermSummary toTermSummary(StudentTermTranscript term) {
+        return new StudentGradeResponse.TermSummary(
+                term.getSemesterId(),
+                gpa(term.getGradePoints(), term.getCreditsAttempted()),
+                term.getCreditsAttempted(),
+                term.getCreditsEarned()
+        );
+    }
+
+    private StudentGradeResponse.GPASummary toSummary(StudentTranscript transcript,
+                                                      List<StudentGradeResponse.TermSummary> terms) {
+        return new StudentGradeResponse.GPASummary(
+                gpa(transcript.getGradePoints(), transcript.getCreditsAttempted()),
+                transcript.getCreditsAttempted(),
+                transcript.getCreditsEarned(),
+                terms
+        );
+    }
+
+    @Override
+    public TranscriptRebuildResponse rebuildAll() {
+        long startedAt = System.nanoTime();
+
+        List<StudentRows> students = new ArrayList<>();
+        long gradeCount = 0;
+        try (Stream<TranscriptGradeRow> rows = gradeRepository.streamTranscriptRows()) {
+            StudentRows current = null;
+            for (Iterator<TranscriptGradeRow> iterator = rows.iterator(); iterator.hasNext(); gradeCount++) {
+                TranscriptGradeRow row = iterator.next();
+                if (current == null || !current.studentId.equals(row.getStudentId())) {
+                    current = new StudentRows(row.getStudentId());
+                    students.add(current);
+                }
+                current.add(row);
+            }
+        }
+
+        Transcripts built = pool.invoke(new BuildTask(students, 0, students.size(), Math.max(1, partitionSize)));
+
+        studentTermTranscriptRepository.deleteAllTranscripts();
+        studentTranscriptRepository.deleteAllTranscripts();
+        studentTermTranscriptRepository.saveAll(built.terms);
+        studentTranscriptRepository.saveAll(built.transcripts);
+
+        long elapsed = System.nanoTime() - startedAt;
+        log.info("Đã dựng bảng điểm tích lũy từ {} điểm của {} sinh viên ({} học kỳ) trong {} ms",
+                gradeCount, built.transcripts.size(), built.terms.size(), TimeUnit.NANOSECONDS.toMillis(elapsed));
+        return new TranscriptRebuildResponse(
+                built.transcripts.size(),
+                built.terms.size(),
+                gradeCount,
+                TimeUnit.NANOSECONDS.toMillis(elapsed)
+        );
+    }
+
+    @Override
+    public void rebuildStudents(Collection<Long> studentIds) {
+        List<Long> ids = new ArrayList<>(new LinkedHashSet<>(studentIds));
+        int size = Math.max(1, partitionSize);
+        for (int from = 0; from < ids.size(); from += size) {
+            List<Long> chunk = ids.subList(from, Math.min(ids.size(), from + size));
+
+            List<StudentRows> students = new ArrayList<>();
+            StudentRows current = null;
+            for (TranscriptGradeRow row : gradeRepository.findTranscriptRowsByStudentIdIn(chunk)) {
+                if (current == null || !current.studentId.equals(row.getStudentId())) {
+                    current = new StudentRows(row.getStudentId());
+                    students.add(current);
+                }
+                current.add(row);
+            }
+            // Mỗi phần chỉ vài trăm sinh viên nên tính ngay trên thread hiện tại
+            Transcripts built = new BuildTask(students, 0, students.size(), size).compute();
+
+            studentTermTranscriptRepository.deleteByStudentIdIn(chunk);
+            studentTranscriptRepository.deleteByStudentIdIn(chunk);
+            studentTermTranscriptRepository.saveAll(built.terms);
+            studentTranscriptRepository.saveAll(built.transcripts);
+        }
+    }
+
+    private void addDelta(Map<Long, int[]> deltas, Grade grade, int credit, int sign) {
+        if (grade.getTotal() == null || credit == 0) {
+            return;
+        }
+        int[] delta = deltas.computeIfAbsent(grade.getStudentId(), id -> new int[3]);
+        int[] contribution = contribution(grade.getTotal(), credit);
+        for (int i = 0; i < 3; i++) {
+            delta[i] += sign * contribution[i];
+        }
+    }
+
+    /**
+     * Phần đóng góp của một môn: tín chỉ đã học, tín chỉ tích lũy và điểm hệ 4 × tín chỉ theo đơn vị 0.1
+     */
+    static int[] contribution(float total, int credit) {
+        int points = (int) Math.round(GradeScale.gradePoints(total) * 10);
+        return new int[]{credit, GradeScale.isPassing(total) ? credit : 0, points * credit};
+    }
+
+    // Sinh viên đã có dòng thì gom theo mức thay đổi để mỗi nhóm chỉ tốn một câu UPDATE
+    private Map<List<Integer>, List<Long>> groupByDelta(Map<Long, int[]> deltas, Collection<Long> existingIds,
+                                                        List<Long> missing) {
+        Set<Long> existing = new HashSet<>(existingIds);
+        Map<List<Integer>, List<Long>> groups = new HashMap<>();
+        for (Map.Entry<Long, int[]> entry : deltas.entrySet()) {
+            int[] delta = entry.getValue();
+            if (existing.contains(entry.getKey())) {
+                groups.computeIfAbsent(List.of(delta[0], delta[1], delta[2]), key -> new ArrayList<>())
+                        .add(entry.getKey());
+            } else {
+                missing.add(entry.getKey());
+            }
+        }
+        return groups;
+    }
+
+    private static double gpa(Integer gradePoints, Integer creditsAttempted) {
+        if (gradePoints == null || creditsAttempted == null || creditsAttempted == 0) {
+            return 0.0;
+        }
+        return gradePoints / 10.0 / creditsAttempted;
+    }
+
+    /**
+     * Điểm của một sinh viên, đã sắp theo học kỳ
+     */
+    private static final class StudentRows {
+        private final Long studentId;
+        private final List<Long> semesterIds = new ArrayList<>();
+        private final List<Integer> credits = new ArrayList<>();
+        private final List<Float> totals = new ArrayList<>();
+
+        StudentRows(Long studentId) {
+            this.studentId = studentId;
+        }
+
+        void add(TranscriptGradeRow row) {
+            semesterIds.add(row.getSemesterId());
+            credits.add(row.getCredit() != null ? row.getCredit() : 0);
+            totals.add(row.getTotal());
+        }
+    }
+
+    private static final class Transcripts {
+        private final List<StudentTranscript> transcripts = new ArrayList<>();
+        private final List<StudentTermTranscript> terms = new ArrayList<>();
+    }
+
+    private static final class BuildTask extends RecursiveTask<Transcripts> {
+        private final List<StudentRows> students;
+        private final int from;
+        private final int to;
+        private final int partitionSize;
+
+        BuildTask(List<StudentRows> students, int from, int to, int partitionSize) {
+            this.students = students;
+            this.from = from;
+            this.to = to;
+            this.partitionSize = partitionSize;
+        }
+
+        @Override
+        protected Transcripts compute() {
+            if (to - from > partitionSize) {
+                int middle = (from + to) >>> 1;
+                BuildTask left = new BuildTask(students, from, middle, partitionSize);
+                left.fork();
+                Transcripts right = new BuildTask(students, middle, to, partitionSize).compute();
+                Transcripts result = left.join();
+                result.transcripts.addAll(right.transcripts);
+                result.terms.addAll(right.terms);
+                return result;
+            }
+
+            Transcripts result = new Transcripts();
+            for (int i = from; i < to; i++) {
+                build(students.get(i), result);
+            }
+            return result;
+        }
+
+        private void build(StudentRows student, Transcripts result) {
+            int[] cumulative = new int[3];
+            StudentTermTranscript term = null;
+            for (int i = 0; i < student.totals.size(); i++) {
+                int credit = student.credits.get(i);
+                if (credit == 0) {
+                    continue;
+                }
+                Long semesterId = student.semesterIds.get(i);
+                if (term == null || !term.getSemesterId().equals(semesterId)) {
+                    term = new StudentTermTranscript(null, student.studentId, semesterId, 0, 0, 0, null);
+                    result.terms.add(term);
+                }
+                int[] contribution = contribution(student.totals.get(i), credit);
+                term.setCreditsAttempted(term.getCreditsAttempted() + contribution[0]);
+                term.setCreditsEarned(term.getCreditsEarned() + contribution[1]);
+                term.setGradePoints(term.getGradePoints() + contribution[2]);
+                for (int j = 0; j < 3; j++) {
+                    cumulative[j] += contribution[j];
+                }
+            }
+            if (term != null) {
+                result.transcripts.add(new StudentTranscript(null, student.studentId,
+                        cumulative[0], cumulative[1], cumulative[2], null));
+            }
+        }
+    }
+}
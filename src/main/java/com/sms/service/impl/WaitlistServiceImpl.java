@@ -0,0 +1,173 @@
+package com.sms.service.impl;
+
+import com.sms.dto.request.ClassRegistrationRequest;
+import com.sms.entity.ClassStudent;
+import com.sms.entity.WaitlistEntry;
+import com.sms.event.SeatReleasedEvent;
+import com.sms.repository.*;
+import com.sms.repository.projection.WaitlistPosition;
+import com.sms.service.SeatReservationService;
+import com.sms.service.WaitlistService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+@Service
+@Transactional
+public class WaitlistServiceImpl implements WaitlistService {
+
+    @Autowired
+    private WaitlistEntryRepository waitlistEntryRepository;
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Autowired
+    private ClassStudentRepository classStudentRepository;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private SeatReservationService seatReservationService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${registration.waitlist.promotion-batch-size:50}")
+    private int promotionBatchSize;
+
+    @Override
+    public Integer joinWaitlist(ClassRegistrationRequest request) {
+        Long classId = request.getClassId();
+        Long studentId = request.getStudentId();
+
+        studentRepository.findById(studentId)
+                .orElseThrow(() -> new RuntimeException("Không tìm thấy sinh viên với ID: " + studentId));
+
+        courseRepository.findById(classId)
+                .orElseThrow(() -> new RuntimeException("Không tìm thấy lớp với ID: " + classId));
+
+        if (classStudentRepository.findByClassIdAndStudentId(classId, studentId).isPresent()) {
+            throw new RuntimeException("Sinh viên đã đăng ký lớp này");
+        }
+
+        Integer existingPosition = getWaitlistPosition(studentId, classId);
+        if (existingPosition != null) {
+            return existingPosition;
+        }
+
+        // Cấp ticket mới; UPDATE giữ khóa dòng classes nên các ticket của một lớp luôn liên tục
+        courseRepository.incrementWaitlistTail(classId);
+        Long ticket = courseRepository.findWaitlistTail(classId);
+
+        WaitlistEntry entry = new WaitlistEntry();
+        entry.setClassId(classId);
+        entry.setStudentId(studentId);
+        entry.setTicket(ticket);
+        waitlistEntryRepository.save(entry);
+
+        // Lớp có thể vừa có chỗ trống giữa lúc đăng ký thất bại và lúc vào hàng chờ
+        if (seatReservationService.getAvailableSeats(classId) > 0) {
+            eventPublisher.publishEvent(new SeatReleasedEvent(classId));
+        }
+
+        return getWaitlistPosition(studentId, classId);
+    }
+
+    @Override
+    public void leaveWaitlist(Long studentId, Long classId) {
+        // Khóa dòng classes trước khi đọc ticket để không xen kẽ với việc cấp ticket hoặc chuyển hàng chờ:
+        // ticket đọc trước khóa có thể vừa được chuyển vào lớp và xóa khỏi hàng chờ
+        if (courseRepository.findByIdForUpdate(classId).isEmpty()) {
+            throw new RuntimeException("Không tìm thấy lớp với ID: " + classId);
+        }
+        WaitlistEntry entry = waitlistEntryRepository.findByClassIdAndStudentId(classId, studentId)
+                .orElseThrow(() -> new RuntimeException("Sinh viên không có trong hàng chờ của lớp này"));
+        
+        courseRepository.decrementWaitlistTail(classId);
+        waitlistEntryRepository.delete(entry);
+        waitlistEntryRepository.shiftTicketsAfter(classId, entry.getTicket());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Integer getWaitlistPosition(Long studentId, Long classId) {
+        return waitlistEntryRepository.findPosition(classId, studentId)
+                .map(position -> position.getPosition().intValue())
+                .orElse(null);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Map<Long, Integer> getWaitlistPositions(Long studentId) {
+        return waitlistEntryRepository.findPositionsByStudentId(studentId).stream()
+                .collect(Collectors.toMap(WaitlistPosition::getClassId,
+                        position -> position.getPosition().intValue()));
+    }
+
+    @Override
+    public int promote(Long classId) {
+        if (courseRepository.findByIdForUpdate(classId).isEmpty()) {
+            return 0;
+        }
+
+        int promoted = 0;
+        while (true) {
+            int seats = seatReservationService.getAvailableSeats(classId);
+            if (seats <= 0) {
+                break;
+            }
+
+            List<WaitlistEntry> batch = waitlistEntryRepository.findHeadByClassId(
+                    classId, PageRequest.of(0, Math.min(seats, promotionBatchSize)));
+            if (batch.isEmpty()) {
+                break;
+            }
+
+            Set<Long> alreadyEnrolled = new HashSet<>(classStudentRepository.findStudentIdsByClassIdAndStudentIdIn(
+                    classId, batch.stream().map(WaitlistEntry::getStudentId).collect(Collectors.toList())));
+
+            List<ClassStudent> enrollments = new ArrayList<>();
+            int consumed = 0;
+            for (WaitlistEntry entry : batch) {
+                if (!alreadyEnrolled.contains(entry.getStudentId())) {
+                    if (!seatReservationService.tryReserve(classId)) {
+                        break;
+                    }
+                    ClassStudent classStudent = new ClassStudent();
+                    classStudent.setClassId(classId);
+                    classStudent.setStudentId(entry.getStudentId());
+                    enrollments.add(classStudent);
+                }
+                consumed++;
+            }
+
+            if (consumed == 0) {
+                break;
+            }
+
+            classStudentRepository.saveAll(enrollments);
+            waitlistEntryRepository.deleteAllInBatch(batch.subList(0, consumed));
+            courseRepository.advanceWaitlistHead(classId, consumed);
+            promoted += enrollments.size();
+
+            if (consumed < batch.size()) {
+                break;
+            }
+        }
+
+        return promoted;
+    }
+
+    @Override
+    public void clearWaitlist(Long classId) {
+        waitlistEntryRepository.deleteByClassId(classId);
+    }
+}
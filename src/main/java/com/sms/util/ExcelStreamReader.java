@@ -0,0 +1,103 @@
+package com.sms.util;
+
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFComment;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Đọc sheet đầu tiên của file .xlsx theo từng dòng bằng SAX, không dựng toàn bộ workbook trong bộ nhớ.
+ */
+public final class ExcelStreamReader {
+
+    private ExcelStreamReader() {
+    }
+
+    public static void readRows(InputStream inputStream, Consumer<ExcelRow> rowConsumer) throws IOException {
+        try (OPCPackage pkg = OPCPackage.open(inputStream)) {
+            XSSFReader reader = new XSSFReader(pkg);
+            ReadOnlySharedStringsTable strings = new ReadOnlySharedStringsTable(pkg);
+            StylesTable styles = reader.getStylesTable();
+
+            XSSFReader.SheetIterator sheets = (XSSFReader.SheetIterator) reader.getSheetsData();
+            if (!sheets.hasNext()) {
+                return;
+            }
+
+            try (InputStream sheet = sheets.next()) {
+                XMLReader parser = XMLHelper.newXMLReader();
+                parser.setContentHandler(new XSSFSheetXMLHandler(
+                        styles, null, strings, new RowCollector(rowConsumer), new DataFormatter(), false));
+                parser.parse(new InputSource(sheet));
+            }
+        } catch (OpenXML4JException | SAXException | ParserConfigurationException e) {
+            throw new IOException("File không đúng định dạng .xlsx: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Một dòng trong sheet; rowIndex bắt đầu từ 0 như trong POI
+     */
+    public static final class ExcelRow {
+        private final int rowIndex;
+        private final Map<Integer, String> cells;
+
+        ExcelRow(int rowIndex, Map<Integer, String> cells) {
+            this.rowIndex = rowIndex;
+            this.cells = cells;
+        }
+
+        public int getRowIndex() {
+            return rowIndex;
+        }
+
+        public String getCell(int columnIndex) {
+            return cells.get(columnIndex);
+        }
+    }
+
+    private static final class RowCollector implements XSSFSheetXMLHandler.SheetContentsHandler {
+        private final Consumer<ExcelRow> rowConsumer;
+        private Map<Integer, String> cells;
+        private int lastColumn;
+
+        RowCollector(Consumer<ExcelRow> rowConsumer) {
+            this.rowConsumer = rowConsumer;
+        }
+
+        @Override
+        public void startRow(int rowNum) {
+            cells = new HashMap<>();
+            lastColumn = -1;
+        }
+
+        @Override
+        public void endRow(int rowNum) {
+            rowConsumer.accept(new ExcelRow(rowNum, cells));
+        }
+
+        @Override
+        public void cell(String cellReference, String formattedValue, XSSFComment comment) {
+            // Một số file không ghi tham chiếu ô, khi đó lấy cột kế tiếp
+            int column = cellReference != null ? new CellReference(cellReference).getCol() : lastColumn + 1;
+            lastColumn = column;
+            cells.put(column, formattedValue);
+        }
+    }
+}
@@ -0,0 +1,271 @@
+package com.sms.util;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Công thức tính điểm tổng kết của môn học từ điểm giữa kỳ (midterm), cuối kỳ (final) và điểm khác (other),
+ * ví dụ "0.2 * midterm + 0.5 * final + 0.3 * other". Hỗ trợ + - * /, dấu ngoặc và hàm min, max.
+ *
+ * Công thức được phân tích một lần thành cây biểu thức rồi dùng lại cho mọi lần tính. Môn học không có công thức
+ * dùng trung bình cộng các điểm thành phần đã nhập như trước đây.
+ */
+public final class GradeFormula {
+
+    private static final GradeFormula DEFAULT = new GradeFormula(null, null, 0b111);
+
+    private static final int MAX_COMPILED = 256;
+
+    // Khóa theo nội dung công thức, gồm cả công thức cũ của môn học đã sửa và công thức chỉ được kiểm tra rồi không
+    // lưu, nên giữ các công thức dùng gần nhất và bỏ công thức lâu không dùng (LRU)
+    private static final Map<String, GradeFormula> COMPILED = new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, GradeFormula> eldest) {
+            return size() > MAX_COMPILED;
+        }
+    };
+
+    private static final int MIDTERM = 0b001;
+    private static final int FINAL = 0b010;
+    private static final int OTHER = 0b100;
+
+    private final String source;
+    private final Node root;
+    private final int variables;
+
+    private GradeFormula(String source, Node root, int variables) {
+        this.source = source;
+        this.root = root;
+        this.variables = variables;
+    }
+
+    /**
+     * Lấy công thức đã biên dịch, công thức rỗng là trung bình cộng. Ném RuntimeException nếu công thức không hợp lệ
+     */
+    public static GradeFormula of(String source) {
+        if (source == null || source.isBlank()) {
+            return DEFAULT;
+        }
+        String key = source.trim();
+        synchronized (COMPILED) {
+            GradeFormula cached = COMPILED.get(key);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        // Biên dịch ngoài khóa; hai luồng cùng biên dịch một công thức chỉ tốn thêm một lần phân tích
+        GradeFormula compiled = compile(key);
+        synchronized (COMPILED) {
+            COMPILED.put(key, compiled);
+        }
+        return compiled;
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    /**
+     * Điểm tổng kết làm tròn 2 chữ số, null khi chưa nhập điểm thành phần nào mà công thức dùng.
+     * Điểm thành phần chưa nhập được tính là 0
+     */
+    public Float evaluate(Float midterm, Float finalGrade, Float other) {
+        if (root == null) {
+            return average(midterm, finalGrade, other);
+        }
+        if (((variables & MIDTERM) == 0 || midterm == null)
+                && ((variables & FINAL) == 0 || finalGrade == null)
+                && ((variables & OTHER) == 0 || other == null)) {
+            return null;
+        }
+
+        double value = root.eval(
+                midterm != null ? midterm : 0,
+                finalGrade != null ? finalGrade : 0,
+                other != null ? other : 0);
+        if (!Double.isFinite(value)) {
+            return null;
+        }
+        value = Math.max(0, Math.min(10, value));
+        return (float) (Math.round(value * 100) / 100.0);
+    }
+
+    private static Float average(Float midterm, Float finalGrade, Float other) {
+        if (midterm == null && finalGrade == null && other == null) {
+            return null;
+        }
+
+        float total = 0f;
+        int count = 0;
+        if (midterm != null) {
+            total += midterm;
+            count++;
+        }
+        if (finalGrade != null) {
+            total += finalGrade;
+            count++;
+        }
+        if (other != null) {
+            total += other;
+            count++;
+        }
+        return total / count;
+    }
+
+    private static GradeFormula compile(String source) {
+        Parser parser = new Parser(source);
+        Node root = parser.parseExpression();
+        parser.skipSpaces();
+        if (parser.position < source.length()) {
+            throw invalid(source, "ký tự không mong đợi '" + source.charAt(parser.position) + "'");
+        }
+        if (parser.variables == 0) {
+            throw invalid(source, "công thức phải dùng ít nhất một trong midterm, final, other");
+        }
+        // Điểm tối đa ở mọi thành phần không được vượt thang điểm 10
+        double max = root.eval(10, 10, 10);
+        if (!Double.isFinite(max) || max > 10.0001) {
+            throw new RuntimeException("Công thức tính điểm phải cho kết quả trong thang điểm 10: " + source);
+        }
+        return new GradeFormula(source, root, parser.variables);
+    }
+
+    private static RuntimeException invalid(String source, String reason) {
+        return new RuntimeException("Công thức tính điểm không hợp lệ (" + reason + "): " + source);
+    }
+
+    @FunctionalInterface
+    private interface Node {
+        double eval(double midterm, double finalGrade, double other);
+    }
+
+    /**
+     * Phân tích đệ quy xuống: expression := term (('+' | '-') term)*, term := factor (('*' | '/') factor)*
+     */
+    private static final class Parser {
+        private final String source;
+        private int position;
+        private int variables;
+
+        Parser(String source) {
+            this.source = source;
+        }
+
+        Node parseExpression() {
+            Node left = parseTerm();
+            while (true) {
+                if (consume('+')) {
+                    Node a = left, b = parseTerm();
+                    left = (m, f, o) -> a.eval(m, f, o) + b.eval(m, f, o);
+                } else if (consume('-')) {
+                    Node a = left, b = parseTerm();
+                    left = (m, f, o) -> a.eval(m, f, o) - b.eval(m, f, o);
+                } else {
+                    return left;
+                }
+            }
+        }
+
+        Node parseTerm() {
+            Node left = parseFactor();
+            while (true) {
+                if (consume('*')) {
+                    Node a = left, b = parseFactor();
+                    left = (m, f, o) -> a.eval(m, f, o) * b.eval(m, f, o);
+                } else if (consume('/')) {
+                    Node a = left, b = parseFactor();
+                    left = (m, f, o) -> a.eval(m, f, o) / b.eval(m, f, o);
+                } else {
+                    return left;
+                }
+            }
+        }
+
+        Node parseFactor() {
+            if (consume('-')) {
+                Node operand = parseFactor();
+                return (m, f, o) -> -operand.eval(m, f, o);
+            }
+            if (consume('(')) {
+                Node inner = parseExpression();
+                expect(')');
+                return inner;
+            }
+
+            skipSpaces();
+            int start = position;
+            if (position < source.length()
+                    && (Character.isDigit(source.charAt(position)) || source.charAt(position) == '.')) {
+                while (position < source.length()
+                        && (Character.isDigit(source.charAt(position)) || source.charAt(position) == '.')) {
+                    position++;
+                }
+                double value;
+                try {
+                    value = Double.parseDouble(source.substring(start, position));
+                } catch (NumberFormatException e) {
+                    throw invalid(source, "số không hợp lệ '" + source.substring(start, position) + "'");
+                }
+                return (m, f, o) -> value;
+            }
+
+            while (position < source.length() && Character.isLetter(source.charAt(position))) {
+                position++;
+            }
+            String name = source.substring(start, position).toLowerCase(Locale.ROOT);
+            switch (name) {
+                case "midterm":
+                    variables |= MIDTERM;
+                    return (m, f, o) -> m;
+                case "final":
+                    variables |= FINAL;
+                    return (m, f, o) -> f;
+                case "other":
+                    variables |= OTHER;
+                    return (m, f, o) -> o;
+                case "min":
+                case "max":
+                    return parseFunction(name);
+                case "":
+                    throw invalid(source, "thiếu toán hạng ở vị trí " + (position + 1));
+                default:
+                    throw invalid(source, "không biết '" + name + "'");
+            }
+        }
+
+        private Node parseFunction(String name) {
+            expect('(');
+            Node result = parseExpression();
+            while (consume(',')) {
+                Node a = result, b = parseExpression();
+                result = "min".equals(name)
+                        ? (m, f, o) -> Math.min(a.eval(m, f, o), b.eval(m, f, o))
+                        : (m, f, o) -> Math.max(a.eval(m, f, o), b.eval(m, f, o));
+            }
+            expect(')');
+            return result;
+        }
+
+        private boolean consume(char expected) {
+            skipSpaces();
+            if (position < source.length() && source.charAt(position) == expected) {
+                position++;
+                return true;
+            }
+            return false;
+        }
+
+        private void expect(char expected) {
+            if (!consume(expected)) {
+                throw invalid(source, "thiếu '" + expected + "'");
+            }
+        }
+
+        void skipSpaces() {
+            while (position < source.length() && Character.isWhitespace(source.charAt(position))) {
+                position++;
+            }
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.sms.util;
+
+import com.itextpdf.html2pdf.ConverterProperties;
+import com.itextpdf.html2pdf.HtmlConverter;
+import com.itextpdf.html2pdf.resolver.font.DefaultFontProvider;
+import com.itextpdf.layout.font.FontProvider;
+import com.itextpdf.layout.font.FontSet;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+
+/**
+ * Chuyển HTML sang PDF bằng html2pdf với font Noto Sans đi kèm thư viện (đủ dấu tiếng Việt).
+ *
+ * Việc nạp font chỉ làm một lần, mỗi lần chuyển tạo FontProvider mới trên FontSet dùng chung vì FontProvider
+ * giữ cache chọn font không an toàn khi dùng từ nhiều thread.
+ */
+public final class HtmlPdf {
+
+    public static final String FONT_FAMILY = "Noto Sans";
+
+    private HtmlPdf() {
+    }
+
+    public static void convert(String html, OutputStream output) {
+        ConverterProperties properties = new ConverterProperties();
+        properties.setFontProvider(new FontProvider(Fonts.SHIPPED, FONT_FAMILY));
+        HtmlConverter.convertToPdf(html, output, properties);
+    }
+
+    public static byte[] convert(String html) {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        convert(html, output);
+        return output.toByteArray();
+    }
+
+    private static final class Fonts {
+        // Không nạp font PDF chuẩn và font hệ thống, chỉ dùng font đóng gói trong html2pdf
+        static final FontSet SHIPPED = new DefaultFontProvider(false, true, false).getFontSet();
+    }
+}
@@ -0,0 +1,46 @@
+package com.sms.util;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bộ đếm tiến độ của một lần import, được cập nhật từ luồng xử lý và đọc từ các yêu cầu hỏi trạng thái
+ */
+public class ImportProgress {
+
+    private final AtomicInteger rowsRead = new AtomicInteger();
+    private final AtomicInteger inserted = new AtomicInteger();
+    private final AtomicInteger skipped = new AtomicInteger();
+    private final AtomicInteger failed = new AtomicInteger();
+
+    public void rowRead() {
+        rowsRead.incrementAndGet();
+    }
+
+    public void addInserted(int count) {
+        inserted.addAndGet(count);
+    }
+
+    public void addSkipped(int count) {
+        skipped.addAndGet(count);
+    }
+
+    public void addFailed(int count) {
+        failed.addAndGet(count);
+    }
+
+    public int getRowsRead() {
+        return rowsRead.get();
+    }
+
+    public int getInserted() {
+        return inserted.get();
+    }
+
+    public int getSkipped() {
+        return skipped.get();
+    }
+
+    public int getFailed() {
+        return failed.get();
+    }
+}
@@ -50,6 +50,21 @@ class TeacherFeaturesControllerTest {
     @MockBean
     private AttendanceService attendanceService;
 
+    @MockBean
+    private AttendanceAnalyticsService attendanceAnalyticsService;
+
+    @MockBean
+    private AttendanceSyncService attendanceSyncService;
+
+    @MockBean
+    private GradeStatisticsService gradeStatisticsService;
+
+    @MockBean
+    private RankingService rankingService;
+
+    @MockBean
+    private GradeAuditService gradeAuditService;
+
     @MockBean
     private SubmissionService submissionService;
 
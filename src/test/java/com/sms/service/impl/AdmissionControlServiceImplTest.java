@@ -0,0 +1,147 @@
+package com.sms.service.impl;
+
+import com.sms.dto.response.AdmissionTicketResponse;
+import com.sms.entity.Semester;
+import com.sms.repository.SemesterRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AdmissionControlServiceImplTest {
+
+    @Mock
+    private SemesterRepository semesterRepository;
+
+    @InjectMocks
+    private AdmissionControlServiceImpl admissionControlService;
+
+    private Semester openSemester;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(admissionControlService, "enabled", true);
+        ReflectionTestUtils.setField(admissionControlService, "ratePerSecond", 1000.0);
+        ReflectionTestUtils.setField(admissionControlService, "burst", 1000);
+        ReflectionTestUtils.setField(admissionControlService, "defaultConcurrency", 40);
+        ReflectionTestUtils.setField(admissionControlService, "holdSeconds", 10L);
+        ReflectionTestUtils.setField(admissionControlService, "ticketTtlSeconds", 120L);
+        ReflectionTestUtils.setField(admissionControlService, "semesterRefreshSeconds", 30L);
+
+        openSemester = new Semester();
+        openSemester.setId(1L);
+        openSemester.setName("HK1-2024");
+        openSemester.setIsOpen(true);
+        openSemester.setStartDate(LocalDate.of(2024, 9, 1));
+        openSemester.setRegistrationConcurrency(2);
+    }
+
+    @Test
+    void tryAdmit_WhenNoSemesterOpen_ShouldAdmitWithoutGate() {
+        // Given
+        when(semesterRepository.findByIsOpenTrue()).thenReturn(Collections.emptyList());
+
+        // When
+        AdmissionTicketResponse result = admissionControlService.tryAdmit(null);
+
+        // Then
+        assertEquals("ADMITTED", result.getStatus());
+        assertNull(result.getSemesterId());
+    }
+
+    @Test
+    void tryAdmit_WhenConcurrencyExhausted_ShouldQueueInArrivalOrder() {
+        // Given
+        when(semesterRepository.findByIsOpenTrue()).thenReturn(Arrays.asList(openSemester));
+        admissionControlService.tryAdmit(null);
+        admissionControlService.tryAdmit(null);
+
+        // When
+        AdmissionTicketResponse first = admissionControlService.tryAdmit(null);
+        AdmissionTicketResponse second = admissionControlService.tryAdmit(null);
+
+        // Then
+        assertEquals("WAITING", first.getStatus());
+        assertEquals("WAITING", second.getStatus());
+        assertNotNull(first.getTicketId());
+        assertEquals(1L, first.getPosition());
+        assertEquals(2L, second.getPosition());
+        verify(semesterRepository, times(1)).findByIsOpenTrue();
+    }
+
+    @Test
+    void tryAdmit_WithTicketAfterRelease_ShouldAdmitTicketHolder() {
+        // Given
+        when(semesterRepository.findByIsOpenTrue()).thenReturn(Arrays.asList(openSemester));
+        admissionControlService.tryAdmit(null);
+        admissionControlService.tryAdmit(null);
+        AdmissionTicketResponse waiting = admissionControlService.tryAdmit(null);
+
+        // When
+        admissionControlService.release(1L);
+        AdmissionTicketResponse result = admissionControlService.tryAdmit(waiting.getTicketId());
+
+        // Then
+        assertEquals("ADMITTED", result.getStatus());
+        assertEquals(1L, result.getSemesterId());
+        assertNull(admissionControlService.getTicketStatus(waiting.getTicketId()));
+    }
+
+    @Test
+    void tryAdmit_WhenQueueNotEmpty_ShouldNotLetNewcomersSkipAhead() {
+        // Given
+        openSemester.setRegistrationConcurrency(1);
+        when(semesterRepository.findByIsOpenTrue()).thenReturn(Arrays.asList(openSemester));
+        ReflectionTestUtils.setField(admissionControlService, "ratePerSecond", 0.0001);
+        ReflectionTestUtils.setField(admissionControlService, "burst", 1);
+        admissionControlService.tryAdmit(null);
+        admissionControlService.release(1L);
+
+        // When
+        AdmissionTicketResponse queued = admissionControlService.tryAdmit(null);
+        AdmissionTicketResponse newcomer = admissionControlService.tryAdmit(null);
+
+        // Then
+        assertEquals("WAITING", queued.getStatus());
+        assertEquals("WAITING", newcomer.getStatus());
+        assertEquals(1L, queued.getPosition());
+        assertEquals(2L, newcomer.getPosition());
+        assertEquals(1L, admissionControlService.getTicketStatus(queued.getTicketId()).getPosition());
+    }
+
+    @Test
+    void tryAdmit_WithExpiredHeldTicket_ShouldRequeueBehindWaitingTickets() throws InterruptedException {
+        // Given: vé đầu đã đến lượt nhưng không quay lại trong thời gian giữ chỗ
+        openSemester.setRegistrationConcurrency(1);
+        when(semesterRepository.findByIsOpenTrue()).thenReturn(Arrays.asList(openSemester));
+        ReflectionTestUtils.setField(admissionControlService, "holdSeconds", 0L);
+        admissionControlService.tryAdmit(null);
+        AdmissionTicketResponse first = admissionControlService.tryAdmit(null);
+        admissionControlService.tryAdmit(null);
+        admissionControlService.release(1L);
+        assertEquals("ADMITTED", admissionControlService.getTicketStatus(first.getTicketId()).getStatus());
+        Thread.sleep(5);
+
+        // When
+        AdmissionTicketResponse late = admissionControlService.tryAdmit(first.getTicketId());
+
+        // Then: vé sau được nhận lượt, vé trễ xếp lại cuối hàng và vẫn vào được khi đến lượt
+        assertEquals("WAITING", late.getStatus());
+        assertEquals(first.getTicketId(), late.getTicketId());
+        assertEquals(1L, late.getPosition());
+        Thread.sleep(5);
+        AdmissionTicketResponse retried = admissionControlService.tryAdmit(first.getTicketId());
+        assertEquals("ADMITTED", retried.getStatus());
+    }
+}
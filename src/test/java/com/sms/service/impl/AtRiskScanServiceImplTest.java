@@ -0,0 +1,180 @@
+package com.sms.service.impl;
+
+import com.sms.dto.response.AtRiskScanResponse;
+import com.sms.dto.response.AtRiskStudentListResponse;
+import com.sms.entity.AtRiskStudent;
+import com.sms.entity.Semester;
+import com.sms.repository.AtRiskStudentRepository;
+import com.sms.repository.AttendanceSummaryRepository;
+import com.sms.repository.SemesterRepository;
+import com.sms.repository.projection.EnrollmentAttendanceCount;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AtRiskScanServiceImplTest {
+
+    @Mock
+    private AttendanceSummaryRepository attendanceSummaryRepository;
+
+    @Mock
+    private AtRiskStudentRepository atRiskStudentRepository;
+
+    @Mock
+    private SemesterRepository semesterRepository;
+
+    @InjectMocks
+    private AtRiskScanServiceImpl atRiskScanService;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        ReflectionTestUtils.setField(atRiskScanService, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(atRiskScanService, "absentRatio", 0.2);
+        ReflectionTestUtils.setField(atRiskScanService, "lateRatio", 0.3);
+        ReflectionTestUtils.setField(atRiskScanService, "absentCount", 4);
+        ReflectionTestUtils.setField(atRiskScanService, "minSessions", 3);
+        ReflectionTestUtils.setField(atRiskScanService, "parallelism", 2);
+        // Chia nhỏ để lượt quét thật sự đi qua nhánh fork
+        ReflectionTestUtils.setField(atRiskScanService, "partitionSize", 1);
+        atRiskScanService.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        atRiskScanService.shutdown();
+    }
+
+    private EnrollmentAttendanceCount count(Long classId, Long studentId, int sessions, int absent, int late) {
+        return new EnrollmentAttendanceCount() {
+            @Override
+            public Long getClassId() {
+                return classId;
+            }
+
+            @Override
+            public Long getStudentId() {
+                return studentId;
+            }
+
+            @Override
+            public Integer getTotalSessions() {
+                return sessions;
+            }
+
+            @Override
+            public Integer getPresentCount() {
+                return sessions - absent - late;
+            }
+
+            @Override
+            public Integer getAbsentCount() {
+                return absent;
+            }
+
+            @Override
+            public Integer getLateCount() {
+                return late;
+            }
+        };
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void scanSemester_ShouldFlagRulesAcrossPartitions() {
+        // Given
+        List<EnrollmentAttendanceCount> counts = Arrays.asList(
+                count(1L, 1L, 10, 5, 0),
+                count(1L, 2L, 10, 1, 4),
+                count(1L, 3L, 10, 2, 0),
+                count(2L, 1L, 2, 2, 0),
+                count(3L, 4L, 5, 0, 0));
+        when(attendanceSummaryRepository.streamActiveBySemesterId(1L)).thenReturn(counts.stream());
+
+        // When
+        AtRiskScanResponse result = atRiskScanService.scanSemester(1L);
+
+        // Then
+        assertEquals(3, result.getClassCount());
+        assertEquals(5L, result.getEnrollmentCount());
+        assertEquals(3, result.getFlaggedCount());
+        assertEquals(LocalDate.now(), result.getScanDate());
+
+        ArgumentCaptor<List<AtRiskStudent>> captor = ArgumentCaptor.forClass(List.class);
+        verify(atRiskStudentRepository).deleteBySemesterIdAndScanDate(1L, LocalDate.now());
+        verify(atRiskStudentRepository).saveAll(captor.capture());
+        Set<String> flagged = captor.getValue().stream()
+                .map(student -> student.getStudentId() + ":" + student.getRule())
+                .collect(Collectors.toSet());
+        // Lớp 2 mới có 2 buổi nên chưa xét
+        assertEquals(Set.of("1:ABSENT_RATIO", "1:ABSENT_COUNT", "2:LATE_RATIO"), flagged);
+        assertTrue(captor.getValue().stream().allMatch(student -> student.getSemesterId().equals(1L)));
+
+        assertEquals(1L, meterRegistry.get("attendance.at_risk.scan.duration").timer().count());
+        assertEquals(5.0, meterRegistry.get("attendance.at_risk.scan.rows").counter().count());
+        assertNotNull(meterRegistry.get("attendance.at_risk.scan.rows_per_second").gauge());
+    }
+
+    @Test
+    void scanCurrentSemester_OutsideSemester_ShouldReturnNull() {
+        // Given
+        when(semesterRepository.findByDate(any(LocalDate.class))).thenReturn(Optional.empty());
+
+        // When
+        AtRiskScanResponse result = atRiskScanService.scanCurrentSemester();
+
+        // Then
+        assertNull(result);
+        verify(attendanceSummaryRepository, never()).streamActiveBySemesterId(any());
+    }
+
+    @Test
+    void scanCurrentSemester_ShouldScanSemesterOfToday() {
+        // Given
+        Semester semester = new Semester();
+        semester.setId(2L);
+        when(semesterRepository.findByDate(any(LocalDate.class))).thenReturn(Optional.of(semester));
+        when(attendanceSummaryRepository.streamActiveBySemesterId(2L))
+                .thenReturn(new ArrayList<EnrollmentAttendanceCount>().stream());
+
+        // When
+        AtRiskScanResponse result = atRiskScanService.scanCurrentSemester();
+
+        // Then
+        assertEquals(2L, result.getSemesterId());
+        assertEquals(0, result.getFlaggedCount());
+    }
+
+    @Test
+    void getAtRiskStudents_WithoutScan_ShouldReturnEmptyPage() {
+        // Given
+        when(atRiskStudentRepository.findLatestScanDate(1L)).thenReturn(Optional.empty());
+
+        // When
+        AtRiskStudentListResponse result = atRiskScanService.getAtRiskStudents(1L, null, PageRequest.of(0, 20));
+
+        // Then
+        assertNull(result.getScanDate());
+        assertTrue(result.getStudents().isEmpty());
+        verify(atRiskStudentRepository, never()).findEntries(any(), any(), any());
+    }
+}
@@ -0,0 +1,170 @@
+package com.sms.service.impl;
+
+import com.sms.dto.response.AttendanceRateResponse;
+import com.sms.entity.Course;
+import com.sms.repository.AttendanceRepository;
+import com.sms.repository.CourseRepository;
+import com.sms.repository.projection.AttendanceCell;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AttendanceAnalyticsServiceImplTest {
+
+    @Mock
+    private AttendanceRepository attendanceRepository;
+
+    @Mock
+    private CourseRepository courseRepository;
+
+    @InjectMocks
+    private AttendanceAnalyticsServiceImpl attendanceAnalyticsService;
+
+    private static final LocalDate START = LocalDate.of(2024, 9, 2);
+
+    private List<AttendanceCell> semesterCells;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(attendanceAnalyticsService, "maxAgeMinutes", 60L);
+
+        Course javaClass = new Course();
+        javaClass.setId(1L);
+        javaClass.setSemesterId(1L);
+        lenient().when(courseRepository.findById(1L)).thenReturn(Optional.of(javaClass));
+        lenient().when(courseRepository.findAllById(anyCollection())).thenReturn(Arrays.asList(javaClass));
+
+        // Lớp 1 có 5 buổi, lớp 2 có 2 buổi
+        semesterCells = new ArrayList<>();
+        String[] first = {"present", "absent", "absent", "present", "absent"};
+        String[] second = {"present", "present", "late", "present", "present"};
+        for (int i = 0; i < 5; i++) {
+            semesterCells.add(cell(1L, 1L, START.plusWeeks(i), first[i]));
+            semesterCells.add(cell(1L, 2L, START.plusWeeks(i), second[i]));
+        }
+        semesterCells.add(cell(2L, 1L, START, "present"));
+        semesterCells.add(cell(2L, 1L, START.plusDays(1), "present"));
+    }
+
+    private AttendanceCell cell(Long classId, Long studentId, LocalDate date, String status) {
+        return new AttendanceCell() {
+            @Override
+            public Long getClassId() {
+                return classId;
+            }
+
+            @Override
+            public Long getStudentId() {
+                return studentId;
+            }
+
+            @Override
+            public LocalDate getAttendanceDate() {
+                return date;
+            }
+
+            @Override
+            public String getStatus() {
+                return status;
+            }
+        };
+    }
+
+    @Test
+    void getClassRates_ShouldCountBitsAndStreaks() {
+        // Given
+        when(attendanceRepository.streamCellsBySemesterId(1L)).thenReturn(semesterCells.stream());
+
+        // When
+        List<AttendanceRateResponse> result = attendanceAnalyticsService.getClassRates(1L);
+
+        // Then
+        assertEquals(2, result.size());
+        AttendanceRateResponse first = result.get(0);
+        assertEquals(1L, first.getStudentId());
+        assertEquals(5, first.getTotalSessions());
+        assertEquals(2, first.getPresentCount());
+        assertEquals(3, first.getAbsentCount());
+        assertEquals(40.0, first.getAttendanceRate());
+        assertEquals(60.0, first.getAbsentRate());
+        assertEquals(1, first.getCurrentAbsentStreak());
+        assertEquals(2, first.getLongestAbsentStreak());
+
+        AttendanceRateResponse second = result.get(1);
+        assertEquals(1, second.getLateCount());
+        assertEquals(0, second.getLongestAbsentStreak());
+    }
+
+    @Test
+    void getStudentRates_ShouldReturnEveryClassOfSemester() {
+        // Given
+        when(attendanceRepository.streamCellsBySemesterId(1L)).thenReturn(semesterCells.stream());
+
+        // When
+        List<AttendanceRateResponse> result = attendanceAnalyticsService.getStudentRates(1L, 1L);
+
+        // Then
+        assertEquals(2, result.size());
+        assertEquals(2L, result.get(1).getClassId());
+        assertEquals(100.0, result.get(1).getAttendanceRate());
+    }
+
+    @Test
+    void findAbsentAbove_ShouldFilterByThresholdAndReuseIndex() {
+        // Given
+        when(attendanceRepository.streamCellsBySemesterId(1L)).thenReturn(semesterCells.stream());
+
+        // When
+        List<AttendanceRateResponse> strict = attendanceAnalyticsService.findAbsentAbove(1L, 0.2);
+        List<AttendanceRateResponse> none = attendanceAnalyticsService.findAbsentAbove(1L, 0.6);
+
+        // Then
+        assertEquals(1, strict.size());
+        assertEquals(1L, strict.get(0).getStudentId());
+        assertEquals(1L, strict.get(0).getClassId());
+        assertTrue(none.isEmpty());
+        verify(attendanceRepository, times(1)).streamCellsBySemesterId(1L);
+    }
+
+    @Test
+    void invalidateClass_ShouldReloadOnlyChangedClass() {
+        // Given
+        when(attendanceRepository.streamCellsBySemesterId(1L)).thenReturn(semesterCells.stream());
+        attendanceAnalyticsService.getClassRates(1L);
+        List<AttendanceCell> reloaded = Arrays.asList(
+                cell(1L, 1L, START, "absent"),
+                cell(1L, 1L, START.plusWeeks(1), "absent"));
+        when(attendanceRepository.findCellsByClassId(1L)).thenReturn(reloaded);
+
+        // When
+        attendanceAnalyticsService.invalidateClass(1L);
+        List<AttendanceRateResponse> result = attendanceAnalyticsService.getClassRates(1L);
+
+        // Then
+        assertEquals(1, result.size());
+        assertEquals(2, result.get(0).getTotalSessions());
+        assertEquals(2, result.get(0).getCurrentAbsentStreak());
+        assertEquals(2, attendanceAnalyticsService.getStudentRates(1L, 1L).size());
+        verify(attendanceRepository, times(1)).streamCellsBySemesterId(1L);
+    }
+
+    @Test
+    void findAbsentAbove_WithInvalidRatio_ShouldThrowException() {
+        // When & Then
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> attendanceAnalyticsService.findAbsentAbove(1L, 1.5));
+        assertEquals("Ngưỡng vắng phải nằm trong khoảng từ 0 đến 1", exception.getMessage());
+    }
+}
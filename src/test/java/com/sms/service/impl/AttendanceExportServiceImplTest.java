@@ -0,0 +1,155 @@
+package com.sms.service.impl;
+
+import com.sms.entity.Semester;
+import com.sms.repository.AttendanceRepository;
+import com.sms.repository.SemesterRepository;
+import com.sms.repository.projection.AttendanceExportRow;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AttendanceExportServiceImplTest {
+
+    @Mock
+    private AttendanceRepository attendanceRepository;
+
+    @Mock
+    private SemesterRepository semesterRepository;
+
+    @InjectMocks
+    private AttendanceExportServiceImpl attendanceExportService;
+
+    private static final LocalDate DATE = LocalDate.of(2024, 9, 10);
+
+    private AttendanceExportRow row(String studentCode, String studentName, String status) {
+        return new AttendanceExportRow() {
+            @Override
+            public String getClassCode() {
+                return "JAVA01";
+            }
+
+            @Override
+            public String getSubjectCode() {
+                return "IT001";
+            }
+
+            @Override
+            public String getSubjectName() {
+                return "Lập trình Java";
+            }
+
+            @Override
+            public String getStudentCode() {
+                return studentCode;
+            }
+
+            @Override
+            public String getStudentName() {
+                return studentName;
+            }
+
+            @Override
+            public LocalDate getAttendanceDate() {
+                return DATE;
+            }
+
+            @Override
+            public String getStatus() {
+                return status;
+            }
+
+            @Override
+            public LocalDateTime getRecordedAt() {
+                return null;
+            }
+        };
+    }
+
+    private List<AttendanceExportRow> rows() {
+        return Arrays.asList(
+                row("SV001", "Nguyễn Văn A", "present"),
+                row("SV002", "Trần \"Bé\", B", "absent"));
+    }
+
+    @Test
+    void exportSemester_Csv_ShouldWriteHeaderAndEscapedRows() throws Exception {
+        // Given
+        when(attendanceRepository.streamExportRowsBySemesterId(1L, null)).thenReturn(rows().stream());
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        // When
+        long count = attendanceExportService.exportSemester(1L, null, "CSV", output);
+
+        // Then
+        assertEquals(2, count);
+        String[] lines = output.toString(StandardCharsets.UTF_8).split("\r\n");
+        assertEquals(3, lines.length);
+        assertTrue(lines[0].startsWith("﻿Mã lớp,"));
+        assertEquals("JAVA01,IT001,Lập trình Java,SV001,Nguyễn Văn A,2024-09-10,present,", lines[1]);
+        assertEquals("JAVA01,IT001,Lập trình Java,SV002,\"Trần \"\"Bé\"\", B\",2024-09-10,absent,", lines[2]);
+    }
+
+    @Test
+    void exportSemester_Xlsx_ShouldWriteReadableWorkbook() throws Exception {
+        // Given
+        when(attendanceRepository.streamExportRowsBySemesterId(1L, "CNTT")).thenReturn(rows().stream());
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        // When
+        long count = attendanceExportService.exportSemester(1L, "CNTT", "xlsx", output);
+
+        // Then
+        assertEquals(2, count);
+        try (XSSFWorkbook workbook = new XSSFWorkbook(new ByteArrayInputStream(output.toByteArray()))) {
+            Sheet sheet = workbook.getSheetAt(0);
+            assertEquals(2, sheet.getLastRowNum());
+            assertEquals("Mã sinh viên", sheet.getRow(0).getCell(3).getStringCellValue());
+            assertEquals("absent", sheet.getRow(2).getCell(6).getStringCellValue());
+        }
+    }
+
+    @Test
+    void prepareExport_ShouldBuildFileName() {
+        // Given
+        Semester semester = new Semester();
+        semester.setId(1L);
+        semester.setName("HK1 2024");
+        when(semesterRepository.findById(1L)).thenReturn(Optional.of(semester));
+
+        // When
+        String fileName = attendanceExportService.prepareExport(1L, "xlsx");
+
+        // Then
+        assertEquals("diem-danh-HK1_2024.xlsx", fileName);
+    }
+
+    @Test
+    void prepareExport_WithUnsupportedFormat_ShouldThrowException() {
+        // Given
+        Semester semester = new Semester();
+        semester.setName("HK1");
+        when(semesterRepository.findById(1L)).thenReturn(Optional.of(semester));
+
+        // When & Then
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> attendanceExportService.prepareExport(1L, "pdf"));
+        assertEquals("Định dạng xuất không hỗ trợ: pdf", exception.getMessage());
+    }
+}
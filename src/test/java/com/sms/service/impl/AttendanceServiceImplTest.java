@@ -0,0 +1,330 @@
+package com.sms.service.impl;
+
+import com.sms.dto.request.AttendanceRequest;
+import com.sms.dto.response.AttendanceMatrixResponse;
+import com.sms.dto.response.AttendanceReportResponse;
+import com.sms.dto.response.AttendanceResponse;
+import com.sms.entity.*;
+import com.sms.repository.*;
+import com.sms.repository.projection.AttendanceCell;
+import com.sms.repository.projection.RosterStudent;
+import com.sms.repository.projection.StudentAttendanceCount;
+import com.sms.service.AttendanceAnalyticsService;
+import com.sms.service.AttendanceSummaryService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AttendanceServiceImplTest {
+
+    @Mock
+    private AttendanceRepository attendanceRepository;
+
+    @Mock
+    private CourseRepository courseRepository;
+
+    @Mock
+    private SubjectRepository subjectRepository;
+
+    @Mock
+    private SemesterRepository semesterRepository;
+
+    @Mock
+    private StudentRepository studentRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private ClassStudentRepository classStudentRepository;
+
+    @Mock
+    private AttendanceSummaryRepository attendanceSummaryRepository;
+
+    @Mock
+    private AttendanceSummaryService attendanceSummaryService;
+
+    @Mock
+    private AttendanceAnalyticsService attendanceAnalyticsService;
+
+    @InjectMocks
+    private AttendanceServiceImpl attendanceService;
+
+    private static final LocalDate DATE = LocalDate.of(2024, 9, 10);
+    private static final LocalDateTime RECORDED_AT = LocalDateTime.of(2024, 9, 10, 8, 0);
+
+    private Course testClass;
+
+    @BeforeEach
+    void setUp() {
+        testClass = new Course();
+        testClass.setId(1L);
+        testClass.setClassCode("CS101");
+        testClass.setSubjectId(1L);
+
+        Subject subject = new Subject();
+        subject.setId(1L);
+        subject.setSubjectName("Lập trình Java");
+
+        List<Student> students = new ArrayList<>();
+        List<User> users = new ArrayList<>();
+        for (long id = 1; id <= 3; id++) {
+            Student student = new Student();
+            student.setId(id);
+            student.setUserId(id + 10);
+            student.setStudentCode("SV00" + id);
+            students.add(student);
+            User user = new User();
+            user.setId(id + 10);
+            user.setFullName("Sinh viên " + id);
+            users.add(user);
+        }
+
+        lenient().when(courseRepository.findById(1L)).thenReturn(Optional.of(testClass));
+        lenient().when(subjectRepository.findById(1L)).thenReturn(Optional.of(subject));
+        lenient().when(studentRepository.findAllById(anyCollection())).thenReturn(students);
+        lenient().when(userRepository.findAllById(anyCollection())).thenReturn(users);
+    }
+
+    private Attendance attendance(Long id, Long studentId, String status) {
+        return new Attendance(id, 1L, studentId, DATE, status, RECORDED_AT);
+    }
+
+    private AttendanceCell cell(Long studentId, LocalDate date, String status) {
+        AttendanceCell cell = mock(AttendanceCell.class);
+        when(cell.getStudentId()).thenReturn(studentId);
+        when(cell.getAttendanceDate()).thenReturn(date);
+        when(cell.getStatus()).thenReturn(status);
+        return cell;
+    }
+
+    private RosterStudent rosterStudent(Long studentId, String studentCode, String studentName) {
+        RosterStudent student = mock(RosterStudent.class);
+        when(student.getStudentId()).thenReturn(studentId);
+        when(student.getStudentCode()).thenReturn(studentCode);
+        when(student.getStudentName()).thenReturn(studentName);
+        return student;
+    }
+
+    private AttendanceRequest request(Object... studentStatuses) {
+        List<AttendanceRequest.StudentAttendanceRequest> items = new ArrayList<>();
+        for (int i = 0; i < studentStatuses.length; i += 2) {
+            items.add(new AttendanceRequest.StudentAttendanceRequest(
+                    (Long) studentStatuses[i], (String) studentStatuses[i + 1]));
+        }
+        return new AttendanceRequest(1L, DATE, items);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void recordAttendance_ShouldWriteOnlyChangedRows() {
+        // Given
+        Attendance unchanged = attendance(100L, 1L, "present");
+        Attendance changed = attendance(101L, 2L, "present");
+        Attendance removed = attendance(102L, 3L, "late");
+        when(attendanceRepository.findByClassIdAndAttendanceDate(1L, DATE))
+                .thenReturn(Arrays.asList(unchanged, changed, removed));
+
+        // When
+        AttendanceResponse result = attendanceService.recordAttendance(
+                request(1L, "present", 2L, "absent", 4L, "late"));
+
+        // Then
+        assertEquals(RECORDED_AT, unchanged.getRecordedAt());
+        assertEquals("absent", changed.getStatus());
+        assertNotEquals(RECORDED_AT, changed.getRecordedAt());
+
+        ArgumentCaptor<Iterable<Attendance>> deleted = ArgumentCaptor.forClass(Iterable.class);
+        verify(attendanceRepository).deleteAll(deleted.capture());
+        assertEquals(Arrays.asList(removed), deleted.getValue());
+
+        ArgumentCaptor<Iterable<Attendance>> inserted = ArgumentCaptor.forClass(Iterable.class);
+        verify(attendanceRepository).saveAll(inserted.capture());
+        List<Attendance> insertedRows = new ArrayList<>();
+        inserted.getValue().forEach(insertedRows::add);
+        assertEquals(1, insertedRows.size());
+        assertEquals(4L, insertedRows.get(0).getStudentId());
+        verify(attendanceRepository, never()).save(any(Attendance.class));
+
+        assertEquals(100L, result.getId());
+        assertEquals("CS101", result.getClassCode());
+        assertEquals("Lập trình Java", result.getSubjectName());
+        assertEquals(3, result.getStudentAttendances().size());
+        assertEquals("SV001", result.getStudentAttendances().get(0).getStudentCode());
+        assertEquals("Sinh viên 2", result.getStudentAttendances().get(1).getStudentName());
+        assertEquals("absent", result.getStudentAttendances().get(1).getStatus());
+        verify(attendanceRepository, times(1)).findByClassIdAndAttendanceDate(1L, DATE);
+
+        ArgumentCaptor<List<Attendance>> previous = ArgumentCaptor.forClass(List.class);
+        ArgumentCaptor<List<Attendance>> updated = ArgumentCaptor.forClass(List.class);
+        verify(attendanceSummaryService).applyChanges(eq(1L), previous.capture(), updated.capture(), eq(0));
+        assertEquals(2, previous.getValue().size());
+        assertEquals("present", previous.getValue().get(0).getStatus());
+        assertEquals(Arrays.asList(changed, insertedRows.get(0)), updated.getValue());
+    }
+
+    @Test
+    void recordAttendance_WhenNothingChanged_ShouldNotWrite() {
+        // Given
+        Attendance first = attendance(100L, 1L, "present");
+        Attendance second = attendance(101L, 2L, "absent");
+        when(attendanceRepository.findByClassIdAndAttendanceDate(1L, DATE))
+                .thenReturn(Arrays.asList(first, second));
+
+        // When
+        AttendanceResponse result = attendanceService.recordAttendance(
+                request(1L, "present", 2L, "absent"));
+
+        // Then
+        verify(attendanceRepository, never()).deleteAll(anyIterable());
+        verify(attendanceRepository, never()).saveAll(anyIterable());
+        verify(attendanceSummaryService).applyChanges(1L, Collections.emptyList(), Collections.emptyList(), 0);
+        assertEquals(RECORDED_AT, result.getRecordedAt());
+        assertEquals(2, result.getStudentAttendances().size());
+    }
+
+    @Test
+    void recordAttendance_WhenClassNotFound_ShouldThrowException() {
+        // Given
+        when(courseRepository.findById(9L)).thenReturn(Optional.empty());
+        AttendanceRequest request = new AttendanceRequest(9L, DATE, new ArrayList<>());
+
+        // When & Then
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> attendanceService.recordAttendance(request));
+        assertEquals("Không tìm thấy lớp với ID: 9", exception.getMessage());
+    }
+
+    @Test
+    void getAttendanceMatrix_ShouldPackStatusesAndTotals() {
+        // Given
+        LocalDate nextDate = DATE.plusDays(7);
+        List<RosterStudent> roster = Arrays.asList(
+                rosterStudent(1L, "SV001", "Sinh viên 1"),
+                rosterStudent(2L, "SV002", "Sinh viên 2"));
+        List<AttendanceCell> cells = Arrays.asList(
+                cell(1L, DATE, "present"),
+                cell(2L, DATE, "absent"),
+                cell(3L, DATE, "late"),
+                cell(1L, nextDate, "late"));
+        when(classStudentRepository.findRosterStudents(1L)).thenReturn(roster);
+        when(attendanceRepository.findCellsByClassId(1L)).thenReturn(cells);
+
+        // When
+        AttendanceMatrixResponse result = attendanceService.getAttendanceMatrix(1L);
+
+        // Then
+        assertEquals(Arrays.asList(DATE, nextDate), result.getDates());
+        assertEquals("present", result.getStatusCodes().get("P"));
+        assertEquals(3, result.getStudents().size());
+
+        AttendanceMatrixResponse.StudentRow first = result.getStudents().get(0);
+        assertEquals("SV001", first.getStudentCode());
+        assertEquals("PL", first.getStatuses());
+        assertEquals(1, first.getPresentCount());
+        assertEquals(1, first.getLateCount());
+        assertEquals("A-", result.getStudents().get(1).getStatuses());
+
+        // Sinh viên 3 đã rời lớp, thông tin lấy theo lô từ bảng sinh viên
+        AttendanceMatrixResponse.StudentRow former = result.getStudents().get(2);
+        assertEquals("SV003", former.getStudentCode());
+        assertEquals("Sinh viên 3", former.getStudentName());
+        assertEquals("L-", former.getStatuses());
+
+        AttendanceMatrixResponse.DateTotal firstDate = result.getDateTotals().get(0);
+        assertEquals(1, firstDate.getPresentCount());
+        assertEquals(1, firstDate.getAbsentCount());
+        assertEquals(1, firstDate.getLateCount());
+        assertEquals(0, firstDate.getUnrecordedCount());
+        assertEquals(2, result.getDateTotals().get(1).getUnrecordedCount());
+        verify(attendanceRepository, never()).findByClassIdAndAttendanceDate(anyLong(), any());
+    }
+
+    @Test
+    void getAttendanceMatrix_WithoutAttendance_ShouldReturnEmptyRows() {
+        // Given
+        List<RosterStudent> roster = Arrays.asList(rosterStudent(1L, "SV001", "Sinh viên 1"));
+        when(classStudentRepository.findRosterStudents(1L)).thenReturn(roster);
+        when(attendanceRepository.findCellsByClassId(1L)).thenReturn(Collections.emptyList());
+
+        // When
+        AttendanceMatrixResponse result = attendanceService.getAttendanceMatrix(1L);
+
+        // Then
+        assertTrue(result.getDates().isEmpty());
+        assertEquals(1, result.getStudents().size());
+        assertEquals("", result.getStudents().get(0).getStatuses());
+        verify(studentRepository, never()).findAllById(anyCollection());
+    }
+
+    @Test
+    void recordAttendance_FirstSessionOfDate_ShouldCountNewSession() {
+        // Given
+        when(attendanceRepository.findByClassIdAndAttendanceDate(1L, DATE)).thenReturn(Collections.emptyList());
+
+        // When
+        attendanceService.recordAttendance(request(1L, "present"));
+
+        // Then
+        verify(attendanceSummaryService).applyChanges(eq(1L), eq(Collections.emptyList()), anyList(), eq(1));
+    }
+
+    @Test
+    void deleteAttendance_LastRowOfSession_ShouldRemoveSession() {
+        // Given
+        Attendance only = attendance(100L, 1L, "late");
+        when(attendanceRepository.findById(100L)).thenReturn(Optional.of(only));
+        when(attendanceRepository.countTotalByClassIdAndDate(1L, DATE)).thenReturn(1L);
+
+        // When
+        attendanceService.deleteAttendance(100L);
+
+        // Then
+        verify(attendanceRepository).delete(only);
+        verify(attendanceSummaryService).applyChanges(1L, List.of(only), List.of(), -1);
+        verify(attendanceAnalyticsService).invalidateClass(1L);
+    }
+
+    @Test
+    void generateAttendanceReport_ShouldReadPrecomputedCounts() {
+        // Given
+        testClass.setSemesterId(1L);
+        testClass.setAttendanceSessions(4);
+        Semester semester = new Semester();
+        semester.setName("HK1-2024");
+        StudentAttendanceCount counts = mock(StudentAttendanceCount.class);
+        when(counts.getStudentCode()).thenReturn("SV001");
+        when(counts.getStudentName()).thenReturn("Sinh viên 1");
+        when(counts.getPresentCount()).thenReturn(3);
+        when(counts.getAbsentCount()).thenReturn(1);
+        when(counts.getLateCount()).thenReturn(0);
+        when(semesterRepository.findById(1L)).thenReturn(Optional.of(semester));
+        when(attendanceSummaryRepository.findStudentCountsByClassId(1L)).thenReturn(Arrays.asList(counts));
+
+        // When
+        AttendanceReportResponse result = attendanceService.generateAttendanceReport(1L);
+
+        // Then
+        assertEquals("CS101", result.getClassCode());
+        assertEquals("HK1-2024", result.getSemesterName());
+        assertEquals(4, result.getTotalSessions());
+        assertEquals(1, result.getStudentSummaries().size());
+        assertEquals("Sinh viên 1", result.getStudentSummaries().get(0).getStudentName());
+        assertEquals(75.0, result.getStudentSummaries().get(0).getAttendanceRate());
+        verify(attendanceRepository, never()).findByClassId(anyLong());
+        verify(studentRepository, never()).findById(anyLong());
+    }
+}
@@ -0,0 +1,112 @@
+package com.sms.service.impl;
+
+import com.sms.entity.Attendance;
+import com.sms.entity.AttendanceSummary;
+import com.sms.repository.AttendanceRepository;
+import com.sms.repository.AttendanceSummaryRepository;
+import com.sms.repository.CourseRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AttendanceSummaryServiceImplTest {
+
+    @Mock
+    private AttendanceSummaryRepository attendanceSummaryRepository;
+
+    @Mock
+    private AttendanceRepository attendanceRepository;
+
+    @Mock
+    private CourseRepository courseRepository;
+
+    @InjectMocks
+    private AttendanceSummaryServiceImpl attendanceSummaryService;
+
+    private static final LocalDate DATE = LocalDate.of(2024, 9, 10);
+
+    private Attendance attendance(Long studentId, String status) {
+        return new Attendance(null, 1L, studentId, DATE, status, null);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void applyChanges_ShouldGroupStudentsWithSameDelta() {
+        // Given
+        when(attendanceSummaryRepository.findStudentIdsByClassIdAndStudentIdIn(eq(1L), anyCollection()))
+                .thenReturn(Arrays.asList(1L, 2L, 3L));
+
+        // When
+        attendanceSummaryService.applyChanges(1L,
+                Arrays.asList(attendance(3L, "present")),
+                Arrays.asList(attendance(1L, "present"), attendance(2L, "present"), attendance(3L, "late")),
+                1);
+
+        // Then
+        ArgumentCaptor<Collection<Long>> presentIds = ArgumentCaptor.forClass(Collection.class);
+        verify(attendanceSummaryRepository).applyDelta(eq(1L), presentIds.capture(), eq(1), eq(0), eq(0));
+        assertEquals(Set.of(1L, 2L), new HashSet<>(presentIds.getValue()));
+        verify(attendanceSummaryRepository).applyDelta(1L, List.of(3L), -1, 0, 1);
+        verify(attendanceSummaryRepository, never()).saveAll(anyIterable());
+        verify(courseRepository).adjustAttendanceSessions(1L, 1);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void applyChanges_ShouldCreateMissingSummaryRows() {
+        // Given
+        when(attendanceSummaryRepository.findStudentIdsByClassIdAndStudentIdIn(eq(1L), anyCollection()))
+                .thenReturn(Collections.emptyList());
+
+        // When
+        attendanceSummaryService.applyChanges(1L, List.of(), List.of(attendance(5L, "absent")), 0);
+
+        // Then
+        // Khóa dòng lớp trước khi kiểm tra dòng tổng hợp đã có
+        InOrder inOrder = inOrder(courseRepository, attendanceSummaryRepository);
+        inOrder.verify(courseRepository).findByIdForUpdate(1L);
+        inOrder.verify(attendanceSummaryRepository).findStudentIdsByClassIdAndStudentIdIn(eq(1L), anyCollection());
+        ArgumentCaptor<Iterable<AttendanceSummary>> created = ArgumentCaptor.forClass(Iterable.class);
+        verify(attendanceSummaryRepository).saveAll(created.capture());
+        AttendanceSummary summary = created.getValue().iterator().next();
+        assertEquals(5L, summary.getStudentId());
+        assertEquals(0, summary.getPresentCount());
+        assertEquals(1, summary.getAbsentCount());
+        verify(attendanceSummaryRepository, never()).applyDelta(anyLong(), anyCollection(), anyInt(), anyInt(), anyInt());
+        verify(courseRepository, never()).adjustAttendanceSessions(anyLong(), anyInt());
+    }
+
+    @Test
+    void applyChanges_WhenStatusesCancelOut_ShouldNotWrite() {
+        // When
+        attendanceSummaryService.applyChanges(1L,
+                List.of(attendance(1L, "present")), List.of(attendance(1L, "present")), 0);
+
+        // Then
+        verifyNoInteractions(attendanceSummaryRepository, courseRepository);
+    }
+
+    @Test
+    void rebuild_WhenClassNotFound_ShouldThrowException() {
+        // Given
+        when(courseRepository.findById(9L)).thenReturn(Optional.empty());
+
+        // When & Then
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> attendanceSummaryService.rebuild(9L));
+        assertEquals("Không tìm thấy lớp với ID: 9", exception.getMessage());
+        verify(attendanceSummaryRepository, never()).deleteByClassId(anyLong());
+    }
+}
@@ -0,0 +1,186 @@
+package com.sms.service.impl;
+
+import com.sms.dto.request.AttendanceSyncRequest;
+import com.sms.dto.response.AttendanceSyncResponse;
+import com.sms.entity.Attendance;
+import com.sms.entity.AttendanceSyncBatch;
+import com.sms.entity.Course;
+import com.sms.repository.AttendanceRepository;
+import com.sms.repository.AttendanceSyncBatchRepository;
+import com.sms.repository.ClassStudentRepository;
+import com.sms.repository.CourseRepository;
+import com.sms.service.AttendanceAnalyticsService;
+import com.sms.service.AttendanceSummaryService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AttendanceSyncServiceImplTest {
+
+    @Mock
+    private AttendanceRepository attendanceRepository;
+
+    @Mock
+    private AttendanceSyncBatchRepository attendanceSyncBatchRepository;
+
+    @Mock
+    private CourseRepository courseRepository;
+
+    @Mock
+    private ClassStudentRepository classStudentRepository;
+
+    @Mock
+    private AttendanceSummaryService attendanceSummaryService;
+
+    @Mock
+    private AttendanceAnalyticsService attendanceAnalyticsService;
+
+    @InjectMocks
+    private AttendanceSyncServiceImpl attendanceSyncService;
+
+    private static final LocalDate DATE = LocalDate.of(2024, 9, 10);
+    private static final LocalDateTime TAKEN_AT = LocalDateTime.of(2024, 9, 10, 8, 0);
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(attendanceSyncService, "maxDeltas", 100);
+
+        Course javaClass = new Course();
+        javaClass.setId(1L);
+        lenient().when(courseRepository.findAllById(anyCollection())).thenReturn(Arrays.asList(javaClass));
+        // Mặc định mọi sinh viên trong lô đều học lớp
+        lenient().when(classStudentRepository.findStudentIdsByClassIdAndStudentIdIn(anyLong(), anyCollection()))
+                .thenAnswer(invocation -> new ArrayList<Long>(invocation.getArgument(1)));
+        lenient().when(attendanceSyncBatchRepository.findByBatchKey(anyString())).thenReturn(Optional.empty());
+        lenient().when(attendanceSyncBatchRepository.save(any(AttendanceSyncBatch.class)))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    private AttendanceSyncRequest.AttendanceDelta delta(long seq, Long classId, Long studentId, String status,
+                                                        LocalDateTime recordedAt) {
+        return new AttendanceSyncRequest.AttendanceDelta(seq, classId, DATE, studentId, status, recordedAt);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void sync_ShouldInsertNewRowsAndRejectInvalidDeltas() {
+        // Given
+        AttendanceSyncRequest request = new AttendanceSyncRequest("device-1:7", Arrays.asList(
+                delta(1, 1L, 1L, "present", TAKEN_AT),
+                delta(2, 1L, 2L, "absent", TAKEN_AT),
+                delta(3, 1L, 2L, "late", TAKEN_AT.plusMinutes(5)),
+                delta(4, 9L, 1L, "present", TAKEN_AT),
+                delta(5, 1L, 3L, "excused", TAKEN_AT)));
+        when(attendanceRepository.findByClassIdInAndAttendanceDateIn(anyCollection(), anyCollection()))
+                .thenReturn(new ArrayList<>());
+
+        // When
+        AttendanceSyncResponse result = attendanceSyncService.sync(request);
+
+        // Then
+        assertEquals(5L, result.getAckSeq());
+        assertEquals(2, result.getApplied());
+        assertEquals(1, result.getStale());
+        assertEquals(Arrays.asList(4L, 5L), result.getRejectedSeqs());
+        assertFalse(result.getReplayed());
+
+        ArgumentCaptor<List<Attendance>> inserted = ArgumentCaptor.forClass(List.class);
+        verify(attendanceRepository).saveAll(inserted.capture());
+        assertEquals(2, inserted.getValue().size());
+        assertEquals("late", inserted.getValue().get(1).getStatus());
+        assertEquals(TAKEN_AT.plusMinutes(5), inserted.getValue().get(1).getRecordedAt());
+        verify(attendanceSummaryService).applyChanges(eq(1L), eq(List.of()), anyList(), eq(1));
+        verify(attendanceAnalyticsService).invalidateClass(1L);
+    }
+
+    @Test
+    void sync_WithStudentNotInClass_ShouldRejectDelta() {
+        // Given
+        when(classStudentRepository.findStudentIdsByClassIdAndStudentIdIn(eq(1L), anyCollection()))
+                .thenReturn(Arrays.asList(1L));
+        when(attendanceRepository.findByClassIdInAndAttendanceDateIn(anyCollection(), anyCollection()))
+                .thenReturn(new ArrayList<>());
+        AttendanceSyncRequest request = new AttendanceSyncRequest("device-1:9", Arrays.asList(
+                delta(1, 1L, 1L, "present", TAKEN_AT),
+                delta(2, 1L, 5L, "present", TAKEN_AT)));
+
+        // When
+        AttendanceSyncResponse result = attendanceSyncService.sync(request);
+
+        // Then
+        assertEquals(1, result.getApplied());
+        assertEquals(Arrays.asList(2L), result.getRejectedSeqs());
+        verify(classStudentRepository).findStudentIdsByClassIdAndStudentIdIn(1L, Set.of(1L, 5L));
+    }
+
+    @Test
+    void sync_ShouldKeepLastWriterByRecordedAt() {
+        // Given
+        Attendance newer = new Attendance(10L, 1L, 1L, DATE, "absent", TAKEN_AT.plusHours(1));
+        Attendance older = new Attendance(11L, 1L, 2L, DATE, "absent", TAKEN_AT.minusHours(1));
+        when(attendanceRepository.findByClassIdInAndAttendanceDateIn(anyCollection(), anyCollection()))
+                .thenReturn(Arrays.asList(newer, older));
+        AttendanceSyncRequest request = new AttendanceSyncRequest("device-1:8", Arrays.asList(
+                delta(8, 1L, 1L, "present", TAKEN_AT),
+                delta(9, 1L, 2L, "present", TAKEN_AT)));
+
+        // When
+        AttendanceSyncResponse result = attendanceSyncService.sync(request);
+
+        // Then
+        assertEquals(1, result.getApplied());
+        assertEquals(1, result.getStale());
+        assertEquals("absent", newer.getStatus());
+        assertEquals("present", older.getStatus());
+        assertEquals(TAKEN_AT, older.getRecordedAt());
+        verify(attendanceRepository, never()).saveAll(anyList());
+        verify(attendanceSummaryService).applyChanges(eq(1L), argThat(list -> list.size() == 1
+                && "absent".equals(list.get(0).getStatus())), eq(List.of(older)), eq(0));
+    }
+
+    @Test
+    void sync_WithProcessedBatchKey_ShouldReplayAcknowledgement() {
+        // Given
+        AttendanceSyncBatch processed = new AttendanceSyncBatch(1L, "device-1:7", 5L, 2, 1, "4,5", TAKEN_AT);
+        when(attendanceSyncBatchRepository.findByBatchKey("device-1:7")).thenReturn(Optional.of(processed));
+        AttendanceSyncRequest request = new AttendanceSyncRequest("device-1:7",
+                Arrays.asList(delta(1, 1L, 1L, "present", TAKEN_AT)));
+
+        // When
+        AttendanceSyncResponse result = attendanceSyncService.sync(request);
+
+        // Then
+        assertTrue(result.getReplayed());
+        assertEquals(5L, result.getAckSeq());
+        assertEquals(Arrays.asList(4L, 5L), result.getRejectedSeqs());
+        verify(attendanceRepository, never()).findByClassIdInAndAttendanceDateIn(anyCollection(), anyCollection());
+        verify(attendanceSyncBatchRepository, never()).save(any());
+    }
+
+    @Test
+    void sync_WithTooManyDeltas_ShouldThrowException() {
+        // Given
+        ReflectionTestUtils.setField(attendanceSyncService, "maxDeltas", 1);
+        AttendanceSyncRequest request = new AttendanceSyncRequest("device-1:9", Arrays.asList(
+                delta(1, 1L, 1L, "present", TAKEN_AT),
+                delta(2, 1L, 2L, "present", TAKEN_AT)));
+
+        // When & Then
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> attendanceSyncService.sync(request));
+        assertEquals("Mỗi lô đồng bộ tối đa 1 bản ghi", exception.getMessage());
+    }
+}
@@ -0,0 +1,213 @@
+package com.sms.service.impl;
+
+import com.sms.dto.response.StudentClassListResponse;
+import com.sms.dto.response.StudentClassResponse;
+import com.sms.entity.*;
+import com.sms.repository.*;
+import com.sms.service.SeatReservationService;
+import com.sms.service.WaitlistService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalTime;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ClassCatalogServiceImplTest {
+
+    @Mock
+    private CourseRepository courseRepository;
+
+    @Mock
+    private SemesterRepository semesterRepository;
+
+    @Mock
+    private SubjectRepository subjectRepository;
+
+    @Mock
+    private TeacherRepository teacherRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private ScheduleRepository scheduleRepository;
+
+    @Mock
+    private ClassStudentRepository classStudentRepository;
+
+    @Mock
+    private SeatReservationService seatReservationService;
+
+    @Mock
+    private WaitlistService waitlistService;
+
+    @InjectMocks
+    private ClassCatalogServiceImpl classCatalogService;
+
+    private Semester testSemester;
+    private Course javaClass;
+    private Course webClass;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(classCatalogService, "maxAgeSeconds", 600L);
+
+        testSemester = new Semester();
+        testSemester.setId(1L);
+        testSemester.setName("HK1-2024");
+        testSemester.setIsOpen(true);
+
+        javaClass = course(1L, "CS101", 1L);
+        webClass = course(2L, "CS201", 2L);
+
+        Subject java = new Subject();
+        java.setId(1L);
+        java.setSubjectCode("CS101");
+        java.setSubjectName("Lập trình Java");
+        Subject web = new Subject();
+        web.setId(2L);
+        web.setSubjectCode("CS201");
+        web.setSubjectName("Lập trình Web");
+
+        Teacher teacher = new Teacher();
+        teacher.setId(1L);
+        teacher.setUserId(1L);
+        User teacherUser = new User();
+        teacherUser.setId(1L);
+        teacherUser.setFullName("Thầy B");
+
+        Schedule schedule = new Schedule();
+        schedule.setClassId(1L);
+        schedule.setDayOfWeek("MONDAY");
+        schedule.setStartTime(LocalTime.of(8, 0));
+        schedule.setEndTime(LocalTime.of(10, 0));
+        schedule.setRoom("A101");
+
+        lenient().when(semesterRepository.findByIsOpenTrue()).thenReturn(new ArrayList<>(Arrays.asList(testSemester)));
+        lenient().when(courseRepository.findBySemesterId(1L)).thenReturn(Arrays.asList(javaClass, webClass));
+        lenient().when(subjectRepository.findAllById(anyCollection())).thenReturn(Arrays.asList(java, web));
+        lenient().when(teacherRepository.findAllById(anyCollection())).thenReturn(Arrays.asList(teacher));
+        lenient().when(userRepository.findAllById(anyCollection())).thenReturn(Arrays.asList(teacherUser));
+        lenient().when(scheduleRepository.findByClassIdIn(anyCollection())).thenReturn(Arrays.asList(schedule));
+        lenient().when(waitlistService.getWaitlistPositions(1L)).thenReturn(Collections.emptyMap());
+    }
+
+    private Course course(Long id, String classCode, Long subjectId) {
+        Course course = new Course();
+        course.setId(id);
+        course.setClassCode(classCode);
+        course.setSubjectId(subjectId);
+        course.setSemesterId(1L);
+        course.setTeacherId(1L);
+        course.setMaxStudent(50);
+        return course;
+    }
+
+    @Test
+    void getAvailableClasses_ShouldReturnFlattenedClasses() {
+        // Given
+        when(classStudentRepository.findClassIdsByStudentId(1L)).thenReturn(Collections.emptyList());
+        when(seatReservationService.getEnrolledCount(1L)).thenReturn(5);
+
+        // When
+        List<StudentClassResponse> result = classCatalogService.getAvailableClasses(1L);
+
+        // Then
+        assertEquals(2, result.size());
+        StudentClassResponse first = result.get(0);
+        assertEquals("CS101", first.getClassCode());
+        assertEquals("Lập trình Java", first.getSubjectName());
+        assertEquals("HK1-2024", first.getSemesterName());
+        assertEquals("Thầy B", first.getTeacherName());
+        assertEquals(5, first.getCurrentStudentCount());
+        assertEquals(1, first.getSchedules().size());
+        assertFalse(first.getIsRegistered());
+    }
+
+    @Test
+    void getAvailableClasses_ShouldExcludeRegisteredClasses() {
+        // Given
+        when(classStudentRepository.findClassIdsByStudentId(1L)).thenReturn(Arrays.asList(1L));
+
+        // When
+        List<StudentClassResponse> result = classCatalogService.getAvailableClasses(1L);
+
+        // Then
+        assertEquals(1, result.size());
+        assertEquals("CS201", result.get(0).getClassCode());
+    }
+
+    @Test
+    void getAvailableClasses_ShouldReuseSnapshotAcrossCalls() {
+        // Given
+        when(classStudentRepository.findClassIdsByStudentId(anyLong())).thenReturn(Collections.emptyList());
+
+        // When
+        classCatalogService.getAvailableClasses(1L);
+        classCatalogService.getAvailableClasses(2L);
+
+        // Then
+        verify(courseRepository, times(1)).findBySemesterId(1L);
+        verify(subjectRepository, times(1)).findAllById(anyCollection());
+    }
+
+    @Test
+    void getAvailableClasses_WithKeywordAndPaging_ShouldFilterAndPage() {
+        // Given
+        when(classStudentRepository.findClassIdsByStudentId(1L)).thenReturn(Collections.emptyList());
+
+        // When
+        StudentClassListResponse result = classCatalogService.getAvailableClasses(
+                1L, 1L, "lập trình", PageRequest.of(1, 1));
+
+        // Then
+        assertEquals(2, result.getTotalElements());
+        assertEquals(2, result.getTotalPages());
+        assertEquals(1, result.getClasses().size());
+        assertEquals("CS201", result.getClasses().get(0).getClassCode());
+    }
+
+    @Test
+    void invalidateClass_ShouldReloadOnlyChangedClass() {
+        // Given
+        when(classStudentRepository.findClassIdsByStudentId(1L)).thenReturn(Collections.emptyList());
+        classCatalogService.getAvailableClasses(1L);
+        Course renamed = course(2L, "CS202", 2L);
+        when(courseRepository.findAllById(anyCollection())).thenReturn(Arrays.asList(renamed));
+        when(semesterRepository.findAllById(anyCollection())).thenReturn(Arrays.asList(testSemester));
+
+        // When
+        classCatalogService.invalidateClass(2L);
+        List<StudentClassResponse> result = classCatalogService.getAvailableClasses(1L);
+
+        // Then
+        assertEquals(2, result.size());
+        assertEquals("CS202", result.get(1).getClassCode());
+        verify(courseRepository, times(1)).findBySemesterId(1L);
+    }
+
+    @Test
+    void invalidateSemesters_ShouldRebuildCatalog() {
+        // Given
+        when(classStudentRepository.findClassIdsByStudentId(1L)).thenReturn(Collections.emptyList());
+        classCatalogService.getAvailableClasses(1L);
+
+        // When
+        classCatalogService.invalidateSemesters();
+        classCatalogService.getAvailableClasses(1L);
+
+        // Then
+        verify(courseRepository, times(2)).findBySemesterId(1L);
+    }
+}
@@ -0,0 +1,255 @@
+package com.sms.service.impl;
+
+import com.sms.dto.response.ClassListResponse;
+import com.sms.dto.response.ClassRosterPageResponse;
+import com.sms.dto.response.RosterImportResponse;
+import com.sms.entity.Student;
+import com.sms.repository.ClassStudentRepository;
+import com.sms.repository.CourseRepository;
+import com.sms.repository.StudentRepository;
+import com.sms.repository.projection.ClassRosterEntry;
+import com.sms.repository.projection.ClassSeatCount;
+import com.sms.repository.projection.ClassSummary;
+import com.sms.repository.projection.RosterStudent;
+import com.sms.service.SeatReservationService;
+import com.sms.util.ImportProgress;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ClassServiceImplTest {
+
+    @Mock
+    private CourseRepository courseRepository;
+
+    @Mock
+    private StudentRepository studentRepository;
+
+    @Mock
+    private ClassStudentRepository classStudentRepository;
+
+    @Mock
+    private SeatReservationService seatReservationService;
+
+    @InjectMocks
+    private ClassServiceImpl classService;
+
+    private final ImportProgress progress = new ImportProgress();
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(courseRepository.existsById(1L)).thenReturn(true);
+    }
+
+    private Student student(Long id, String studentCode) {
+        Student student = new Student();
+        student.setId(id);
+        student.setStudentCode(studentCode);
+        return student;
+    }
+
+    private ByteArrayInputStream roster(String... studentCodes) throws IOException {
+        try (XSSFWorkbook workbook = new XSSFWorkbook();
+             ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+            Sheet sheet = workbook.createSheet();
+            Row header = sheet.createRow(0);
+            header.createCell(0).setCellValue("STT");
+            header.createCell(1).setCellValue("Mã SV");
+            header.createCell(2).setCellValue("Họ Và Tên");
+            for (int i = 0; i < studentCodes.length; i++) {
+                Row row = sheet.createRow(i + 1);
+                row.createCell(0).setCellValue(i + 1);
+                row.createCell(1).setCellValue(studentCodes[i]);
+            }
+            workbook.write(out);
+            return new ByteArrayInputStream(out.toByteArray());
+        }
+    }
+
+    @Test
+    void importStudentsFromFile_ShouldReportSkippedRowsInsteadOfThrowing() throws IOException {
+        // Given
+        ByteArrayInputStream file = roster("SV001", "SV002", "SV001", "SV404", "SV003");
+        when(studentRepository.findByStudentCodeIn(anyCollection()))
+                .thenReturn(Arrays.asList(student(1L, "SV001"), student(2L, "SV002"), student(3L, "SV003")));
+        when(classStudentRepository.findStudentIdsByClassId(1L)).thenReturn(Arrays.asList(2L));
+        when(seatReservationService.tryReserve(1L, 2)).thenReturn(2);
+        when(classStudentRepository.insertEnrollments(eq(1L), anyCollection())).thenReturn(2);
+
+        // When
+        RosterImportResponse result = classService.importStudentsFromFile(1L, file, progress);
+
+        // Then
+        assertEquals(5, result.getTotalRows());
+        assertEquals(2, result.getImportedCount());
+        assertEquals(3, result.getSkippedCount());
+        List<RosterImportResponse.RowResult> issues = result.getIssues();
+        assertEquals("ALREADY_ENROLLED", issues.get(0).getStatus());
+        assertEquals(3, issues.get(0).getRowNumber());
+        assertEquals("DUPLICATE_IN_FILE", issues.get(1).getStatus());
+        assertEquals("NOT_FOUND", issues.get(2).getStatus());
+        verify(classStudentRepository).insertEnrollments(1L, Arrays.asList(1L, 3L));
+        verify(studentRepository, times(1)).findByStudentCodeIn(anyCollection());
+        assertEquals(5, progress.getRowsRead());
+        assertEquals(2, progress.getInserted());
+        assertEquals(2, progress.getSkipped());
+        assertEquals(1, progress.getFailed());
+    }
+
+    @Test
+    void importStudentsFromFile_WhenClassFull_ShouldKeepFirstRowsInFileOrder() throws IOException {
+        // Given
+        ByteArrayInputStream file = roster("SV001", "SV002", "SV003");
+        when(studentRepository.findByStudentCodeIn(anyCollection()))
+                .thenReturn(Arrays.asList(student(1L, "SV001"), student(2L, "SV002"), student(3L, "SV003")));
+        when(classStudentRepository.findStudentIdsByClassId(1L)).thenReturn(Collections.emptyList());
+        when(seatReservationService.tryReserve(1L, 3)).thenReturn(1);
+
+        // When
+        RosterImportResponse result = classService.importStudentsFromFile(1L, file, progress);
+
+        // Then
+        assertEquals(1, result.getImportedCount());
+        assertEquals(2, result.getSkippedCount());
+        assertTrue(result.getIssues().stream().allMatch(issue -> "CLASS_FULL".equals(issue.getStatus())));
+        verify(classStudentRepository).insertEnrollments(1L, Arrays.asList(1L));
+    }
+
+    @Test
+    void importStudentsFromFile_WhenClassNotFound_ShouldThrowException() {
+        // Given
+        when(courseRepository.existsById(99L)).thenReturn(false);
+
+        // When & Then
+        RuntimeException exception = assertThrows(RuntimeException.class, () ->
+                classService.importStudentsFromFile(99L, roster("SV001"), progress));
+        assertEquals("Không tìm thấy lớp với ID: 99", exception.getMessage());
+    }
+
+    private ClassSummary summary(Long id, String classCode) {
+        ClassSummary summary = mock(ClassSummary.class);
+        lenient().when(summary.getId()).thenReturn(id);
+        lenient().when(summary.getClassCode()).thenReturn(classCode);
+        lenient().when(summary.getSubjectName()).thenReturn("Lập trình Java");
+        lenient().when(summary.getTeacherName()).thenReturn("Thầy B");
+        lenient().when(summary.getCurrentStudentCount()).thenReturn(1);
+        return summary;
+    }
+
+    private ClassRosterEntry rosterEntry(Long classId, Long studentId, String studentCode) {
+        ClassRosterEntry entry = mock(ClassRosterEntry.class);
+        when(entry.getClassId()).thenReturn(classId);
+        when(entry.getStudentId()).thenReturn(studentId);
+        when(entry.getStudentCode()).thenReturn(studentCode);
+        when(entry.getFullName()).thenReturn("Nguyễn Văn A");
+        return entry;
+    }
+
+    @Test
+    void getAllClasses_InSummaryMode_ShouldNotLoadRosters() {
+        // Given
+        PageRequest pageable = PageRequest.of(0, 20);
+        List<ClassSummary> summaries = Arrays.asList(summary(1L, "CS101"), summary(2L, "CS201"));
+        when(courseRepository.findClassSummaries(pageable)).thenReturn(new PageImpl<>(summaries, pageable, 2));
+
+        // When
+        ClassListResponse result = classService.getAllClasses(pageable, false);
+
+        // Then
+        assertEquals(2, result.getClasses().size());
+        assertEquals("Thầy B", result.getClasses().get(0).getTeacherName());
+        assertNull(result.getClasses().get(0).getStudents());
+        verifyNoInteractions(classStudentRepository);
+    }
+
+    @Test
+    void getAllClasses_InDetailMode_ShouldLoadRostersForPageInOneQuery() {
+        // Given
+        PageRequest pageable = PageRequest.of(0, 20);
+        List<ClassSummary> summaries = Arrays.asList(summary(1L, "CS101"), summary(2L, "CS201"));
+        when(courseRepository.findClassSummaries(pageable)).thenReturn(new PageImpl<>(summaries, pageable, 2));
+        List<ClassRosterEntry> roster = Arrays.asList(rosterEntry(1L, 10L, "SV001"), rosterEntry(1L, 11L, "SV002"));
+        when(classStudentRepository.findRostersByClassIdIn(Arrays.asList(1L, 2L))).thenReturn(roster);
+
+        // When
+        ClassListResponse result = classService.getAllClasses(pageable, true);
+
+        // Then
+        assertEquals(2, result.getClasses().get(0).getStudents().size());
+        assertEquals("SV001", result.getClasses().get(0).getStudents().get(0).getStudentCode());
+        assertTrue(result.getClasses().get(1).getStudents().isEmpty());
+        verify(classStudentRepository, times(1)).findRostersByClassIdIn(anyCollection());
+    }
+
+    private RosterStudent rosterStudent(Long id, String studentCode, String name) {
+        RosterStudent student = mock(RosterStudent.class);
+        lenient().when(student.getStudentId()).thenReturn(id);
+        lenient().when(student.getStudentCode()).thenReturn(studentCode);
+        lenient().when(student.getStudentName()).thenReturn(name);
+        return student;
+    }
+
+    private ClassSeatCount seatCount(int enrolled) {
+        ClassSeatCount seatCount = mock(ClassSeatCount.class);
+        when(seatCount.getEnrolledCount()).thenReturn(enrolled);
+        return seatCount;
+    }
+
+    @Test
+    void getClassRosterPage_ShouldReturnCursorForNextPage() {
+        // Given
+        ClassSeatCount seats = seatCount(3);
+        when(courseRepository.findSeatCountById(1L)).thenReturn(Optional.of(seats));
+        List<RosterStudent> rows = Arrays.asList(
+                rosterStudent(10L, "SV001", "An"), rosterStudent(11L, "SV002", "Bình"), rosterStudent(12L, "SV003", "Chi"));
+        when(classStudentRepository.findRosterFirstPageByCode(1L, PageRequest.of(0, 3))).thenReturn(rows);
+        List<RosterStudent> nextRows = Arrays.asList(rosterStudent(12L, "SV003", "Chi"));
+        when(classStudentRepository.findRosterPageByCodeAfter(1L, "SV002", 11L, PageRequest.of(0, 3))).thenReturn(nextRows);
+
+        // When
+        ClassRosterPageResponse first = classService.getClassRosterPage(1L, "code", null, 2);
+        ClassRosterPageResponse second = classService.getClassRosterPage(1L, "code", first.getNextCursor(), 2);
+
+        // Then
+        assertEquals(3, first.getTotalStudents());
+        assertEquals(2, first.getStudents().size());
+        assertNotNull(first.getNextCursor());
+        assertEquals(1, second.getStudents().size());
+        assertEquals("SV003", second.getStudents().get(0).getStudentCode());
+        assertNull(second.getNextCursor());
+    }
+
+    @Test
+    void getClassRosterPage_WithInvalidCursor_ShouldThrowException() {
+        // Given
+        ClassSeatCount seats = seatCount(3);
+        when(courseRepository.findSeatCountById(1L)).thenReturn(Optional.of(seats));
+
+        // When & Then
+        RuntimeException exception = assertThrows(RuntimeException.class, () ->
+                classService.getClassRosterPage(1L, "name", "khong-hop-le", 50));
+        assertEquals("Cursor không hợp lệ", exception.getMessage());
+    }
+}
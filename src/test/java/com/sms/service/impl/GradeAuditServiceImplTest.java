@@ -0,0 +1,296 @@
+package com.sms.service.impl;
+
+import com.sms.dto.response.GradeAuditListResponse;
+import com.sms.entity.Grade;
+import com.sms.entity.GradeAudit;
+import com.sms.repository.GradeAuditRepository;
+import com.sms.service.GradeAuditService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class GradeAuditServiceImplTest {
+
+    @Mock
+    private GradeAuditRepository gradeAuditRepository;
+
+    @InjectMocks
+    private GradeAuditServiceImpl gradeAuditService;
+
+    // Luồng ghi dùng lại danh sách lô sau mỗi lần lưu nên phải chép lại khi ghi nhận
+    private final List<GradeAudit> saved = Collections.synchronizedList(new ArrayList<>());
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(gradeAuditService, "capacity", 100);
+        ReflectionTestUtils.setField(gradeAuditService, "batchSize", 200);
+        ReflectionTestUtils.setField(gradeAuditService, "flushIntervalMs", 10L);
+        ReflectionTestUtils.setField(gradeAuditService, "offerTimeoutMs", 10L);
+        ReflectionTestUtils.setField(gradeAuditService, "retryAttempts", 3);
+        ReflectionTestUtils.setField(gradeAuditService, "retryBackoffMs", 10L);
+        lenient().when(gradeAuditRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            saved.addAll(invocation.getArgument(0));
+            return invocation.getArgument(0);
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private Grade grade(Float midterm, Float finalGrade, Float other, Float total) {
+        return new Grade(5L, 1L, 2L, midterm, finalGrade, other, total, null);
+    }
+
+    @Test
+    void record_WithoutTransaction_ShouldFlushOldAndNewValues() {
+        // Given
+        gradeAuditService.init();
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("teacher01", null, List.of()));
+        Grade before = grade(6f, 7f, null, 6.5f);
+        Grade after = grade(8f, 7f, null, 7.5f);
+
+        // When
+        gradeAuditService.record(GradeAuditService.UPDATED, before, after);
+        gradeAuditService.record(GradeAuditService.DELETED, after, null);
+        gradeAuditService.shutdown();
+
+        // Then
+        assertEquals(2, saved.size());
+        GradeAudit updated = saved.get(0);
+        assertEquals(5L, updated.getGradeId());
+        assertEquals(1L, updated.getClassId());
+        assertEquals(2L, updated.getStudentId());
+        assertEquals("UPDATED", updated.getAction());
+        assertEquals(6f, updated.getOldMidterm());
+        assertEquals(6.5f, updated.getOldTotal());
+        assertEquals(8f, updated.getNewMidterm());
+        assertEquals(7.5f, updated.getNewTotal());
+        assertEquals("teacher01", updated.getChangedBy());
+        assertNotNull(updated.getChangedAt());
+
+        GradeAudit deleted = saved.get(1);
+        assertEquals("DELETED", deleted.getAction());
+        assertEquals(7.5f, deleted.getOldTotal());
+        assertNull(deleted.getNewTotal());
+    }
+
+    @Test
+    void record_InTransaction_ShouldWaitForCommit() {
+        // Given
+        gradeAuditService.init();
+        TransactionSynchronizationManager.initSynchronization();
+
+        // When
+        gradeAuditService.record(GradeAuditService.CREATED, null, grade(8f, 9f, 7f, 8f));
+        gradeAuditService.record(GradeAuditService.RECOMPUTED, grade(8f, 9f, 7f, 8f), grade(8f, 9f, 7f, 8.2f));
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+
+        // Then: một synchronization cho cả transaction, chưa có gì được đưa vào hàng đợi trước khi commit
+        assertEquals(1, synchronizations.size());
+        synchronizations.forEach(TransactionSynchronization::afterCommit);
+        synchronizations.forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        gradeAuditService.shutdown();
+
+        assertEquals(2, saved.size());
+        assertEquals("system", saved.get(0).getChangedBy());
+        assertNull(saved.get(0).getOldTotal());
+        assertEquals(8.2f, saved.get(1).getNewTotal());
+    }
+
+    @Test
+    void record_InLargeTransaction_ShouldWriteFullBatchesInTransaction() {
+        // Given
+        ReflectionTestUtils.setField(gradeAuditService, "batchSize", 2);
+        gradeAuditService.init();
+        TransactionSynchronizationManager.initSynchronization();
+
+        // When: lô đầy được ghi ngay trong transaction, chỉ phần lẻ chờ commit
+        for (int i = 0; i < 5; i++) {
+            gradeAuditService.record(GradeAuditService.RECOMPUTED, grade(5f, 5f, 5f, 5f), grade(5f, 5f, 5f, (float) i));
+        }
+
+        // Then
+        verify(gradeAuditRepository, times(2)).saveAll(anyList());
+        assertEquals(4, saved.size());
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        gradeAuditService.shutdown();
+        assertEquals(5, saved.size());
+        assertEquals(4f, saved.get(4).getNewTotal());
+    }
+
+    @Test
+    void record_InRolledBackTransaction_ShouldDiscardEntries() {
+        // Given
+        gradeAuditService.init();
+        TransactionSynchronizationManager.initSynchronization();
+
+        // When
+        gradeAuditService.record(GradeAuditService.CREATED, null, grade(8f, 9f, 7f, 8f));
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        gradeAuditService.shutdown();
+
+        // Then
+        verify(gradeAuditRepository, never()).saveAll(anyList());
+    }
+
+    @Test
+    void record_WhenQueueFull_ShouldDropAfterTimeout() throws InterruptedException {
+        // Given: hàng đợi chỉ chứa một bản ghi và luồng ghi đang bận với lô đầu tiên
+        ReflectionTestUtils.setField(gradeAuditService, "capacity", 1);
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(gradeAuditRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            writing.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            saved.addAll(invocation.getArgument(0));
+            return invocation.getArgument(0);
+        });
+        gradeAuditService.init();
+        gradeAuditService.record(GradeAuditService.CREATED, null, grade(1f, 1f, 1f, 1f));
+        assertTrue(writing.await(5, TimeUnit.SECONDS));
+
+        // When
+        gradeAuditService.record(GradeAuditService.UPDATED, grade(1f, 1f, 1f, 1f), grade(2f, 2f, 2f, 2f));
+        gradeAuditService.record(GradeAuditService.UPDATED, grade(2f, 2f, 2f, 2f), grade(3f, 3f, 3f, 3f));
+        release.countDown();
+        gradeAuditService.shutdown();
+
+        // Then
+        assertEquals(2, saved.size());
+        assertEquals(1f, saved.get(0).getNewTotal());
+        assertEquals(2f, saved.get(1).getNewTotal());
+    }
+
+    @Test
+    void getHistory_ByGrade_ShouldReturnPage() {
+        // Given
+        Pageable pageable = PageRequest.of(0, 20);
+        GradeAudit audit = new GradeAudit(1L, 5L, 1L, 2L, "UPDATED", 6f, 7f, null, 6.5f,
+                8f, 7f, null, 7.5f, "teacher01", LocalDateTime.now());
+        when(gradeAuditRepository.findByGradeIdOrderByChangedAtDescIdDesc(5L, pageable))
+                .thenReturn(new PageImpl<>(List.of(audit), pageable, 1));
+
+        // When
+        GradeAuditListResponse result = gradeAuditService.getHistory(5L, null, null, pageable);
+
+        // Then
+        assertEquals(1L, result.getTotalElements());
+        assertEquals(1, result.getAudits().size());
+        assertEquals(6.5f, result.getAudits().get(0).getOldTotal());
+        assertEquals("teacher01", result.getAudits().get(0).getChangedBy());
+        verify(gradeAuditRepository, never()).findByStudentIdOrderByChangedAtDescIdDesc(any(), any());
+    }
+
+    @Test
+    void getHistory_WithoutSingleFilter_ShouldThrowException() {
+        // When & Then
+        RuntimeException none = assertThrows(RuntimeException.class,
+                () -> gradeAuditService.getHistory(null, null, null, PageRequest.of(0, 20)));
+        assertEquals("Cần chỉ định đúng một trong gradeId, studentId hoặc classId", none.getMessage());
+        assertThrows(RuntimeException.class,
+                () -> gradeAuditService.getHistory(5L, 2L, null, PageRequest.of(0, 20)));
+        verifyNoInteractions(gradeAuditRepository);
+    }
+
+    @Test
+    void record_WhenQueueFullAtCommit_ShouldWaitOnceForWholeTransaction() throws InterruptedException {
+        // Given: hàng đợi chỉ chứa một bản ghi và luồng ghi đang bận với lô đầu tiên
+        ReflectionTestUtils.setField(gradeAuditService, "capacity", 1);
+        ReflectionTestUtils.setField(gradeAuditService, "offerTimeoutMs", 200L);
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(gradeAuditRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            writing.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            saved.addAll(invocation.getArgument(0));
+            return invocation.getArgument(0);
+        });
+        gradeAuditService.init();
+        gradeAuditService.record(GradeAuditService.CREATED, null, grade(1f, 1f, 1f, 1f));
+        assertTrue(writing.await(5, TimeUnit.SECONDS));
+
+        TransactionSynchronizationManager.initSynchronization();
+        for (int i = 0; i < 5; i++) {
+            gradeAuditService.record(GradeAuditService.UPDATED, grade(1f, 1f, 1f, 1f), grade(2f, 2f, 2f, 2f));
+        }
+
+        // When
+        long startedAt = System.nanoTime();
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        long waitedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+        release.countDown();
+        gradeAuditService.shutdown();
+
+        // Then: một bản ghi vào được hàng đợi, bốn bản còn lại bị bỏ sau một lần chờ chứ không phải bốn lần
+        assertTrue(waitedMs < 600, "Commit chờ " + waitedMs + " ms");
+        assertEquals(2, saved.size());
+    }
+
+    @Test
+    void writer_WhenSaveFailsTransiently_ShouldRetryBatch() {
+        // Given
+        when(gradeAuditRepository.saveAll(anyList()))
+                .thenThrow(new RuntimeException("Mất kết nối cơ sở dữ liệu"))
+                .thenAnswer(invocation -> {
+                    saved.addAll(invocation.getArgument(0));
+                    return invocation.getArgument(0);
+                });
+        gradeAuditService.init();
+
+        // When
+        gradeAuditService.record(GradeAuditService.UPDATED, grade(6f, 7f, null, 6.5f), grade(8f, 7f, null, 7.5f));
+        gradeAuditService.shutdown();
+
+        // Then
+        verify(gradeAuditRepository, times(2)).saveAll(anyList());
+        assertEquals(1, saved.size());
+        assertEquals(7.5f, saved.get(0).getNewTotal());
+    }
+
+    @Test
+    void writer_WhenSaveKeepsFailing_ShouldCountDroppedRows() {
+        // Given
+        when(gradeAuditRepository.saveAll(anyList())).thenThrow(new RuntimeException("Mất kết nối cơ sở dữ liệu"));
+        gradeAuditService.init();
+
+        // When
+        gradeAuditService.record(GradeAuditService.CREATED, null, grade(8f, 7f, null, 7.5f));
+        gradeAuditService.shutdown();
+
+        // Then
+        verify(gradeAuditRepository, times(3)).saveAll(anyList());
+        assertEquals(1L, ((AtomicLong) ReflectionTestUtils.getField(gradeAuditService, "dropped")).get());
+    }
+}
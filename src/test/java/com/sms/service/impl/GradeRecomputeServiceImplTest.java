@@ -0,0 +1,175 @@
+package com.sms.service.impl;
+
+import com.sms.dto.response.GradeRecomputeResponse;
+import com.sms.entity.Grade;
+import com.sms.event.GradeChangedEvent;
+import com.sms.repository.CourseRepository;
+import com.sms.repository.GradeRepository;
+import com.sms.repository.SemesterRepository;
+import com.sms.repository.projection.ClassGradeFormula;
+import com.sms.service.GradeAuditService;
+import com.sms.service.GradeStatisticsService;
+import com.sms.service.TranscriptService;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class GradeRecomputeServiceImplTest {
+
+    @Mock
+    private GradeRepository gradeRepository;
+
+    @Mock
+    private CourseRepository courseRepository;
+
+    @Mock
+    private SemesterRepository semesterRepository;
+
+    @Mock
+    private TranscriptService transcriptService;
+
+    @Mock
+    private GradeStatisticsService gradeStatisticsService;
+
+    @Mock
+    private GradeAuditService gradeAuditService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @InjectMocks
+    private GradeRecomputeServiceImpl gradeRecomputeService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(gradeRecomputeService, "parallelism", 2);
+        ReflectionTestUtils.setField(gradeRecomputeService, "chunkSize", 2);
+        gradeRecomputeService.init();
+        lenient().when(semesterRepository.existsById(1L)).thenReturn(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        gradeRecomputeService.shutdown();
+    }
+
+    private ClassGradeFormula formula(Long classId, String gradeFormula) {
+        return new ClassGradeFormula() {
+            @Override
+            public Long getClassId() {
+                return classId;
+            }
+
+            @Override
+            public String getGradeFormula() {
+                return gradeFormula;
+            }
+        };
+    }
+
+    private Grade grade(Long id, Long classId, Float midterm, Float finalGrade, Float other, Float total) {
+        return new Grade(id, classId, id, midterm, finalGrade, other, total, null);
+    }
+
+    @Test
+    void recomputeSemester_ShouldUpdateOnlyChangedTotalsChunkByChunk() {
+        // Given
+        when(courseRepository.findGradeFormulasBySemesterId(1L)).thenReturn(Arrays.asList(
+                formula(1L, "0.2 * midterm + 0.5 * final + 0.3 * other"),
+                formula(2L, null)));
+        Grade full = grade(1L, 1L, 10f, 10f, 10f, 10f);
+        Grade weighted = grade(2L, 1L, 8f, 9f, 7f, 8f);
+        Grade average = grade(3L, 2L, 6f, 8f, null, 7f);
+        when(gradeRepository.findChunkBySemesterId(eq(1L), eq(0L), any(Pageable.class)))
+                .thenReturn(Arrays.asList(full, weighted));
+        when(gradeRepository.findChunkBySemesterId(eq(1L), eq(2L), any(Pageable.class)))
+                .thenReturn(Arrays.asList(average));
+
+        // When
+        GradeRecomputeResponse result = gradeRecomputeService.recomputeSemester(1L);
+
+        // Then
+        assertEquals(2, result.getClassCount());
+        assertEquals(3L, result.getScannedCount());
+        assertEquals(1L, result.getChangedCount());
+        assertEquals(8.2f, weighted.getTotal(), 0.001f);
+        assertEquals(10f, full.getTotal());
+        assertEquals(7f, average.getTotal());
+
+        verify(transcriptService).applyGradeChanges(eq(1L),
+                argThat(previous -> previous.size() == 1 && previous.get(0).getTotal() == 8f),
+                eq(List.of(weighted)));
+        verify(gradeAuditService).record(eq(GradeAuditService.RECOMPUTED),
+                argThat(previous -> previous.getTotal() == 8f), same(weighted));
+        verify(gradeStatisticsService).invalidateClass(1L);
+        verify(gradeStatisticsService, never()).invalidateClass(2L);
+        verify(eventPublisher, times(1)).publishEvent(any(GradeChangedEvent.class));
+        verify(entityManager, times(2)).flush();
+        verify(entityManager, times(2)).clear();
+    }
+
+    @Test
+    void recomputeSemester_WithComponentMissing_ShouldTreatItAsZero() {
+        // Given
+        when(courseRepository.findGradeFormulasBySemesterId(1L)).thenReturn(Arrays.asList(
+                formula(1L, "max(midterm, final) * 0.6 + other * 0.4")));
+        Grade partial = grade(1L, 1L, 5f, 7f, null, 6f);
+        Grade empty = grade(2L, 1L, null, null, null, null);
+        when(gradeRepository.findChunkBySemesterId(eq(1L), eq(0L), any(Pageable.class)))
+                .thenReturn(Arrays.asList(partial, empty));
+        when(gradeRepository.findChunkBySemesterId(eq(1L), eq(2L), any(Pageable.class)))
+                .thenReturn(List.of());
+
+        // When
+        GradeRecomputeResponse result = gradeRecomputeService.recomputeSemester(1L);
+
+        // Then
+        assertEquals(1L, result.getChangedCount());
+        assertEquals(4.2f, partial.getTotal(), 0.001f);
+        assertNull(empty.getTotal());
+    }
+
+    @Test
+    void recomputeSemester_WithInvalidFormula_ShouldThrowException() {
+        // Given
+        when(courseRepository.findGradeFormulasBySemesterId(1L)).thenReturn(Arrays.asList(
+                formula(1L, "0.5 * midterm + final")));
+
+        // When & Then
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> gradeRecomputeService.recomputeSemester(1L));
+        assertEquals("Công thức tính điểm phải cho kết quả trong thang điểm 10: 0.5 * midterm + final",
+                exception.getMessage());
+        verify(gradeRepository, never()).findChunkBySemesterId(any(), any(), any());
+    }
+
+    @Test
+    void recomputeSemester_WithNonExistentSemester_ShouldThrowException() {
+        // Given
+        when(semesterRepository.existsById(99L)).thenReturn(false);
+
+        // When & Then
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> gradeRecomputeService.recomputeSemester(99L));
+        assertEquals("Không tìm thấy học kỳ với ID: 99", exception.getMessage());
+    }
+}
@@ -1,16 +1,30 @@
 package com.sms.service.impl;
 
+import com.sms.dto.request.GradebookRequest;
 import com.sms.dto.request.StudentGradeRequest;
+import com.sms.dto.response.GradebookImportResponse;
+import com.sms.dto.response.GradebookResponse;
 import com.sms.dto.response.StudentGradeResponse;
 import com.sms.entity.*;
+import com.sms.event.GradeChangedEvent;
 import com.sms.repository.*;
+import com.sms.service.GradeAuditService;
+import com.sms.service.GradeStatisticsService;
+import com.sms.service.TranscriptService;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
@@ -18,6 +32,10 @@ import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -38,6 +56,21 @@ class GradeServiceImplTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private ClassStudentRepository classStudentRepository;
+
+    @Mock
+    private GradeStatisticsService gradeStatisticsService;
+
+    @Mock
+    private TranscriptService transcriptService;
+
+    @Mock
+    private GradeAuditService gradeAuditService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private GradeServiceImpl gradeService;
 
@@ -239,6 +272,10 @@ class GradeServiceImplTest {
 
         // Then
         verify(gradeRepository).delete(testGrade);
+        verify(transcriptService).applyGradeChanges(1L, List.of(testGrade), List.of());
+        verify(gradeAuditService).record(GradeAuditService.DELETED, testGrade, null);
+        verify(eventPublisher).publishEvent(argThat((Object event) ->
+                event instanceof GradeChangedEvent && ((GradeChangedEvent) event).getClassId() == 1L));
     }
 
     @Test
@@ -296,6 +333,26 @@ class GradeServiceImplTest {
         assertEquals(8.0f, result.getTotal(), 0.01f); // Use delta for float comparison
     }
 
+    @Test
+    void calculateTotal_WithSubjectFormula_ShouldApplyWeights() {
+        // Given
+        testSubject.setGradeFormula("0.2 * midterm + 0.5 * final + 0.3 * other");
+        StudentGradeRequest request = new StudentGradeRequest(1L, 1L, 8.0f, 9.0f, 7.0f);
+        when(courseRepository.findById(1L)).thenReturn(Optional.of(testClass));
+        when(studentRepository.findById(1L)).thenReturn(Optional.of(testStudent));
+        when(gradeRepository.findByClassIdAndStudentId(1L, 1L)).thenReturn(Optional.empty());
+        when(gradeRepository.save(any(Grade.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(subjectRepository.findById(1L)).thenReturn(Optional.of(testSubject));
+
+        // When
+        StudentGradeResponse result = gradeService.createOrUpdateGrade(request);
+
+        // Then
+        // 0.2 * 8.0 + 0.5 * 9.0 + 0.3 * 7.0 = 8.2
+        assertEquals(8.2f, result.getTotal(), 0.001f);
+        assertEquals("B+", result.getLetterGrade());
+    }
+
     @Test
     void calculateTotal_WithNullGrades_ShouldReturnNull() {
         // Given
@@ -317,4 +374,168 @@ class GradeServiceImplTest {
         assertNotNull(result);
         assertNull(result.getTotal());
     }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void saveGradebook_ShouldUpsertMembersAndRejectOthers() {
+        // Given
+        GradebookRequest request = new GradebookRequest(Arrays.asList(
+                new GradebookRequest.GradeEntry(1L, 9.0f, 9.0f, 9.0f),
+                new GradebookRequest.GradeEntry(2L, 6.0f, 7.0f, 8.0f),
+                new GradebookRequest.GradeEntry(3L, 5.0f, 5.0f, 5.0f),
+                new GradebookRequest.GradeEntry(4L, 11.0f, null, null)));
+        when(courseRepository.findById(1L)).thenReturn(Optional.of(testClass));
+        when(subjectRepository.findById(1L)).thenReturn(Optional.of(testSubject));
+        when(classStudentRepository.findStudentIdsByClassIdAndStudentIdIn(eq(1L), anyCollection()))
+                .thenReturn(Arrays.asList(1L, 2L, 4L));
+        when(gradeRepository.findByClassIdAndStudentIdIn(eq(1L), anyCollection())).thenReturn(Arrays.asList(testGrade));
+        when(gradeRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<Grade> grades = invocation.getArgument(0);
+            grades.forEach(grade -> grade.setId(10L));
+            return grades;
+        });
+
+        // When
+        GradebookResponse result = gradeService.saveGradebook(1L, request);
+
+        // Then
+        assertEquals("CS101", result.getClassCode());
+        assertEquals(1, result.getCreated());
+        assertEquals(1, result.getUpdated());
+        assertEquals(0, result.getUnchanged());
+        assertEquals(2, result.getRejected());
+        assertEquals("UPDATED", result.getRows().get(0).getStatus());
+        assertEquals(9.0f, testGrade.getTotal(), 0.01f);
+        assertEquals("A", result.getRows().get(0).getLetterGrade());
+        assertEquals("CREATED", result.getRows().get(1).getStatus());
+        assertEquals(10L, result.getRows().get(1).getGradeId());
+        assertEquals(7.0f, result.getRows().get(1).getTotal(), 0.01f);
+        assertEquals("Sinh viên không thuộc lớp này", result.getRows().get(2).getMessage());
+        assertEquals("Điểm phải nằm trong khoảng từ 0 đến 10", result.getRows().get(3).getMessage());
+        verify(gradeRepository, never()).findByClassIdAndStudentId(any(), any());
+        verify(studentRepository, never()).findById(any());
+        verify(gradeStatisticsService).invalidateClass(1L);
+        // Bảng điểm tích lũy nhận điểm cũ 8.5 của sinh viên được sửa và cả hai dòng sau khi ghi
+        verify(transcriptService).applyGradeChanges(eq(1L),
+                argThat(previous -> previous.size() == 1 && previous.get(0).getTotal() == 8.5f),
+                argThat(changed -> changed.size() == 2));
+        verify(gradeAuditService).record(eq(GradeAuditService.UPDATED),
+                argThat(before -> before.getTotal() == 8.5f), same(testGrade));
+        verify(gradeAuditService).record(eq(GradeAuditService.CREATED), isNull(),
+                argThat(after -> after.getId() == 10L && after.getStudentId() == 2L));
+    }
+
+    @Test
+    void saveGradebook_WithSameScores_ShouldReportUnchanged() {
+        // Given
+        GradebookRequest request = new GradebookRequest(Arrays.asList(
+                new GradebookRequest.GradeEntry(1L, 8.5f, 9.0f, 8.0f)));
+        when(courseRepository.findById(1L)).thenReturn(Optional.of(testClass));
+        when(subjectRepository.findById(1L)).thenReturn(Optional.of(testSubject));
+        when(classStudentRepository.findStudentIdsByClassIdAndStudentIdIn(eq(1L), anyCollection()))
+                .thenReturn(Arrays.asList(1L));
+        when(gradeRepository.findByClassIdAndStudentIdIn(eq(1L), anyCollection())).thenReturn(Arrays.asList(testGrade));
+
+        // When
+        GradebookResponse result = gradeService.saveGradebook(1L, request);
+
+        // Then
+        assertEquals(1, result.getUnchanged());
+        assertEquals(1L, result.getRows().get(0).getGradeId());
+        verify(gradeRepository, never()).saveAll(anyList());
+        verify(gradeStatisticsService, never()).invalidateClass(any());
+        verify(transcriptService, never()).applyGradeChanges(any(), anyList(), anyList());
+        verifyNoInteractions(gradeAuditService);
+    }
+
+    // Mỗi dòng: mã SV, giữa kỳ, cuối kỳ, điểm khác; số được ghi dạng số, chuỗi được ghi nguyên văn
+    private ByteArrayInputStream gradebookSheet(Object[]... rows) throws IOException {
+        try (XSSFWorkbook workbook = new XSSFWorkbook();
+             ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+            Sheet sheet = workbook.createSheet();
+            Row header = sheet.createRow(0);
+            String[] titles = {"STT", "Mã SV", "Họ và tên", "Giữa kỳ", "Cuối kỳ", "Khác"};
+            for (int i = 0; i < titles.length; i++) {
+                header.createCell(i).setCellValue(titles[i]);
+            }
+            for (int i = 0; i < rows.length; i++) {
+                Row row = sheet.createRow(i + 1);
+                row.createCell(0).setCellValue(i + 1);
+                row.createCell(1).setCellValue((String) rows[i][0]);
+                for (int column = 1; column < rows[i].length; column++) {
+                    Object value = rows[i][column];
+                    if (value instanceof Number) {
+                        row.createCell(column + 2).setCellValue(((Number) value).doubleValue());
+                    } else if (value != null) {
+                        row.createCell(column + 2).setCellValue((String) value);
+                    }
+                }
+            }
+            workbook.write(out);
+            return new ByteArrayInputStream(out.toByteArray());
+        }
+    }
+
+    private Student student(Long id, String studentCode) {
+        Student student = new Student();
+        student.setId(id);
+        student.setStudentCode(studentCode);
+        return student;
+    }
+
+    @Test
+    void importGradebook_ShouldUpsertValidRowsAndReportOthers() throws IOException {
+        // Given
+        ByteArrayInputStream file = gradebookSheet(
+                new Object[]{"SV001", 9, 9, 9},
+                new Object[]{"SV002", "7,5", 8, null},
+                new Object[]{"SV003", "abc", 8, 8},
+                new Object[]{"SV002", 5, 5, 5},
+                new Object[]{"SV404", 6, 6, 6},
+                new Object[]{"SV005", 12, 6, 6},
+                new Object[]{"SV006", 6, 6, 6});
+        when(courseRepository.findById(1L)).thenReturn(Optional.of(testClass));
+        when(subjectRepository.findById(1L)).thenReturn(Optional.of(testSubject));
+        when(studentRepository.findByStudentCodeIn(anyCollection())).thenReturn(Arrays.asList(
+                student(1L, "SV001"), student(2L, "SV002"), student(6L, "SV006")));
+        when(classStudentRepository.findStudentIdsByClassIdAndStudentIdIn(eq(1L), anyCollection()))
+                .thenReturn(Arrays.asList(1L, 2L));
+        when(gradeRepository.findByClassIdAndStudentIdIn(eq(1L), anyCollection())).thenReturn(Arrays.asList(testGrade));
+        when(gradeRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        GradebookImportResponse result = gradeService.importGradebook(1L, file);
+
+        // Then
+        assertEquals(7, result.getTotalRows());
+        assertEquals(1, result.getCreated());
+        assertEquals(1, result.getUpdated());
+        assertEquals(5, result.getRejected());
+        List<GradebookImportResponse.RowResult> issues = result.getIssues();
+        assertEquals(Arrays.asList(4, 5, 6, 7, 8), issues.stream().map(GradebookImportResponse.RowResult::getRowNumber).toList());
+        assertEquals("Điểm giữa kỳ không phải là số: abc", issues.get(0).getMessage());
+        assertEquals("Mã sinh viên trùng với dòng 3", issues.get(1).getMessage());
+        assertEquals("NOT_FOUND", issues.get(2).getStatus());
+        assertEquals("Điểm giữa kỳ phải nằm trong khoảng từ 0 đến 10", issues.get(3).getMessage());
+        assertEquals("REJECTED", issues.get(4).getStatus());
+        assertEquals("Sinh viên không thuộc lớp này", issues.get(4).getMessage());
+
+        // Một truy vấn tra mã sinh viên cho cả file, dòng hợp lệ được ghi theo lô
+        verify(studentRepository, times(1)).findByStudentCodeIn(anyCollection());
+        verify(gradeRepository).saveAll(argThat((List<Grade> grades) -> grades.size() == 1
+                && grades.get(0).getStudentId() == 2L && grades.get(0).getMidterm() == 7.5f));
+        assertEquals(9.0f, testGrade.getTotal(), 0.01f);
+    }
+
+    @Test
+    void importGradebook_WithNonExistentClass_ShouldThrowException() throws IOException {
+        // Given
+        when(courseRepository.findById(99L)).thenReturn(Optional.empty());
+
+        // When & Then
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> gradeService.importGradebook(99L, gradebookSheet(new Object[]{"SV001", 9, 9, 9})));
+        assertEquals("Không tìm thấy lớp với ID: 99", exception.getMessage());
+        verify(studentRepository, never()).findByStudentCodeIn(anyCollection());
+    }
 }
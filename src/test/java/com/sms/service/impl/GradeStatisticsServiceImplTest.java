@@ -0,0 +1,185 @@
+package com.sms.service.impl;
+
+import com.sms.dto.response.GradeStatisticsResponse;
+import com.sms.repository.CourseRepository;
+import com.sms.repository.GradeRepository;
+import com.sms.repository.SemesterRepository;
+import com.sms.repository.SubjectRepository;
+import com.sms.repository.projection.GradeTotal;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class GradeStatisticsServiceImplTest {
+
+    @Mock
+    private GradeRepository gradeRepository;
+
+    @Mock
+    private CourseRepository courseRepository;
+
+    @Mock
+    private SubjectRepository subjectRepository;
+
+    @Mock
+    private SemesterRepository semesterRepository;
+
+    @InjectMocks
+    private GradeStatisticsServiceImpl gradeStatisticsService;
+
+    private GradeTotal total(Long classId, Long studentId, float value) {
+        return new GradeTotal() {
+            @Override
+            public Long getClassId() {
+                return classId;
+            }
+
+            @Override
+            public Long getStudentId() {
+                return studentId;
+            }
+
+            @Override
+            public Float getTotal() {
+                return value;
+            }
+        };
+    }
+
+    // Dữ liệu trả về theo đúng thứ tự của truy vấn: lớp, điểm giảm dần
+    private List<GradeTotal> totals() {
+        return Arrays.asList(
+                total(1L, 1L, 9.5f),
+                total(1L, 2L, 8.0f),
+                total(1L, 3L, 8.0f),
+                total(1L, 4L, 6.0f),
+                total(2L, 5L, 5.0f),
+                total(2L, 6L, 3.0f));
+    }
+
+    private void givenTotals() {
+        when(gradeRepository.streamTotalsByClassIdIn(anyCollection())).thenAnswer(invocation -> {
+            Collection<?> classIds = invocation.getArgument(0);
+            return totals().stream().filter(total -> classIds.contains(total.getClassId()));
+        });
+    }
+
+    @Test
+    void getClassStatistics_ShouldComputeSummaryAndRanksInOnePass() {
+        // Given
+        when(courseRepository.existsById(1L)).thenReturn(true);
+        givenTotals();
+
+        // When
+        GradeStatisticsResponse result = gradeStatisticsService.getClassStatistics(1L);
+
+        // Then
+        assertEquals("CLASS", result.getScope());
+        assertEquals(4, result.getGradedCount());
+        assertEquals(7.875, result.getMean(), 1e-6);
+        assertEquals(Math.sqrt(6.1875 / 4), result.getStandardDeviation(), 1e-6);
+        assertEquals(6.0, result.getMin(), 1e-6);
+        assertEquals(9.5, result.getMax(), 1e-6);
+        assertEquals(8.0, result.getMedian(), 1e-6);
+        assertEquals(7.5, result.getPercentile25(), 1e-6);
+        assertEquals(9.05, result.getPercentile90(), 1e-6);
+        assertEquals(2, result.getHistogram().get(8).getCount());
+        assertEquals(1, result.getLetterCounts().get("A"));
+        assertEquals(2, result.getLetterCounts().get("B+"));
+        assertEquals(0, result.getLetterCounts().get("F"));
+
+        // Hai sinh viên cùng 8.0 đồng hạng 2, người kế tiếp hạng 4
+        List<GradeStatisticsResponse.StudentRank> ranks = result.getRanks();
+        assertEquals(4, ranks.size());
+        assertEquals(1L, ranks.get(0).getStudentId());
+        assertEquals(1, ranks.get(0).getRank());
+        assertEquals(75.0, ranks.get(0).getPercentile(), 1e-6);
+        assertEquals(2, ranks.get(1).getRank());
+        assertEquals(2, ranks.get(2).getRank());
+        assertEquals(4L, ranks.get(3).getStudentId());
+        assertEquals(4, ranks.get(3).getRank());
+        assertEquals(0.0, ranks.get(3).getPercentile(), 1e-6);
+    }
+
+    @Test
+    void getClassStatistics_ShouldReuseCacheUntilInvalidated() {
+        // Given
+        when(courseRepository.existsById(1L)).thenReturn(true);
+        givenTotals();
+
+        // When
+        gradeStatisticsService.getClassStatistics(1L);
+        gradeStatisticsService.getClassStatistics(1L);
+        gradeStatisticsService.invalidateClass(1L);
+        gradeStatisticsService.getClassStatistics(1L);
+
+        // Then
+        verify(gradeRepository, times(2)).streamTotalsByClassIdIn(anyCollection());
+    }
+
+    @Test
+    void getSubjectStatistics_ShouldMergeClassStatistics() {
+        // Given
+        when(subjectRepository.existsById(1L)).thenReturn(true);
+        when(courseRepository.findIdsBySubjectId(1L, null)).thenReturn(Arrays.asList(1L, 2L, 3L));
+        givenTotals();
+
+        // When
+        GradeStatisticsResponse result = gradeStatisticsService.getSubjectStatistics(1L, null);
+
+        // Then
+        assertEquals("SUBJECT", result.getScope());
+        assertEquals(3, result.getClassCount());
+        assertEquals(6, result.getGradedCount());
+        assertEquals(39.5 / 6, result.getMean(), 1e-6);
+        assertEquals(3.0, result.getMin(), 1e-6);
+        assertEquals(7.0, result.getMedian(), 1e-6);
+        assertEquals(1, result.getLetterCounts().get("F"));
+        assertNull(result.getRanks());
+    }
+
+    @Test
+    void getSubjectStatistics_WhenCachedClassInvalidatedDuringRead_ShouldUseSnapshot() {
+        // Given
+        when(courseRepository.existsById(1L)).thenReturn(true);
+        when(subjectRepository.existsById(1L)).thenReturn(true);
+        when(courseRepository.findIdsBySubjectId(1L, null)).thenReturn(Arrays.asList(1L, 2L));
+        givenTotals();
+        gradeStatisticsService.getClassStatistics(1L);
+
+        // Lớp 1 bị ghi điểm và bỏ khỏi bộ nhớ trong lúc đang đọc lớp 2
+        when(gradeRepository.streamTotalsByClassIdIn(anyCollection())).thenAnswer(invocation -> {
+            gradeStatisticsService.invalidateClass(1L);
+            Collection<?> classIds = invocation.getArgument(0);
+            return totals().stream().filter(total -> classIds.contains(total.getClassId()));
+        });
+
+        // When
+        GradeStatisticsResponse result = gradeStatisticsService.getSubjectStatistics(1L, null);
+
+        // Then
+        assertEquals(6, result.getGradedCount());
+        assertEquals(39.5 / 6, result.getMean(), 1e-6);
+    }
+
+    @Test
+    void getClassStatistics_WithNonExistentClass_ShouldThrowException() {
+        // Given
+        when(courseRepository.existsById(99L)).thenReturn(false);
+
+        // When & Then
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> gradeStatisticsService.getClassStatistics(99L));
+        assertEquals("Không tìm thấy lớp với ID: 99", exception.getMessage());
+        verify(gradeRepository, never()).streamTotalsByClassIdIn(anyCollection());
+    }
+}
@@ -0,0 +1,128 @@
+package com.sms.service.impl;
+
+import com.sms.dto.response.ImportJobResponse;
+import com.sms.service.ImportJobHandler;
+import com.sms.service.ImportJobService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ImportJobServiceImplTest {
+
+    @Mock
+    private ImportJobHandler rosterHandler;
+
+    private ImportJobServiceImpl importJobService;
+
+    private final MockMultipartFile file = new MockMultipartFile("file", "roster.xlsx", null, new byte[]{1, 2, 3});
+
+    @BeforeEach
+    void setUp() {
+        importJobService = new ImportJobServiceImpl();
+        ReflectionTestUtils.setField(importJobService, "handlers", Arrays.asList(rosterHandler));
+        ReflectionTestUtils.setField(importJobService, "maxConcurrent", 1);
+        ReflectionTestUtils.setField(importJobService, "maxPending", 2);
+        ReflectionTestUtils.setField(importJobService, "retentionMinutes", 60L);
+        importJobService.init();
+        lenient().when(rosterHandler.getJobType()).thenReturn(ImportJobService.CLASS_ROSTER);
+    }
+
+    @AfterEach
+    void tearDown() {
+        importJobService.shutdown();
+    }
+
+    private ImportJobResponse awaitFinished(String jobId) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        ImportJobResponse job = importJobService.getJob(jobId);
+        while (("QUEUED".equals(job.getStatus()) || "RUNNING".equals(job.getStatus())) && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+            job = importJobService.getJob(jobId);
+        }
+        return job;
+    }
+
+    @Test
+    void submit_ShouldReturnImmediatelyAndKeepResult() throws Exception {
+        // Given
+        CountDownLatch release = new CountDownLatch(1);
+        when(rosterHandler.execute(eq(1L), any(InputStream.class), any())).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            InputStream inputStream = invocation.getArgument(1);
+            return inputStream.readAllBytes().length;
+        });
+
+        // When
+        ImportJobResponse submitted = importJobService.submit(ImportJobService.CLASS_ROSTER, 1L, file);
+        release.countDown();
+        ImportJobResponse finished = awaitFinished(submitted.getJobId());
+
+        // Then
+        assertEquals("QUEUED", submitted.getStatus());
+        assertEquals("COMPLETED", finished.getStatus());
+        assertNotNull(finished.getFinishedAt());
+        assertEquals(3, importJobService.getJobResult(submitted.getJobId()));
+        verify(rosterHandler).validate(1L, file);
+    }
+
+    @Test
+    void submit_WhenHandlerFails_ShouldMarkJobFailed() throws Exception {
+        // Given
+        when(rosterHandler.execute(eq(1L), any(InputStream.class), any()))
+                .thenThrow(new RuntimeException("Không tìm thấy lớp với ID: 1"));
+
+        // When
+        ImportJobResponse submitted = importJobService.submit(ImportJobService.CLASS_ROSTER, 1L, file);
+        ImportJobResponse finished = awaitFinished(submitted.getJobId());
+
+        // Then
+        assertEquals("FAILED", finished.getStatus());
+        assertEquals("Không tìm thấy lớp với ID: 1", finished.getErrorMessage());
+        assertThrows(RuntimeException.class, () -> importJobService.getJobResult(submitted.getJobId()));
+    }
+
+    @Test
+    void submit_WhenTooManyPendingJobs_ShouldReject() throws Exception {
+        // Given
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(rosterHandler.execute(eq(1L), any(InputStream.class), any())).thenAnswer(invocation -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return null;
+        });
+        importJobService.submit(ImportJobService.CLASS_ROSTER, 1L, file);
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        ImportJobResponse queued = importJobService.submit(ImportJobService.CLASS_ROSTER, 1L, file);
+
+        // When & Then
+        assertThrows(RuntimeException.class,
+                () -> importJobService.submit(ImportJobService.CLASS_ROSTER, 1L, file));
+        assertEquals("QUEUED", importJobService.getJob(queued.getJobId()).getStatus());
+        release.countDown();
+    }
+
+    @Test
+    void submit_WithUnknownJobType_ShouldThrowException() {
+        // When & Then
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> importJobService.submit("USERS", 1L, file));
+        assertEquals("Không hỗ trợ loại import: USERS", exception.getMessage());
+    }
+}
@@ -0,0 +1,258 @@
+package com.sms.service.impl;
+
+import com.sms.dto.response.RankRebuildResponse;
+import com.sms.dto.response.RankingListResponse;
+import com.sms.repository.ClassRankRepository;
+import com.sms.repository.CohortRankRepository;
+import com.sms.repository.CourseRepository;
+import com.sms.repository.GradeRepository;
+import com.sms.repository.StudentRepository;
+import com.sms.repository.projection.CohortKey;
+import com.sms.repository.projection.RankEntry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RankingServiceImplTest {
+
+    @Mock
+    private ClassRankRepository classRankRepository;
+
+    @Mock
+    private CohortRankRepository cohortRankRepository;
+
+    @Mock
+    private CourseRepository courseRepository;
+
+    @Mock
+    private StudentRepository studentRepository;
+
+    @Mock
+    private GradeRepository gradeRepository;
+
+    @InjectMocks
+    private RankingServiceImpl rankingService;
+
+    private CohortKey cohort(String major, Integer courseYear) {
+        return new CohortKey() {
+            @Override
+            public String getMajor() {
+                return major;
+            }
+
+            @Override
+            public Integer getCourseYear() {
+                return courseYear;
+            }
+        };
+    }
+
+    private RankEntry entry(Long studentId, double score, int rank, int denseRank, double percentile, int count) {
+        return new RankEntry() {
+            @Override
+            public Long getStudentId() {
+                return studentId;
+            }
+
+            @Override
+            public String getStudentCode() {
+                return "SV00" + studentId;
+            }
+
+            @Override
+            public String getStudentName() {
+                return "Sinh viên " + studentId;
+            }
+
+            @Override
+            public Double getScore() {
+                return score;
+            }
+
+            @Override
+            public Integer getRankPosition() {
+                return rank;
+            }
+
+            @Override
+            public Integer getDenseRankPosition() {
+                return denseRank;
+            }
+
+            @Override
+            public Double getPercentile() {
+                return percentile;
+            }
+
+            @Override
+            public Integer getRankedCount() {
+                return count;
+            }
+        };
+    }
+
+    @Test
+    void refreshClass_ShouldReplaceClassRanks() {
+        // When
+        rankingService.refreshClass(1L);
+
+        // Then
+        InOrder order = inOrder(classRankRepository);
+        order.verify(classRankRepository).deleteByClassId(1L);
+        order.verify(classRankRepository).refreshByClassId(1L);
+        verifyNoInteractions(cohortRankRepository);
+    }
+
+    @Test
+    void refreshCohorts_ShouldReplaceEachCohortOfStudentsOnce() {
+        // Given
+        when(cohortRankRepository.findCohortsByStudentIdIn(List.of(1L, 2L, 3L))).thenReturn(Arrays.asList(
+                cohort("Công nghệ thông tin", 2022), cohort("Kế toán", 2023)));
+
+        // When
+        rankingService.refreshCohorts(List.of(1L, 2L, 3L));
+
+        // Then
+        InOrder order = inOrder(cohortRankRepository);
+        order.verify(cohortRankRepository).deleteByCohort("Công nghệ thông tin", 2022);
+        order.verify(cohortRankRepository).refreshByCohort("Công nghệ thông tin", 2022);
+        verify(cohortRankRepository).deleteByCohort("Kế toán", 2023);
+        verify(cohortRankRepository).refreshByCohort("Kế toán", 2023);
+        verify(cohortRankRepository, never()).refreshAll();
+    }
+
+    @Test
+    void refreshClass_WhileAnotherRefreshIsUncommitted_ShouldWaitForCompletion() throws Exception {
+        // Given: một lần làm mới đang ở trong transaction chưa kết thúc
+        TransactionSynchronizationManager.initSynchronization();
+        ExecutorService other = Executors.newSingleThreadExecutor();
+        try {
+            rankingService.refreshClass(1L);
+            Future<?> second = other.submit(() -> rankingService.refreshClass(1L));
+
+            // When & Then: lần thứ hai chỉ chạy sau khi transaction đầu kết thúc
+            assertThrows(TimeoutException.class, () -> second.get(200, TimeUnit.MILLISECONDS));
+            verify(classRankRepository, times(1)).refreshByClassId(1L);
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+            second.get(5, TimeUnit.SECONDS);
+            verify(classRankRepository, times(2)).refreshByClassId(1L);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+            other.shutdownNow();
+        }
+    }
+
+    @Test
+    void rebuildAll_ShouldClearAndRefreshBothTables() {
+        // Given
+        when(classRankRepository.refreshAll()).thenReturn(120);
+        when(cohortRankRepository.refreshAll()).thenReturn(40);
+
+        // When
+        RankRebuildResponse result = rankingService.rebuildAll();
+
+        // Then
+        assertEquals(120, result.getClassRankCount());
+        assertEquals(40, result.getCohortRankCount());
+        InOrder order = inOrder(classRankRepository, cohortRankRepository);
+        order.verify(classRankRepository).deleteAllRanks();
+        order.verify(cohortRankRepository).deleteAllRanks();
+        order.verify(classRankRepository).refreshAll();
+        order.verify(cohortRankRepository).refreshAll();
+    }
+
+    @Test
+    void getClassRanking_ShouldReturnStoredPage() {
+        // Given
+        Pageable pageable = PageRequest.of(0, 2);
+        when(courseRepository.existsById(1L)).thenReturn(true);
+        when(classRankRepository.findEntriesByClassId(1L, pageable)).thenReturn(new PageImpl<>(Arrays.asList(
+                entry(1L, 9.5, 1, 1, 100.0, 3),
+                entry(2L, 9.5, 1, 1, 100.0, 3)), pageable, 3));
+
+        // When
+        RankingListResponse result = rankingService.getClassRanking(1L, pageable);
+
+        // Then
+        assertEquals("CLASS", result.getScope());
+        assertEquals(1L, result.getClassId());
+        assertEquals(3L, result.getTotalElements());
+        assertEquals(2, result.getTotalPages());
+        assertEquals(2, result.getRanks().size());
+        assertEquals(1, result.getRanks().get(1).getRank());
+        assertEquals("SV002", result.getRanks().get(1).getStudentCode());
+    }
+
+    @Test
+    void getClassRanking_WithNonExistentClass_ShouldThrowException() {
+        // Given
+        when(courseRepository.existsById(99L)).thenReturn(false);
+
+        // When & Then
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> rankingService.getClassRanking(99L, PageRequest.of(0, 20)));
+        assertEquals("Không tìm thấy lớp học với ID: 99", exception.getMessage());
+        verify(classRankRepository, never()).findEntriesByClassId(any(), any());
+    }
+
+    @Test
+    void getStudentCohortRank_ShouldReadSingleRow() {
+        // Given
+        when(studentRepository.existsById(2L)).thenReturn(true);
+        when(cohortRankRepository.findEntryByStudentId(2L))
+                .thenReturn(Optional.of(entry(2L, 3.2, 4, 3, 62.5, 8)));
+
+        // When
+        RankingListResponse.StudentRankResponse result = rankingService.getStudentCohortRank(2L);
+
+        // Then
+        assertEquals(4, result.getRank());
+        assertEquals(3, result.getDenseRank());
+        assertEquals(62.5, result.getPercentile());
+        assertEquals(8, result.getRankedCount());
+    }
+
+    @Test
+    void getStudentClassRank_WithoutTotal_ShouldThrowException() {
+        // Given
+        when(studentRepository.existsById(2L)).thenReturn(true);
+        when(classRankRepository.findEntry(1L, 2L)).thenReturn(Optional.empty());
+
+        // When & Then
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> rankingService.getStudentClassRank(2L, 1L));
+        assertEquals("Sinh viên chưa có điểm tổng kết trong lớp học này", exception.getMessage());
+    }
+
+    @Test
+    void getCohortRanking_WithoutCourseYear_ShouldThrowException() {
+        // When & Then
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> rankingService.getCohortRanking("Kế toán", null, PageRequest.of(0, 20)));
+        assertEquals("Cần chỉ định ngành và năm nhập học của khóa", exception.getMessage());
+        verifyNoInteractions(cohortRankRepository);
+    }
+}
@@ -0,0 +1,109 @@
+package com.sms.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sms.event.SeatCountChangedEvent;
+import com.sms.repository.CourseRepository;
+import com.sms.repository.SemesterRepository;
+import com.sms.service.SeatReservationService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SeatAvailabilityStreamServiceImplTest {
+
+    @Mock
+    private CourseRepository courseRepository;
+
+    @Mock
+    private SemesterRepository semesterRepository;
+
+    @Mock
+    private SeatReservationService seatReservationService;
+
+    @InjectMocks
+    private SeatAvailabilityStreamServiceImpl seatAvailabilityStreamService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(seatAvailabilityStreamService, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(seatAvailabilityStreamService, "timeoutMinutes", 30L);
+        ReflectionTestUtils.setField(seatAvailabilityStreamService, "maxSubscribers", 2);
+        lenient().when(semesterRepository.existsById(1L)).thenReturn(true);
+        lenient().when(courseRepository.findIdsBySemesterId(1L)).thenReturn(Arrays.asList(1L, 2L));
+    }
+
+    @Test
+    void subscribe_ShouldSendSnapshotForSemesterClasses() {
+        // When
+        SseEmitter emitter = seatAvailabilityStreamService.subscribe(1L);
+
+        // Then
+        assertNotNull(emitter);
+        verify(seatReservationService).getAvailableSeats(1L);
+        verify(seatReservationService).getAvailableSeats(2L);
+    }
+
+    @Test
+    void subscribe_WhenSemesterNotFound_ShouldThrowException() {
+        // Given
+        when(semesterRepository.existsById(99L)).thenReturn(false);
+
+        // When & Then
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> seatAvailabilityStreamService.subscribe(99L));
+        assertEquals("Không tìm thấy học kỳ với ID: 99", exception.getMessage());
+    }
+
+    @Test
+    void subscribe_WhenSubscriberLimitReached_ShouldReject() {
+        // Given
+        seatAvailabilityStreamService.subscribe(1L);
+        seatAvailabilityStreamService.subscribe(1L);
+
+        // When & Then
+        assertThrows(RuntimeException.class, () -> seatAvailabilityStreamService.subscribe(1L));
+    }
+
+    @Test
+    void flush_ShouldCoalesceRepeatedChangesOfSameClass() {
+        // Given
+        seatAvailabilityStreamService.subscribe(1L);
+        clearInvocations(seatReservationService);
+
+        // When
+        seatAvailabilityStreamService.onSeatCountChanged(new SeatCountChangedEvent(1L));
+        seatAvailabilityStreamService.onSeatCountChanged(new SeatCountChangedEvent(1L));
+        seatAvailabilityStreamService.onSeatCountChanged(new SeatCountChangedEvent(1L));
+        seatAvailabilityStreamService.flush();
+        seatAvailabilityStreamService.flush();
+
+        // Then
+        verify(seatReservationService, times(1)).getAvailableSeats(1L);
+        verify(seatReservationService, never()).getAvailableSeats(2L);
+        verify(courseRepository, never()).findAllById(anyCollection());
+    }
+
+    @Test
+    void onSeatCountChanged_WithoutSubscribers_ShouldBeIgnored() {
+        // When
+        seatAvailabilityStreamService.onSeatCountChanged(new SeatCountChangedEvent(1L));
+        seatAvailabilityStreamService.flush();
+
+        // Then
+        verify(courseRepository, never()).findAllById(anyCollection());
+        verify(seatReservationService, never()).getAvailableSeats(anyLong());
+    }
+}
@@ -0,0 +1,181 @@
+package com.sms.service.impl;
+
+import com.sms.event.SeatReleasedEvent;
+import com.sms.repository.CourseRepository;
+import com.sms.repository.projection.ClassSeatCount;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SeatReservationServiceImplTest {
+
+    @Mock
+    private CourseRepository courseRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @InjectMocks
+    private SeatReservationServiceImpl seatReservationService;
+
+    private ClassSeatCount seatCount(Long id, int enrolled, int max) {
+        return new ClassSeatCount() {
+            public Long getId() { return id; }
+            public Integer getEnrolledCount() { return enrolled; }
+            public Integer getMaxStudent() { return max; }
+        };
+    }
+
+    @Test
+    void tryReserve_WhenSeatsAvailable_ShouldReserveInDatabase() {
+        // Given
+        when(courseRepository.findSeatCountById(1L)).thenReturn(Optional.of(seatCount(1L, 5, 50)));
+        when(courseRepository.incrementEnrolledCount(1L)).thenReturn(1);
+
+        // When
+        boolean reserved = seatReservationService.tryReserve(1L);
+
+        // Then
+        assertTrue(reserved);
+        assertEquals(44, seatReservationService.getAvailableSeats(1L));
+        verify(courseRepository).incrementEnrolledCount(1L);
+    }
+
+    @Test
+    void tryReserve_WhenCounterFull_ShouldRejectWithoutDatabaseUpdate() {
+        // Given
+        when(courseRepository.findSeatCountById(1L)).thenReturn(Optional.of(seatCount(1L, 50, 50)));
+
+        // When
+        boolean reserved = seatReservationService.tryReserve(1L);
+
+        // Then
+        assertFalse(reserved);
+        verify(courseRepository, never()).incrementEnrolledCount(anyLong());
+    }
+
+    @Test
+    void tryReserveCount_WhenFewerSeatsLeft_ShouldReservePartiallyInOneUpdate() {
+        // Given
+        when(courseRepository.findSeatCountById(1L)).thenReturn(Optional.of(seatCount(1L, 47, 50)));
+        when(courseRepository.incrementEnrolledCountBy(1L, 3)).thenReturn(1);
+
+        // When
+        int reserved = seatReservationService.tryReserve(1L, 5);
+
+        // Then
+        assertEquals(3, reserved);
+        assertEquals(0, seatReservationService.getAvailableSeats(1L));
+        verify(courseRepository, times(1)).incrementEnrolledCountBy(1L, 3);
+    }
+
+    @Test
+    void tryReserve_WhenDatabaseRejects_ShouldResyncCounter() {
+        // Given
+        when(courseRepository.findSeatCountById(1L))
+                .thenReturn(Optional.of(seatCount(1L, 10, 50)))
+                .thenReturn(Optional.of(seatCount(1L, 50, 50)));
+        when(courseRepository.incrementEnrolledCount(1L)).thenReturn(0);
+
+        // When
+        boolean reserved = seatReservationService.tryReserve(1L);
+
+        // Then
+        assertFalse(reserved);
+        assertEquals(0, seatReservationService.getAvailableSeats(1L));
+    }
+
+    @Test
+    void tryReserve_WhenClassNotFound_ShouldReturnFalse() {
+        // Given
+        when(courseRepository.findSeatCountById(1L)).thenReturn(Optional.empty());
+
+        // When & Then
+        assertFalse(seatReservationService.tryReserve(1L));
+    }
+
+    @Test
+    void tryReserve_UnderContention_ShouldNeverOversell() throws InterruptedException {
+        // Given
+        when(courseRepository.findSeatCountById(1L)).thenReturn(Optional.of(seatCount(1L, 0, 30)));
+        when(courseRepository.incrementEnrolledCount(1L)).thenReturn(1);
+        AtomicInteger admitted = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+
+        // When
+        for (int i = 0; i < 500; i++) {
+            executor.submit(() -> {
+                if (seatReservationService.tryReserve(1L)) {
+                    admitted.incrementAndGet();
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        // Then
+        assertEquals(30, admitted.get());
+        assertEquals(0, seatReservationService.getAvailableSeats(1L));
+        verify(courseRepository, times(30)).incrementEnrolledCount(1L);
+    }
+
+    @Test
+    void release_ShouldFreeSeat() {
+        // Given
+        when(courseRepository.findSeatCountById(1L)).thenReturn(Optional.of(seatCount(1L, 50, 50)));
+
+        // When
+        seatReservationService.release(1L);
+
+        // Then
+        assertEquals(1, seatReservationService.getAvailableSeats(1L));
+        verify(courseRepository).decrementEnrolledCount(1L);
+        verify(eventPublisher).publishEvent(any(SeatReleasedEvent.class));
+    }
+
+    @Test
+    void reconcileAll_ShouldReloadCountersFromDatabase() {
+        // Given
+        when(courseRepository.findAllSeatCounts())
+                .thenReturn(Arrays.asList(seatCount(1L, 20, 50), seatCount(2L, 40, 40)));
+
+        // When
+        int synced = seatReservationService.reconcileAll();
+
+        // Then
+        assertEquals(2, synced);
+        assertEquals(30, seatReservationService.getAvailableSeats(1L));
+        assertEquals(0, seatReservationService.getAvailableSeats(2L));
+        verify(courseRepository).syncAllEnrolledCounts();
+        verify(courseRepository, never()).findSeatCountById(anyLong());
+    }
+
+    @Test
+    void updateCapacity_ShouldApplyNewMaxStudent() {
+        // Given
+        when(courseRepository.findAllSeatCounts()).thenReturn(Arrays.asList(seatCount(1L, 50, 50)));
+        seatReservationService.reconcileAll();
+
+        // When
+        seatReservationService.updateCapacity(1L, 60);
+
+        // Then
+        assertEquals(10, seatReservationService.getAvailableSeats(1L));
+    }
+}
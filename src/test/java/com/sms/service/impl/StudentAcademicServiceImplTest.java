@@ -1,15 +1,22 @@
 package com.sms.service.impl;
 
+import com.sms.dto.request.ClassAssignmentRequest;
 import com.sms.dto.request.ClassRegistrationRequest;
+import com.sms.dto.response.BulkRegistrationResponse;
 import com.sms.dto.response.StudentClassResponse;
 import com.sms.entity.*;
 import com.sms.repository.*;
+import com.sms.service.ClassCatalogService;
+import com.sms.service.SeatReservationService;
+import com.sms.service.WaitlistService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.time.LocalDateTime;
 import java.util.Arrays;
@@ -18,6 +25,8 @@ import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -47,6 +56,15 @@ class StudentAcademicServiceImplTest {
     @Mock
     private StudentRepository studentRepository;
 
+    @Mock
+    private SeatReservationService seatReservationService;
+
+    @Mock
+    private WaitlistService waitlistService;
+
+    @Mock
+    private ClassCatalogService classCatalogService;
+
     @InjectMocks
     private StudentAcademicServiceImpl studentAcademicService;
 
@@ -108,51 +126,26 @@ class StudentAcademicServiceImplTest {
         testSchedule.setRoom("A101");
 
         testRegistrationRequest = new ClassRegistrationRequest(1L, 1L);
+
+        ReflectionTestUtils.setField(studentAcademicService, "maxCartClasses", 10);
     }
 
     @Test
-    void getAvailableClasses_ShouldReturnAvailableClasses() {
+    void getAvailableClasses_ShouldReturnClassesFromCatalog() {
         // Given
         Long studentId = 1L;
-        List<Course> allClasses = Arrays.asList(testClass);
-        List<ClassStudent> registeredClasses = Arrays.asList(); // No registered classes
-        when(courseRepository.findAll()).thenReturn(allClasses);
-        when(classStudentRepository.findByStudentId(studentId)).thenReturn(registeredClasses);
-        when(subjectRepository.findById(1L)).thenReturn(Optional.of(testSubject));
-        when(semesterRepository.findById(1L)).thenReturn(Optional.of(testSemester));
-        when(teacherRepository.findById(1L)).thenReturn(Optional.of(testTeacher));
-        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
-        when(classStudentRepository.countByClassId(1L)).thenReturn(5L);
-        when(scheduleRepository.findByClassId(1L)).thenReturn(Arrays.asList(testSchedule));
+        StudentClassResponse catalogClass = new StudentClassResponse();
+        catalogClass.setClassCode("CS101");
+        catalogClass.setIsRegistered(false);
+        when(classCatalogService.getAvailableClasses(studentId)).thenReturn(Arrays.asList(catalogClass));
 
         // When
         List<StudentClassResponse> result = studentAcademicService.getAvailableClasses(studentId);
 
         // Then
-        assertNotNull(result);
         assertEquals(1, result.size());
         assertEquals("CS101", result.get(0).getClassCode());
-        assertEquals("Lập trình Java", result.get(0).getSubjectName());
-        assertEquals("HK1-2024", result.get(0).getSemesterName());
-        assertEquals("Thầy B", result.get(0).getTeacherName());
-        assertFalse(result.get(0).getIsRegistered());
-    }
-
-    @Test
-    void getAvailableClasses_ShouldExcludeRegisteredClasses() {
-        // Given
-        Long studentId = 1L;
-        List<Course> allClasses = Arrays.asList(testClass);
-        List<ClassStudent> registeredClasses = Arrays.asList(testClassStudent); // Student is registered
-        when(courseRepository.findAll()).thenReturn(allClasses);
-        when(classStudentRepository.findByStudentId(studentId)).thenReturn(registeredClasses);
-
-        // When
-        List<StudentClassResponse> result = studentAcademicService.getAvailableClasses(studentId);
-
-        // Then
-        assertNotNull(result);
-        assertTrue(result.isEmpty()); // Should be empty because student is already registered
+        verify(courseRepository, never()).findAll();
     }
 
     @Test
@@ -210,7 +203,7 @@ class StudentAcademicServiceImplTest {
         when(studentRepository.findById(1L)).thenReturn(Optional.of(testStudent));
         when(courseRepository.findById(1L)).thenReturn(Optional.of(testClass));
         when(classStudentRepository.findByClassIdAndStudentId(1L, 1L)).thenReturn(Optional.empty());
-        when(classStudentRepository.countByClassId(1L)).thenReturn(5L); // Less than maxStudent (50)
+        when(seatReservationService.tryReserve(1L)).thenReturn(true);
         when(classStudentRepository.save(any(ClassStudent.class))).thenReturn(testClassStudent);
 
         // When
@@ -220,6 +213,24 @@ class StudentAcademicServiceImplTest {
         verify(classStudentRepository).save(any(ClassStudent.class));
     }
 
+    @Test
+    void registerForClass_WhenWaitlistNotEmpty_ShouldThrowClassFull() {
+        // Given
+        testClass.setWaitlistHead(1L);
+        testClass.setWaitlistTail(3L);
+        when(studentRepository.findById(1L)).thenReturn(Optional.of(testStudent));
+        when(courseRepository.findById(1L)).thenReturn(Optional.of(testClass));
+        when(classStudentRepository.findByClassIdAndStudentId(1L, 1L)).thenReturn(Optional.empty());
+
+        // When & Then
+        assertThrows(RuntimeException.class, () -> {
+            studentAcademicService.registerForClass(testRegistrationRequest);
+        });
+
+        verify(seatReservationService, never()).tryReserve(any());
+        verify(classStudentRepository, never()).save(any(ClassStudent.class));
+    }
+
     @Test
     void registerForClass_WhenStudentNotFound_ShouldThrowException() {
         // Given
@@ -263,6 +274,7 @@ class StudentAcademicServiceImplTest {
 
         assertEquals("Sinh viên đã đăng ký lớp này", exception.getMessage());
         verify(classStudentRepository, never()).save(any(ClassStudent.class));
+        verify(seatReservationService, never()).tryReserve(any());
     }
 
     @Test
@@ -271,7 +283,7 @@ class StudentAcademicServiceImplTest {
         when(studentRepository.findById(1L)).thenReturn(Optional.of(testStudent));
         when(courseRepository.findById(1L)).thenReturn(Optional.of(testClass));
         when(classStudentRepository.findByClassIdAndStudentId(1L, 1L)).thenReturn(Optional.empty());
-        when(classStudentRepository.countByClassId(1L)).thenReturn(50L); // Equal to maxStudent (50)
+        when(seatReservationService.tryReserve(1L)).thenReturn(false); // No seat left
 
         // When & Then
         RuntimeException exception = assertThrows(RuntimeException.class, () -> {
@@ -295,6 +307,7 @@ class StudentAcademicServiceImplTest {
 
         // Then
         verify(classStudentRepository).delete(testClassStudent);
+        verify(seatReservationService).release(classId);
     }
 
     @Test
@@ -312,6 +325,7 @@ class StudentAcademicServiceImplTest {
 
         assertEquals("Sinh viên chưa đăng ký lớp này", exception.getMessage());
         verify(classStudentRepository, never()).delete(any(ClassStudent.class));
+        verify(seatReservationService, never()).release(any());
     }
 
     @Test
@@ -327,4 +341,102 @@ class StudentAcademicServiceImplTest {
         assertNotNull(result);
         assertTrue(result.isEmpty());
     }
+
+    @Test
+    void registerForClasses_ShouldReturnOutcomePerClass() {
+        // Given
+        Course otherClass = new Course();
+        otherClass.setId(2L);
+        otherClass.setClassCode("CS102");
+        otherClass.setSemesterId(1L);
+        when(studentRepository.findById(1L)).thenReturn(Optional.of(testStudent));
+        when(classStudentRepository.findByStudentId(1L)).thenReturn(Arrays.asList());
+        when(courseRepository.findAllById(anyCollection())).thenReturn(Arrays.asList(testClass, otherClass));
+        when(scheduleRepository.findByClassIdIn(anyCollection())).thenReturn(Arrays.asList(testSchedule));
+        when(seatReservationService.tryReserve(1L)).thenReturn(true);
+        when(seatReservationService.tryReserve(2L)).thenReturn(false);
+
+        // When
+        BulkRegistrationResponse result = studentAcademicService.registerForClasses(
+                new ClassAssignmentRequest(1L, Arrays.asList(1L, 2L, 3L)));
+
+        // Then
+        assertEquals(1, result.getRegisteredCount());
+        assertEquals(2, result.getFailedCount());
+        assertEquals("REGISTERED", result.getResults().get(0).getStatus());
+        assertEquals("CLASS_FULL", result.getResults().get(1).getStatus());
+        assertEquals("NOT_FOUND", result.getResults().get(2).getStatus());
+        verify(classStudentRepository).saveAll(argThat(list -> ((List<?>) list).size() == 1));
+    }
+
+    @Test
+    void registerForClasses_ShouldReserveSeatsInClassIdOrder() {
+        // Given
+        Course otherClass = new Course();
+        otherClass.setId(2L);
+        otherClass.setClassCode("CS102");
+        otherClass.setSemesterId(1L);
+        when(studentRepository.findById(1L)).thenReturn(Optional.of(testStudent));
+        when(classStudentRepository.findByStudentId(1L)).thenReturn(Arrays.asList());
+        when(courseRepository.findAllById(anyCollection())).thenReturn(Arrays.asList(testClass, otherClass));
+        when(scheduleRepository.findByClassIdIn(anyCollection())).thenReturn(Arrays.asList(testSchedule));
+        when(seatReservationService.tryReserve(anyLong())).thenReturn(true);
+
+        // When
+        BulkRegistrationResponse result = studentAcademicService.registerForClasses(
+                new ClassAssignmentRequest(1L, Arrays.asList(2L, 1L)));
+
+        // Then: khóa dòng lớp theo classId tăng dần, kết quả vẫn theo thứ tự giỏ
+        InOrder order = inOrder(seatReservationService);
+        order.verify(seatReservationService).tryReserve(1L);
+        order.verify(seatReservationService).tryReserve(2L);
+        assertEquals(2, result.getRegisteredCount());
+        assertEquals(2L, result.getResults().get(0).getClassId());
+        assertEquals(1L, result.getResults().get(1).getClassId());
+    }
+
+    @Test
+    void registerForClasses_WhenScheduleOverlaps_ShouldRejectConflictingClass() {
+        // Given
+        Course registeredClass = new Course();
+        registeredClass.setId(5L);
+        registeredClass.setClassCode("MA101");
+        registeredClass.setSemesterId(1L);
+        ClassStudent registration = new ClassStudent();
+        registration.setClassId(5L);
+        registration.setStudentId(1L);
+        Schedule registeredSchedule = new Schedule();
+        registeredSchedule.setClassId(5L);
+        registeredSchedule.setDayOfWeek("MONDAY");
+        registeredSchedule.setStartTime(java.time.LocalTime.of(9, 0));
+        registeredSchedule.setEndTime(java.time.LocalTime.of(11, 0));
+        when(studentRepository.findById(1L)).thenReturn(Optional.of(testStudent));
+        when(classStudentRepository.findByStudentId(1L)).thenReturn(Arrays.asList(registration));
+        when(courseRepository.findAllById(anyCollection())).thenReturn(Arrays.asList(testClass, registeredClass));
+        when(scheduleRepository.findByClassIdIn(anyCollection())).thenReturn(Arrays.asList(testSchedule, registeredSchedule));
+
+        // When
+        BulkRegistrationResponse result = studentAcademicService.registerForClasses(
+                new ClassAssignmentRequest(1L, Arrays.asList(1L, 5L)));
+
+        // Then
+        assertEquals(0, result.getRegisteredCount());
+        assertEquals("SCHEDULE_CONFLICT", result.getResults().get(0).getStatus());
+        assertEquals("ALREADY_REGISTERED", result.getResults().get(1).getStatus());
+        verify(seatReservationService, never()).tryReserve(any());
+    }
+
+    @Test
+    void registerForClasses_WhenCartTooLarge_ShouldThrowException() {
+        // Given
+        ReflectionTestUtils.setField(studentAcademicService, "maxCartClasses", 1);
+        when(studentRepository.findById(1L)).thenReturn(Optional.of(testStudent));
+
+        // When & Then
+        assertThrows(RuntimeException.class, () -> {
+            studentAcademicService.registerForClasses(new ClassAssignmentRequest(1L, Arrays.asList(1L, 2L)));
+        });
+
+        verify(classStudentRepository, never()).saveAll(any());
+    }
 }
@@ -3,6 +3,8 @@ package com.sms.service.impl;
 import com.sms.dto.response.TeacherClassResponse;
 import com.sms.entity.*;
 import com.sms.repository.*;
+import com.sms.repository.projection.RosterStudent;
+import com.sms.service.ClassService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -34,10 +36,7 @@ class TeacherClassServiceImplTest {
     private ClassStudentRepository classStudentRepository;
 
     @Mock
-    private StudentRepository studentRepository;
-
-    @Mock
-    private UserRepository userRepository;
+    private ClassService classService;
 
     @InjectMocks
     private TeacherClassServiceImpl teacherClassService;
@@ -45,9 +44,7 @@ class TeacherClassServiceImplTest {
     private Course testClass;
     private Subject testSubject;
     private Semester testSemester;
-    private ClassStudent testClassStudent;
-    private Student testStudent;
-    private User testUser;
+    private RosterStudent testRosterStudent;
 
     @BeforeEach
     void setUp() {
@@ -70,23 +67,14 @@ class TeacherClassServiceImplTest {
         testSemester.setId(1L);
         testSemester.setName("HK1-2024");
 
-        testClassStudent = new ClassStudent();
-        testClassStudent.setId(1L);
-        testClassStudent.setClassId(1L);
-        testClassStudent.setStudentId(1L);
-
-        testStudent = new Student();
-        testStudent.setId(1L);
-        testStudent.setUserId(1L);
-        testStudent.setStudentCode("SV001");
-        testStudent.setClassName("CNTT");
-        testStudent.setMajor("Công nghệ thông tin");
-        testStudent.setCourseYear(2020);
-
-        testUser = new User();
-        testUser.setId(1L);
-        testUser.setFullName("Nguyễn Văn A");
-        testUser.setEmail("student@example.com");
+        testRosterStudent = mock(RosterStudent.class);
+        lenient().when(testRosterStudent.getStudentId()).thenReturn(1L);
+        lenient().when(testRosterStudent.getStudentCode()).thenReturn("SV001");
+        lenient().when(testRosterStudent.getStudentName()).thenReturn("Nguyễn Văn A");
+        lenient().when(testRosterStudent.getEmail()).thenReturn("student@example.com");
+        lenient().when(testRosterStudent.getClassName()).thenReturn("CNTT");
+        lenient().when(testRosterStudent.getMajor()).thenReturn("Công nghệ thông tin");
+        lenient().when(testRosterStudent.getCourseYear()).thenReturn(2020);
     }
 
     @Test
@@ -98,9 +86,7 @@ class TeacherClassServiceImplTest {
         when(subjectRepository.findById(1L)).thenReturn(Optional.of(testSubject));
         when(semesterRepository.findById(1L)).thenReturn(Optional.of(testSemester));
         when(classStudentRepository.countByClassId(1L)).thenReturn(5L);
-        when(classStudentRepository.findByClassId(1L)).thenReturn(Arrays.asList(testClassStudent));
-        when(studentRepository.findById(1L)).thenReturn(Optional.of(testStudent));
-        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+        when(classStudentRepository.findRosterStudents(1L)).thenReturn(Arrays.asList(testRosterStudent));
 
         // When
         List<TeacherClassResponse> result = teacherClassService.getClassesByTeacher(teacherId);
@@ -124,9 +110,7 @@ class TeacherClassServiceImplTest {
         when(subjectRepository.findById(1L)).thenReturn(Optional.of(testSubject));
         when(semesterRepository.findById(1L)).thenReturn(Optional.of(testSemester));
         when(classStudentRepository.countByClassId(1L)).thenReturn(5L);
-        when(classStudentRepository.findByClassId(1L)).thenReturn(Arrays.asList(testClassStudent));
-        when(studentRepository.findById(1L)).thenReturn(Optional.of(testStudent));
-        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+        when(classStudentRepository.findRosterStudents(1L)).thenReturn(Arrays.asList(testRosterStudent));
 
         // When
         List<TeacherClassResponse> result = teacherClassService.getClassesByTeacherAndSemester(teacherId, semesterId);
@@ -145,9 +129,7 @@ class TeacherClassServiceImplTest {
         when(subjectRepository.findById(1L)).thenReturn(Optional.of(testSubject));
         when(semesterRepository.findById(1L)).thenReturn(Optional.of(testSemester));
         when(classStudentRepository.countByClassId(1L)).thenReturn(5L);
-        when(classStudentRepository.findByClassId(1L)).thenReturn(Arrays.asList(testClassStudent));
-        when(studentRepository.findById(1L)).thenReturn(Optional.of(testStudent));
-        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+        when(classStudentRepository.findRosterStudents(1L)).thenReturn(Arrays.asList(testRosterStudent));
 
         // When
         TeacherClassResponse result = teacherClassService.getClassWithStudents(classId);
@@ -0,0 +1,254 @@
+package com.sms.service.impl;
+
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.canvas.parser.PdfTextExtractor;
+import com.sms.dto.response.StudentGradeResponse;
+import com.sms.repository.GradeRepository;
+import com.sms.repository.StudentRepository;
+import com.sms.repository.projection.TranscriptLine;
+import com.sms.repository.projection.TranscriptStudent;
+import com.sms.service.TranscriptService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.templatemode.TemplateMode;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.*;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TranscriptPdfServiceImplTest {
+
+    @Mock
+    private StudentRepository studentRepository;
+
+    @Mock
+    private GradeRepository gradeRepository;
+
+    @Mock
+    private TranscriptService transcriptService;
+
+    @InjectMocks
+    private TranscriptPdfServiceImpl transcriptPdfService;
+
+    @BeforeEach
+    void setUp() {
+        ClassLoaderTemplateResolver resolver = new ClassLoaderTemplateResolver();
+        resolver.setPrefix("templates/");
+        resolver.setSuffix(".html");
+        resolver.setTemplateMode(TemplateMode.HTML);
+        resolver.setCharacterEncoding("UTF-8");
+        SpringTemplateEngine templateEngine = new SpringTemplateEngine();
+        templateEngine.setTemplateResolver(resolver);
+
+        ReflectionTestUtils.setField(transcriptPdfService, "templateEngine", templateEngine);
+        ReflectionTestUtils.setField(transcriptPdfService, "parallelism", 2);
+        ReflectionTestUtils.setField(transcriptPdfService, "chunkSize", 2);
+        transcriptPdfService.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        transcriptPdfService.shutdown();
+    }
+
+    private TranscriptStudent student(Long id, String code, String name) {
+        return new TranscriptStudent() {
+            @Override
+            public Long getStudentId() {
+                return id;
+            }
+
+            @Override
+            public String getStudentCode() {
+                return code;
+            }
+
+            @Override
+            public String getStudentName() {
+                return name;
+            }
+
+            @Override
+            public String getClassName() {
+                return "CNTT01";
+            }
+
+            @Override
+            public String getMajor() {
+                return "Công nghệ thông tin";
+            }
+
+            @Override
+            public Integer getCourseYear() {
+                return 2022;
+            }
+        };
+    }
+
+    private TranscriptLine line(Long studentId, String subjectCode, String subjectName, Float total) {
+        return new TranscriptLine() {
+            @Override
+            public Long getStudentId() {
+                return studentId;
+            }
+
+            @Override
+            public Long getSemesterId() {
+                return 1L;
+            }
+
+            @Override
+            public String getSemesterName() {
+                return "Học kỳ 1 2024-2025";
+            }
+
+            @Override
+            public String getSubjectCode() {
+                return subjectCode;
+            }
+
+            @Override
+            public String getSubjectName() {
+                return subjectName;
+            }
+
+            @Override
+            public Integer getCredit() {
+                return 3;
+            }
+
+            @Override
+            public Float getMidterm() {
+                return total;
+            }
+
+            @Override
+            public Float getFinalGrade() {
+                return total;
+            }
+
+            @Override
+            public Float getOther() {
+                return null;
+            }
+
+            @Override
+            public Float getTotal() {
+                return total;
+            }
+        };
+    }
+
+    private String extractText(byte[] pdf) throws Exception {
+        try (PdfDocument document = new PdfDocument(new PdfReader(new ByteArrayInputStream(pdf)))) {
+            StringBuilder text = new StringBuilder();
+            for (int page = 1; page <= document.getNumberOfPages(); page++) {
+                text.append(PdfTextExtractor.getTextFromPage(document.getPage(page)));
+            }
+            return text.toString();
+        }
+    }
+
+    @Test
+    void renderStudentTranscript_ShouldRenderGradesAndSummary() throws Exception {
+        // Given
+        when(studentRepository.findTranscriptStudent(1L))
+                .thenReturn(Optional.of(student(1L, "SV001", "Nguyễn Văn Anh")));
+        when(gradeRepository.findTranscriptLinesByStudentIdIn(List.of(1L))).thenReturn(Arrays.asList(
+                line(1L, "IT001", "Lập trình Java", 9.0f),
+                line(1L, "IT002", "Cơ sở dữ liệu", 6.0f)));
+        when(transcriptService.getSummaries(List.of(1L))).thenReturn(Map.of(1L,
+                new StudentGradeResponse.GPASummary(3.15, 6, 6, List.of(
+                        new StudentGradeResponse.TermSummary(1L, 3.15, 6, 6)))));
+
+        // When
+        byte[] pdf = transcriptPdfService.renderStudentTranscript(1L);
+
+        // Then
+        assertEquals("%PDF", new String(pdf, 0, 4));
+        String text = extractText(pdf);
+        assertTrue(text.contains("Nguyễn Văn Anh"), text);
+        assertTrue(text.contains("Lập trình Java"), text);
+        assertTrue(text.contains("IT002"), text);
+        assertTrue(text.contains("3.15"), text);
+    }
+
+    @Test
+    void renderStudentTranscript_WithNonExistentStudent_ShouldThrowException() {
+        // Given
+        when(studentRepository.findTranscriptStudent(99L)).thenReturn(Optional.empty());
+
+        // When & Then
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> transcriptPdfService.renderStudentTranscript(99L));
+        assertEquals("Không tìm thấy sinh viên với ID: 99", exception.getMessage());
+    }
+
+    @Test
+    void exportCohort_ShouldStreamOneEntryPerStudentChunkByChunk() throws Exception {
+        // Given
+        when(studentRepository.findTranscriptStudentChunk(eq("CNTT"), eq(2022), eq(0L), any(Pageable.class)))
+                .thenReturn(Arrays.asList(student(1L, "SV001", "Sinh viên 1"), student(2L, "SV002", "Sinh viên 2")));
+        when(studentRepository.findTranscriptStudentChunk(eq("CNTT"), eq(2022), eq(2L), any(Pageable.class)))
+                .thenReturn(Arrays.asList(student(3L, null, "Sinh viên 3")));
+        when(gradeRepository.findTranscriptLinesByStudentIdIn(anyCollection())).thenReturn(new ArrayList<>());
+        when(transcriptService.getSummaries(anyCollection())).thenReturn(new HashMap<>());
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        // When
+        int count = transcriptPdfService.exportCohort(" CNTT ", 2022, output);
+
+        // Then
+        assertEquals(3, count);
+        List<String> names = new ArrayList<>();
+        try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(output.toByteArray()))) {
+            for (ZipEntry entry = zip.getNextEntry(); entry != null; entry = zip.getNextEntry()) {
+                names.add(entry.getName());
+                assertEquals("%PDF", new String(zip.readNBytes(4)));
+            }
+        }
+        assertEquals(List.of("SV001.pdf", "SV002.pdf", "sinh-vien-3.pdf"), names);
+        verify(gradeRepository, times(2)).findTranscriptLinesByStudentIdIn(anyCollection());
+        verify(transcriptService, times(2)).getSummaries(anyCollection());
+    }
+
+    @Test
+    void prepareCohortExport_WithEmptyCohort_ShouldThrowException() {
+        // Given
+        when(studentRepository.countByMajorAndCourseYear("CNTT", 2030)).thenReturn(0L);
+
+        // When & Then
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> transcriptPdfService.prepareCohortExport("CNTT", 2030));
+        assertEquals("Không có sinh viên nào thuộc ngành CNTT khóa 2030", exception.getMessage());
+    }
+
+    @Test
+    void prepareCohortExport_ShouldReturnZipFileName() {
+        // Given
+        when(studentRepository.countByMajorAndCourseYear("KTPM", 2022)).thenReturn(120L);
+
+        // When
+        String fileName = transcriptPdfService.prepareCohortExport("KTPM", 2022);
+
+        // Then
+        assertEquals("bang-diem-KTPM-2022.zip", fileName);
+    }
+}
@@ -0,0 +1,280 @@
+package com.sms.service.impl;
+
+import com.sms.dto.response.StudentGradeResponse;
+import com.sms.dto.response.TranscriptRebuildResponse;
+import com.sms.entity.Course;
+import com.sms.entity.Grade;
+import com.sms.entity.StudentTermTranscript;
+import com.sms.entity.StudentTranscript;
+import com.sms.entity.Subject;
+import com.sms.repository.CourseRepository;
+import com.sms.repository.GradeRepository;
+import com.sms.repository.StudentTermTranscriptRepository;
+import com.sms.repository.StudentTranscriptRepository;
+import com.sms.repository.SubjectRepository;
+import com.sms.repository.projection.TranscriptGradeRow;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TranscriptServiceImplTest {
+
+    @Mock
+    private GradeRepository gradeRepository;
+
+    @Mock
+    private CourseRepository courseRepository;
+
+    @Mock
+    private SubjectRepository subjectRepository;
+
+    @Mock
+    private StudentTranscriptRepository studentTranscriptRepository;
+
+    @Mock
+    private StudentTermTranscriptRepository studentTermTranscriptRepository;
+
+    @InjectMocks
+    private TranscriptServiceImpl transcriptService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(transcriptService, "parallelism", 2);
+        // Chia nhỏ để lần dựng lại thật sự đi qua nhánh fork
+        ReflectionTestUtils.setField(transcriptService, "partitionSize", 1);
+        transcriptService.init();
+
+        Course javaClass = new Course();
+        javaClass.setId(1L);
+        javaClass.setSubjectId(1L);
+        javaClass.setSemesterId(1L);
+        Subject java = new Subject();
+        java.setId(1L);
+        java.setCredit(3);
+        lenient().when(courseRepository.findById(1L)).thenReturn(Optional.of(javaClass));
+        lenient().when(subjectRepository.findById(1L)).thenReturn(Optional.of(java));
+    }
+
+    @AfterEach
+    void tearDown() {
+        transcriptService.shutdown();
+    }
+
+    private Grade grade(Long studentId, Float total) {
+        Grade grade = new Grade();
+        grade.setClassId(1L);
+        grade.setStudentId(studentId);
+        grade.setTotal(total);
+        return grade;
+    }
+
+    private TranscriptGradeRow row(Long studentId, Long semesterId, Integer credit, float total) {
+        return new TranscriptGradeRow() {
+            @Override
+            public Long getStudentId() {
+                return studentId;
+            }
+
+            @Override
+            public Long getSemesterId() {
+                return semesterId;
+            }
+
+            @Override
+            public Integer getCredit() {
+                return credit;
+            }
+
+            @Override
+            public Float getTotal() {
+                return total;
+            }
+        };
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void applyGradeChanges_ShouldApplyDeltasAndCreateMissingRows() {
+        // Given
+        when(studentTermTranscriptRepository.findStudentIdsBySemesterIdAndStudentIdIn(eq(1L), anyCollection()))
+                .thenReturn(Arrays.asList(1L));
+        when(studentTranscriptRepository.findStudentIdsByStudentIdIn(anyCollection()))
+                .thenReturn(Arrays.asList(1L, 2L));
+
+        // When: sinh viên 1 sửa từ 6.0 (C, 2.3) lên 9.0 (A, 4.0), sinh viên 2 có điểm mới 3.0 (F)
+        transcriptService.applyGradeChanges(1L,
+                Arrays.asList(grade(1L, 6.0f)),
+                Arrays.asList(grade(1L, 9.0f), grade(2L, 3.0f)));
+
+        // Then
+        verify(studentTermTranscriptRepository).applyDelta(eq(1L), eq(List.of(1L)), eq(0), eq(0), eq(51));
+        ArgumentCaptor<List<StudentTermTranscript>> created = ArgumentCaptor.forClass(List.class);
+        verify(studentTermTranscriptRepository).saveAll(created.capture());
+        assertEquals(1, created.getValue().size());
+        StudentTermTranscript term = created.getValue().get(0);
+        assertEquals(2L, term.getStudentId());
+        assertEquals(3, term.getCreditsAttempted());
+        assertEquals(0, term.getCreditsEarned());
+        assertEquals(0, term.getGradePoints());
+
+        verify(studentTranscriptRepository).applyDelta(eq(List.of(1L)), eq(0), eq(0), eq(51));
+        verify(studentTranscriptRepository).applyDelta(eq(List.of(2L)), eq(3), eq(0), eq(0));
+        verify(studentTranscriptRepository, never()).saveAll(anyList());
+    }
+
+    @Test
+    void applyGradeChanges_WithSameTotal_ShouldNotWrite() {
+        // When
+        transcriptService.applyGradeChanges(1L,
+                Arrays.asList(grade(1L, 8.0f)),
+                Arrays.asList(grade(1L, 8.2f)));
+
+        // Then
+        verifyNoInteractions(studentTermTranscriptRepository, studentTranscriptRepository);
+    }
+
+    @Test
+    void getSummary_ShouldReadTranscriptRows() {
+        // Given
+        when(studentTranscriptRepository.findByStudentId(1L))
+                .thenReturn(Optional.of(new StudentTranscript(1L, 1L, 6, 3, 120, null)));
+        when(studentTermTranscriptRepository.findByStudentIdOrderBySemesterId(1L)).thenReturn(Arrays.asList(
+                new StudentTermTranscript(1L, 1L, 1L, 3, 3, 120, null),
+                new StudentTermTranscript(2L, 1L, 2L, 3, 0, 0, null)));
+
+        // When
+        StudentGradeResponse.GPASummary result = transcriptService.getSummary(1L);
+
+        // Then
+        assertEquals(2.0, result.getGpa(), 1e-9);
+        assertEquals(6, result.getTotalCredits());
+        assertEquals(3, result.getCompletedCredits());
+        assertEquals(2, result.getTerms().size());
+        assertEquals(4.0, result.getTerms().get(0).getGpa(), 1e-9);
+        assertEquals(0.0, result.getTerms().get(1).getGpa(), 1e-9);
+        verifyNoInteractions(gradeRepository);
+    }
+
+    @Test
+    void getSummary_WithoutGrades_ShouldReturnZero() {
+        // Given
+        when(studentTranscriptRepository.findByStudentId(1L)).thenReturn(Optional.empty());
+        when(studentTermTranscriptRepository.findByStudentIdOrderBySemesterId(1L)).thenReturn(new ArrayList<>());
+
+        // When
+        StudentGradeResponse.GPASummary result = transcriptService.getSummary(1L);
+
+        // Then
+        assertEquals(0.0, result.getGpa());
+        assertEquals(0, result.getTotalCredits());
+        assertTrue(result.getTerms().isEmpty());
+    }
+
+    @Test
+    void getSummaries_ShouldReadAllStudentsInTwoQueries() {
+        // Given
+        when(studentTranscriptRepository.findByStudentIdIn(List.of(1L, 2L, 3L))).thenReturn(Arrays.asList(
+                new StudentTranscript(1L, 1L, 6, 3, 120, null),
+                new StudentTranscript(2L, 2L, 3, 3, 90, null)));
+        when(studentTermTranscriptRepository.findByStudentIdInOrderByStudentIdAscSemesterIdAsc(List.of(1L, 2L, 3L)))
+                .thenReturn(Arrays.asList(
+                        new StudentTermTranscript(1L, 1L, 1L, 3, 3, 120, null),
+                        new StudentTermTranscript(2L, 1L, 2L, 3, 0, 0, null),
+                        new StudentTermTranscript(3L, 2L, 1L, 3, 3, 90, null)));
+
+        // When
+        Map<Long, StudentGradeResponse.GPASummary> result = transcriptService.getSummaries(List.of(1L, 2L, 3L));
+
+        // Then
+        assertEquals(2, result.size());
+        assertEquals(2.0, result.get(1L).getGpa(), 1e-9);
+        assertEquals(2, result.get(1L).getTerms().size());
+        assertEquals(3.0, result.get(2L).getGpa(), 1e-9);
+        assertEquals(1L, result.get(2L).getTerms().get(0).getSemesterId());
+        assertFalse(result.containsKey(3L));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void rebuildAll_ShouldBuildTranscriptsAcrossPartitions() {
+        // Given
+        List<TranscriptGradeRow> rows = Arrays.asList(
+                row(1L, 1L, 3, 9.0f),
+                row(1L, 1L, 2, 5.5f),
+                row(1L, 2L, 4, 3.0f),
+                row(2L, 1L, 3, 8.5f),
+                row(3L, 2L, null, 7.0f));
+        when(gradeRepository.streamTranscriptRows()).thenReturn(rows.stream());
+
+        // When
+        TranscriptRebuildResponse result = transcriptService.rebuildAll();
+
+        // Then
+        assertEquals(2, result.getStudentCount());
+        assertEquals(3, result.getTermCount());
+        assertEquals(5L, result.getGradeCount());
+
+        InOrder order = inOrder(studentTermTranscriptRepository, studentTranscriptRepository);
+        order.verify(studentTermTranscriptRepository).deleteAllTranscripts();
+        order.verify(studentTranscriptRepository).deleteAllTranscripts();
+
+        ArgumentCaptor<List<StudentTranscript>> transcripts = ArgumentCaptor.forClass(List.class);
+        verify(studentTranscriptRepository).saveAll(transcripts.capture());
+        Map<Long, StudentTranscript> byStudent = transcripts.getValue().stream()
+                .collect(Collectors.toMap(StudentTranscript::getStudentId, transcript -> transcript));
+        // 9.0 → 4.0 × 3, 5.5 → 2.3 × 2, 3.0 → 0 × 4
+        assertEquals(9, byStudent.get(1L).getCreditsAttempted());
+        assertEquals(5, byStudent.get(1L).getCreditsEarned());
+        assertEquals(166, byStudent.get(1L).getGradePoints());
+        assertEquals(111, byStudent.get(2L).getGradePoints());
+
+        ArgumentCaptor<List<StudentTermTranscript>> terms = ArgumentCaptor.forClass(List.class);
+        verify(studentTermTranscriptRepository).saveAll(terms.capture());
+        assertEquals(Set.of("1:1", "1:2", "2:1"), terms.getValue().stream()
+                .map(term -> term.getStudentId() + ":" + term.getSemesterId())
+                .collect(Collectors.toSet()));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void rebuildStudents_ShouldReplaceOnlyTheirRowsWithCurrentCredits() {
+        // Given: tín chỉ đã đổi từ 3 sang 4, sinh viên 2 không còn điểm nào
+        ReflectionTestUtils.setField(transcriptService, "partitionSize", 256);
+        when(gradeRepository.findTranscriptRowsByStudentIdIn(List.of(1L, 2L))).thenReturn(Arrays.asList(
+                row(1L, 1L, 4, 9.0f),
+                row(1L, 2L, 2, 3.0f)));
+
+        // When
+        transcriptService.rebuildStudents(Arrays.asList(1L, 2L, 1L));
+
+        // Then
+        InOrder order = inOrder(studentTermTranscriptRepository, studentTranscriptRepository);
+        order.verify(studentTermTranscriptRepository).deleteByStudentIdIn(List.of(1L, 2L));
+        order.verify(studentTranscriptRepository).deleteByStudentIdIn(List.of(1L, 2L));
+        ArgumentCaptor<List<StudentTranscript>> transcripts = ArgumentCaptor.forClass(List.class);
+        verify(studentTranscriptRepository).saveAll(transcripts.capture());
+        assertEquals(1, transcripts.getValue().size());
+        assertEquals(6, transcripts.getValue().get(0).getCreditsAttempted());
+        assertEquals(4, transcripts.getValue().get(0).getCreditsEarned());
+        assertEquals(160, transcripts.getValue().get(0).getGradePoints());
+        ArgumentCaptor<List<StudentTermTranscript>> terms = ArgumentCaptor.forClass(List.class);
+        verify(studentTermTranscriptRepository).saveAll(terms.capture());
+        assertEquals(2, terms.getValue().size());
+        verify(studentTranscriptRepository, never()).deleteAllTranscripts();
+    }
+}
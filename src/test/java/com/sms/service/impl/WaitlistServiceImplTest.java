@@ -0,0 +1,213 @@
+package com.sms.service.impl;
+
+import com.sms.dto.request.ClassRegistrationRequest;
+import com.sms.entity.ClassStudent;
+import com.sms.entity.Course;
+import com.sms.entity.Student;
+import com.sms.entity.WaitlistEntry;
+import com.sms.event.SeatReleasedEvent;
+import com.sms.repository.*;
+import com.sms.repository.projection.WaitlistPosition;
+import com.sms.service.SeatReservationService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class WaitlistServiceImplTest {
+
+    @Mock
+    private WaitlistEntryRepository waitlistEntryRepository;
+
+    @Mock
+    private CourseRepository courseRepository;
+
+    @Mock
+    private ClassStudentRepository classStudentRepository;
+
+    @Mock
+    private StudentRepository studentRepository;
+
+    @Mock
+    private SeatReservationService seatReservationService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @InjectMocks
+    private WaitlistServiceImpl waitlistService;
+
+    private ClassRegistrationRequest request;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(waitlistService, "promotionBatchSize", 50);
+
+        request = new ClassRegistrationRequest();
+        request.setClassId(1L);
+        request.setStudentId(1L);
+    }
+
+    private WaitlistPosition position(Long classId, long position) {
+        return new WaitlistPosition() {
+            public Long getClassId() { return classId; }
+            public Long getPosition() { return position; }
+        };
+    }
+
+    private WaitlistEntry entry(Long studentId, long ticket) {
+        WaitlistEntry entry = new WaitlistEntry();
+        entry.setId(ticket);
+        entry.setClassId(1L);
+        entry.setStudentId(studentId);
+        entry.setTicket(ticket);
+        return entry;
+    }
+
+    @Test
+    void joinWaitlist_ShouldAllocateTicketAndReturnPosition() {
+        // Given
+        when(studentRepository.findById(1L)).thenReturn(Optional.of(new Student()));
+        when(courseRepository.findById(1L)).thenReturn(Optional.of(new Course()));
+        when(classStudentRepository.findByClassIdAndStudentId(1L, 1L)).thenReturn(Optional.empty());
+        when(waitlistEntryRepository.findPosition(1L, 1L))
+                .thenReturn(Optional.empty())
+                .thenReturn(Optional.of(position(1L, 3)));
+        when(courseRepository.findWaitlistTail(1L)).thenReturn(7L);
+        when(seatReservationService.getAvailableSeats(1L)).thenReturn(0);
+
+        // When
+        Integer result = waitlistService.joinWaitlist(request);
+
+        // Then
+        assertEquals(3, result);
+        verify(courseRepository).incrementWaitlistTail(1L);
+        verify(waitlistEntryRepository).save(argThat(entry -> entry.getTicket() == 7L));
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    void joinWaitlist_WhenAlreadyRegistered_ShouldThrowException() {
+        // Given
+        when(studentRepository.findById(1L)).thenReturn(Optional.of(new Student()));
+        when(courseRepository.findById(1L)).thenReturn(Optional.of(new Course()));
+        when(classStudentRepository.findByClassIdAndStudentId(1L, 1L)).thenReturn(Optional.of(new ClassStudent()));
+
+        // When & Then
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> {
+            waitlistService.joinWaitlist(request);
+        });
+
+        assertEquals("Sinh viên đã đăng ký lớp này", exception.getMessage());
+        verify(courseRepository, never()).incrementWaitlistTail(anyLong());
+    }
+
+    @Test
+    void joinWaitlist_WhenSeatsAvailable_ShouldTriggerPromotion() {
+        // Given
+        when(studentRepository.findById(1L)).thenReturn(Optional.of(new Student()));
+        when(courseRepository.findById(1L)).thenReturn(Optional.of(new Course()));
+        when(classStudentRepository.findByClassIdAndStudentId(1L, 1L)).thenReturn(Optional.empty());
+        when(waitlistEntryRepository.findPosition(1L, 1L))
+                .thenReturn(Optional.empty())
+                .thenReturn(Optional.of(position(1L, 1)));
+        when(courseRepository.findWaitlistTail(1L)).thenReturn(1L);
+        when(seatReservationService.getAvailableSeats(1L)).thenReturn(2);
+
+        // When
+        waitlistService.joinWaitlist(request);
+
+        // Then
+        verify(eventPublisher).publishEvent(any(SeatReleasedEvent.class));
+    }
+
+    @Test
+    void leaveWaitlist_ShouldShiftLaterTickets() {
+        // Given
+        WaitlistEntry entry = entry(1L, 4L);
+        when(courseRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(new Course()));
+        when(waitlistEntryRepository.findByClassIdAndStudentId(1L, 1L)).thenReturn(Optional.of(entry));
+
+        // When
+        waitlistService.leaveWaitlist(1L, 1L);
+
+        // Then: ticket chỉ được đọc sau khi đã khóa dòng lớp
+        InOrder order = inOrder(courseRepository, waitlistEntryRepository);
+        order.verify(courseRepository).findByIdForUpdate(1L);
+        order.verify(waitlistEntryRepository).findByClassIdAndStudentId(1L, 1L);
+        order.verify(courseRepository).decrementWaitlistTail(1L);
+        verify(waitlistEntryRepository).delete(entry);
+        verify(waitlistEntryRepository).shiftTicketsAfter(1L, 4L);
+    }
+
+    @Test
+    void leaveWaitlist_WhenPromotedBeforeLock_ShouldThrowWithoutTouchingQueue() {
+        // Given: sinh viên vừa được chuyển vào lớp, ticket không còn khi đọc lại dưới khóa
+        when(courseRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(new Course()));
+        when(waitlistEntryRepository.findByClassIdAndStudentId(1L, 1L)).thenReturn(Optional.empty());
+
+        // When & Then
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> waitlistService.leaveWaitlist(1L, 1L));
+        assertEquals("Sinh viên không có trong hàng chờ của lớp này", exception.getMessage());
+        verify(courseRepository, never()).decrementWaitlistTail(any());
+        verify(waitlistEntryRepository, never()).shiftTicketsAfter(any(), any());
+    }
+
+    @Test
+    void promote_ShouldEnrollHeadOfQueueUpToAvailableSeats() {
+        // Given
+        List<WaitlistEntry> batch = Arrays.asList(entry(10L, 1L), entry(11L, 2L));
+        when(courseRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(new Course()));
+        when(seatReservationService.getAvailableSeats(1L)).thenReturn(2, 0);
+        when(waitlistEntryRepository.findHeadByClassId(eq(1L), any(Pageable.class))).thenReturn(batch);
+        when(classStudentRepository.findStudentIdsByClassIdAndStudentIdIn(eq(1L), anyCollection()))
+                .thenReturn(Collections.emptyList());
+        when(seatReservationService.tryReserve(1L)).thenReturn(true);
+
+        // When
+        int promoted = waitlistService.promote(1L);
+
+        // Then
+        assertEquals(2, promoted);
+        verify(classStudentRepository).saveAll(argThat(list -> ((List<?>) list).size() == 2));
+        verify(waitlistEntryRepository).deleteAllInBatch(batch);
+        verify(courseRepository).advanceWaitlistHead(1L, 2L);
+    }
+
+    @Test
+    void promote_WhenReserveFails_ShouldKeepRemainingEntriesQueued() {
+        // Given
+        List<WaitlistEntry> batch = Arrays.asList(entry(10L, 1L), entry(11L, 2L));
+        when(courseRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(new Course()));
+        when(seatReservationService.getAvailableSeats(1L)).thenReturn(2);
+        when(waitlistEntryRepository.findHeadByClassId(eq(1L), any(Pageable.class))).thenReturn(batch);
+        when(classStudentRepository.findStudentIdsByClassIdAndStudentIdIn(eq(1L), anyCollection()))
+                .thenReturn(Collections.emptyList());
+        when(seatReservationService.tryReserve(1L)).thenReturn(true, false);
+
+        // When
+        int promoted = waitlistService.promote(1L);
+
+        // Then
+        assertEquals(1, promoted);
+        verify(waitlistEntryRepository).deleteAllInBatch(batch.subList(0, 1));
+        verify(courseRepository).advanceWaitlistHead(1L, 1L);
+    }
+}